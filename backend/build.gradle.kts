@@ -55,4 +55,6 @@ dependencies {
 
 tasks.withType<Test> {
 	useJUnitPlatform()
+	// lseek(SEEK_DATA/SEEK_HOLE) for sparse file copies is called through the foreign function API.
+	jvmArgs("--enable-native-access=ALL-UNNAMED")
 }
@@ -0,0 +1,12 @@
+package com.manas.backend.common.exception;
+
+/**
+ * The request conflicts with the current state of the target resource, e.g. a stale upload offset.
+ */
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.manas.backend.context.file.application.port.in;
+
+import java.util.UUID;
+
+public interface CopyFileUseCase {
+
+    void copyFile(String sourcePath, String destinationPath, UUID userId);
+
+}
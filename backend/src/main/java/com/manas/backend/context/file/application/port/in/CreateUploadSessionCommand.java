@@ -0,0 +1,22 @@
+package com.manas.backend.context.file.application.port.in;
+
+import java.util.UUID;
+
+/**
+ * Command to start (or resume) a resumable upload.
+ *
+ * @param fileName        Original filename.
+ * @param targetDirectory Target logical directory path (e.g., "/documents").
+ * @param size            Total size of the file in bytes.
+ * @param userId          User ID performing the upload.
+ * @param checksumSha256  Optional expected SHA-256 checksum (hex) verified on completion.
+ */
+public record CreateUploadSessionCommand(
+        String fileName,
+        String targetDirectory,
+        long size,
+        UUID userId,
+        String checksumSha256
+) {
+
+}
@@ -0,0 +1,19 @@
+package com.manas.backend.context.file.application.port.in;
+
+import com.manas.backend.context.file.domain.ArchiveSource;
+import java.util.List;
+import java.util.UUID;
+
+public interface DownloadArchiveUseCase {
+
+    /**
+     * Validates the selection and records one audit event for the whole archive.
+     *
+     * @param paths Logical paths of files and directories; directories are included recursively.
+     * @throws SecurityException         if a path is outside allowed scope.
+     * @throws ResourceNotFoundException if a path does not exist.
+     * @throws IllegalArgumentException  if the selection is empty or includes the storage root.
+     */
+    ArchiveSource openArchive(List<String> paths, UUID userId, String clientIp);
+
+}
@@ -1,10 +1,23 @@
 package com.manas.backend.context.file.application.port.in;
 
+import com.manas.backend.context.file.domain.ByteRange;
 import com.manas.backend.context.file.domain.FileContent;
+import com.manas.backend.context.file.domain.FileMetadata;
 import java.util.UUID;
 
 public interface DownloadFileUseCase {
 
     FileContent download(String path, UUID userId, String clientIp);
 
+    /**
+     * Opens one byte range of a file. A download served as many range requests (seeking, resuming) is audited
+     * once: on its first request for this user and file version, whatever its offset, and again only after a
+     * pause longer than {@code app.audit.download-window}.
+     *
+     * @param entityTag Version of the file the range belongs to, from {@link #getMetadata}.
+     */
+    FileContent downloadRange(String path, UUID userId, String clientIp, ByteRange range, String entityTag);
+
+    FileMetadata getMetadata(String path, UUID userId);
+
 }
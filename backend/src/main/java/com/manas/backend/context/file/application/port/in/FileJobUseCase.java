@@ -0,0 +1,39 @@
+package com.manas.backend.context.file.application.port.in;
+
+import com.manas.backend.context.file.domain.FileJob;
+import com.manas.backend.context.file.domain.FileJobItem;
+import java.util.List;
+import java.util.UUID;
+
+public interface FileJobUseCase {
+
+    /**
+     * Stores the job and queues it. It starts once the volumes it touches have a free slot.
+     */
+    FileJob submit(SubmitFileJobCommand command);
+
+    /**
+     * Returns the job with its latest progress.
+     *
+     * @throws com.manas.backend.common.exception.ResourceNotFoundException if the job does not exist or belongs
+     *                                                                      to another user.
+     */
+    FileJob getJob(UUID jobId, UUID userId);
+
+    /**
+     * Most recent jobs of the user, newest first.
+     */
+    List<FileJob> listJobs(UUID userId);
+
+    /**
+     * Per-path state of the job, in submission order.
+     */
+    List<FileJobItem> getItems(UUID jobId, UUID userId);
+
+    /**
+     * Cancels a queued job at once, or stops a running job within its current copy or move. Finished jobs are returned
+     * unchanged.
+     */
+    FileJob cancel(UUID jobId, UUID userId);
+
+}
@@ -4,5 +4,9 @@ public enum FileListSort {
     NAME_ASC,
     NAME_DESC,
     MODIFIED_DESC,
-    MODIFIED_ASC
+    MODIFIED_ASC,
+    SIZE_DESC,
+    SIZE_ASC,
+    EXTENSION_ASC,
+    EXTENSION_DESC
 }
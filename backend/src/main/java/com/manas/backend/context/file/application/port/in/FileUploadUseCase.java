@@ -1,12 +1,40 @@
 package com.manas.backend.context.file.application.port.in;
 
+import com.manas.backend.context.file.domain.StoredFile;
+import java.util.Optional;
+import java.util.UUID;
+
 public interface FileUploadUseCase {
 
     /**
      * Uploads a file to the system.
      *
      * @param command The upload command containing file details and content.
+     * @return The stored file, including the SHA-256 computed while it was written.
+     * @throws IllegalArgumentException if the content does not match the declared size or checksum.
+     */
+    StoredFile upload(FileUploadCommand command);
+
+    /**
+     * Chooses the nonce and byte range the client has to hash for an instant upload of the given content. A
+     * challenge is issued whether or not the content is stored, so it reveals nothing about other users' files.
+     *
+     * @param checksumSha256 SHA-256 checksum (hex) of the content.
+     * @param size           Size of the content in bytes.
+     * @param userId         User ID performing the upload.
+     * @throws IllegalArgumentException if the checksum is missing or the size is negative.
+     */
+    InstantUploadChallenge challengeExisting(String checksumSha256, long size, UUID userId);
+
+    /**
+     * Stores a file without receiving its content, if content with the given checksum and size is already
+     * stored and the proof matches the challenge nonce and range of it. The client uploads normally when this
+     * returns empty.
+     *
+     * @param command The upload command identifying the content by checksum.
+     * @return The stored file, or empty if the content is not known or the proof does not match.
+     * @throws IllegalArgumentException if the challenge is unknown, expired, used or issued for other content.
      */
-    void upload(FileUploadCommand command);
+    Optional<StoredFile> uploadExisting(InstantUploadCommand command);
 
 }
@@ -1,6 +1,7 @@
 package com.manas.backend.context.file.application.port.in;
 
 import com.manas.backend.context.file.domain.FileContent;
+import com.manas.backend.context.file.domain.FileMetadata;
 import java.util.UUID;
 
 public interface GetFilePreviewUseCase {
@@ -14,4 +15,25 @@ public interface GetFilePreviewUseCase {
      */
     FileContent getPreview(String path, UUID userId);
 
+    /**
+     * Retrieves a preview for a file whose metadata the caller has just read with {@link #getSourceMetadata},
+     * saving a second metadata read.
+     *
+     * @param path           Logical path to the file.
+     * @param userId         User requesting the preview.
+     * @param sourceMetadata Current metadata of the file.
+     * @return FileContent of the preview.
+     */
+    FileContent getPreview(String path, UUID userId, FileMetadata sourceMetadata);
+
+    /**
+     * Reads metadata of the original file without generating or opening the preview. A preview only changes
+     * when its source does, so the source version serves as the preview's validator.
+     *
+     * @param path   Logical path to the file.
+     * @param userId User requesting the preview.
+     * @return Metadata of the source file.
+     */
+    FileMetadata getSourceMetadata(String path, UUID userId);
+
 }
@@ -0,0 +1,19 @@
+package com.manas.backend.context.file.application.port.in;
+
+/**
+ * A byte range of the content, chosen by the server, that the client hashes after a one-time nonce and sends
+ * with an instant upload to show that it has the content and not only its checksum.
+ *
+ * @param id     Identifier to send back with the proof; valid for one attempt.
+ * @param nonce  Hex bytes to hash before the range, so the proof cannot be derived from the checksum.
+ * @param offset First byte of the range.
+ * @param length Bytes in the range; 0 for empty content.
+ */
+public record InstantUploadChallenge(
+        String id,
+        String nonce,
+        long offset,
+        long length
+) {
+
+}
@@ -0,0 +1,26 @@
+package com.manas.backend.context.file.application.port.in;
+
+import java.util.UUID;
+
+/**
+ * Command to store a file from content the server already has, identified by its checksum.
+ *
+ * @param fileName        Original filename.
+ * @param targetDirectory Target logical directory path (e.g., "/documents").
+ * @param size            Size of the file in bytes.
+ * @param userId          User ID performing the upload.
+ * @param checksumSha256  SHA-256 checksum (hex) of the content.
+ * @param challengeId     Id of the {@link InstantUploadChallenge} issued for this content.
+ * @param proofSha256     SHA-256 (hex) of the byte range named by the challenge.
+ */
+public record InstantUploadCommand(
+        String fileName,
+        String targetDirectory,
+        long size,
+        UUID userId,
+        String checksumSha256,
+        String challengeId,
+        String proofSha256
+) {
+
+}
@@ -7,6 +7,7 @@ public record ListDirectoryQuery(
         UUID userId,
         int offset,
         int limit,
-        FileListSort sort
+        FileListSort sort,
+        String cursor
 ) {
 }
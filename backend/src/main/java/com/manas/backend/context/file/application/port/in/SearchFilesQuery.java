@@ -0,0 +1,11 @@
+package com.manas.backend.context.file.application.port.in;
+
+import java.util.UUID;
+
+public record SearchFilesQuery(
+        String query,
+        UUID userId,
+        int offset,
+        int limit
+) {
+}
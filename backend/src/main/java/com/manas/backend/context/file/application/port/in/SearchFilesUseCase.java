@@ -0,0 +1,7 @@
+package com.manas.backend.context.file.application.port.in;
+
+import com.manas.backend.context.file.domain.FileSearchResult;
+
+public interface SearchFilesUseCase {
+    FileSearchResult search(SearchFilesQuery query);
+}
@@ -0,0 +1,14 @@
+package com.manas.backend.context.file.application.port.in;
+
+import com.manas.backend.context.file.domain.FileNode;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface StreamDirectoryUseCase {
+
+    /**
+     * Lazily streams the entries of a directory in file system order, without sorting or paging.
+     * The caller must close the returned stream.
+     */
+    Stream<FileNode> streamDirectory(String path, UUID userId);
+}
@@ -0,0 +1,22 @@
+package com.manas.backend.context.file.application.port.in;
+
+import com.manas.backend.context.file.domain.FileJobType;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Command to run a file operation in the background.
+ *
+ * @param type        Operation to perform on every source path.
+ * @param sourcePaths Logical paths of the selected files and directories.
+ * @param destination Target directory for moves; each source keeps its name. Ignored for deletes.
+ * @param userId      User ID submitting the job.
+ */
+public record SubmitFileJobCommand(
+        FileJobType type,
+        List<String> sourcePaths,
+        String destination,
+        UUID userId
+) {
+
+}
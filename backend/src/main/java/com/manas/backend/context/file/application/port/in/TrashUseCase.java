@@ -0,0 +1,30 @@
+package com.manas.backend.context.file.application.port.in;
+
+import com.manas.backend.context.file.domain.TrashedEntry;
+import java.util.List;
+import java.util.UUID;
+
+public interface TrashUseCase {
+
+    List<TrashedEntry> listTrash();
+
+    /**
+     * Restores a deleted entry to the path it was deleted from.
+     *
+     * @return The restored entry.
+     */
+    TrashedEntry restore(String id, UUID userId);
+
+    /**
+     * Deletes an entry and its data permanently.
+     */
+    void purge(String id, UUID userId);
+
+    /**
+     * Starts purging every entry in the background, oldest first.
+     *
+     * @throws com.manas.backend.common.exception.ConflictException if the trash is already being emptied.
+     */
+    void emptyTrash(UUID userId);
+
+}
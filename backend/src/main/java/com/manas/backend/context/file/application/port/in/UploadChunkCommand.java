@@ -0,0 +1,21 @@
+package com.manas.backend.context.file.application.port.in;
+
+import java.io.InputStream;
+import java.util.UUID;
+
+/**
+ * Command to append a chunk to a resumable upload.
+ *
+ * @param sessionId Upload session.
+ * @param userId    User ID owning the session.
+ * @param offset    Offset the chunk starts at; must equal the session's committed offset.
+ * @param content   Chunk bytes, read until end of stream.
+ */
+public record UploadChunkCommand(
+        UUID sessionId,
+        UUID userId,
+        long offset,
+        InputStream content
+) {
+
+}
@@ -0,0 +1,41 @@
+package com.manas.backend.context.file.application.port.in;
+
+import com.manas.backend.context.file.domain.UploadSession;
+import java.util.UUID;
+
+public interface UploadSessionUseCase {
+
+    /**
+     * Starts a resumable upload. If the same user already has an unexpired session for the same target and
+     * size, that session is returned so the client can continue from its committed offset.
+     *
+     * @throws com.manas.backend.common.exception.ConflictException if another upload targets the same path.
+     */
+    UploadSession create(CreateUploadSessionCommand command);
+
+    /**
+     * Returns the session, including the committed offset a client should resume from.
+     */
+    UploadSession getSession(UUID sessionId, UUID userId);
+
+    /**
+     * Appends a chunk at the committed offset and durably records the new offset.
+     *
+     * @throws com.manas.backend.common.exception.ConflictException if the offset is stale or another chunk
+     *                                                              is being written.
+     */
+    UploadSession appendChunk(UploadChunkCommand command);
+
+    /**
+     * Verifies and atomically moves the completed file into place.
+     *
+     * @return Logical path of the stored file.
+     */
+    String complete(UUID sessionId, UUID userId);
+
+    /**
+     * Discards the session and its partial file.
+     */
+    void abort(UUID sessionId, UUID userId);
+
+}
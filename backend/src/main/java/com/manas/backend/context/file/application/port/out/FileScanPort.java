@@ -0,0 +1,22 @@
+package com.manas.backend.context.file.application.port.out;
+
+import com.manas.backend.context.file.domain.FileNode;
+import java.time.Instant;
+import java.util.function.Predicate;
+
+/**
+ * Finds files that appeared in the storage without going through the application, e.g. copied over SMB.
+ */
+public interface FileScanPort {
+
+    /**
+     * Walks the whole storage for regular files added or modified at or after {@code since}. A file counts as
+     * added when it was created on this file system at or after {@code since}, so copies that keep their original
+     * modification time are found as well.
+     *
+     * @param since    Lower bound, inclusive.
+     * @param consumer Receives each file (with its content type as listed); returning false stops the walk.
+     * @return false if the consumer stopped the walk.
+     */
+    boolean scanChangedSince(Instant since, Predicate<FileNode> consumer);
+}
@@ -0,0 +1,16 @@
+package com.manas.backend.context.file.application.port.out;
+
+import com.manas.backend.context.file.domain.FileSearchResult;
+
+public interface FileSearchPort {
+
+    /**
+     * Finds files and directories whose names match the query, best matches first.
+     *
+     * @param query  Case-insensitive search text; whitespace or '/' separated terms must all match the path.
+     * @param offset Number of ranked results to skip.
+     * @param limit  Maximum number of results to return.
+     * @return FileSearchResult with the total number of matches.
+     */
+    FileSearchResult search(String query, int offset, int limit);
+}
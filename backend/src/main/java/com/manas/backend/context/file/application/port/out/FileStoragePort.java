@@ -1,23 +1,55 @@
 package com.manas.backend.context.file.application.port.out;
 
 import com.manas.backend.context.file.application.port.in.FileListSort;
+import com.manas.backend.context.file.domain.ArchiveSource;
+import com.manas.backend.context.file.domain.ByteRange;
 import com.manas.backend.context.file.domain.DirectoryListing;
 import com.manas.backend.context.file.domain.FileContent;
+import com.manas.backend.context.file.domain.FileMetadata;
+import com.manas.backend.context.file.domain.FileNode;
+import com.manas.backend.context.file.domain.StoredFile;
+import com.manas.backend.context.file.domain.TransferProgress;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface FileStoragePort {
     /**
      * Lists files in the specified path.
      * @param path Absolute path or relative to root.
      * @param userId Optional user ID to root the view (if applicable).
+     * @param cursor Optional opaque cursor from a previous page's {@code nextCursor}; takes precedence over offset.
      * @return DirectoryListing domain object.
      * @throws SecurityException if path is outside allowed scope.
-     * @throws IllegalArgumentException if path is invalid.
+     * @throws IllegalArgumentException if path or cursor is invalid.
      */
-    DirectoryListing listDirectory(String path, UUID userId, int offset, int limit, FileListSort sort);
+    DirectoryListing listDirectory(String path, UUID userId, int offset, int limit, FileListSort sort, String cursor);
 
     /**
-     * Deletes a file or directory at the specified path.
+     * Streams the entries of a directory while it is being read, in file system order.
+     * The path is validated eagerly; the returned stream holds an open directory handle and must be closed.
+     *
+     * @param path   Logical path of the directory.
+     * @param userId Optional user ID.
+     * @throws SecurityException        if path is outside allowed scope.
+     * @throws IllegalArgumentException if path is not a directory.
+     */
+    Stream<FileNode> streamDirectory(String path, UUID userId);
+
+    /**
+     * Prepares a ZIP archive of the given files and directories. Paths are validated eagerly; the tree is
+     * walked and compressed only while the returned source is written.
+     *
+     * @param paths  Logical paths; directories are included recursively.
+     * @param userId Optional user ID.
+     * @throws SecurityException         if a path is outside allowed scope.
+     * @throws ResourceNotFoundException if a path does not exist.
+     */
+    ArchiveSource openArchive(List<String> paths, UUID userId);
+
+    /**
+     * Deletes a file or directory at the specified path. Unless the trash is disabled, the entry is moved into
+     * the trash of its volume (see {@link TrashPort}) and only purged later.
      * @param path Absolute path or relative to root.
      * @param userId Optional user ID for logging/permission check.
      * @throws SecurityException if path is outside allowed scope.
@@ -32,7 +64,47 @@ public interface FileStoragePort {
      * @param destinationPath Destination path.
      * @param userId          Optional user ID.
      */
-    void move(String sourcePath, String destinationPath, UUID userId);
+    default void move(String sourcePath, String destinationPath, UUID userId) {
+        move(sourcePath, destinationPath, userId, TransferProgress.NONE);
+    }
+
+    /**
+     * Moves a file or directory from source to destination. Within one volume this is a rename; between
+     * volumes the data is copied with checkpoints, and the source is deleted only once the copy is verified.
+     * Calling it again after an interrupted move between volumes resumes from the last checkpoint.
+     *
+     * @param sourcePath      Source path.
+     * @param destinationPath Destination path.
+     * @param userId          Optional user ID.
+     * @param progress        Receives the copied bytes of a move between volumes.
+     * @throws ResourceNotFoundException if the source does not exist.
+     * @throws IllegalArgumentException  if the destination already exists.
+     */
+    void move(String sourcePath, String destinationPath, UUID userId, TransferProgress progress);
+
+    /**
+     * Copies a file or directory from source to destination.
+     *
+     * @param sourcePath      Source path.
+     * @param destinationPath Destination path.
+     * @param userId          Optional user ID.
+     */
+    default void copy(String sourcePath, String destinationPath, UUID userId) {
+        copy(sourcePath, destinationPath, userId, TransferProgress.NONE);
+    }
+
+    /**
+     * Copies a file or directory tree from source to destination. Symbolic links are copied as links, and
+     * sparse files stay sparse. The copy appears at the destination only once it is complete.
+     *
+     * @param sourcePath      Source path.
+     * @param destinationPath Destination path.
+     * @param userId          Optional user ID.
+     * @param progress        Receives the copied bytes.
+     * @throws ResourceNotFoundException if the source does not exist.
+     * @throws IllegalArgumentException  if the destination already exists or lies inside the source.
+     */
+    void copy(String sourcePath, String destinationPath, UUID userId, TransferProgress progress);
 
     /**
      * Creates a directory at the specified path.
@@ -43,16 +115,35 @@ public interface FileStoragePort {
     void createDirectory(String path, UUID userId);
 
     /**
-     * Saves content to the specified path.
+     * Saves content to the specified path. The content is hashed while it is written to a temporary file next
+     * to the destination, which only becomes visible at {@code path} once the size and checksum match.
      *
-     * @param content InputStream of the file content.
-     * @param path    Logical path where the file should be saved.
-     * @param size    Size of the file in bytes.
-     * @param userId  User ID performing the upload.
+     * @param content        InputStream of the file content.
+     * @param path           Logical path where the file should be saved.
+     * @param size           Size of the file in bytes.
+     * @param userId         User ID performing the upload.
+     * @param expectedSha256 Optional lower-case hex SHA-256 the content must match; null skips verification.
+     * @return The stored file including the SHA-256 computed during the write.
      * @throws SecurityException        if path is outside allowed scope.
-     * @throws IllegalArgumentException if destination already exists or path is invalid.
+     * @throws IllegalArgumentException if destination already exists, path is invalid, or size or checksum
+     *                                  do not match.
      */
-    void save(java.io.InputStream content, String path, long size, UUID userId);
+    StoredFile save(java.io.InputStream content, String path, long size, UUID userId, String expectedSha256);
+
+    /**
+     * Saves a file whose content is already stored at {@code sourcePath}, without receiving it again. The new
+     * file shares the data of the existing one where the file system allows it (a reflink, or a hard link if
+     * enabled) and is copied on the server otherwise. Like {@link #save}, it only becomes visible once complete.
+     *
+     * @param sourcePath Logical path of a regular file with the wanted content.
+     * @param path       Logical path where the file should be saved.
+     * @param userId     User ID performing the upload.
+     * @param sha256     Lower-case hex SHA-256 of the content, as known to the caller.
+     * @return The stored file.
+     * @throws ResourceNotFoundException if the source does not exist.
+     * @throws IllegalArgumentException  if the source is a directory or the destination already exists.
+     */
+    StoredFile saveDuplicate(String sourcePath, String path, UUID userId, String sha256);
 
     /**
      * Retrieves file content from the specified path.
@@ -65,6 +156,25 @@ public interface FileStoragePort {
      */
     FileContent retrieve(String path, UUID userId);
 
+    /**
+     * Retrieves a byte range of a file using positional reads. The range is clamped to the end of the file;
+     * the returned {@link FileContent#size()} is the number of bytes in the range.
+     *
+     * @param path   Logical path to the file.
+     * @param userId User ID performing the download.
+     * @param range  Requested range.
+     * @throws IllegalArgumentException if the file does not exist, is a directory, or the range starts
+     *                                  beyond its end.
+     */
+    FileContent retrieveRange(String path, UUID userId, ByteRange range);
+
+    /**
+     * Reads metadata of a regular file without opening it.
+     *
+     * @throws IllegalArgumentException if path is a directory.
+     */
+    FileMetadata getMetadata(String path, UUID userId);
+
     /**
      * Returns whether the target path exists.
      */
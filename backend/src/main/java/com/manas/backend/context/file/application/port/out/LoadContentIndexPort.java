@@ -0,0 +1,10 @@
+package com.manas.backend.context.file.application.port.out;
+
+import com.manas.backend.context.file.domain.IndexedContent;
+import java.util.Optional;
+
+public interface LoadContentIndexPort {
+
+    Optional<IndexedContent> findBySha256(String sha256);
+
+}
@@ -0,0 +1,22 @@
+package com.manas.backend.context.file.application.port.out;
+
+import com.manas.backend.context.file.domain.FileJob;
+import com.manas.backend.context.file.domain.FileJobItem;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface LoadFileJobPort {
+
+    Optional<FileJob> findById(UUID jobId);
+
+    List<FileJob> findRecentByUser(UUID userId, int limit);
+
+    /**
+     * Jobs that were queued or running, e.g. when the application stopped.
+     */
+    List<FileJob> findUnfinished();
+
+    List<FileJobItem> findItems(UUID jobId);
+
+}
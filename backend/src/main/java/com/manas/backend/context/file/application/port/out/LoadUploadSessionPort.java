@@ -0,0 +1,17 @@
+package com.manas.backend.context.file.application.port.out;
+
+import com.manas.backend.context.file.domain.UploadSession;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface LoadUploadSessionPort {
+
+    Optional<UploadSession> findById(UUID sessionId);
+
+    Optional<UploadSession> findByTargetPath(String targetPath);
+
+    List<UploadSession> findExpired(Instant now);
+
+}
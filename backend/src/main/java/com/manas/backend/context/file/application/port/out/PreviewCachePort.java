@@ -0,0 +1,29 @@
+package com.manas.backend.context.file.application.port.out;
+
+import com.manas.backend.context.file.domain.FileContent;
+
+/**
+ * Bounded store of generated previews (JPEG, see {@link PreviewGeneratorPort}) that survives restarts. Entries
+ * beyond the configured budget are evicted, so a key must identify the version of its source.
+ */
+public interface PreviewCachePort {
+
+    /**
+     * Returns the cached preview as {@code image/jpeg}, or null if it is not cached.
+     */
+    FileContent get(String key);
+
+    /**
+     * Returns whether a preview is cached, without counting as an access.
+     */
+    boolean contains(String key);
+
+    /**
+     * Stores a preview, replacing an existing one with the same key. Failures are logged, not thrown; the
+     * preview is generated again on the next request.
+     *
+     * @param key     Lower-case hex key of at least four characters.
+     * @param preview Encoded JPEG.
+     */
+    void put(String key, byte[] preview);
+}
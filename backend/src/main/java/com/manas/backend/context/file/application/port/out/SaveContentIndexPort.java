@@ -0,0 +1,28 @@
+package com.manas.backend.context.file.application.port.out;
+
+import com.manas.backend.context.file.domain.IndexedContent;
+
+public interface SaveContentIndexPort {
+
+    /**
+     * Indexes the content unless its hash already points to a file; the first file stays the canonical copy.
+     */
+    void registerIfAbsent(IndexedContent content);
+
+    void delete(String sha256);
+
+    /**
+     * Removes the entries of {@code path} and of everything below it.
+     *
+     * @return number of entries removed
+     */
+    int deleteUnder(String path);
+
+    /**
+     * Rewrites the entries of {@code sourcePath} and of everything below it to {@code destinationPath}.
+     *
+     * @return number of entries moved
+     */
+    int moveUnder(String sourcePath, String destinationPath);
+
+}
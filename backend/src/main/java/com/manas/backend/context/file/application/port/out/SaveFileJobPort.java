@@ -0,0 +1,24 @@
+package com.manas.backend.context.file.application.port.out;
+
+import com.manas.backend.context.file.domain.FileJob;
+import com.manas.backend.context.file.domain.FileJobItem;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public interface SaveFileJobPort {
+
+    void save(FileJob job);
+
+    void saveItems(UUID jobId, List<FileJobItem> items);
+
+    void saveItem(UUID jobId, FileJobItem item);
+
+    /**
+     * Deletes jobs (and their items) that finished before {@code cutoff}.
+     *
+     * @return Number of jobs deleted.
+     */
+    int deleteFinishedBefore(Instant cutoff);
+
+}
@@ -0,0 +1,12 @@
+package com.manas.backend.context.file.application.port.out;
+
+import com.manas.backend.context.file.domain.UploadSession;
+import java.util.UUID;
+
+public interface SaveUploadSessionPort {
+
+    void save(UploadSession session);
+
+    void delete(UUID sessionId);
+
+}
@@ -0,0 +1,40 @@
+package com.manas.backend.context.file.application.port.out;
+
+import com.manas.backend.context.file.domain.TrashedEntry;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Access to the per-volume trash that {@link FileStoragePort#delete} moves entries into.
+ */
+public interface TrashPort {
+
+    /**
+     * Lists the entries in the trash of every volume, including entries whose record or data is incomplete.
+     */
+    List<TrashedEntry> listTrash();
+
+    /**
+     * Moves an entry back to the path it was deleted from.
+     *
+     * @return The restored entry.
+     * @throws com.manas.backend.common.exception.ResourceNotFoundException if the entry does not exist.
+     * @throws IllegalArgumentException if the original path exists again or is unknown.
+     */
+    TrashedEntry restore(String id, UUID userId);
+
+    /**
+     * Deletes an entry and its data permanently. Runs with a lower file system parallelism than requests.
+     *
+     * @throws com.manas.backend.common.exception.ResourceNotFoundException if the entry does not exist.
+     */
+    void purge(String id);
+
+    /**
+     * Bytes available to the application on the file system of a volume.
+     *
+     * @param volume Logical path of the volume, as in {@link TrashedEntry#volume()}.
+     */
+    long getAvailableSpace(String volume);
+
+}
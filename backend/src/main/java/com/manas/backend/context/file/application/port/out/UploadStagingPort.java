@@ -0,0 +1,46 @@
+package com.manas.backend.context.file.application.port.out;
+
+import java.io.InputStream;
+import java.util.UUID;
+
+/**
+ * Storage of partial files for resumable uploads. A partial file lives next to its target so that completing
+ * the upload is a rename within one file system.
+ */
+public interface UploadStagingPort {
+
+    /**
+     * Creates the empty partial file for a session.
+     *
+     * @throws IllegalArgumentException if the target already exists.
+     */
+    void createPartial(String targetPath, UUID sessionId);
+
+    /**
+     * Writes the stream at {@code offset} and forces it to disk. Bytes beyond {@code offset} left by an
+     * interrupted chunk are discarded first.
+     *
+     * @param maxLength Maximum number of bytes the stream may contain.
+     * @return The new committed size of the partial file.
+     * @throws IllegalArgumentException if the stream holds more than {@code maxLength} bytes.
+     */
+    long appendPartial(String targetPath, UUID sessionId, long offset, InputStream content, long maxLength);
+
+    /**
+     * Opens the partial file for reading, e.g. to verify a checksum.
+     */
+    InputStream openPartial(String targetPath, UUID sessionId);
+
+    /**
+     * Atomically renames the partial file to its target.
+     *
+     * @throws IllegalArgumentException if the target already exists.
+     */
+    void commitPartial(String targetPath, UUID sessionId, UUID userId);
+
+    /**
+     * Deletes the partial file if present.
+     */
+    void deletePartial(String targetPath, UUID sessionId);
+
+}
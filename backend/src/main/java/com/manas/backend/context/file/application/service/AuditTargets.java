@@ -0,0 +1,46 @@
+package com.manas.backend.context.file.application.service;
+
+import java.util.List;
+
+/**
+ * Formats audit entries that cover several paths.
+ */
+final class AuditTargets {
+
+    /**
+     * Length of {@code audit_logs.target_resource}.
+     */
+    private static final int MAX_LENGTH = 255;
+
+    private AuditTargets() {
+    }
+
+    /**
+     * First path plus the number of others, cut to fit the column.
+     */
+    static String summarize(List<String> paths) {
+        String target = paths.size() == 1
+                ? paths.getFirst()
+                : paths.getFirst() + " (+" + (paths.size() - 1) + " more)";
+        return target.length() <= MAX_LENGTH
+                ? target
+                : target.substring(0, MAX_LENGTH - 3) + "...";
+    }
+
+    /**
+     * One line of the details of a batch entry, e.g. {@code FAILED /photos: Permission denied}.
+     */
+    static String outcome(String outcome, String path, String reason) {
+        return reason == null ? outcome + " " + path : outcome + " " + path + ": " + reason;
+    }
+
+    /**
+     * {@code SUCCESS} when every path succeeded, {@code FAILURE} when none did, {@code PARTIAL} otherwise.
+     */
+    static String batchStatus(int succeeded, int failed) {
+        if (failed == 0) {
+            return "SUCCESS";
+        }
+        return succeeded == 0 ? "FAILURE" : "PARTIAL";
+    }
+}
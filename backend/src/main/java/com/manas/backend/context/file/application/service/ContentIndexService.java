@@ -0,0 +1,84 @@
+package com.manas.backend.context.file.application.service;
+
+import com.manas.backend.context.file.application.port.out.FileStoragePort;
+import com.manas.backend.context.file.application.port.out.SaveContentIndexPort;
+import com.manas.backend.context.file.domain.IndexedContent;
+import com.manas.backend.context.file.domain.event.FileDeletedEvent;
+import com.manas.backend.context.file.domain.event.FileDeletionFailedEvent;
+import com.manas.backend.context.file.domain.event.FileMovedEvent;
+import com.manas.backend.context.file.domain.event.FileUploadedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the content index in step with uploads, deletes and moves.
+ * <p>
+ * The index is an optimization: a failed update is logged, never passed on to the operation that caused it.
+ * Entries that fall behind (a change outside the application, or a missed event) are detected by their entity
+ * tag when used and dropped then.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ContentIndexService {
+
+    private final FileStoragePort fileStoragePort;
+    private final SaveContentIndexPort saveContentIndexPort;
+
+    @EventListener
+    public void onFileUploaded(FileUploadedEvent event) {
+        if (event.sha256() == null) {
+            return;
+        }
+        String path = normalize(event.filePath());
+        try {
+            String entityTag = fileStoragePort.getMetadata(path, event.userId()).entityTag();
+            saveContentIndexPort.registerIfAbsent(new IndexedContent(event.sha256(), path, event.size(), entityTag));
+        } catch (RuntimeException e) {
+            log.warn("Could not index the content of {}", path, e);
+        }
+    }
+
+    @EventListener
+    public void onFileDeleted(FileDeletedEvent event) {
+        String path = normalize(event.filePath());
+        try {
+            int removed = saveContentIndexPort.deleteUnder(path);
+            log.debug("Removed {} content index entries under {}", removed, path);
+        } catch (RuntimeException e) {
+            log.warn("Could not remove content index entries under {}", path, e);
+        }
+    }
+
+    /**
+     * Files left by a failed delete lose their entries too; they are indexed again when uploaded.
+     */
+    @EventListener
+    public void onFileDeletionFailed(FileDeletionFailedEvent event) {
+        onFileDeleted(new FileDeletedEvent(event.userId(), event.filePath(), event.timestamp()));
+    }
+
+    @EventListener
+    public void onFileMoved(FileMovedEvent event) {
+        String source = normalize(event.sourcePath());
+        String destination = normalize(event.destinationPath());
+        try {
+            int moved = saveContentIndexPort.moveUnder(source, destination);
+            log.debug("Moved {} content index entries from {} to {}", moved, source, destination);
+        } catch (RuntimeException e) {
+            log.warn("Could not move content index entries from {} to {}", source, destination, e);
+        }
+    }
+
+    /**
+     * Logical paths arrive as the client sent them; the index and upload sessions store them as {@code /a/b}.
+     */
+    static String normalize(String path) {
+        String normalized = ("/" + path).replaceAll("/{2,}", "/");
+        return normalized.length() > 1 && normalized.endsWith("/")
+                ? normalized.substring(0, normalized.length() - 1)
+                : normalized;
+    }
+}
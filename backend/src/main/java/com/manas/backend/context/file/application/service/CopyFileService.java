@@ -0,0 +1,38 @@
+package com.manas.backend.context.file.application.service;
+
+import com.manas.backend.context.file.application.port.in.CopyFileUseCase;
+import com.manas.backend.context.file.application.port.out.FileStoragePort;
+import com.manas.backend.context.file.domain.event.FileCopiedEvent;
+import com.manas.backend.context.system.application.port.in.RecordAuditLogUseCase;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CopyFileService implements CopyFileUseCase {
+
+    private final FileStoragePort fileStoragePort;
+    private final RecordAuditLogUseCase recordAuditLogUseCase;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void copyFile(String sourcePath, String destinationPath, UUID userId) {
+        log.info("User {} requested copy: {} -> {}", userId, sourcePath, destinationPath);
+        String targetInfo = sourcePath + " -> " + destinationPath;
+        try {
+            fileStoragePort.copy(sourcePath, destinationPath, userId);
+            eventPublisher.publishEvent(new FileCopiedEvent(userId, sourcePath, destinationPath, Instant.now()));
+            recordAuditLogUseCase.record(userId, "COPY_FILE", targetInfo, "N/A", "SUCCESS");
+        } catch (RuntimeException e) {
+            log.error("Failed to copy file: {}", targetInfo, e);
+            recordAuditLogUseCase.record(userId, "COPY_FILE", targetInfo, "N/A", "FAILURE");
+            throw e;
+        }
+    }
+
+}
@@ -2,10 +2,13 @@ package com.manas.backend.context.file.application.service;
 
 import com.manas.backend.context.file.application.port.in.CreateDirectoryUseCase;
 import com.manas.backend.context.file.application.port.out.FileStoragePort;
+import com.manas.backend.context.file.domain.event.DirectoryCreatedEvent;
 import com.manas.backend.context.system.application.port.in.RecordAuditLogUseCase;
+import java.time.Instant;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 @Slf4j
@@ -15,6 +18,7 @@ public class CreateDirectoryService implements CreateDirectoryUseCase {
 
     private final FileStoragePort fileStoragePort;
     private final RecordAuditLogUseCase recordAuditLogUseCase;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public void createDirectory(String parentPath, String name, UUID userId) {
@@ -36,6 +40,7 @@ public class CreateDirectoryService implements CreateDirectoryUseCase {
 
         try {
             fileStoragePort.createDirectory(targetPath, userId);
+            eventPublisher.publishEvent(new DirectoryCreatedEvent(userId, targetPath, Instant.now()));
             recordAuditLogUseCase.record(userId, "CREATE_DIRECTORY", targetPath, "N/A", "SUCCESS");
             log.info("User {} created directory: {}", userId, targetPath);
         } catch (RuntimeException e) {
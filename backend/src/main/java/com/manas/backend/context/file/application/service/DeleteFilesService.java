@@ -1,14 +1,22 @@
 package com.manas.backend.context.file.application.service;
 
+import com.manas.backend.common.exception.FileOperationException;
 import com.manas.backend.context.file.application.port.in.DeleteFilesResult;
 import com.manas.backend.context.file.application.port.in.DeleteFilesUseCase;
 import com.manas.backend.context.file.application.port.out.FileStoragePort;
+import com.manas.backend.context.file.domain.event.FileDeletedEvent;
+import com.manas.backend.context.file.domain.event.FileDeletionFailedEvent;
 import com.manas.backend.context.system.application.port.in.RecordAuditLogUseCase;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 @Slf4j
@@ -18,26 +26,50 @@ public class DeleteFilesService implements DeleteFilesUseCase {
 
     private final FileStoragePort fileStoragePort;
     private final RecordAuditLogUseCase recordAuditLogUseCase;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public DeleteFilesResult deleteFiles(List<String> paths, UUID userId) {
         log.info("User {} requested deletion of {} files", userId, paths.size());
 
+        // Paths inside another selected directory go with it; deleting them separately would only race.
+        List<String> roots = SelectedPaths.roots(paths);
+        Map<String, String> failures = new HashMap<>();
+        for (String root : roots) {
+            try {
+                fileStoragePort.delete(root, userId);
+                eventPublisher.publishEvent(new FileDeletedEvent(userId, root, Instant.now()));
+            } catch (FileOperationException e) {
+                // The storage failed part way through the tree, so some entries below the root may be gone.
+                log.error("Failed to delete file: {}", root, e);
+                failures.put(root, e.getMessage());
+                eventPublisher.publishEvent(new FileDeletionFailedEvent(userId, root, Instant.now()));
+            } catch (RuntimeException e) {
+                log.error("Failed to delete file: {}", root, e);
+                failures.put(root, e.getMessage());
+            }
+        }
+
         List<String> deleted = new ArrayList<>();
         List<DeleteFilesResult.DeleteFailure> failed = new ArrayList<>();
-
         for (String path : paths) {
-            try {
-                fileStoragePort.delete(path, userId);
-                recordAuditLogUseCase.record(userId, "DELETE_FILE", path, "N/A", "SUCCESS");
+            String root = Objects.requireNonNullElse(SelectedPaths.owningRoot(path, roots), path);
+            if (failures.containsKey(root)) {
+                failed.add(new DeleteFilesResult.DeleteFailure(path, failures.get(root)));
+            } else {
                 deleted.add(path);
-            } catch (RuntimeException e) {
-                log.error("Failed to delete file: {}", path, e);
-                recordAuditLogUseCase.record(userId, "DELETE_FILE", path, "N/A", "FAILURE");
-                failed.add(new DeleteFilesResult.DeleteFailure(path, e.getMessage()));
             }
         }
 
+        // One audit entry per request, however many paths or tree entries it removed; the details name each path.
+        if (!paths.isEmpty()) {
+            List<String> details = new ArrayList<>();
+            deleted.forEach(path -> details.add(AuditTargets.outcome("DELETED", path, null)));
+            failed.forEach(failure -> details.add(AuditTargets.outcome("FAILED", failure.path(), failure.reason())));
+            recordAuditLogUseCase.record(userId, "DELETE_FILES", AuditTargets.summarize(paths), "N/A",
+                    AuditTargets.batchStatus(deleted.size(), failed.size()), String.join("\n", details));
+        }
+
         return new DeleteFilesResult(deleted, failed);
     }
 }
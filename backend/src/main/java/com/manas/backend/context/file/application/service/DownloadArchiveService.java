@@ -0,0 +1,35 @@
+package com.manas.backend.context.file.application.service;
+
+import com.manas.backend.context.file.application.port.in.DownloadArchiveUseCase;
+import com.manas.backend.context.file.application.port.out.FileStoragePort;
+import com.manas.backend.context.file.domain.ArchiveSource;
+import com.manas.backend.context.system.application.port.in.RecordAuditLogUseCase;
+import java.util.List;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DownloadArchiveService implements DownloadArchiveUseCase {
+
+    private final FileStoragePort fileStoragePort;
+    private final RecordAuditLogUseCase recordAuditLogUseCase;
+
+    @Override
+    public ArchiveSource openArchive(List<String> paths, UUID userId, String clientIp) {
+        if (paths == null || paths.isEmpty()) {
+            throw new IllegalArgumentException("At least one path is required");
+        }
+        log.info("Request to download archive of {} paths by user: {}", paths.size(), userId);
+
+        ArchiveSource source = fileStoragePort.openArchive(paths, userId);
+
+        // One audit entry per archive, however many files it contains.
+        recordAuditLogUseCase.record(userId, "DOWNLOAD_ARCHIVE", AuditTargets.summarize(paths), clientIp, "SUCCESS");
+
+        return source;
+    }
+}
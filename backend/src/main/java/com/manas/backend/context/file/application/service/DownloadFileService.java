@@ -2,20 +2,50 @@ package com.manas.backend.context.file.application.service;
 
 import com.manas.backend.context.file.application.port.in.DownloadFileUseCase;
 import com.manas.backend.context.file.application.port.out.FileStoragePort;
+import com.manas.backend.context.file.domain.ByteRange;
 import com.manas.backend.context.file.domain.FileContent;
+import com.manas.backend.context.file.domain.FileMetadata;
 import com.manas.backend.context.system.application.port.in.RecordAuditLogUseCase;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class DownloadFileService implements DownloadFileUseCase {
 
+    /**
+     * Ranged downloads remembered for deduplication; the least recently active ones are dropped beyond this.
+     */
+    private static final int MAX_TRACKED_DOWNLOADS = 10_000;
+
     private final FileStoragePort fileStoragePort;
     private final RecordAuditLogUseCase recordAuditLogUseCase;
+    private final long auditWindowNanos;
+
+    /**
+     * Last range request per ranged download, in nanoTime. Access-ordered, bounded like the other LRU caches.
+     */
+    private final Map<RangedDownload, Long> rangedDownloads = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<RangedDownload, Long> eldest) {
+            return size() > MAX_TRACKED_DOWNLOADS;
+        }
+    };
+
+    public DownloadFileService(
+            FileStoragePort fileStoragePort,
+            RecordAuditLogUseCase recordAuditLogUseCase,
+            @Value("${app.audit.download-window:PT30M}") Duration auditWindow
+    ) {
+        this.fileStoragePort = fileStoragePort;
+        this.recordAuditLogUseCase = recordAuditLogUseCase;
+        this.auditWindowNanos = auditWindow.toNanos();
+    }
 
     @Override
     public FileContent download(String path, UUID userId, String clientIp) {
@@ -36,4 +66,37 @@ public class DownloadFileService implements DownloadFileUseCase {
         return content;
     }
 
+    @Override
+    public FileContent downloadRange(String path, UUID userId, String clientIp, ByteRange range, String entityTag) {
+        log.debug("Request to download bytes {}-{} of {} by user: {}",
+                range.offset(), range.lastPosition(), path, userId);
+
+        FileContent content = fileStoragePort.retrieveRange(path, userId, range);
+
+        // Seeks and resumed transfers continue a download that was already audited, whichever range came first.
+        if (startsRangedDownload(new RangedDownload(userId, path, entityTag))) {
+            recordAuditLogUseCase.record(userId, "DOWNLOAD", path, clientIp, "SUCCESS");
+        }
+
+        return content;
+    }
+
+    /**
+     * Records a range request and returns whether it starts a new logical download: the first request for this
+     * user and file version, or the first after a pause longer than the audit window.
+     */
+    private synchronized boolean startsRangedDownload(RangedDownload download) {
+        long now = System.nanoTime();
+        Long previous = rangedDownloads.put(download, now);
+        return previous == null || now - previous >= auditWindowNanos;
+    }
+
+    @Override
+    public FileMetadata getMetadata(String path, UUID userId) {
+        return fileStoragePort.getMetadata(path, userId);
+    }
+
+    private record RangedDownload(UUID userId, String path, String entityTag) {
+
+    }
 }
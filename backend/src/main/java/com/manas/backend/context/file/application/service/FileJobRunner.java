@@ -0,0 +1,362 @@
+package com.manas.backend.context.file.application.service;
+
+import com.manas.backend.common.exception.FileOperationException;
+import com.manas.backend.context.file.application.port.out.FileStoragePort;
+import com.manas.backend.context.file.application.port.out.LoadFileJobPort;
+import com.manas.backend.context.file.application.port.out.SaveFileJobPort;
+import com.manas.backend.context.file.domain.FileJob;
+import com.manas.backend.context.file.domain.FileJobItem;
+import com.manas.backend.context.file.domain.FileJobState;
+import com.manas.backend.context.file.domain.TransferProgress;
+import com.manas.backend.context.file.domain.VolumePermits;
+import com.manas.backend.context.file.domain.event.FileDeletedEvent;
+import com.manas.backend.context.file.domain.event.FileDeletionFailedEvent;
+import com.manas.backend.context.file.domain.event.FileJobUpdatedEvent;
+import com.manas.backend.context.file.domain.event.FileCopiedEvent;
+import com.manas.backend.context.file.domain.event.FileMovedEvent;
+import com.manas.backend.context.system.application.port.in.RecordAuditLogUseCase;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Executes file jobs on virtual threads.
+ * <p>
+ * A job holds a {@link VolumePermits} job slot on every volume it touches (the first segment of its source and
+ * destination paths) for its whole run, so at most {@code app.jobs.volume-parallelism} jobs work on one volume at
+ * a time and the rest stay queued. Items run one after another and each one is stored as soon as it finishes,
+ * which publishes progress and lets a job stopped by a restart continue with its first pending item. Copies and
+ * moves between volumes also report the bytes copied of the current item; moves resume their copy from its last
+ * checkpoint, also after a cancellation stopped them part way.
+ */
+@Slf4j
+@Component
+public class FileJobRunner implements AutoCloseable {
+
+    private static final int MAX_MESSAGE_LENGTH = 1024;
+    private static final long SHUTDOWN_GRACE_SECONDS = 10;
+
+    /**
+     * Byte progress within an item is stored and published at most this often.
+     */
+    private static final long BYTE_PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final LoadFileJobPort loadFileJobPort;
+    private final SaveFileJobPort saveFileJobPort;
+    private final FileStoragePort fileStoragePort;
+    private final RecordAuditLogUseCase recordAuditLogUseCase;
+    private final ApplicationEventPublisher eventPublisher;
+    private final VolumePermits volumePermits;
+    private final Map<UUID, ActiveJob> activeJobs = new ConcurrentHashMap<>();
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("file-job-", 0).factory());
+    private volatile boolean closing;
+
+    public FileJobRunner(
+            LoadFileJobPort loadFileJobPort,
+            SaveFileJobPort saveFileJobPort,
+            FileStoragePort fileStoragePort,
+            RecordAuditLogUseCase recordAuditLogUseCase,
+            ApplicationEventPublisher eventPublisher,
+            VolumePermits volumePermits
+    ) {
+        this.loadFileJobPort = loadFileJobPort;
+        this.saveFileJobPort = saveFileJobPort;
+        this.fileStoragePort = fileStoragePort;
+        this.recordAuditLogUseCase = recordAuditLogUseCase;
+        this.eventPublisher = eventPublisher;
+        this.volumePermits = volumePermits;
+    }
+
+    /**
+     * Starts the job in the background unless it is already active in this process.
+     *
+     * @param resumed Whether the job may have been interrupted mid-item, so its first pending item may be
+     *                (partly) done already.
+     */
+    void start(FileJob job, boolean resumed) {
+        ActiveJob active = new ActiveJob();
+        if (activeJobs.putIfAbsent(job.id(), active) != null) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                run(job, resumed, active);
+            } catch (RuntimeException e) {
+                log.error("File job {} stopped unexpectedly", job.id(), e);
+            } finally {
+                activeJobs.remove(job.id());
+            }
+        });
+    }
+
+    /**
+     * Requests cancellation: a job still waiting for a volume slot stops at once, a running job at the next byte
+     * progress of its current copy or move, or else after its current item.
+     *
+     * @return false when the job is not active in this process.
+     */
+    boolean cancel(UUID jobId) {
+        ActiveJob active = activeJobs.get(jobId);
+        if (active == null) {
+            return false;
+        }
+        active.cancel();
+        return true;
+    }
+
+    private void run(FileJob job, boolean resumed, ActiveJob active) {
+        List<FileJobItem> items = loadFileJobPort.findItems(job.id());
+        List<Semaphore> acquired = new ArrayList<>();
+        active.attach(Thread.currentThread());
+
+        try {
+            // Acquired in name order, so jobs sharing volumes cannot deadlock on each other.
+            for (String volume : volumesOf(job, items)) {
+                Semaphore slot = volumePermits.jobs(volume);
+                slot.acquire();
+                acquired.add(slot);
+            }
+            if (!active.startWorking()) {
+                Thread.interrupted();
+                finish(job, items, true);
+                return;
+            }
+            process(job, items, resumed, active);
+        } catch (InterruptedException e) {
+            if (closing) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            finish(job, items, true);
+        } finally {
+            acquired.forEach(Semaphore::release);
+        }
+    }
+
+    private void process(FileJob job, List<FileJobItem> items, boolean resumed, ActiveJob active) {
+        List<FileJobItem> results = new ArrayList<>(items);
+        int completed = count(items, FileJobItem.State.DONE);
+        int failed = count(items, FileJobItem.State.FAILED);
+        boolean firstPending = resumed;
+
+        job = update(job.running(Instant.now()).progressed(completed, failed, Instant.now()));
+        for (int i = 0; i < results.size(); i++) {
+            FileJobItem item = results.get(i);
+            if (item.state() != FileJobItem.State.PENDING) {
+                continue;
+            }
+            if (active.isCancelled()) {
+                break;
+            }
+
+            job = update(job.processing(item.sourcePath(), Instant.now()));
+            FileJobItem result = execute(job, item, firstPending, active);
+            firstPending = false;
+            if (closing) {
+                // Left pending; the job continues with this item on the next start.
+                log.info("File job {} interrupted by shutdown at {}", job.id(), item.sourcePath());
+                return;
+            }
+            if (result.state() == FileJobItem.State.PENDING) {
+                // Stopped part way: a move keeps its staged copy and checkpoint, so moving it again resumes there.
+                log.info("File job {} cancelled during {}", job.id(), item.sourcePath());
+                break;
+            }
+
+            saveFileJobPort.saveItem(job.id(), result);
+            results.set(i, result);
+            if (result.state() == FileJobItem.State.DONE) {
+                completed++;
+            } else {
+                failed++;
+            }
+            job = update(job.progressed(completed, failed, Instant.now()));
+        }
+
+        finish(job, results, active.isCancelled() && count(results, FileJobItem.State.PENDING) > 0);
+    }
+
+    private FileJobItem execute(FileJob job, FileJobItem item, boolean mayBeDone, ActiveJob active) {
+        String source = item.sourcePath();
+        try {
+            switch (job.type()) {
+                case DELETE -> {
+                    try {
+                        if (!mayBeDone || fileStoragePort.exists(source, job.userId())) {
+                            fileStoragePort.delete(source, job.userId());
+                        }
+                    } catch (FileOperationException e) {
+                        // As in DeleteFilesService: the storage failed part way, so entries below may be gone.
+                        eventPublisher.publishEvent(new FileDeletionFailedEvent(job.userId(), source,
+                                Instant.now()));
+                        throw e;
+                    }
+                    eventPublisher.publishEvent(new FileDeletedEvent(job.userId(), source, Instant.now()));
+                }
+                case MOVE -> {
+                    String destination = destinationOf(job, source);
+                    if (!mayBeDone || fileStoragePort.exists(source, job.userId())
+                            || !fileStoragePort.exists(destination, job.userId())) {
+                        fileStoragePort.move(source, destination, job.userId(), byteProgress(job, active));
+                    }
+                    eventPublisher.publishEvent(new FileMovedEvent(job.userId(), source, destination,
+                            Instant.now()));
+                }
+                case COPY -> {
+                    // A copy appears at its destination only once complete, so an existing one is finished.
+                    String destination = destinationOf(job, source);
+                    if (!mayBeDone || !fileStoragePort.exists(destination, job.userId())) {
+                        fileStoragePort.copy(source, destination, job.userId(), byteProgress(job, active));
+                    }
+                    eventPublisher.publishEvent(new FileCopiedEvent(job.userId(), source, destination,
+                            Instant.now()));
+                }
+            }
+            return item.done();
+        } catch (CancelledException e) {
+            return item;
+        } catch (RuntimeException e) {
+            log.warn("File job {} failed on {}", job.id(), source, e);
+            return item.failed(truncate(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName()));
+        }
+    }
+
+    /**
+     * Also stops the transfer once the job is cancelled, by failing the progress update; thread interrupts would
+     * close the file channels and database connections the item is using.
+     */
+    private TransferProgress byteProgress(FileJob job, ActiveJob active) {
+        long[] lastUpdate = {System.nanoTime()};
+        return (bytesDone, bytesTotal) -> {
+            if (active.isCancelled()) {
+                throw new CancelledException();
+            }
+            long now = System.nanoTime();
+            if (now - lastUpdate[0] >= BYTE_PROGRESS_INTERVAL_NANOS) {
+                lastUpdate[0] = now;
+                update(job.transferring(bytesDone, bytesTotal, Instant.now()));
+            }
+        };
+    }
+
+    private void finish(FileJob job, List<FileJobItem> items, boolean cancelled) {
+        int completed = count(items, FileJobItem.State.DONE);
+        int failed = count(items, FileJobItem.State.FAILED);
+        FileJobState state = cancelled ? FileJobState.CANCELLED
+                : failed == 0 ? FileJobState.SUCCEEDED
+                : FileJobState.FAILED;
+        String message = cancelled ? "Cancelled after " + (completed + failed) + " of " + items.size() + " items"
+                : failed == 0 ? null
+                : failed + " of " + items.size() + " items failed";
+
+        update(job.progressed(completed, failed, Instant.now()).finished(state, message, Instant.now()));
+
+        // One audit entry per job, however many items it covered; the details name each item.
+        List<String> sources = items.stream().map(FileJobItem::sourcePath).toList();
+        String details = items.stream()
+                .map(item -> AuditTargets.outcome(item.state().name(), item.sourcePath(), item.message()))
+                .collect(Collectors.joining("\n"));
+        recordAuditLogUseCase.record(job.userId(), job.type() + "_FILES", AuditTargets.summarize(sources), "N/A",
+                cancelled ? "CANCELLED" : AuditTargets.batchStatus(completed, failed), details);
+        log.info("File job {} finished: {} ({} done, {} failed)", job.id(), state, completed, failed);
+    }
+
+    private FileJob update(FileJob job) {
+        saveFileJobPort.save(job);
+        eventPublisher.publishEvent(new FileJobUpdatedEvent(job));
+        return job;
+    }
+
+    static String destinationOf(FileJob job, String sourcePath) {
+        String name = sourcePath.substring(sourcePath.lastIndexOf('/') + 1);
+        return job.destination().endsWith("/") ? job.destination() + name : job.destination() + "/" + name;
+    }
+
+    private static TreeSet<String> volumesOf(FileJob job, List<FileJobItem> items) {
+        TreeSet<String> volumes = new TreeSet<>();
+        for (FileJobItem item : items) {
+            volumes.add(VolumePermits.volumeOf(item.sourcePath()));
+        }
+        if (job.destination() != null) {
+            volumes.add(VolumePermits.volumeOf(job.destination()));
+        }
+        return volumes;
+    }
+
+    private static int count(List<FileJobItem> items, FileJobItem.State state) {
+        return (int) items.stream().filter(item -> item.state() == state).count();
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_MESSAGE_LENGTH ? message : message.substring(0, MAX_MESSAGE_LENGTH);
+    }
+
+    /**
+     * Stops accepting work and interrupts active jobs. Jobs keep their stored state and resume on the next start.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        closing = true;
+        executor.shutdownNow();
+        if (!executor.awaitTermination(SHUTDOWN_GRACE_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("File jobs still running at shutdown: {}", activeJobs.keySet());
+        }
+    }
+
+    private static final class ActiveJob {
+
+        private Thread thread;
+        private boolean working;
+        private boolean cancelled;
+
+        synchronized void attach(Thread thread) {
+            this.thread = thread;
+            if (cancelled) {
+                thread.interrupt();
+            }
+        }
+
+        synchronized boolean startWorking() {
+            working = true;
+            return !cancelled;
+        }
+
+        /**
+         * Only a job still waiting for volume slots is interrupted; a working job checks between items and on
+         * byte progress, where a move can stop without losing its checkpoint.
+         */
+        synchronized void cancel() {
+            cancelled = true;
+            if (!working && thread != null) {
+                thread.interrupt();
+            }
+        }
+
+        synchronized boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * Thrown from the progress callback of a cancelled job to stop its transfer.
+     */
+    private static final class CancelledException extends RuntimeException {
+
+        CancelledException() {
+            super("File job cancelled", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.manas.backend.context.file.application.service;
+
+import com.manas.backend.common.exception.ResourceNotFoundException;
+import com.manas.backend.context.file.application.port.in.FileJobUseCase;
+import com.manas.backend.context.file.application.port.in.SubmitFileJobCommand;
+import com.manas.backend.context.file.application.port.out.LoadFileJobPort;
+import com.manas.backend.context.file.application.port.out.SaveFileJobPort;
+import com.manas.backend.context.file.domain.FileJob;
+import com.manas.backend.context.file.domain.FileJobItem;
+import com.manas.backend.context.file.domain.FileJobState;
+import com.manas.backend.context.file.domain.FileJobType;
+import com.manas.backend.context.file.domain.event.FileJobUpdatedEvent;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+@Slf4j
+@Service
+public class FileJobService implements FileJobUseCase {
+
+    private static final int RECENT_JOBS_LIMIT = 50;
+
+    private final LoadFileJobPort loadFileJobPort;
+    private final SaveFileJobPort saveFileJobPort;
+    private final FileJobRunner fileJobRunner;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration retention;
+
+    public FileJobService(
+            LoadFileJobPort loadFileJobPort,
+            SaveFileJobPort saveFileJobPort,
+            FileJobRunner fileJobRunner,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.jobs.retention:P7D}") Duration retention
+    ) {
+        this.loadFileJobPort = loadFileJobPort;
+        this.saveFileJobPort = saveFileJobPort;
+        this.fileJobRunner = fileJobRunner;
+        this.eventPublisher = eventPublisher;
+        this.retention = retention;
+    }
+
+    @Override
+    public FileJob submit(SubmitFileJobCommand command) {
+        if (command.type() == null) {
+            throw new IllegalArgumentException("Job type is required");
+        }
+        if (command.sourcePaths() == null || command.sourcePaths().isEmpty()
+                || !command.sourcePaths().stream().allMatch(StringUtils::hasText)) {
+            throw new IllegalArgumentException("At least one source path is required");
+        }
+
+        // Entries inside a selected directory are handled with it.
+        List<String> sources = SelectedPaths.roots(command.sourcePaths());
+        String destination = null;
+        if (command.type() != FileJobType.DELETE) {
+            String operation = command.type().name().toLowerCase(Locale.ROOT);
+            destination = command.destination();
+            if (!StringUtils.hasText(destination)) {
+                throw new IllegalArgumentException("Destination directory is required for a " + operation);
+            }
+            for (String source : sources) {
+                if (source.equals(destination) || SelectedPaths.owningRoot(destination, List.of(source)) != null) {
+                    throw new IllegalArgumentException("Cannot " + operation + " a directory into itself: " + source);
+                }
+            }
+        }
+
+        FileJob job = FileJob.queued(command.userId(), command.type(), destination, sources.size(), Instant.now());
+        saveFileJobPort.save(job);
+        saveFileJobPort.saveItems(job.id(), IntStream.range(0, sources.size())
+                .mapToObj(position -> FileJobItem.pending(position, sources.get(position)))
+                .toList());
+        log.info("User {} submitted {} job {} for {} paths", command.userId(), command.type(), job.id(),
+                sources.size());
+
+        fileJobRunner.start(job, false);
+        return job;
+    }
+
+    @Override
+    public FileJob getJob(UUID jobId, UUID userId) {
+        return loadFileJobPort.findById(jobId)
+                .filter(job -> job.userId().equals(userId))
+                .orElseThrow(() -> new ResourceNotFoundException("Job does not exist: " + jobId));
+    }
+
+    @Override
+    public List<FileJob> listJobs(UUID userId) {
+        return loadFileJobPort.findRecentByUser(userId, RECENT_JOBS_LIMIT);
+    }
+
+    @Override
+    public List<FileJobItem> getItems(UUID jobId, UUID userId) {
+        getJob(jobId, userId);
+        return loadFileJobPort.findItems(jobId);
+    }
+
+    @Override
+    public FileJob cancel(UUID jobId, UUID userId) {
+        FileJob job = getJob(jobId, userId);
+        if (job.state().isFinished() || fileJobRunner.cancel(jobId)) {
+            return job;
+        }
+
+        // Not active in this process, e.g. still waiting to be resumed after a restart.
+        FileJob cancelled = job.finished(FileJobState.CANCELLED, "Cancelled before it started", Instant.now());
+        saveFileJobPort.save(cancelled);
+        eventPublisher.publishEvent(new FileJobUpdatedEvent(cancelled));
+        return cancelled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        for (FileJob job : loadFileJobPort.findUnfinished()) {
+            log.info("Resuming {} job {} ({}/{} items done)", job.type(), job.id(),
+                    job.completedItems() + job.failedItems(), job.totalItems());
+            fileJobRunner.start(job, true);
+        }
+    }
+
+    @Scheduled(
+            fixedDelayString = "${app.jobs.cleanup-interval:PT1H}",
+            initialDelayString = "${app.jobs.cleanup-interval:PT1H}"
+    )
+    public void purgeFinished() {
+        int purged = saveFileJobPort.deleteFinishedBefore(Instant.now().minus(retention));
+        if (purged > 0) {
+            log.info("Purged {} finished file jobs", purged);
+        }
+    }
+}
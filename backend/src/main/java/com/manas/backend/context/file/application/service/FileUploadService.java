@@ -1,16 +1,37 @@
 package com.manas.backend.context.file.application.service;
 
 import com.manas.backend.common.exception.FileOperationException;
+import com.manas.backend.common.exception.ResourceNotFoundException;
 import com.manas.backend.context.file.application.port.in.FileUploadCommand;
 import com.manas.backend.context.file.application.port.in.FileUploadUseCase;
+import com.manas.backend.context.file.application.port.in.InstantUploadChallenge;
+import com.manas.backend.context.file.application.port.in.InstantUploadCommand;
 import com.manas.backend.context.file.application.port.out.FileStoragePort;
+import com.manas.backend.context.file.application.port.out.LoadContentIndexPort;
+import com.manas.backend.context.file.application.port.out.SaveContentIndexPort;
+import com.manas.backend.context.file.domain.ByteRange;
 import com.manas.backend.context.file.domain.FileContent;
 import com.manas.backend.context.file.domain.FileValidator;
+import com.manas.backend.context.file.domain.IndexedContent;
+import com.manas.backend.context.file.domain.StoredFile;
 import com.manas.backend.context.file.domain.event.FileUploadedEvent;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.NonNull;
@@ -23,14 +44,39 @@ import org.springframework.util.StringUtils;
 @RequiredArgsConstructor
 public class FileUploadService implements FileUploadUseCase {
 
+    /**
+     * Bytes of the content hashed for a proof of possession at most.
+     */
+    private static final long PROOF_LENGTH = 64 * 1024;
+
+    private static final Duration CHALLENGE_TTL = Duration.ofMinutes(5);
+
+    /**
+     * Bounds the challenges kept for clients that never come back; the oldest is dropped first.
+     */
+    private static final int MAX_PENDING_CHALLENGES = 10_000;
+
+    private static final int NONCE_BYTES = 16;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final Map<String, PendingChallenge> pendingChallenges = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PendingChallenge> eldest) {
+            return size() > MAX_PENDING_CHALLENGES;
+        }
+    };
+
     private final FileStoragePort fileStoragePort;
     private final FileValidator fileValidator;
     private final ApplicationEventPublisher eventPublisher;
+    private final LoadContentIndexPort loadContentIndexPort;
+    private final SaveContentIndexPort saveContentIndexPort;
 
-    private static @NonNull String getLogicalPath(FileUploadCommand command) {
-        String cleanDir = command.targetDirectory().endsWith("/")
-                ? command.targetDirectory().substring(0, command.targetDirectory().length() - 1)
-                : command.targetDirectory();
+    private static @NonNull String getLogicalPath(String targetDirectory, String fileName) {
+        String cleanDir = targetDirectory.endsWith("/")
+                ? targetDirectory.substring(0, targetDirectory.length() - 1)
+                : targetDirectory;
 
         // If cleanDir is empty (root), logical path is just fileName (with leading slash maybe? Adapter expects relative to root?)
         // Adapter logic: resolveTarget resolves relative to root.
@@ -39,11 +85,11 @@ public class FileUploadService implements FileUploadUseCase {
         // Path = "/docs/file.txt".
         // Adapter handles leading slash stripping.
 
-        return cleanDir + "/" + command.fileName();
+        return cleanDir + "/" + fileName;
     }
 
     @Override
-    public void upload(FileUploadCommand command) {
+    public StoredFile upload(FileUploadCommand command) {
         log.debug("Processing upload request for file: {} in {}", command.fileName(),
                 command.targetDirectory());
 
@@ -61,62 +107,188 @@ public class FileUploadService implements FileUploadUseCase {
 
         // 3. Resolve Logical Path (targetDir + / + fileName)
         // Ensure targetDirectory doesn't have trailing slash, fileName doesn't have leading slash
-        String logicalPath = getLogicalPath(command);
+        String logicalPath = getLogicalPath(command.targetDirectory(), command.fileName());
+        String checksum = normalizeChecksum(command.checksumSha256());
 
-        // 4. Persist
-        fileStoragePort.save(command.content(), logicalPath, command.size(), command.userId());
-
-        verifyChecksumIfPresent(command, logicalPath);
+        // 4. Persist: content the server already has is linked once the body proves to be that content, which
+        // saves the disk space; otherwise hash and verify while writing. The body is read either way, so the
+        // client always gets its response after sending it.
+        StoredFile stored = Optional.ofNullable(checksum)
+                .flatMap(sha256 -> findIndexed(sha256, command.size(), command.userId()))
+                .map(content -> {
+                    verifyBody(command.content(), command.size(), checksum);
+                    return fileStoragePort.saveDuplicate(content.path(), logicalPath, command.userId(), checksum);
+                })
+                .orElseGet(() -> fileStoragePort.save(command.content(), logicalPath, command.size(),
+                        command.userId(), checksum));
 
         // 5. Publish Event (Audit)
-        eventPublisher.publishEvent(new FileUploadedEvent(
-                command.userId(),
-                logicalPath,
-                command.size(),
-                Instant.now()
-        ));
+        publishUploaded(command.userId(), stored);
 
         log.info("File uploaded successfully: {}", logicalPath);
+        return stored;
     }
 
-    private void verifyChecksumIfPresent(FileUploadCommand command, String logicalPath) {
-        if (!StringUtils.hasText(command.checksumSha256())) {
-            return;
+    @Override
+    public InstantUploadChallenge challengeExisting(String checksumSha256, long size, UUID userId) {
+        String checksum = normalizeChecksum(checksumSha256);
+        if (checksum == null) {
+            throw new IllegalArgumentException("A SHA-256 checksum is required");
+        }
+        if (size < 0) {
+            throw new IllegalArgumentException("Size must not be negative");
         }
 
-        String expected = command.checksumSha256().trim().toLowerCase();
+        // The range depends on the size only, so the answer is the same for known and unknown content.
+        long length = Math.min(size, PROOF_LENGTH);
+        long offset = size == length ? 0L : random.nextLong(size - length + 1);
+        // Small content is challenged as a whole; the nonce keeps its checksum from passing as the proof.
+        byte[] nonce = new byte[NONCE_BYTES];
+        random.nextBytes(nonce);
+        String id = UUID.randomUUID().toString();
+        synchronized (pendingChallenges) {
+            pendingChallenges.put(id, new PendingChallenge(userId, checksum, size, new ByteRange(offset, length),
+                    nonce, System.nanoTime() + CHALLENGE_TTL.toNanos()));
+        }
+        return new InstantUploadChallenge(id, HexFormat.of().formatHex(nonce), offset, length);
+    }
 
-        try {
-            FileContent stored = fileStoragePort.retrieve(logicalPath, command.userId());
-            try (InputStream inputStream = stored.inputStream()) {
-                String actual = sha256Hex(inputStream);
-                if (!expected.equals(actual)) {
-                    fileStoragePort.delete(logicalPath, command.userId());
-                    throw new IllegalArgumentException("Checksum verification failed for uploaded file");
-                }
-            }
-        } catch (IOException e) {
-            throw new FileOperationException("Failed to verify uploaded file checksum", e);
+    @Override
+    public Optional<StoredFile> uploadExisting(InstantUploadCommand command) {
+        fileValidator.validate(command.fileName(), command.size());
+
+        String checksum = normalizeChecksum(command.checksumSha256());
+        if (checksum == null) {
+            throw new IllegalArgumentException("A SHA-256 checksum is required");
+        }
+        PendingChallenge challenge = takeChallenge(command.challengeId(), command.userId(), checksum,
+                command.size());
+        String proof = normalizeChecksum(command.proofSha256());
+
+        String logicalPath = getLogicalPath(command.targetDirectory(), command.fileName());
+        Optional<StoredFile> stored = findIndexed(checksum, command.size(), command.userId())
+                .filter(content -> proof != null && matches(proofSha256(content, challenge, command.userId()), proof))
+                .map(content -> fileStoragePort.saveDuplicate(content.path(), logicalPath, command.userId(),
+                        checksum));
+        stored.ifPresent(file -> {
+            publishUploaded(command.userId(), file);
+            log.info("File stored from existing content: {}", logicalPath);
+        });
+        return stored;
+    }
+
+    /**
+     * Removes the challenge, so each one is used for a single attempt.
+     */
+    private PendingChallenge takeChallenge(String challengeId, UUID userId, String sha256, long size) {
+        PendingChallenge challenge;
+        synchronized (pendingChallenges) {
+            challenge = challengeId == null ? null : pendingChallenges.remove(challengeId);
+        }
+        if (challenge == null || System.nanoTime() - challenge.expiresAt() > 0
+                || !Objects.equals(challenge.userId(), userId)
+                || !challenge.sha256().equals(sha256) || challenge.size() != size) {
+            throw new IllegalArgumentException("Unknown or expired instant upload challenge");
         }
+        return challenge;
     }
 
-    private String sha256Hex(InputStream inputStream) throws IOException {
+    /**
+     * Returns the indexed file with the given content. An entry whose file has changed or disappeared since it
+     * was indexed is removed, and the content is treated as unknown.
+     */
+    private Optional<IndexedContent> findIndexed(String sha256, long size, UUID userId) {
+        Optional<IndexedContent> indexed = loadContentIndexPort.findBySha256(sha256)
+                .filter(content -> content.size() == size);
+        if (indexed.isEmpty()) {
+            return Optional.empty();
+        }
+
+        IndexedContent content = indexed.get();
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] buffer = new byte[8192];
-            int read;
-            while ((read = inputStream.read(buffer)) != -1) {
-                digest.update(buffer, 0, read);
+            String currentTag = fileStoragePort.getMetadata(content.path(), userId).entityTag();
+            if (!currentTag.equals(content.entityTag())) {
+                log.info("Content index entry for {} is stale, removing it", content.path());
+                saveContentIndexPort.delete(sha256);
+                return Optional.empty();
             }
+        } catch (ResourceNotFoundException | IllegalArgumentException e) {
+            log.info("Indexed file {} is gone, removing its content index entry", content.path());
+            saveContentIndexPort.delete(sha256);
+            return Optional.empty();
+        }
+        return indexed;
+    }
 
-            byte[] hash = digest.digest();
-            StringBuilder sb = new StringBuilder(hash.length * 2);
-            for (byte b : hash) {
-                sb.append(String.format("%02x", b));
+    /**
+     * SHA-256 of the challenge nonce followed by the challenged range of the stored content.
+     */
+    private String proofSha256(IndexedContent content, PendingChallenge challenge, UUID userId) {
+        MessageDigest digest = newSha256();
+        digest.update(challenge.nonce());
+        ByteRange range = challenge.range();
+        if (range.length() > 0) {
+            FileContent bytes = fileStoragePort.retrieveRange(content.path(), userId, range);
+            try (DigestInputStream inputStream = new DigestInputStream(bytes.inputStream(), digest)) {
+                inputStream.transferTo(OutputStream.nullOutputStream());
+            } catch (IOException e) {
+                throw new FileOperationException("Failed to read " + content.path(), e);
             }
-            return sb.toString();
-        } catch (java.security.NoSuchAlgorithmException e) {
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Reads the whole body and checks it against the declared size and checksum without storing it.
+     */
+    private static void verifyBody(InputStream body, long size, String sha256) {
+        MessageDigest digest = newSha256();
+        long read;
+        try (DigestInputStream inputStream = new DigestInputStream(body, digest)) {
+            read = inputStream.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            throw new FileOperationException("Failed to read the uploaded file", e);
+        }
+        if (read != size) {
+            throw new IllegalArgumentException("Uploaded file size does not match the declared size");
+        }
+        if (!matches(HexFormat.of().formatHex(digest.digest()), sha256)) {
+            throw new IllegalArgumentException("Checksum verification failed for uploaded file");
+        }
+    }
+
+    private void publishUploaded(UUID userId, StoredFile stored) {
+        eventPublisher.publishEvent(new FileUploadedEvent(
+                userId,
+                stored.path(),
+                stored.size(),
+                Instant.now(),
+                stored.sha256()
+        ));
+    }
+
+    /**
+     * Compares hex digests in constant time.
+     */
+    private static boolean matches(String actualSha256, String expectedSha256) {
+        return MessageDigest.isEqual(actualSha256.getBytes(StandardCharsets.US_ASCII),
+                expectedSha256.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
             throw new IllegalStateException("SHA-256 algorithm not available", e);
         }
     }
+
+    private static String normalizeChecksum(String checksumSha256) {
+        return StringUtils.hasText(checksumSha256) ? checksumSha256.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
+    private record PendingChallenge(UUID userId, String sha256, long size, ByteRange range, byte[] nonce,
+                                    long expiresAt) {
+
+    }
 }
@@ -4,7 +4,10 @@ import com.manas.backend.context.file.application.port.in.ListDirectoryQuery;
 import com.manas.backend.context.file.application.port.in.ListDirectoryUseCase;
 import com.manas.backend.context.file.application.port.out.FileStoragePort;
 import com.manas.backend.context.file.domain.DirectoryListing;
+import com.manas.backend.context.file.domain.event.DirectoryListedEvent;
+import java.time.Instant;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -12,18 +15,24 @@ import org.springframework.stereotype.Service;
 public class ListDirectoryService implements ListDirectoryUseCase {
 
     private final FileStoragePort fileStoragePort;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public DirectoryListing listDirectory(ListDirectoryQuery query) {
         int normalizedOffset = Math.max(0, query.offset());
         int normalizedLimit = Math.min(Math.max(1, query.limit()), 500);
 
-        return fileStoragePort.listDirectory(
+        DirectoryListing listing = fileStoragePort.listDirectory(
                 query.path(),
                 query.userId(),
                 normalizedOffset,
                 normalizedLimit,
-                query.sort()
+                query.sort(),
+                query.cursor()
         );
+
+        eventPublisher.publishEvent(new DirectoryListedEvent(query.userId(), listing.currentPath(), listing.items(),
+                Instant.now()));
+        return listing;
     }
 }
@@ -2,10 +2,13 @@ package com.manas.backend.context.file.application.service;
 
 import com.manas.backend.context.file.application.port.in.MoveFileUseCase;
 import com.manas.backend.context.file.application.port.out.FileStoragePort;
+import com.manas.backend.context.file.domain.event.FileMovedEvent;
 import com.manas.backend.context.system.application.port.in.RecordAuditLogUseCase;
+import java.time.Instant;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 @Slf4j
@@ -15,6 +18,7 @@ public class MoveFileService implements MoveFileUseCase {
 
     private final FileStoragePort fileStoragePort;
     private final RecordAuditLogUseCase recordAuditLogUseCase;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public void moveFile(String sourcePath, String destinationPath, UUID userId) {
@@ -22,6 +26,7 @@ public class MoveFileService implements MoveFileUseCase {
         String targetInfo = sourcePath + " -> " + destinationPath;
         try {
             fileStoragePort.move(sourcePath, destinationPath, userId);
+            eventPublisher.publishEvent(new FileMovedEvent(userId, sourcePath, destinationPath, Instant.now()));
             recordAuditLogUseCase.record(userId, "MOVE_FILE", targetInfo, "N/A", "SUCCESS");
         } catch (RuntimeException e) {
             log.error("Failed to move file: {}", targetInfo, e);
@@ -3,103 +3,101 @@ package com.manas.backend.context.file.application.service;
 import com.manas.backend.common.exception.FileOperationException;
 import com.manas.backend.context.file.application.port.in.GetFilePreviewUseCase;
 import com.manas.backend.context.file.application.port.out.FileStoragePort;
+import com.manas.backend.context.file.application.port.out.PreviewCachePort;
 import com.manas.backend.context.file.application.port.out.PreviewGeneratorPort;
 import com.manas.backend.context.file.domain.FileContent;
+import com.manas.backend.context.file.domain.FileMetadata;
 import com.manas.backend.context.file.domain.PreviewType;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.HexFormat;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
 import lombok.extern.slf4j.Slf4j;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+/**
+ * Serves thumbnails from the preview cache and generates missing ones.
+ * <p>
+ * Concurrent requests for the same missing thumbnail share one generation: the first request generates it, the
+ * others wait for its result. Full-resolution decodes are limited to {@code app.preview.max-concurrent-decodes}
+ * at a time (0 = derived from the processors and the heap), so a burst of grid requests queues up instead of
+ * exhausting the heap.
+ */
 @Slf4j
 @Service
 public class PreviewService implements GetFilePreviewUseCase {
 
+    /**
+     * Heap a single decode may take: a 24 MP photo decoded to 3-byte pixels plus the scaling buffers.
+     */
+    static final long DECODE_MEMORY_ESTIMATE = 128L * 1024 * 1024;
+
     private final FileStoragePort fileStoragePort;
     private final PreviewGeneratorPort previewGeneratorPort;
-    private final Path cacheDir;
+    private final PreviewCachePort previewCachePort;
     private final Counter cacheHitCounter;
     private final Counter cacheMissCounter;
+    private final Counter coalescedCounter;
+    private final Semaphore decodePermits;
+    private final Map<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
 
     public PreviewService(
             FileStoragePort fileStoragePort,
             PreviewGeneratorPort previewGeneratorPort,
+            PreviewCachePort previewCachePort,
             MeterRegistry meterRegistry,
-            @Value("${app.storage.cache-dir}") String cacheDirString
+            @Value("${app.preview.max-concurrent-decodes:0}") int maxConcurrentDecodes
     ) {
         this.fileStoragePort = fileStoragePort;
         this.previewGeneratorPort = previewGeneratorPort;
-        this.cacheDir = Paths.get(cacheDirString).toAbsolutePath().normalize();
+        this.previewCachePort = previewCachePort;
         this.cacheHitCounter = meterRegistry.counter("app.preview.cache.hit");
         this.cacheMissCounter = meterRegistry.counter("app.preview.cache.miss");
-        initializeCacheDir();
-    }
+        this.coalescedCounter = meterRegistry.counter("app.preview.generate.coalesced");
 
-    private void initializeCacheDir() {
-        try {
-            if (!Files.exists(cacheDir)) {
-                Files.createDirectories(cacheDir);
-            }
-        } catch (IOException e) {
-            throw new FileOperationException("Failed to initialize cache directory: " + cacheDir, e);
-        }
+        int permits = decodeLimit(maxConcurrentDecodes, Runtime.getRuntime().availableProcessors(),
+                Runtime.getRuntime().maxMemory());
+        this.decodePermits = new Semaphore(permits, true);
+        meterRegistry.gauge("app.preview.decode.active", decodePermits, p -> permits - p.availablePermits());
+        meterRegistry.gauge("app.preview.decode.waiting", decodePermits, Semaphore::getQueueLength);
+        log.info("Decoding at most {} previews at a time", permits);
     }
 
     @Override
     public FileContent getPreview(String path, UUID userId) {
+        return getPreview(path, userId, fileStoragePort.getMetadata(path, userId));
+    }
+
+    @Override
+    public FileContent getPreview(String path, UUID userId, FileMetadata sourceMetadata) {
         // 1. Check Cache
-        String cacheKey = generateCacheKey(path);
-        Path cachedFile = cacheDir.resolve(cacheKey + ".jpg");
+        String cacheKey = generateCacheKey(path, sourceMetadata);
+        FileContent cached = previewCachePort.get(cacheKey);
 
-        if (Files.exists(cachedFile)) {
-            try {
-                log.debug("Cache hit for preview: {}", path);
-                cacheHitCounter.increment();
-                return new FileContent(
-                        "thumbnail.jpg",
-                        "image/jpeg",
-                        Files.size(cachedFile),
-                        Files.newInputStream(cachedFile)
-                );
-            } catch (IOException e) {
-                log.error("Failed to read cached preview", e);
-                // Fallback to regeneration
-            }
+        if (cached != null) {
+            log.debug("Cache hit for preview: {}", path);
+            cacheHitCounter.increment();
+            return cached;
         }
 
-        // 2. Retrieve Original
+        // 2. Generate Preview (once for all concurrent requests) and save it to the cache
         cacheMissCounter.increment();
-        log.info("Generating preview for: {}", path);
-        FileContent source = fileStoragePort.retrieve(path, userId);
-
-        // 3. Generate Preview
-        if (previewGeneratorPort.supports(source.contentType())) {
-            FileContent preview = previewGeneratorPort.generate(source, PreviewType.THUMBNAIL);
-
+        if (previewGeneratorPort.supports(sourceMetadata.contentType())) {
+            byte[] preview = generateOnce(cacheKey, path, userId);
             if (preview != null) {
-                // 4. Save to Cache
-                saveToCache(cachedFile, preview);
-
-                // 5. Return from Cache (fresh stream)
-                try {
-                    return new FileContent(
-                            "thumbnail.jpg",
-                            "image/jpeg",
-                            Files.size(cachedFile),
-                            Files.newInputStream(cachedFile)
-                    );
-                } catch (IOException e) {
-                    log.error("Failed to open cached preview after save", e);
-                }
+                return new FileContent("thumbnail.jpg", "image/jpeg", preview.length,
+                        new ByteArrayInputStream(preview));
             }
         }
 
@@ -108,30 +106,151 @@ public class PreviewService implements GetFilePreviewUseCase {
         // If it's a PDF/Video and we don't support it yet, maybe return a placeholder?
         // The Controller will handle null by returning 404 or a default asset.
         // But for "Vibe Coding", let's return the source if it's an image, even if full size.
+        FileContent source = fileStoragePort.retrieve(path, userId);
         if (source.contentType().startsWith("image/")) {
             return source;
         }
 
+        closeSource(source);
         throw new IllegalArgumentException("Preview not available for this file type");
     }
 
-    private void saveToCache(Path target, FileContent content) {
+    /**
+     * Generates the thumbnail of a file into the cache ahead of its first request, unless it is cached already.
+     *
+     * @return true if a thumbnail was generated; false if it was cached already or the file has none
+     *         (unsupported type or generation failed).
+     */
+    boolean pregenerate(String path, UUID userId) {
+        FileMetadata sourceMetadata = fileStoragePort.getMetadata(path, userId);
+        if (!previewGeneratorPort.supports(sourceMetadata.contentType())) {
+            return false;
+        }
+
+        String cacheKey = generateCacheKey(path, sourceMetadata);
+        if (previewCachePort.contains(cacheKey)) {
+            return false;
+        }
+        return generateOnce(cacheKey, path, userId) != null;
+    }
+
+    @Override
+    public FileMetadata getSourceMetadata(String path, UUID userId) {
+        return fileStoragePort.getMetadata(path, userId);
+    }
+
+    /**
+     * Generates a thumbnail into the cache, or waits for the generation already running for the same key.
+     *
+     * @return The encoded thumbnail, or null if the source type is not supported or generation failed.
+     */
+    private byte[] generateOnce(String cacheKey, String path, UUID userId) {
+        CompletableFuture<byte[]> generation = new CompletableFuture<>();
+        CompletableFuture<byte[]> running = inFlight.putIfAbsent(cacheKey, generation);
+        if (running != null) {
+            coalescedCounter.increment();
+            return await(running);
+        }
+
+        try {
+            log.info("Generating preview for: {}", path);
+            FileContent source = fileStoragePort.retrieve(path, userId);
+            byte[] preview;
+            try {
+                preview = generate(source);
+            } finally {
+                closeSource(source);
+            }
+            if (preview != null) {
+                previewCachePort.put(cacheKey, preview);
+            }
+            generation.complete(preview);
+            return preview;
+        } catch (RuntimeException e) {
+            generation.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, generation);
+        }
+    }
+
+    private static byte[] await(CompletableFuture<byte[]> generation) {
+        try {
+            return generation.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileOperationException("Interrupted while waiting for preview generation", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new FileOperationException("Preview generation failed", e.getCause());
+        }
+    }
+
+    /**
+     * Generates a thumbnail of the source, holding a decode permit meanwhile.
+     *
+     * @return The encoded thumbnail, or null if the source type is not supported or generation failed.
+     */
+    private byte[] generate(FileContent source) {
+        if (!previewGeneratorPort.supports(source.contentType())) {
+            return null;
+        }
+
+        try {
+            decodePermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileOperationException("Interrupted while waiting to decode " + source.fileName(), e);
+        }
+        FileContent preview;
         try {
-            // content.inputStream() is already consumed?
-            // Wait, InputStream can be read only once.
-            // PreviewGeneratorPort returns a new FileContent with a fresh InputStream (ByteArrayInputStream).
-            // We should save it to disk, then return a NEW stream from disk to the caller.
+            preview = previewGeneratorPort.generate(source, PreviewType.THUMBNAIL);
+        } finally {
+            decodePermits.release();
+        }
+        if (preview == null) {
+            return null;
+        }
 
-            Files.copy(content.inputStream(), target);
+        try (var in = preview.inputStream()) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            log.warn("Failed to read generated preview of {}", source.fileName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Number of decodes that may run at once: the configured value, or as many as there are processors while
+     * their {@link #DECODE_MEMORY_ESTIMATE} together stays within half the heap.
+     */
+    static int decodeLimit(int configured, int processors, long maxHeapBytes) {
+        if (configured > 0) {
+            return configured;
+        }
+        long byHeap = maxHeapBytes / 2 / DECODE_MEMORY_ESTIMATE;
+        return (int) Math.max(1, Math.min(processors, byHeap));
+    }
+
+    private static void closeSource(FileContent source) {
+        try {
+            source.inputStream().close();
         } catch (IOException e) {
-            log.warn("Failed to save preview to cache", e);
+            log.debug("Failed to close preview source {}: {}", source.fileName(), e.getMessage());
         }
     }
 
-    private String generateCacheKey(String path) {
+    /**
+     * Keys a thumbnail by path and source version, so a replaced file never gets the preview of its predecessor.
+     * Previews of former versions are left to the cache eviction.
+     */
+    private static String generateCacheKey(String path, FileMetadata sourceMetadata) {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(path.getBytes());
+            String identity = PreviewType.THUMBNAIL.name() + "\n" + path + "\n" + sourceMetadata.entityTag();
+            byte[] hash = digest.digest(identity.getBytes(StandardCharsets.UTF_8));
             return HexFormat.of().formatHex(hash);
         } catch (NoSuchAlgorithmException e) {
             throw new FileOperationException("SHA-256 algorithm not found", e);
@@ -0,0 +1,32 @@
+package com.manas.backend.context.file.application.service;
+
+import com.manas.backend.context.file.application.port.in.SearchFilesQuery;
+import com.manas.backend.context.file.application.port.in.SearchFilesUseCase;
+import com.manas.backend.context.file.application.port.out.FileSearchPort;
+import com.manas.backend.context.file.domain.FileSearchResult;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+public class SearchFilesService implements SearchFilesUseCase {
+
+    private static final int MAX_LIMIT = 200;
+    private static final int MAX_OFFSET = 10_000;
+
+    private final FileSearchPort fileSearchPort;
+
+    @Override
+    public FileSearchResult search(SearchFilesQuery query) {
+        String text = query.query() == null ? "" : query.query().strip();
+        int normalizedOffset = Math.min(Math.max(0, query.offset()), MAX_OFFSET);
+        int normalizedLimit = Math.min(Math.max(1, query.limit()), MAX_LIMIT);
+
+        if (text.isEmpty()) {
+            return new FileSearchResult(text, List.of(), 0, normalizedOffset, normalizedLimit, false);
+        }
+
+        return fileSearchPort.search(text, normalizedOffset, normalizedLimit);
+    }
+}
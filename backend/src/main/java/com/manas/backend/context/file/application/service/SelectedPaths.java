@@ -0,0 +1,33 @@
+package com.manas.backend.context.file.application.service;
+
+import java.util.List;
+
+/**
+ * Helpers for multi-selections that may contain a directory together with paths inside it.
+ */
+final class SelectedPaths {
+
+    private SelectedPaths() {
+    }
+
+    /**
+     * Distinct selected paths that are not inside another selected path. Operating on these covers the whole
+     * selection without racing on nested entries.
+     */
+    static List<String> roots(List<String> paths) {
+        return paths.stream().distinct().filter(path -> owningRoot(path, paths) == null).toList();
+    }
+
+    /**
+     * The candidate directory that contains {@code path}, or null when no other candidate does.
+     */
+    static String owningRoot(String path, List<String> candidates) {
+        for (String candidate : candidates) {
+            String prefix = candidate.endsWith("/") ? candidate : candidate + "/";
+            if (!candidate.equals(path) && path.startsWith(prefix)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+}
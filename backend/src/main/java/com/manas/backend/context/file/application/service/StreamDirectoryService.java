@@ -0,0 +1,21 @@
+package com.manas.backend.context.file.application.service;
+
+import com.manas.backend.context.file.application.port.in.StreamDirectoryUseCase;
+import com.manas.backend.context.file.application.port.out.FileStoragePort;
+import com.manas.backend.context.file.domain.FileNode;
+import java.util.UUID;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+public class StreamDirectoryService implements StreamDirectoryUseCase {
+
+    private final FileStoragePort fileStoragePort;
+
+    @Override
+    public Stream<FileNode> streamDirectory(String path, UUID userId) {
+        return fileStoragePort.streamDirectory(path, userId);
+    }
+}
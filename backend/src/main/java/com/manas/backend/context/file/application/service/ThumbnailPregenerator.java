@@ -0,0 +1,220 @@
+package com.manas.backend.context.file.application.service;
+
+import com.manas.backend.context.file.application.port.out.FileScanPort;
+import com.manas.backend.context.file.application.port.out.PreviewGeneratorPort;
+import com.manas.backend.context.file.domain.FileNode;
+import com.manas.backend.context.file.domain.event.DirectoryListedEvent;
+import com.manas.backend.context.file.domain.event.FileUploadedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generates thumbnails ahead of their first request, so grid views of new folders are served from the cache.
+ * <p>
+ * Files are queued when they are uploaded, when a page of their directory is listed, and when a periodic scan
+ * finds them added outside the application. A fixed pool of {@code app.preview.pregenerate.parallelism} platform
+ * threads takes them in priority order: files on a listed page first, then uploads, then scan results, and the
+ * most recently queued first within a priority. Queuing a file again only raises its priority. The queue is
+ * bounded; scan results that do not fit keep the scan watermark in place and are found again by the next scan.
+ */
+@Slf4j
+@Component
+public class ThumbnailPregenerator implements AutoCloseable {
+
+    enum Priority {
+        VIEWED,
+        UPLOADED,
+        SCANNED
+    }
+
+    /**
+     * Files changed shortly before a scan started may still be written to; the next scan looks at them again.
+     */
+    private static final Duration SCAN_OVERLAP = Duration.ofMinutes(1);
+
+    private final PreviewService previewService;
+    private final PreviewGeneratorPort previewGeneratorPort;
+    private final FileScanPort fileScanPort;
+    private final boolean enabled;
+    private final int parallelism;
+    private final int maxQueued;
+    private final Counter generatedCounter;
+    private final Counter failedCounter;
+    private final PriorityBlockingQueue<Task> queue = new PriorityBlockingQueue<>(64,
+            Comparator.comparing(Task::priority).thenComparing(Comparator.comparingLong(Task::sequence).reversed()));
+    private final Map<String, Task> pending = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicBoolean scanning = new AtomicBoolean();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile Instant scanWatermark;
+    private volatile boolean closing;
+
+    public ThumbnailPregenerator(
+            PreviewService previewService,
+            PreviewGeneratorPort previewGeneratorPort,
+            FileScanPort fileScanPort,
+            MeterRegistry meterRegistry,
+            @Value("${app.preview.pregenerate.enabled:true}") boolean enabled,
+            @Value("${app.preview.pregenerate.parallelism:0}") int parallelism,
+            @Value("${app.preview.pregenerate.max-queued:10000}") int maxQueued,
+            @Value("${app.preview.pregenerate.scan-lookback:P1D}") Duration scanLookback
+    ) {
+        this.previewService = previewService;
+        this.previewGeneratorPort = previewGeneratorPort;
+        this.fileScanPort = fileScanPort;
+        this.enabled = enabled;
+        this.parallelism = parallelism > 0
+                ? parallelism
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.maxQueued = Math.max(1, maxQueued);
+        this.generatedCounter = meterRegistry.counter("app.preview.pregenerate.generated");
+        this.failedCounter = meterRegistry.counter("app.preview.pregenerate.failed");
+        this.scanWatermark = Instant.now().minus(scanLookback);
+        meterRegistry.gauge("app.preview.pregenerate.queued", pending, Map::size);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || !workers.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < parallelism; i++) {
+            workers.add(Thread.ofPlatform().daemon().name("thumbnail-pregenerate-" + i).start(this::runWorker));
+        }
+        log.info("Pre-generating thumbnails on {} threads", parallelism);
+    }
+
+    @EventListener
+    public void onFileUploaded(FileUploadedEvent event) {
+        // The content type is only known once the worker opens the file.
+        enqueue(event.filePath(), event.userId(), Priority.UPLOADED);
+    }
+
+    @EventListener
+    public void onDirectoryListed(DirectoryListedEvent event) {
+        for (FileNode item : event.items()) {
+            if (!item.isDirectory() && previewGeneratorPort.supports(item.contentType())) {
+                enqueue(item.path(), event.userId(), Priority.VIEWED);
+            }
+        }
+    }
+
+    /**
+     * Queues files added or changed since the previous scan, including those copied in over SMB.
+     */
+    @Scheduled(
+            fixedDelayString = "${app.preview.pregenerate.scan-interval:PT10M}",
+            initialDelayString = "${app.preview.pregenerate.scan-interval:PT10M}"
+    )
+    public void scan() {
+        if (!enabled || !scanning.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            Instant startedAt = Instant.now();
+            boolean complete = fileScanPort.scanChangedSince(scanWatermark, node ->
+                    !previewGeneratorPort.supports(node.contentType())
+                            || enqueue(node.path(), null, Priority.SCANNED));
+
+            if (complete) {
+                scanWatermark = startedAt.minus(SCAN_OVERLAP);
+            } else {
+                log.info("Thumbnail queue is full, scan continues from {} next time", scanWatermark);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to scan storage for new thumbnails: {}", e.getMessage(), e);
+        } finally {
+            scanning.set(false);
+        }
+    }
+
+    /**
+     * Queues a file, or raises the priority of a queued one.
+     *
+     * @return false if the queue is full. Files of a listed page are always accepted.
+     */
+    boolean enqueue(String path, UUID userId, Priority priority) {
+        if (!enabled) {
+            return true;
+        }
+
+        var accepted = new AtomicBoolean(true);
+        pending.compute(path, (key, queued) -> {
+            if (queued != null && queued.priority().compareTo(priority) <= 0) {
+                return queued;
+            }
+            if (queued == null && priority != Priority.VIEWED && pending.size() >= maxQueued) {
+                accepted.set(false);
+                return null;
+            }
+            // A raised priority leaves the old task in the queue; workers skip it as superseded.
+            Task task = new Task(path, userId, priority, sequence.incrementAndGet());
+            queue.add(task);
+            return task;
+        });
+        return accepted.get();
+    }
+
+    /**
+     * Takes the next task that is still current, waiting for one to arrive.
+     */
+    Task take() throws InterruptedException {
+        while (true) {
+            Task task = queue.take();
+            if (pending.remove(task.path(), task)) {
+                return task;
+            }
+        }
+    }
+
+    void process(Task task) {
+        try {
+            if (previewService.pregenerate(task.path(), task.userId())) {
+                generatedCounter.increment();
+            }
+        } catch (RuntimeException e) {
+            // Deleted or moved meanwhile, or not decodable; a request will report it if the file is viewed.
+            failedCounter.increment();
+            log.debug("Failed to pre-generate thumbnail for {}: {}", task.path(), e.getMessage());
+        }
+    }
+
+    private void runWorker() {
+        while (!closing) {
+            try {
+                process(take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closing = true;
+        workers.forEach(Thread::interrupt);
+        workers.clear();
+    }
+
+    record Task(String path, UUID userId, Priority priority, long sequence) {
+    }
+}
@@ -0,0 +1,222 @@
+package com.manas.backend.context.file.application.service;
+
+import com.manas.backend.common.exception.ConflictException;
+import com.manas.backend.context.file.application.port.in.TrashUseCase;
+import com.manas.backend.context.file.application.port.out.TrashPort;
+import com.manas.backend.context.file.domain.TrashedEntry;
+import com.manas.backend.context.file.domain.event.FileRestoredEvent;
+import com.manas.backend.context.system.application.port.in.RecordAuditLogUseCase;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+@Slf4j
+@Service
+public class TrashService implements TrashUseCase {
+
+    private final TrashPort trashPort;
+    private final RecordAuditLogUseCase recordAuditLogUseCase;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration retention;
+    private final long maxSizePerVolume;
+    private final long minFreeSpace;
+    private final AtomicBoolean emptying = new AtomicBoolean();
+
+    public TrashService(
+            TrashPort trashPort,
+            RecordAuditLogUseCase recordAuditLogUseCase,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.storage.trash.retention:P30D}") Duration retention,
+            @Value("${app.storage.trash.max-size:0}") DataSize maxSizePerVolume,
+            @Value("${app.storage.trash.min-free-space:10GB}") DataSize minFreeSpace
+    ) {
+        this.trashPort = trashPort;
+        this.recordAuditLogUseCase = recordAuditLogUseCase;
+        this.eventPublisher = eventPublisher;
+        this.retention = retention;
+        this.maxSizePerVolume = maxSizePerVolume.toBytes();
+        this.minFreeSpace = minFreeSpace.toBytes();
+    }
+
+    @Override
+    public List<TrashedEntry> listTrash() {
+        return trashPort.listTrash();
+    }
+
+    @Override
+    public TrashedEntry restore(String id, UUID userId) {
+        log.info("User {} requested restore of trash entry {}", userId, id);
+        try {
+            TrashedEntry restored = trashPort.restore(id, userId);
+            eventPublisher.publishEvent(new FileRestoredEvent(userId, restored.originalPath(), restored.directory(),
+                    Instant.now()));
+            recordAuditLogUseCase.record(userId, "RESTORE_FILE", restored.originalPath(), "N/A", "SUCCESS");
+            return restored;
+        } catch (RuntimeException e) {
+            log.error("Failed to restore trash entry {}", id, e);
+            recordAuditLogUseCase.record(userId, "RESTORE_FILE", id, "N/A", "FAILURE");
+            throw e;
+        }
+    }
+
+    @Override
+    public void purge(String id, UUID userId) {
+        log.info("User {} requested purge of trash entry {}", userId, id);
+        try {
+            trashPort.purge(id);
+            recordAuditLogUseCase.record(userId, "PURGE_TRASH", id, "N/A", "SUCCESS");
+        } catch (RuntimeException e) {
+            log.error("Failed to purge trash entry {}", id, e);
+            recordAuditLogUseCase.record(userId, "PURGE_TRASH", id, "N/A", "FAILURE");
+            throw e;
+        }
+    }
+
+    @Override
+    public void emptyTrash(UUID userId) {
+        if (!emptying.compareAndSet(false, true)) {
+            throw new ConflictException("The trash is already being emptied");
+        }
+        log.info("User {} requested to empty the trash", userId);
+        // Purging a large trash takes longer than a request may, so it continues after the response.
+        Thread.ofVirtual().name("trash-empty").start(() -> {
+            try {
+                emptyAll(userId);
+            } finally {
+                emptying.set(false);
+            }
+        });
+    }
+
+    private void emptyAll(UUID userId) {
+        List<TrashedEntry> entries = trashPort.listTrash().stream()
+                .sorted(Comparator.comparing(TrashedEntry::deletedAt))
+                .toList();
+        List<String> ids = new ArrayList<>();
+        List<String> details = new ArrayList<>();
+        int failed = 0;
+        for (TrashedEntry entry : entries) {
+            ids.add(entry.id());
+            try {
+                trashPort.purge(entry.id());
+                details.add(AuditTargets.outcome("PURGED", entry.id(), null));
+            } catch (RuntimeException e) {
+                log.warn("Could not purge trash entry {} ({}): {}", entry.id(), entry.originalPath(), e.getMessage());
+                details.add(AuditTargets.outcome("FAILED", entry.id(), e.getMessage()));
+                failed++;
+            }
+        }
+        log.info("Emptied the trash: purged {} of {} entries", entries.size() - failed, entries.size());
+        if (!entries.isEmpty()) {
+            recordAuditLogUseCase.record(userId, "EMPTY_TRASH", AuditTargets.summarize(ids), "N/A",
+                    AuditTargets.batchStatus(entries.size() - failed, failed), String.join("\n", details));
+        }
+    }
+
+    /**
+     * Permanently deletes entries older than the retention, then the oldest entries of every volume whose trash
+     * is larger than the configured maximum. Runs on a schedule that can be set to quiet hours, one entry at a
+     * time; an entry that fails is left for the next run.
+     */
+    @Scheduled(cron = "${app.storage.trash.purge-cron:0 0 * * * *}")
+    public void purge() {
+        List<TrashedEntry> expired = selectForPurge(trashPort.listTrash(), Instant.now());
+        int purged = 0;
+        for (TrashedEntry entry : expired) {
+            try {
+                trashPort.purge(entry.id());
+                purged++;
+            } catch (RuntimeException e) {
+                log.warn("Could not purge trash entry {} ({}): {}", entry.id(), entry.originalPath(), e.getMessage());
+            }
+        }
+        if (!expired.isEmpty()) {
+            log.info("Purged {} of {} trash entries due for removal", purged, expired.size());
+        }
+    }
+
+    /**
+     * Purges the oldest entries of every volume whose file system has less than the configured free space left,
+     * until it has enough again or its trash is empty. Uploads are refused when space runs out, and the trash
+     * holds space that was meant to be freed.
+     */
+    @Scheduled(
+            fixedDelayString = "${app.storage.trash.free-space-check-interval:PT1M}",
+            initialDelayString = "${app.storage.trash.free-space-check-interval:PT1M}"
+    )
+    public void purgeForFreeSpace() {
+        if (minFreeSpace <= 0) {
+            return;
+        }
+        Map<String, List<TrashedEntry>> byVolume = new LinkedHashMap<>();
+        for (TrashedEntry entry : trashPort.listTrash()) {
+            byVolume.computeIfAbsent(entry.volume(), volume -> new ArrayList<>()).add(entry);
+        }
+
+        for (Map.Entry<String, List<TrashedEntry>> volume : byVolume.entrySet()) {
+            if (trashPort.getAvailableSpace(volume.getKey()) >= minFreeSpace) {
+                continue;
+            }
+            List<TrashedEntry> oldestFirst = volume.getValue().stream()
+                    .sorted(Comparator.comparing(TrashedEntry::deletedAt))
+                    .toList();
+            int purged = 0;
+            for (TrashedEntry entry : oldestFirst) {
+                try {
+                    trashPort.purge(entry.id());
+                    purged++;
+                } catch (RuntimeException e) {
+                    log.warn("Could not purge trash entry {} ({}): {}", entry.id(), entry.originalPath(),
+                            e.getMessage());
+                }
+                if (trashPort.getAvailableSpace(volume.getKey()) >= minFreeSpace) {
+                    break;
+                }
+            }
+            log.warn("Free space on {} below {} bytes; purged {} trash entries", volume.getKey(), minFreeSpace,
+                    purged);
+        }
+    }
+
+    List<TrashedEntry> selectForPurge(List<TrashedEntry> entries, Instant now) {
+        Instant cutoff = now.minus(retention);
+        List<TrashedEntry> selected = new ArrayList<>();
+        Map<String, List<TrashedEntry>> kept = new LinkedHashMap<>();
+        for (TrashedEntry entry : entries) {
+            if (entry.deletedAt().isBefore(cutoff)) {
+                selected.add(entry);
+            } else {
+                kept.computeIfAbsent(entry.volume(), volume -> new ArrayList<>()).add(entry);
+            }
+        }
+
+        if (maxSizePerVolume > 0) {
+            for (List<TrashedEntry> volumeEntries : kept.values()) {
+                // Newest entries are kept first; unknown sizes count as empty rather than evicting blindly.
+                volumeEntries.sort(Comparator.comparing(TrashedEntry::deletedAt).reversed());
+                long total = 0L;
+                for (TrashedEntry entry : volumeEntries) {
+                    total += Math.max(0L, entry.size());
+                    if (total > maxSizePerVolume) {
+                        selected.add(entry);
+                    }
+                }
+            }
+        }
+        return selected.stream()
+                .sorted(Comparator.comparing(TrashedEntry::deletedAt))
+                .toList();
+    }
+}
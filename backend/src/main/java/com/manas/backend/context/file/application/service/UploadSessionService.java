@@ -0,0 +1,320 @@
+package com.manas.backend.context.file.application.service;
+
+import com.manas.backend.common.exception.ConflictException;
+import com.manas.backend.common.exception.FileOperationException;
+import com.manas.backend.common.exception.ResourceNotFoundException;
+import com.manas.backend.context.file.application.port.in.CreateUploadSessionCommand;
+import com.manas.backend.context.file.application.port.in.UploadChunkCommand;
+import com.manas.backend.context.file.application.port.in.UploadSessionUseCase;
+import com.manas.backend.context.file.application.port.out.FileStoragePort;
+import com.manas.backend.context.file.application.port.out.LoadUploadSessionPort;
+import com.manas.backend.context.file.application.port.out.SaveUploadSessionPort;
+import com.manas.backend.context.file.application.port.out.UploadStagingPort;
+import com.manas.backend.context.file.domain.FileValidator;
+import com.manas.backend.context.file.domain.UploadSession;
+import com.manas.backend.context.file.domain.event.FileUploadedEvent;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+@Slf4j
+@Service
+public class UploadSessionService implements UploadSessionUseCase {
+
+    private final LoadUploadSessionPort loadUploadSessionPort;
+    private final SaveUploadSessionPort saveUploadSessionPort;
+    private final UploadStagingPort uploadStagingPort;
+    private final FileStoragePort fileStoragePort;
+    private final FileValidator fileValidator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration sessionTtl;
+
+    /**
+     * Sessions with a chunk write or completion in progress. A second request for the same session is
+     * rejected instead of interleaving writes to the partial file.
+     */
+    private final Set<UUID> busySessions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * SHA-256 state of each session's partial file up to its committed offset, fed while chunks are written
+     * so completion does not read the file again. Lost on restart, in which case completion re-hashes.
+     */
+    private final Map<UUID, RunningDigest> runningDigests = new ConcurrentHashMap<>();
+
+    public UploadSessionService(
+            LoadUploadSessionPort loadUploadSessionPort,
+            SaveUploadSessionPort saveUploadSessionPort,
+            UploadStagingPort uploadStagingPort,
+            FileStoragePort fileStoragePort,
+            FileValidator fileValidator,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.upload.session.ttl:PT24H}") Duration sessionTtl
+    ) {
+        this.loadUploadSessionPort = loadUploadSessionPort;
+        this.saveUploadSessionPort = saveUploadSessionPort;
+        this.uploadStagingPort = uploadStagingPort;
+        this.fileStoragePort = fileStoragePort;
+        this.fileValidator = fileValidator;
+        this.eventPublisher = eventPublisher;
+        this.sessionTtl = sessionTtl;
+    }
+
+    @Override
+    public UploadSession create(CreateUploadSessionCommand command) {
+        fileValidator.validate(command.fileName(), command.size());
+
+        String targetPath = getLogicalPath(command.targetDirectory(), command.fileName());
+        String checksum = normalizeChecksum(command.checksumSha256());
+        Instant now = Instant.now();
+
+        Optional<UploadSession> existing = loadUploadSessionPort.findByTargetPath(targetPath);
+        if (existing.isPresent()) {
+            UploadSession session = existing.get();
+            if (session.isExpired(now)) {
+                discard(session);
+            } else if (session.userId().equals(command.userId())
+                    && session.totalSize() == command.size()
+                    && Objects.equals(session.checksumSha256(), checksum)) {
+                log.info("Resuming upload session {} for {} at offset {}", session.id(), targetPath,
+                        session.committedOffset());
+                return session;
+            } else {
+                throw new ConflictException("Another upload to this path is in progress: " + targetPath);
+            }
+        }
+
+        if (fileStoragePort.exists(targetPath, command.userId())) {
+            throw new IllegalArgumentException("File already exists: " + targetPath);
+        }
+
+        long availableSpace = fileStoragePort.getAvailableDiskSpace();
+        long requiredSpace = (long) (command.size() * 1.1); // 10% buffer
+        if (availableSpace < requiredSpace) {
+            log.warn("Insufficient disk space. Required: {} bytes, Available: {} bytes",
+                    requiredSpace, availableSpace);
+            throw new IllegalStateException("Insufficient disk space for upload");
+        }
+
+        UploadSession session = new UploadSession(UUID.randomUUID(), command.userId(), targetPath,
+                command.size(), 0L, checksum, now, now.plus(sessionTtl));
+        saveUploadSessionPort.save(session);
+        try {
+            uploadStagingPort.createPartial(targetPath, session.id());
+        } catch (RuntimeException e) {
+            saveUploadSessionPort.delete(session.id());
+            throw e;
+        }
+
+        log.info("Created upload session {} for {} ({} bytes)", session.id(), targetPath, command.size());
+        return session;
+    }
+
+    @Override
+    public UploadSession getSession(UUID sessionId, UUID userId) {
+        return requireSession(sessionId, userId);
+    }
+
+    @Override
+    public UploadSession appendChunk(UploadChunkCommand command) {
+        return whileBusy(command.sessionId(), () -> {
+            UploadSession session = requireSession(command.sessionId(), command.userId());
+
+            if (command.offset() != session.committedOffset()) {
+                throw new ConflictException("Upload offset mismatch: expected " + session.committedOffset()
+                        + " but got " + command.offset());
+            }
+
+            MessageDigest digest = digestAt(session);
+            InputStream content = digest != null ? new DigestInputStream(command.content(), digest)
+                    : command.content();
+            long committed = uploadStagingPort.appendPartial(session.targetPath(), session.id(),
+                    session.committedOffset(), content, session.remaining());
+            if (digest != null) {
+                runningDigests.put(session.id(), new RunningDigest(committed, digest));
+            }
+
+            UploadSession updated = session.withProgress(committed, Instant.now().plus(sessionTtl));
+            saveUploadSessionPort.save(updated);
+
+            log.debug("Upload session {} committed {} of {} bytes", session.id(), committed, session.totalSize());
+            return updated;
+        });
+    }
+
+    @Override
+    public String complete(UUID sessionId, UUID userId) {
+        return whileBusy(sessionId, () -> {
+            UploadSession session = requireSession(sessionId, userId);
+
+            if (!session.isComplete()) {
+                throw new ConflictException("Upload is incomplete: " + session.committedOffset() + " of "
+                        + session.totalSize() + " bytes received");
+            }
+
+            String sha256 = contentSha256(session);
+            if (session.checksumSha256() != null && !session.checksumSha256().equals(sha256)) {
+                discard(session);
+                throw new IllegalArgumentException("Checksum verification failed for uploaded file");
+            }
+
+            uploadStagingPort.commitPartial(session.targetPath(), session.id(), userId);
+            saveUploadSessionPort.delete(session.id());
+
+            eventPublisher.publishEvent(new FileUploadedEvent(
+                    userId,
+                    session.targetPath(),
+                    session.totalSize(),
+                    Instant.now(),
+                    sha256
+            ));
+
+            log.info("Upload session {} completed: {}", session.id(), session.targetPath());
+            return session.targetPath();
+        });
+    }
+
+    @Override
+    public void abort(UUID sessionId, UUID userId) {
+        whileBusy(sessionId, () -> {
+            discard(requireSession(sessionId, userId));
+            log.info("Upload session {} aborted by user {}", sessionId, userId);
+            return null;
+        });
+    }
+
+    /**
+     * Removes expired sessions together with their abandoned partial files.
+     */
+    @Scheduled(
+            fixedDelayString = "${app.upload.session.cleanup-interval:PT15M}",
+            initialDelayString = "${app.upload.session.cleanup-interval:PT15M}"
+    )
+    public void purgeExpired() {
+        int purged = 0;
+        for (UploadSession session : loadUploadSessionPort.findExpired(Instant.now())) {
+            if (!busySessions.add(session.id())) {
+                continue;
+            }
+            try {
+                discard(session);
+                purged++;
+            } catch (RuntimeException e) {
+                log.warn("Failed to purge expired upload session {}", session.id(), e);
+            } finally {
+                busySessions.remove(session.id());
+            }
+        }
+        if (purged > 0) {
+            log.info("Purged {} expired upload sessions", purged);
+        }
+    }
+
+    private <T> T whileBusy(UUID sessionId, Supplier<T> action) {
+        if (!busySessions.add(sessionId)) {
+            throw new ConflictException("Another request is writing to this upload");
+        }
+        try {
+            return action.get();
+        } finally {
+            busySessions.remove(sessionId);
+        }
+    }
+
+    /**
+     * Sessions of other users and expired sessions are reported as missing.
+     */
+    private UploadSession requireSession(UUID sessionId, UUID userId) {
+        return loadUploadSessionPort.findById(sessionId)
+                .filter(session -> session.userId().equals(userId))
+                .filter(session -> !session.isExpired(Instant.now()))
+                .orElseThrow(() -> new ResourceNotFoundException("Upload session not found: " + sessionId));
+    }
+
+    private void discard(UploadSession session) {
+        runningDigests.remove(session.id());
+        uploadStagingPort.deletePartial(session.targetPath(), session.id());
+        saveUploadSessionPort.delete(session.id());
+    }
+
+    /**
+     * Returns a digest positioned at the session's committed offset, or null when the bytes written so far
+     * were not hashed by this process. The stored state is cloned so a failed chunk cannot corrupt it.
+     */
+    private MessageDigest digestAt(UploadSession session) {
+        if (session.committedOffset() == 0) {
+            return newSha256();
+        }
+        RunningDigest running = runningDigests.get(session.id());
+        if (running == null || running.offset() != session.committedOffset()) {
+            return null;
+        }
+        try {
+            return (MessageDigest) running.digest().clone();
+        } catch (CloneNotSupportedException e) {
+            runningDigests.remove(session.id());
+            return null;
+        }
+    }
+
+    private String contentSha256(UploadSession session) {
+        // digest() resets the state, so it is taken out; a retried completion falls back to re-reading.
+        RunningDigest running = runningDigests.remove(session.id());
+        if (running != null && running.offset() == session.totalSize()) {
+            return HexFormat.of().formatHex(running.digest().digest());
+        }
+
+        // Chunks written before a restart were not hashed in memory; fall back to one pass over the file.
+        try (InputStream inputStream = uploadStagingPort.openPartial(session.targetPath(), session.id())) {
+            MessageDigest digest = newSha256();
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new FileOperationException("Failed to verify uploaded file checksum", e);
+        }
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    }
+
+    private static String normalizeChecksum(String checksumSha256) {
+        return StringUtils.hasText(checksumSha256) ? checksumSha256.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
+    /**
+     * Normalized, since the path is the session's unique key: "a//x" and "/a/x" must find the same session.
+     */
+    private static String getLogicalPath(String targetDirectory, String fileName) {
+        return ContentIndexService.normalize(targetDirectory + "/" + fileName);
+    }
+
+    private record RunningDigest(long offset, MessageDigest digest) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.manas.backend.context.file.domain;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A validated selection of files and folders that is written as one ZIP archive. Nothing is read until
+ * {@link #writeTo(OutputStream)} walks the selection.
+ */
+public interface ArchiveSource {
+
+    /**
+     * Suggested download name, ending in {@code .zip}.
+     */
+    String fileName();
+
+    /**
+     * Streams the archive while walking the selection. Files that disappear during the walk are skipped.
+     */
+    void writeTo(OutputStream out) throws IOException;
+}
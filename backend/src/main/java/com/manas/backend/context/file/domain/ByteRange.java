@@ -0,0 +1,20 @@
+package com.manas.backend.context.file.domain;
+
+/**
+ * A contiguous byte range of a file: {@code length} bytes starting at {@code offset}.
+ */
+public record ByteRange(long offset, long length) {
+
+    public ByteRange {
+        if (offset < 0 || length < 0) {
+            throw new IllegalArgumentException("Invalid byte range: offset=" + offset + ", length=" + length);
+        }
+    }
+
+    /**
+     * Inclusive position of the last byte, as used in {@code Content-Range}.
+     */
+    public long lastPosition() {
+        return offset + length - 1;
+    }
+}
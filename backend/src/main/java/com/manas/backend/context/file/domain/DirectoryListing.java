@@ -8,5 +8,6 @@ public record DirectoryListing(
     List<FileNode> items,
     int totalCount,
     int offset,
-    int limit
+    int limit,
+    String nextCursor // opaque keyset cursor for the following page, null on the last page
 ) {}
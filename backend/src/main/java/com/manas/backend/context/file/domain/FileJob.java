@@ -0,0 +1,65 @@
+package com.manas.backend.context.file.domain;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A long-running file operation executed in the background over a list of {@link FileJobItem}s.
+ *
+ * @param destination       Target directory of a move, null for deletes.
+ * @param completedItems    Items finished successfully.
+ * @param failedItems       Items that failed; the job continues with the next item.
+ * @param currentPath       Source path of the item being processed, null when idle.
+ * @param currentBytesDone  Bytes transferred of the current item, for items that report byte progress.
+ * @param currentBytesTotal Bytes of the current item, or 0 when it reports no byte progress.
+ * @param message           Summary of the outcome, or the reason the job stopped.
+ * @param finishedAt        Set once the job reaches a final state.
+ */
+public record FileJob(
+        UUID id,
+        UUID userId,
+        FileJobType type,
+        FileJobState state,
+        String destination,
+        int totalItems,
+        int completedItems,
+        int failedItems,
+        String currentPath,
+        long currentBytesDone,
+        long currentBytesTotal,
+        String message,
+        Instant createdAt,
+        Instant updatedAt,
+        Instant finishedAt
+) {
+
+    public static FileJob queued(UUID userId, FileJobType type, String destination, int totalItems, Instant now) {
+        return new FileJob(UUID.randomUUID(), userId, type, FileJobState.QUEUED, destination, totalItems, 0, 0,
+                null, 0L, 0L, null, now, now, null);
+    }
+
+    public FileJob running(Instant now) {
+        return new FileJob(id, userId, type, FileJobState.RUNNING, destination, totalItems, completedItems,
+                failedItems, currentPath, currentBytesDone, currentBytesTotal, message, createdAt, now, null);
+    }
+
+    public FileJob processing(String path, Instant now) {
+        return new FileJob(id, userId, type, state, destination, totalItems, completedItems, failedItems, path,
+                0L, 0L, message, createdAt, now, null);
+    }
+
+    public FileJob transferring(long bytesDone, long bytesTotal, Instant now) {
+        return new FileJob(id, userId, type, state, destination, totalItems, completedItems, failedItems,
+                currentPath, bytesDone, bytesTotal, message, createdAt, now, null);
+    }
+
+    public FileJob progressed(int completedItems, int failedItems, Instant now) {
+        return new FileJob(id, userId, type, state, destination, totalItems, completedItems, failedItems,
+                currentPath, currentBytesDone, currentBytesTotal, message, createdAt, now, null);
+    }
+
+    public FileJob finished(FileJobState state, String message, Instant now) {
+        return new FileJob(id, userId, type, state, destination, totalItems, completedItems, failedItems, null,
+                0L, 0L, message, createdAt, now, now);
+    }
+}
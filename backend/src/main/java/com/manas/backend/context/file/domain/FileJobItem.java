@@ -0,0 +1,33 @@
+package com.manas.backend.context.file.domain;
+
+/**
+ * One selected path of a {@link FileJob}. Items run in {@code position} order and their state is stored as
+ * soon as they finish, so a job resumed after a restart continues with the first pending item.
+ *
+ * @param message Failure reason, or null.
+ */
+public record FileJobItem(
+        int position,
+        String sourcePath,
+        State state,
+        String message
+) {
+
+    public enum State {
+        PENDING,
+        DONE,
+        FAILED
+    }
+
+    public static FileJobItem pending(int position, String sourcePath) {
+        return new FileJobItem(position, sourcePath, State.PENDING, null);
+    }
+
+    public FileJobItem done() {
+        return new FileJobItem(position, sourcePath, State.DONE, null);
+    }
+
+    public FileJobItem failed(String message) {
+        return new FileJobItem(position, sourcePath, State.FAILED, message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.manas.backend.context.file.domain;
+
+public enum FileJobType {
+    MOVE,
+    COPY,
+    DELETE
+}
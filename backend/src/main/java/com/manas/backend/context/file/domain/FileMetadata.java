@@ -0,0 +1,18 @@
+package com.manas.backend.context.file.domain;
+
+import java.time.Instant;
+
+/**
+ * Metadata of a regular file, read without opening its content.
+ *
+ * @param entityTag Strong, quoted entity tag derived from the file identity, size and modification time.
+ */
+public record FileMetadata(
+        String fileName,
+        String contentType,
+        long size,
+        Instant lastModified,
+        String entityTag
+) {
+
+}
@@ -8,5 +8,8 @@ public record FileNode(
     boolean isDirectory,
     long size,
     Instant lastModified,
-    String owner // simplified for now, might be a User ID or name
+    String owner, // simplified for now, might be a User ID or name
+    Long recursiveSize, // directories only; null until the size index is built
+    Long childCount, // directories only; null until the size index is built
+    String contentType // files only
 ) {}
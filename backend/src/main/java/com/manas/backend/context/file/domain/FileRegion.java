@@ -0,0 +1,25 @@
+package com.manas.backend.context.file.domain;
+
+import java.nio.file.Path;
+
+/**
+ * Implemented by content streams backed by a contiguous region of a local file, so the web layer can hand the
+ * region to the container for a kernel-level transfer (sendfile) instead of copying it through the heap.
+ */
+public interface FileRegion {
+
+    /**
+     * Absolute path of the backing file.
+     */
+    Path file();
+
+    /**
+     * Offset of the next byte that would be read.
+     */
+    long position();
+
+    /**
+     * Number of bytes remaining in the region.
+     */
+    long remaining();
+}
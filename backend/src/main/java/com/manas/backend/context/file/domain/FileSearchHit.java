@@ -0,0 +1,7 @@
+package com.manas.backend.context.file.domain;
+
+public record FileSearchHit(
+    String name,
+    String path,
+    boolean isDirectory
+) {}
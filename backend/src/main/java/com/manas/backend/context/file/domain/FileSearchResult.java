@@ -0,0 +1,12 @@
+package com.manas.backend.context.file.domain;
+
+import java.util.List;
+
+public record FileSearchResult(
+    String query,
+    List<FileSearchHit> items,
+    int totalCount,
+    int offset,
+    int limit,
+    boolean indexing // true while the initial index build is still running; results may be incomplete
+) {}
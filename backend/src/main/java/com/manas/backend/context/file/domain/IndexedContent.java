@@ -0,0 +1,18 @@
+package com.manas.backend.context.file.domain;
+
+/**
+ * Entry of the content index: where content with a given hash is stored.
+ *
+ * @param sha256     Lower-case hex SHA-256 of the content.
+ * @param path       Logical path of a file with that content.
+ * @param size       Size of the content in bytes.
+ * @param entityTag  Entity tag of the file when it was indexed; a different tag means the file has changed since.
+ */
+public record IndexedContent(
+        String sha256,
+        String path,
+        long size,
+        String entityTag
+) {
+
+}
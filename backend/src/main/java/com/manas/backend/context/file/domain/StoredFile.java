@@ -0,0 +1,16 @@
+package com.manas.backend.context.file.domain;
+
+/**
+ * Result of persisting uploaded content.
+ *
+ * @param path   Logical path the file was stored at.
+ * @param size   Number of bytes written.
+ * @param sha256 Lower-case hex SHA-256 of the content, computed while it was written.
+ */
+public record StoredFile(
+        String path,
+        long size,
+        String sha256
+) {
+
+}
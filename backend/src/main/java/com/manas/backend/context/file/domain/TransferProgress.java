@@ -0,0 +1,18 @@
+package com.manas.backend.context.file.domain;
+
+/**
+ * Receives the byte progress of a long-running transfer, such as a move between volumes. Called from the thread
+ * doing the transfer, so implementations must be quick.
+ */
+@FunctionalInterface
+public interface TransferProgress {
+
+    TransferProgress NONE = (bytesDone, bytesTotal) -> {
+    };
+
+    /**
+     * @param bytesDone  Bytes transferred so far, including those already done before a resume.
+     * @param bytesTotal Bytes of the whole transfer.
+     */
+    void update(long bytesDone, long bytesTotal);
+}
@@ -0,0 +1,27 @@
+package com.manas.backend.context.file.domain;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A deleted file or directory kept in the trash of its volume until it is restored or purged.
+ *
+ * @param id           Identifier of the entry within the trash.
+ * @param volume       Logical path of the volume whose trash holds the entry ("/" for top-level entries).
+ * @param originalPath Logical path the entry was deleted from; null if its record was lost.
+ * @param directory    Whether the entry is a directory.
+ * @param size         Bytes of file data in the entry; -1 if unknown.
+ * @param deletedAt    When the entry was deleted.
+ * @param deletedBy    User who deleted it; null if unknown.
+ */
+public record TrashedEntry(
+        String id,
+        String volume,
+        String originalPath,
+        boolean directory,
+        long size,
+        Instant deletedAt,
+        UUID deletedBy
+) {
+
+}
@@ -0,0 +1,42 @@
+package com.manas.backend.context.file.domain;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A resumable upload in progress. Chunks are appended to a partial file at {@code committedOffset}; once all
+ * {@code totalSize} bytes are committed the partial file is renamed to {@code targetPath}.
+ *
+ * @param targetPath      Logical path of the final file.
+ * @param committedOffset Number of bytes durably written to the partial file.
+ * @param checksumSha256  Optional expected SHA-256 (lower-case hex) verified on completion.
+ * @param expiresAt       After this instant the session and its partial file may be purged.
+ */
+public record UploadSession(
+        UUID id,
+        UUID userId,
+        String targetPath,
+        long totalSize,
+        long committedOffset,
+        String checksumSha256,
+        Instant createdAt,
+        Instant expiresAt
+) {
+
+    public boolean isComplete() {
+        return committedOffset == totalSize;
+    }
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+
+    public long remaining() {
+        return totalSize - committedOffset;
+    }
+
+    public UploadSession withProgress(long committedOffset, Instant expiresAt) {
+        return new UploadSession(id, userId, targetPath, totalSize, committedOffset, checksumSha256, createdAt,
+                expiresAt);
+    }
+}
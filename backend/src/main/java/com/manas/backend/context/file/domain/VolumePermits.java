@@ -0,0 +1,60 @@
+package com.manas.backend.context.file.domain;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limits the work running on each volume, i.e. each top-level directory of the storage root, which is its own
+ * host mount. Shared by everything that works on whole trees, so recursive deletes, copies and trash purges on one
+ * disk together never exceed its limit, while work on different volumes never waits for each other.
+ * <p>
+ * Two kinds of permits are kept per volume: one per file system call of a tree walk, held only for that call, and
+ * one per background job, held for the job's whole run. Walks inside a job take the former as well, so the two
+ * are kept apart.
+ */
+@Component
+public class VolumePermits {
+
+    private final int callParallelism;
+    private final int jobParallelism;
+    private final Map<String, Semaphore> callPermits = new ConcurrentHashMap<>();
+    private final Map<String, Semaphore> jobSlots = new ConcurrentHashMap<>();
+
+    public VolumePermits(
+            @Value("${app.storage.volume-parallelism:8}") int callParallelism,
+            @Value("${app.jobs.volume-parallelism:2}") int jobParallelism
+    ) {
+        this.callParallelism = Math.max(1, callParallelism);
+        this.jobParallelism = Math.max(1, jobParallelism);
+    }
+
+    /**
+     * Permits for single file system calls on the volume of {@code path}.
+     *
+     * @param path Path relative to the storage root, with or without a leading slash.
+     */
+    public Semaphore calls(String path) {
+        return callPermits.computeIfAbsent(volumeOf(path), volume -> new Semaphore(callParallelism, true));
+    }
+
+    /**
+     * Slots for background jobs working on the volume of {@code path}.
+     *
+     * @param path Path relative to the storage root, with or without a leading slash.
+     */
+    public Semaphore jobs(String path) {
+        return jobSlots.computeIfAbsent(volumeOf(path), volume -> new Semaphore(jobParallelism, true));
+    }
+
+    /**
+     * First segment of a path relative to the storage root; empty for the root itself.
+     */
+    public static String volumeOf(String path) {
+        String relative = path.startsWith("/") ? path.substring(1) : path;
+        int slash = relative.indexOf('/');
+        return slash < 0 ? relative : relative.substring(0, slash);
+    }
+}
@@ -0,0 +1,20 @@
+package com.manas.backend.context.file.domain.event;
+
+import com.manas.backend.context.file.domain.FileNode;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Published when a page of a directory has been listed for a user, i.e. the directory is being viewed.
+ *
+ * @param items The entries of the listed page.
+ */
+public record DirectoryListedEvent(
+        UUID userId,
+        String directoryPath,
+        List<FileNode> items,
+        Instant timestamp
+) {
+
+}
@@ -0,0 +1,13 @@
+package com.manas.backend.context.file.domain.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record FileCopiedEvent(
+        UUID userId,
+        String sourcePath,
+        String destinationPath,
+        Instant timestamp
+) {
+
+}
@@ -0,0 +1,12 @@
+package com.manas.backend.context.file.domain.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record FileDeletedEvent(
+        UUID userId,
+        String filePath,
+        Instant timestamp
+) {
+
+}
@@ -0,0 +1,17 @@
+package com.manas.backend.context.file.domain.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published when deleting a file or directory failed part way: entries below {@code filePath}, or the path
+ * itself, may be gone while the rest is left. Listeners forget what they know below the path and re-read what
+ * is left.
+ */
+public record FileDeletionFailedEvent(
+        UUID userId,
+        String filePath,
+        Instant timestamp
+) {
+
+}
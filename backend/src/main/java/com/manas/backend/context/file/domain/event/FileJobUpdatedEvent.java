@@ -0,0 +1,12 @@
+package com.manas.backend.context.file.domain.event;
+
+import com.manas.backend.context.file.domain.FileJob;
+
+/**
+ * Published whenever a job changes state or makes progress.
+ */
+public record FileJobUpdatedEvent(
+        FileJob job
+) {
+
+}
@@ -0,0 +1,16 @@
+package com.manas.backend.context.file.domain.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published when a deleted file or directory has been restored from the trash to its original path.
+ */
+public record FileRestoredEvent(
+        UUID userId,
+        String path,
+        boolean directory,
+        Instant timestamp
+) {
+
+}
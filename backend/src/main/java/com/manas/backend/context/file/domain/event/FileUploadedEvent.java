@@ -3,11 +3,15 @@ package com.manas.backend.context.file.domain.event;
 import java.time.Instant;
 import java.util.UUID;
 
+/**
+ * @param sha256 Lower-case hex SHA-256 of the stored content, computed during the upload.
+ */
 public record FileUploadedEvent(
         UUID userId,
         String filePath,
         long size,
-        Instant timestamp
+        Instant timestamp,
+        String sha256
 ) {
 
 }
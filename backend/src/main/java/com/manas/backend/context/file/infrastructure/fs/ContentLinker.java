@@ -0,0 +1,60 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates files with the content of an existing file while sharing its storage where possible.
+ * <p>
+ * A reflink is tried first: it costs no data and the two files stay independent. Without reflink support (ext4,
+ * or another volume) a hard link is created only if {@code app.storage.dedup.hardlinks} is enabled. Hard links
+ * share the inode, so an in-place edit through one path (over SMB, say) changes every user's copy, and so do
+ * permission and timestamp changes; off by default for that reason. The last resort is a copy on the server,
+ * which still saves the network transfer.
+ */
+@Slf4j
+@Component
+public class ContentLinker {
+
+    enum Method {
+        REFLINK,
+        HARDLINK,
+        COPY
+    }
+
+    private final boolean hardlinks;
+
+    public ContentLinker(@Value("${app.storage.dedup.hardlinks:false}") boolean hardlinks) {
+        this.hardlinks = hardlinks;
+    }
+
+    /**
+     * Creates {@code target}, which must not exist, with the content of the regular file {@code source}.
+     */
+    Method link(Path source, Path target) throws IOException {
+        if (Reflinks.cloneFile(source, target)) {
+            return Method.REFLINK;
+        }
+
+        if (hardlinks) {
+            try {
+                Files.createLink(target, source);
+                return Method.HARDLINK;
+            } catch (FileAlreadyExistsException e) {
+                throw e;
+            } catch (IOException | UnsupportedOperationException e) {
+                // EXDEV between volumes, or a file system without hard links.
+                log.debug("Could not hard link {} to {}: {}", target, source, e.toString());
+            }
+        }
+
+        TreeCopier.copyFileData(source, target, Files.size(source), bytes -> {
+        });
+        return Method.COPY;
+    }
+}
@@ -0,0 +1,435 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves content types from the file name and the first {@value #SNIFF_LENGTH} bytes of the content, without
+ * the platform's {@code Files.probeContentType}, which returns null in slim containers.
+ * <p>
+ * A recognized magic number wins over the extension, except for generic containers (ZIP, OLE2, ISO media, XML,
+ * Matroska, Ogg) where a known extension names the actual format (e.g. docx, m4a, svg). Without a magic number
+ * the extension decides, then a text heuristic. Sniff results are cached per (file key, mtime) and combined with
+ * the name on every lookup, so hard links with different names resolve independently. Listings only consult the
+ * cache and the extension table and never open a file.
+ */
+@Component
+public class ContentTypeResolver {
+
+    static final String OCTET_STREAM = "application/octet-stream";
+    static final String TEXT_PLAIN = "text/plain";
+
+    static final int SNIFF_LENGTH = 64;
+
+    /**
+     * Sniff result of content without a magic number that does not look like text.
+     */
+    private static final String BINARY = "";
+
+    private static final Set<String> CONTAINERS = Set.of(
+            "application/zip", "application/x-ole-storage", "video/mp4", "application/xml", "video/x-matroska",
+            "audio/ogg");
+
+    private static final Map<String, String> EXTENSIONS = Map.ofEntries(
+            Map.entry("jpg", "image/jpeg"),
+            Map.entry("jpeg", "image/jpeg"),
+            Map.entry("jpe", "image/jpeg"),
+            Map.entry("png", "image/png"),
+            Map.entry("gif", "image/gif"),
+            Map.entry("webp", "image/webp"),
+            Map.entry("bmp", "image/bmp"),
+            Map.entry("tif", "image/tiff"),
+            Map.entry("tiff", "image/tiff"),
+            Map.entry("heic", "image/heic"),
+            Map.entry("heif", "image/heif"),
+            Map.entry("avif", "image/avif"),
+            Map.entry("svg", "image/svg+xml"),
+            Map.entry("ico", "image/x-icon"),
+            Map.entry("psd", "image/vnd.adobe.photoshop"),
+            Map.entry("mp4", "video/mp4"),
+            Map.entry("m4v", "video/x-m4v"),
+            Map.entry("mov", "video/quicktime"),
+            Map.entry("mkv", "video/x-matroska"),
+            Map.entry("webm", "video/webm"),
+            Map.entry("avi", "video/x-msvideo"),
+            Map.entry("3gp", "video/3gpp"),
+            Map.entry("ts", "video/mp2t"),
+            Map.entry("ogv", "video/ogg"),
+            Map.entry("mp3", "audio/mpeg"),
+            Map.entry("m4a", "audio/mp4"),
+            Map.entry("aac", "audio/aac"),
+            Map.entry("flac", "audio/flac"),
+            Map.entry("wav", "audio/wav"),
+            Map.entry("ogg", "audio/ogg"),
+            Map.entry("oga", "audio/ogg"),
+            Map.entry("opus", "audio/opus"),
+            Map.entry("pdf", "application/pdf"),
+            Map.entry("zip", "application/zip"),
+            Map.entry("gz", "application/gzip"),
+            Map.entry("tgz", "application/gzip"),
+            Map.entry("tar", "application/x-tar"),
+            Map.entry("7z", "application/x-7z-compressed"),
+            Map.entry("rar", "application/vnd.rar"),
+            Map.entry("bz2", "application/x-bzip2"),
+            Map.entry("xz", "application/x-xz"),
+            Map.entry("zst", "application/zstd"),
+            Map.entry("jar", "application/java-archive"),
+            Map.entry("apk", "application/vnd.android.package-archive"),
+            Map.entry("epub", "application/epub+zip"),
+            Map.entry("doc", "application/msword"),
+            Map.entry("xls", "application/vnd.ms-excel"),
+            Map.entry("ppt", "application/vnd.ms-powerpoint"),
+            Map.entry("msg", "application/vnd.ms-outlook"),
+            Map.entry("docx", "application/vnd.openxmlformats-officedocument.wordprocessingml.document"),
+            Map.entry("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"),
+            Map.entry("pptx", "application/vnd.openxmlformats-officedocument.presentationml.presentation"),
+            Map.entry("odt", "application/vnd.oasis.opendocument.text"),
+            Map.entry("ods", "application/vnd.oasis.opendocument.spreadsheet"),
+            Map.entry("odp", "application/vnd.oasis.opendocument.presentation"),
+            Map.entry("iso", "application/x-iso9660-image"),
+            Map.entry("sqlite", "application/vnd.sqlite3"),
+            Map.entry("db", "application/vnd.sqlite3"),
+            Map.entry("wasm", "application/wasm"),
+            Map.entry("exe", "application/vnd.microsoft.portable-executable"),
+            Map.entry("dll", "application/vnd.microsoft.portable-executable"),
+            Map.entry("txt", TEXT_PLAIN),
+            Map.entry("log", TEXT_PLAIN),
+            Map.entry("md", "text/markdown"),
+            Map.entry("csv", "text/csv"),
+            Map.entry("tsv", "text/tab-separated-values"),
+            Map.entry("html", "text/html"),
+            Map.entry("htm", "text/html"),
+            Map.entry("css", "text/css"),
+            Map.entry("js", "text/javascript"),
+            Map.entry("mjs", "text/javascript"),
+            Map.entry("json", "application/json"),
+            Map.entry("xml", "application/xml"),
+            Map.entry("yaml", "application/yaml"),
+            Map.entry("yml", "application/yaml"),
+            Map.entry("srt", "application/x-subrip"),
+            Map.entry("vtt", "text/vtt"),
+            Map.entry("ttf", "font/ttf"),
+            Map.entry("otf", "font/otf"),
+            Map.entry("woff", "font/woff"),
+            Map.entry("woff2", "font/woff2")
+    );
+
+    private final int maxEntries;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final LinkedHashMap<CacheKey, String> sniffed = new LinkedHashMap<>(16, 0.75f, true);
+
+    public ContentTypeResolver(
+            MeterRegistry meterRegistry,
+            @Value("${app.storage.content-type.cache-size:100000}") int maxEntries
+    ) {
+        this.maxEntries = Math.max(0, maxEntries);
+        this.hitCounter = meterRegistry.counter("app.content-type.cache.hit");
+        this.missCounter = meterRegistry.counter("app.content-type.cache.miss");
+    }
+
+    /**
+     * Content type of a regular file, opening it only when its sniff result is not cached.
+     */
+    String resolve(Path path, BasicFileAttributes attrs) throws IOException {
+        long modified = attrs.lastModifiedTime().to(TimeUnit.MICROSECONDS);
+        String result = cached(path, attrs.fileKey(), modified);
+
+        if (result == null) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                result = sniffAndRemember(path, attrs.fileKey(), modified, channel);
+            }
+        }
+        return combine(path.getFileName().toString(), result);
+    }
+
+    /**
+     * Content type of a regular file, sniffing through an already open channel on a cache miss. The channel
+     * position is not changed.
+     */
+    String resolve(Path path, BasicFileAttributes attrs, FileChannel channel) throws IOException {
+        long modified = attrs.lastModifiedTime().to(TimeUnit.MICROSECONDS);
+        String result = cached(path, attrs.fileKey(), modified);
+
+        if (result == null) {
+            result = sniffAndRemember(path, attrs.fileKey(), modified, channel);
+        }
+        return combine(path.getFileName().toString(), result);
+    }
+
+    private String sniffAndRemember(Path path, Object fileKey, long modifiedMicros, FileChannel channel)
+            throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(SNIFF_LENGTH);
+        while (head.hasRemaining() && channel.read(head, head.position()) > 0) {
+            // positional reads until the prefix is full or the file ends
+        }
+        String result = sniff(head.array(), head.position());
+        remember(path, fileKey, modifiedMicros, result);
+        return result;
+    }
+
+    /**
+     * Content type for a listing entry without touching the file: the cached sniff result if the file was read
+     * before, else the extension table.
+     */
+    String resolveListed(Path path, String name, Object fileKey, long modifiedMicros) {
+        String cached = path == null ? null : peek(path, fileKey, modifiedMicros);
+        return cached == null ? byName(name) : combine(name, cached);
+    }
+
+    /**
+     * Content type from the extension alone, {@value #OCTET_STREAM} when unknown.
+     */
+    static String byName(String name) {
+        String type = extensionType(name);
+        return type == null ? OCTET_STREAM : type;
+    }
+
+    private static String combine(String name, String sniffed) {
+        String extension = extensionType(name);
+
+        if (sniffed.equals(BINARY) || sniffed.equals(TEXT_PLAIN)) {
+            return extension != null ? extension : (sniffed.equals(BINARY) ? OCTET_STREAM : TEXT_PLAIN);
+        }
+        if (CONTAINERS.contains(sniffed) && extension != null && !extension.startsWith("text/")) {
+            return extension;
+        }
+        return sniffed;
+    }
+
+    private static String extensionType(String name) {
+        int dot = name.lastIndexOf('.');
+        if (dot <= 0 || dot == name.length() - 1) {
+            return null;
+        }
+        return EXTENSIONS.get(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Classifies a content prefix: a magic number's type, {@value #TEXT_PLAIN} for text-like content, or
+     * {@link #BINARY}. An empty file counts as text, so only its name decides.
+     */
+    static String sniff(byte[] head, int length) {
+        if (startsWith(head, length, 0, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(head, length, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(head, length, 0, 'G', 'I', 'F', '8', '7', 'a')
+                || startsWith(head, length, 0, 'G', 'I', 'F', '8', '9', 'a')) {
+            return "image/gif";
+        }
+        if (startsWith(head, length, 0, 'R', 'I', 'F', 'F')) {
+            if (startsWith(head, length, 8, 'W', 'E', 'B', 'P')) {
+                return "image/webp";
+            }
+            if (startsWith(head, length, 8, 'W', 'A', 'V', 'E')) {
+                return "audio/wav";
+            }
+            if (startsWith(head, length, 8, 'A', 'V', 'I', ' ')) {
+                return "video/x-msvideo";
+            }
+        }
+        if (startsWith(head, length, 4, 'f', 't', 'y', 'p') && length >= 12) {
+            return isoMediaType(new String(head, 8, 4, StandardCharsets.US_ASCII));
+        }
+        if (startsWith(head, length, 0, 'I', 'I', 0x2A, 0x00) || startsWith(head, length, 0, 'M', 'M', 0x00, 0x2A)) {
+            return "image/tiff";
+        }
+        // "BM" alone is too weak for text files, so the two reserved header words must be zero as well.
+        if (startsWith(head, length, 0, 'B', 'M') && startsWith(head, length, 6, 0, 0, 0, 0)) {
+            return "image/bmp";
+        }
+        if (startsWith(head, length, 0, '8', 'B', 'P', 'S')) {
+            return "image/vnd.adobe.photoshop";
+        }
+        if (startsWith(head, length, 0, '%', 'P', 'D', 'F', '-')) {
+            return "application/pdf";
+        }
+        if (startsWith(head, length, 0, 'P', 'K', 0x03, 0x04) || startsWith(head, length, 0, 'P', 'K', 0x05, 0x06)) {
+            return "application/zip";
+        }
+        if (startsWith(head, length, 0, 0xD0, 0xCF, 0x11, 0xE0, 0xA1, 0xB1, 0x1A, 0xE1)) {
+            return "application/x-ole-storage";
+        }
+        if (startsWith(head, length, 0, 0x1F, 0x8B)) {
+            return "application/gzip";
+        }
+        if (startsWith(head, length, 0, '7', 'z', 0xBC, 0xAF, 0x27, 0x1C)) {
+            return "application/x-7z-compressed";
+        }
+        if (startsWith(head, length, 0, 'R', 'a', 'r', '!', 0x1A, 0x07)) {
+            return "application/vnd.rar";
+        }
+        if (startsWith(head, length, 0, 'B', 'Z', 'h')) {
+            return "application/x-bzip2";
+        }
+        if (startsWith(head, length, 0, 0xFD, '7', 'z', 'X', 'Z', 0x00)) {
+            return "application/x-xz";
+        }
+        if (startsWith(head, length, 0, 0x28, 0xB5, 0x2F, 0xFD)) {
+            return "application/zstd";
+        }
+        if (startsWith(head, length, 0, 'I', 'D', '3')
+                || (length >= 2 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xE6) == 0xE2)) {
+            // ID3 tag, or an MPEG audio layer III frame sync
+            return "audio/mpeg";
+        }
+        if (startsWith(head, length, 0, 'f', 'L', 'a', 'C')) {
+            return "audio/flac";
+        }
+        if (startsWith(head, length, 0, 'O', 'g', 'g', 'S')) {
+            return "audio/ogg";
+        }
+        if (startsWith(head, length, 0, 0x1A, 0x45, 0xDF, 0xA3)) {
+            return containsAscii(head, length, "webm") ? "video/webm" : "video/x-matroska";
+        }
+        if (startsWith(head, length, 0, 'S', 'Q', 'L', 'i', 't', 'e', ' ', 'f', 'o', 'r', 'm', 'a', 't', ' ', '3')) {
+            return "application/vnd.sqlite3";
+        }
+        if (startsWith(head, length, 0, 0x00, 'a', 's', 'm')) {
+            return "application/wasm";
+        }
+        if (startsWith(head, length, 0, 0x7F, 'E', 'L', 'F')) {
+            return "application/x-executable";
+        }
+        if (startsWith(head, length, 0, 'w', 'O', 'F', 'F')) {
+            return "font/woff";
+        }
+        if (startsWith(head, length, 0, 'w', 'O', 'F', '2')) {
+            return "font/woff2";
+        }
+        if (startsWith(head, length, 0, '<', '?', 'x', 'm', 'l')) {
+            return "application/xml";
+        }
+        return looksLikeText(head, length) ? TEXT_PLAIN : BINARY;
+    }
+
+    private static String isoMediaType(String brand) {
+        return switch (brand) {
+            case "heic", "heix", "heim", "heis", "hevc", "hevx" -> "image/heic";
+            case "mif1", "msf1" -> "image/heif";
+            case "avif", "avis" -> "image/avif";
+            case "qt  " -> "video/quicktime";
+            case "M4A ", "M4B " -> "audio/mp4";
+            case "3gp4", "3gp5", "3gp6", "3g2a" -> "video/3gpp";
+            default -> "video/mp4";
+        };
+    }
+
+    /**
+     * Byte order marks, or a prefix without NUL and control characters other than whitespace and escape, that
+     * decodes as UTF-8 up to a sequence cut off at the end of the prefix.
+     */
+    private static boolean looksLikeText(byte[] head, int length) {
+        if (startsWith(head, length, 0, 0xEF, 0xBB, 0xBF)
+                || startsWith(head, length, 0, 0xFE, 0xFF)
+                || startsWith(head, length, 0, 0xFF, 0xFE)) {
+            return true;
+        }
+
+        int i = 0;
+        while (i < length) {
+            int b = head[i] & 0xFF;
+            if (b < 0x80) {
+                if (b < 0x20 && b != '\t' && b != '\n' && b != '\r' && b != '\f' && b != 0x1B) {
+                    return false;
+                }
+                if (b == 0x7F) {
+                    return false;
+                }
+                i++;
+                continue;
+            }
+
+            int continuation;
+            if (b >= 0xC2 && b <= 0xDF) {
+                continuation = 1;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                continuation = 2;
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                continuation = 3;
+            } else {
+                return false;
+            }
+            for (int k = 1; k <= continuation; k++) {
+                if (i + k >= length) {
+                    return true;
+                }
+                if ((head[i + k] & 0xC0) != 0x80) {
+                    return false;
+                }
+            }
+            i += continuation + 1;
+        }
+        return true;
+    }
+
+    private static boolean startsWith(byte[] head, int length, int offset, int... magic) {
+        if (offset + magic.length > length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if ((head[offset + i] & 0xFF) != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsAscii(byte[] head, int length, String text) {
+        byte[] needle = text.getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i + needle.length <= length; i++) {
+            if (Arrays.equals(head, i, i + needle.length, needle, 0, needle.length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized String cached(Path path, Object fileKey, long modifiedMicros) {
+        String result = sniffed.get(new CacheKey(fileKey == null ? path : fileKey, modifiedMicros));
+        if (result == null) {
+            missCounter.increment();
+        } else {
+            hitCounter.increment();
+        }
+        return result;
+    }
+
+    /**
+     * Cache lookup for listings; not counted, as most listed files are never opened.
+     */
+    private synchronized String peek(Path path, Object fileKey, long modifiedMicros) {
+        return sniffed.get(new CacheKey(fileKey == null ? path : fileKey, modifiedMicros));
+    }
+
+    private synchronized void remember(Path path, Object fileKey, long modifiedMicros, String result) {
+        if (maxEntries == 0) {
+            return;
+        }
+        sniffed.put(new CacheKey(fileKey == null ? path : fileKey, modifiedMicros), result);
+        if (sniffed.size() > maxEntries) {
+            sniffed.pollFirstEntry();
+        }
+    }
+
+    private record CacheKey(Object identity, long modifiedMicros) {
+    }
+}
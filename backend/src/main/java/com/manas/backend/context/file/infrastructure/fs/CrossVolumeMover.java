@@ -0,0 +1,606 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import com.manas.backend.common.exception.ConflictException;
+import com.manas.backend.context.file.domain.TransferProgress;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Moves files and directory trees between volumes, where a rename is not possible.
+ * <p>
+ * The source is copied into a hidden staging entry next to the destination with {@link FileChannel#transferTo}
+ * in large chunks, so the kernel moves the data without passing it through the heap. Entries are copied in
+ * sorted order; every {@code app.storage.move.checkpoint-interval} bytes the copied data is forced to disk and
+ * its position is stored in a checkpoint file, from which an interrupted move continues when it is started
+ * again. The finished copy is verified against the source, entries that changed since they were copied are
+ * copied again, and the copy is renamed into place; only then is the source deleted.
+ */
+@Slf4j
+@Component
+public class CrossVolumeMover {
+
+    private static final String CHECKPOINT_SUFFIX = ".checkpoint";
+
+    /**
+     * Bytes handed to one {@code transferTo} call at most; also the granularity of progress updates.
+     */
+    private static final long MAX_TRANSFER_CHUNK = 64L * 1024 * 1024;
+
+    /**
+     * Many small files add up to little data, so they are also checkpointed after this many entries.
+     */
+    private static final int CHECKPOINT_MAX_ENTRIES = 4096;
+
+    /**
+     * Largest difference between the modification times of a file and its copy that still counts as equal;
+     * FAT volumes store them in 2 second steps.
+     */
+    private static final long MODIFIED_TIME_TOLERANCE_MILLIS = 2000L;
+
+    enum Verification {
+        /**
+         * Same entries, types, link targets, file sizes and file modification times.
+         */
+        SIZE,
+        /**
+         * As {@link #SIZE}, and every file is compared byte by byte, which reads both copies again.
+         */
+        CONTENT;
+
+        static Verification parse(String value) {
+            try {
+                return valueOf(value.strip().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown move verification mode: " + value, e);
+            }
+        }
+    }
+
+    private final RecursiveDeleter recursiveDeleter;
+    private final long checkpointInterval;
+    private final long transferChunk;
+    private final Verification verification;
+    private final Set<Path> activeMoves = ConcurrentHashMap.newKeySet();
+
+    public CrossVolumeMover(
+            RecursiveDeleter recursiveDeleter,
+            @Value("${app.storage.move.checkpoint-interval:1GB}") DataSize checkpointInterval,
+            @Value("${app.storage.move.verify:size}") String verification
+    ) {
+        this.recursiveDeleter = recursiveDeleter;
+        this.checkpointInterval = Math.max(1L, checkpointInterval.toBytes());
+        this.transferChunk = Math.min(MAX_TRANSFER_CHUNK, this.checkpointInterval);
+        this.verification = Verification.parse(verification);
+    }
+
+    /**
+     * Whether an earlier move of {@code source} to {@code destination} was copied and verified but stopped
+     * before the source was deleted. {@link #move} then only finishes it, although the destination exists.
+     */
+    boolean hasVerifiedCopy(Path source, Path destination) {
+        Checkpoint checkpoint = readCheckpoint(checkpointPath(stagingPath(source, destination)), source,
+                destination);
+        return checkpoint != null && checkpoint.verified();
+    }
+
+    /**
+     * Copies {@code source} to {@code destination}, which must be on another volume, then deletes the source.
+     * Resumes from the last checkpoint of an earlier attempt with the same source and destination.
+     *
+     * @throws ConflictException          if the same move is already running
+     * @throws FileAlreadyExistsException if the destination was created while copying
+     */
+    void move(Path source, Path destination, TransferProgress progress) throws IOException {
+        Path staging = stagingPath(source, destination);
+        if (!activeMoves.add(staging)) {
+            throw new ConflictException("A move to " + destination + " is already in progress");
+        }
+
+        try {
+            Path checkpointFile = checkpointPath(staging);
+            Checkpoint checkpoint = readCheckpoint(checkpointFile, source, destination);
+            if (checkpoint == null || !checkpoint.verified()) {
+                copy(source, destination, staging, checkpointFile, checkpoint, progress);
+            }
+
+            if (Files.exists(staging, LinkOption.NOFOLLOW_LINKS)) {
+                // The verified copy stays staged if the destination was created meanwhile.
+                ExclusiveMove.move(staging, destination);
+                WriteDurability.forceDirectory(destination.getParent());
+            }
+            recursiveDeleter.delete(source);
+            Files.deleteIfExists(checkpointFile);
+        } finally {
+            activeMoves.remove(staging);
+        }
+    }
+
+    private void copy(Path source, Path destination, Path staging, Path checkpointFile, Checkpoint resumeFrom,
+                      TransferProgress progress) throws IOException {
+        if (resumeFrom == null) {
+            // Leftovers without a checkpoint were never forced to disk.
+            discard(staging, checkpointFile);
+        }
+
+        long totalBytes = totalBytes(source);
+        log.info("Copying {} to {} across volumes: {} bytes{}", source, destination, totalBytes,
+                resumeFrom == null ? "" : ", resuming after " + resumeFrom.entries() + " entries");
+
+        Copy copy = new Copy(source, destination, staging, checkpointFile, resumeFrom, totalBytes, progress);
+        try {
+            copy.run();
+        } catch (StaleCheckpointException e) {
+            log.info("Source {} changed since the last checkpoint, copying it again", source);
+            discard(staging, checkpointFile);
+            copy = new Copy(source, destination, staging, checkpointFile, null, totalBytes, progress);
+            copy.run();
+        }
+        copy.sync();
+
+        List<Mismatch> mismatches = findMismatches(source, staging);
+        if (!mismatches.isEmpty()) {
+            // Entries copied before an interruption may have changed since; only those are copied again.
+            log.info("Copying {} entries of {} again that changed since they were copied", mismatches.size(),
+                    source);
+            Copy repair = new Copy(source, destination, staging, null, null, totalBytes, TransferProgress.NONE);
+            for (Mismatch mismatch : mismatches) {
+                repair.replace(mismatch.relative());
+            }
+            repair.sync();
+
+            // The staging copy and its checkpoint are kept, so a later attempt repairs it again.
+            mismatches = findMismatches(source, staging);
+            if (!mismatches.isEmpty()) {
+                throw new IOException("Copy of " + source + " does not match the source: "
+                        + mismatches.getFirst().reason());
+            }
+        }
+        writeCheckpoint(checkpointFile, new Checkpoint(source.toString(), destination.toString(), copy.entries,
+                copy.lastCompleted, 0L, true));
+    }
+
+    private void discard(Path staging, Path checkpointFile) throws IOException {
+        if (Files.exists(staging, LinkOption.NOFOLLOW_LINKS)) {
+            recursiveDeleter.delete(staging);
+        }
+        Files.deleteIfExists(checkpointFile);
+    }
+
+    private static long totalBytes(Path source) throws IOException {
+        long[] total = {0L};
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return excluded(source, dir) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && !excluded(source, file)) {
+                    total[0] += attrs.size();
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return total[0];
+    }
+
+    /**
+     * Compares the copy with the source and returns the entries that differ, in walk order. A directory that is
+     * missing from the copy or has another type stands for its whole subtree.
+     */
+    private List<Mismatch> findMismatches(Path source, Path staging) throws IOException {
+        List<Mismatch> mismatches = new ArrayList<>();
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (excluded(source, dir)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return check(dir, attrs) ? FileVisitResult.CONTINUE : FileVisitResult.SKIP_SUBTREE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (!excluded(source, file)) {
+                    check(file, attrs);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            private boolean check(Path path, BasicFileAttributes attrs) throws IOException {
+                Path relative = source.relativize(path);
+                String reason = compare(path, attrs, staging.resolve(relative));
+                if (reason != null) {
+                    mismatches.add(new Mismatch(relative, reason));
+                }
+                return reason == null;
+            }
+        });
+
+        // Entries of the copy that are no longer in the source.
+        Files.walkFileTree(staging, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (dir.equals(staging)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                // A directory copied where the source now has a file was reported from the source side.
+                return unexpected(dir) || !Files.isDirectory(original(dir), LinkOption.NOFOLLOW_LINKS)
+                        ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                unexpected(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            private Path original(Path copied) {
+                return source.resolve(staging.relativize(copied).toString());
+            }
+
+            private boolean unexpected(Path copied) {
+                Path original = original(copied);
+                if (Files.exists(original, LinkOption.NOFOLLOW_LINKS) && !excluded(source, original)) {
+                    return false;
+                }
+                mismatches.add(new Mismatch(staging.relativize(copied), "unexpected " + original));
+                return true;
+            }
+        });
+        return mismatches;
+    }
+
+    private String compare(Path path, BasicFileAttributes attrs, Path copy) throws IOException {
+        BasicFileAttributes copied;
+        try {
+            copied = Files.readAttributes(copy, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (NoSuchFileException e) {
+            return "missing " + path;
+        }
+
+        if (attrs.isDirectory() != copied.isDirectory() || attrs.isSymbolicLink() != copied.isSymbolicLink()) {
+            return "type of " + path + " differs";
+        }
+        if (attrs.isSymbolicLink() && !Files.readSymbolicLink(path).equals(Files.readSymbolicLink(copy))) {
+            return "link target of " + path + " differs";
+        }
+        if (attrs.isRegularFile()) {
+            if (attrs.size() != copied.size()) {
+                return "size of " + path + " differs";
+            }
+            // A file edited in place after it was copied keeps its size but not its modification time.
+            long modifiedDifference = attrs.lastModifiedTime().toMillis() - copied.lastModifiedTime().toMillis();
+            if (Math.abs(modifiedDifference) > MODIFIED_TIME_TOLERANCE_MILLIS) {
+                return "modification time of " + path + " differs";
+            }
+            if (verification == Verification.CONTENT && Files.mismatch(path, copy) != -1L) {
+                return "content of " + path + " differs";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Trash, partial uploads and staging entries below the source are left behind and deleted with it.
+     */
+    private static boolean excluded(Path source, Path path) {
+        return !path.equals(source) && StorageExcludes.isExcludedName(path);
+    }
+
+    private static Path stagingPath(Path source, Path destination) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((source + "\n" + destination).getBytes(StandardCharsets.UTF_8));
+            return destination.resolveSibling(StorageExcludes.MOVE_STAGING_PREFIX
+                    + HexFormat.of().formatHex(digest, 0, 8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static Path checkpointPath(Path staging) {
+        return staging.resolveSibling(staging.getFileName() + CHECKPOINT_SUFFIX);
+    }
+
+    private static Checkpoint readCheckpoint(Path file, Path source, Path destination) {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable move checkpoint {}", file, e);
+            return null;
+        }
+
+        if (!source.toString().equals(properties.getProperty("source"))
+                || !destination.toString().equals(properties.getProperty("destination"))) {
+            return null;
+        }
+        try {
+            return new Checkpoint(
+                    properties.getProperty("source"),
+                    properties.getProperty("destination"),
+                    Long.parseLong(properties.getProperty("entries")),
+                    properties.getProperty("lastPath"),
+                    Long.parseLong(properties.getProperty("offset")),
+                    Boolean.parseBoolean(properties.getProperty("verified"))
+            );
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed move checkpoint {}", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the checkpoint atomically, so a crash leaves either the previous or the new one.
+     */
+    private static void writeCheckpoint(Path file, Checkpoint checkpoint) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("source", checkpoint.source());
+        properties.setProperty("destination", checkpoint.destination());
+        properties.setProperty("entries", Long.toString(checkpoint.entries()));
+        if (checkpoint.lastPath() != null) {
+            properties.setProperty("lastPath", checkpoint.lastPath());
+        }
+        properties.setProperty("offset", Long.toString(checkpoint.offset()));
+        properties.setProperty("verified", Boolean.toString(checkpoint.verified()));
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8)) {
+            properties.store(writer, null);
+            writer.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+        WriteDurability.forceDirectory(file.getParent());
+    }
+
+    /**
+     * Position of a copy. The first {@code entries} entries in walk order are copied and on disk, the last one
+     * being {@code lastPath}; the next entry, a file, is copied up to {@code offset}.
+     */
+    private record Checkpoint(
+            String source,
+            String destination,
+            long entries,
+            String lastPath,
+            long offset,
+            boolean verified
+    ) {
+
+    }
+
+    /**
+     * An entry of the copy, relative to the source and the staging root, that differs from the source.
+     */
+    private record Mismatch(Path relative, String reason) {
+
+    }
+
+    /**
+     * The source tree no longer matches the checkpoint, e.g. entries were added before the resume point.
+     */
+    private static final class StaleCheckpointException extends IOException {
+
+        StaleCheckpointException() {
+            super("Move checkpoint does not match the source");
+        }
+    }
+
+    /**
+     * One pass over the source tree in sorted pre-order, skipping what the checkpoint covers. Without a
+     * checkpoint file it only copies the entries it is given with {@link #replace} and records no progress.
+     */
+    private final class Copy {
+
+        private final Path source;
+        private final Path destination;
+        private final Path staging;
+        private final Path checkpointFile;
+        private final Checkpoint resumeFrom;
+        private final long totalBytes;
+        private final TransferProgress progress;
+        private final Set<Path> unsyncedFiles = new LinkedHashSet<>();
+        private final Set<Path> unsyncedDirectories = new LinkedHashSet<>();
+        private long entries;
+        private String lastCompleted;
+        private long bytesDone;
+        private long bytesSinceCheckpoint;
+        private int entriesSinceCheckpoint;
+
+        Copy(Path source, Path destination, Path staging, Path checkpointFile, Checkpoint resumeFrom,
+             long totalBytes, TransferProgress progress) {
+            this.source = source;
+            this.destination = destination;
+            this.staging = staging;
+            this.checkpointFile = checkpointFile;
+            this.resumeFrom = resumeFrom;
+            this.totalBytes = totalBytes;
+            this.progress = progress;
+        }
+
+        void run() throws IOException {
+            visit(source, Path.of(""),
+                    Files.readAttributes(source, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS));
+            progress.update(bytesDone, totalBytes);
+        }
+
+        private void visit(Path path, Path relative, BasicFileAttributes attrs) throws IOException {
+            Path target = staging.resolve(relative);
+            long index = entries++;
+            boolean copied = resumeFrom != null && index < resumeFrom.entries();
+            if (copied && index == resumeFrom.entries() - 1 && !relative.toString().equals(resumeFrom.lastPath())) {
+                throw new StaleCheckpointException();
+            }
+
+            if (attrs.isDirectory()) {
+                if (!copied) {
+                    Files.createDirectories(target);
+                    unsyncedDirectories.add(target.getParent());
+                }
+                completed(relative, copied);
+                for (Path child : sortedChildren(path)) {
+                    visit(child, relative.resolve(child.getFileName().toString()),
+                            Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS));
+                }
+                Files.setLastModifiedTime(target, attrs.lastModifiedTime());
+            } else if (attrs.isRegularFile()) {
+                if (copied) {
+                    bytesDone += attrs.size();
+                } else {
+                    long offset = resumeFrom != null && index == resumeFrom.entries() ? resumeFrom.offset() : 0L;
+                    copyFile(path, target, index, offset, attrs.size());
+                    Files.setLastModifiedTime(target, attrs.lastModifiedTime());
+                    unsyncedFiles.add(target);
+                }
+                completed(relative, copied);
+            } else if (attrs.isSymbolicLink()) {
+                if (!copied) {
+                    Files.deleteIfExists(target);
+                    Files.createSymbolicLink(target, Files.readSymbolicLink(path));
+                    unsyncedDirectories.add(target.getParent());
+                }
+                completed(relative, copied);
+            } else {
+                throw new IOException("Cannot copy special file: " + path);
+            }
+        }
+
+        /**
+         * Copies one entry again, with its subtree, after removing what the copy has at its place. An entry
+         * that is no longer in the source is only removed.
+         */
+        void replace(Path relative) throws IOException {
+            Path path = source.resolve(relative.toString());
+            Path target = staging.resolve(relative.toString());
+            if (Files.exists(target, LinkOption.NOFOLLOW_LINKS)) {
+                recursiveDeleter.delete(target);
+                unsyncedDirectories.add(target.getParent());
+            }
+
+            BasicFileAttributes attrs;
+            try {
+                attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            } catch (NoSuchFileException e) {
+                attrs = null;
+            }
+            if (attrs != null && !excluded(source, path)) {
+                visit(path, relative, attrs);
+            }
+            if (!relative.toString().isEmpty()) {
+                // Replacing the entry touched its parent, whose time was copied before.
+                Files.setLastModifiedTime(target.getParent(),
+                        Files.getLastModifiedTime(path.getParent(), LinkOption.NOFOLLOW_LINKS));
+            }
+        }
+
+        private void completed(Path relative, boolean copiedBefore) throws IOException {
+            lastCompleted = relative.toString();
+            if (copiedBefore) {
+                return;
+            }
+            entriesSinceCheckpoint++;
+            if (bytesSinceCheckpoint >= checkpointInterval || entriesSinceCheckpoint >= CHECKPOINT_MAX_ENTRIES) {
+                checkpoint(entries, 0L, null);
+            }
+        }
+
+        private void copyFile(Path path, Path target, long index, long offset, long size) throws IOException {
+            unsyncedDirectories.add(target.getParent());
+            try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                // Anything past the checkpoint was never forced and may not have survived a crash.
+                long position = Math.min(offset, out.size());
+                out.truncate(position);
+                out.position(position);
+                bytesDone += position;
+
+                while (position < size) {
+                    long transferred = in.transferTo(position, Math.min(transferChunk, size - position), out);
+                    if (transferred <= 0) {
+                        throw new IOException("Source file shrank while it was copied: " + path);
+                    }
+                    position += transferred;
+                    bytesDone += transferred;
+                    bytesSinceCheckpoint += transferred;
+                    progress.update(bytesDone, totalBytes);
+                    if (bytesSinceCheckpoint >= checkpointInterval && position < size) {
+                        checkpoint(index, position, out);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Forces everything copied since the previous checkpoint, including directory entries, then records
+         * the position.
+         */
+        private void checkpoint(long completedEntries, long offset, FileChannel current) throws IOException {
+            if (checkpointFile == null) {
+                // Replaced entries are not resumed; the next verification finds any that did not finish.
+                return;
+            }
+            if (current != null) {
+                current.force(false);
+            }
+            sync();
+            writeCheckpoint(checkpointFile, new Checkpoint(source.toString(), destination.toString(),
+                    completedEntries, lastCompleted, offset, false));
+            bytesSinceCheckpoint = 0L;
+            entriesSinceCheckpoint = 0;
+        }
+
+        void sync() throws IOException {
+            for (Path file : unsyncedFiles) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.force(false);
+                }
+            }
+            for (Path directory : unsyncedDirectories) {
+                WriteDurability.forceDirectory(directory);
+            }
+            unsyncedFiles.clear();
+            unsyncedDirectories.clear();
+        }
+
+        private static List<Path> sortedChildren(Path directory) throws IOException {
+            try (Stream<Path> children = Files.list(directory)) {
+                return children.filter(child -> !StorageExcludes.isExcludedName(child)).sorted().toList();
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import com.manas.backend.context.file.application.port.in.FileListSort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caches pre-sorted directory entries per (directory, sort) so that paging through a large folder does not
+ * re-scan and re-sort it on every request.
+ * <p>
+ * A snapshot is only served while the directory mtime still matches the value captured before the scan.
+ * Mutations performed through {@link LocalFileSystemAdapter} invalidate affected directories explicitly.
+ * The cache is bounded by the total number of entries held across all snapshots (LRU eviction).
+ */
+@Slf4j
+@Component
+public class DirectoryListingCache {
+
+    private final int maxEntries;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final LinkedHashMap<CacheKey, ListingSnapshot> snapshots = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong versionSequence = new AtomicLong(System.currentTimeMillis() << 16);
+    private int cachedEntries;
+
+    public DirectoryListingCache(
+            MeterRegistry meterRegistry,
+            @Value("${app.listing.cache.max-entries:200000}") int maxEntries
+    ) {
+        this.maxEntries = Math.max(0, maxEntries);
+        this.hitCounter = meterRegistry.counter("app.listing.cache.hit");
+        this.missCounter = meterRegistry.counter("app.listing.cache.miss");
+    }
+
+    /**
+     * Returns the cached snapshot, or null when absent or stale.
+     */
+    synchronized ListingSnapshot get(Path directory, FileListSort sort, FileTime directoryModified) {
+        CacheKey key = new CacheKey(directory, sort);
+        ListingSnapshot snapshot = snapshots.get(key);
+
+        if (snapshot == null) {
+            missCounter.increment();
+            return null;
+        }
+
+        if (!snapshot.directoryModified().equals(directoryModified)) {
+            remove(key);
+            missCounter.increment();
+            return null;
+        }
+
+        hitCounter.increment();
+        return snapshot;
+    }
+
+    synchronized void put(Path directory, FileListSort sort, ListingSnapshot snapshot) {
+        int size = snapshot.entries().size();
+        if (!accepts(size)) {
+            log.debug("Directory {} has {} entries, exceeding listing cache budget", directory, size);
+            return;
+        }
+
+        CacheKey key = new CacheKey(directory, sort);
+        remove(key);
+        snapshots.put(key, snapshot);
+        cachedEntries += size;
+        evictOverBudget();
+    }
+
+    /**
+     * Whether a snapshot with the given number of entries fits the cache budget at all.
+     */
+    boolean accepts(int entryCount) {
+        return entryCount <= maxEntries;
+    }
+
+    /**
+     * Returns a version for a new snapshot. Seeded from the clock so cursors from a previous process never
+     * match a new snapshot by accident.
+     */
+    long nextVersion() {
+        return versionSequence.incrementAndGet();
+    }
+
+    /**
+     * Drops every cached sort order of the given directory.
+     */
+    synchronized void invalidate(Path directory) {
+        if (directory != null) {
+            removeIf(key -> key.directory().equals(directory));
+        }
+    }
+
+    /**
+     * Drops cached listings of the given directory and everything below it.
+     */
+    synchronized void invalidateTree(Path directory) {
+        if (directory != null) {
+            removeIf(key -> key.directory().startsWith(directory));
+        }
+    }
+
+    private void removeIf(Predicate<CacheKey> predicate) {
+        Iterator<Map.Entry<CacheKey, ListingSnapshot>> iterator = snapshots.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<CacheKey, ListingSnapshot> entry = iterator.next();
+            if (predicate.test(entry.getKey())) {
+                cachedEntries -= entry.getValue().entries().size();
+                iterator.remove();
+            }
+        }
+    }
+
+    private void remove(CacheKey key) {
+        ListingSnapshot removed = snapshots.remove(key);
+        if (removed != null) {
+            cachedEntries -= removed.entries().size();
+        }
+    }
+
+    private void evictOverBudget() {
+        Iterator<ListingSnapshot> iterator = snapshots.values().iterator();
+        while (cachedEntries > maxEntries && iterator.hasNext()) {
+            cachedEntries -= iterator.next().entries().size();
+            iterator.remove();
+        }
+    }
+
+    private record CacheKey(Path directory, FileListSort sort) {
+    }
+}
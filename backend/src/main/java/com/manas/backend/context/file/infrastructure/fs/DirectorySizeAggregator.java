@@ -0,0 +1,311 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps recursive byte totals and direct child counts for every directory under the storage root, so that
+ * listings can show folder sizes without walking anything on request.
+ * <p>
+ * The index is built by a parallel fork/join walk after startup and rebuilt periodically to pick up changes
+ * made outside the application. Mutations performed through {@link LocalFileSystemAdapter} are applied
+ * incrementally. A walk that overlaps with such a mutation is repeated so the published totals include it.
+ * Totals are unavailable (null) until the first walk completes.
+ */
+@Slf4j
+@Component
+public class DirectorySizeAggregator {
+
+    private static final int MAX_WALK_ATTEMPTS = 3;
+
+    private final Path rootPath;
+    private final int parallelism;
+    private final AtomicBoolean walking = new AtomicBoolean();
+    private final AtomicLong mutationSequence = new AtomicLong();
+    private volatile Map<Path, DirectoryTotals> totals;
+
+    public DirectorySizeAggregator(
+            @Value("${app.storage.root}") String rootPathString,
+            @Value("${app.storage.size-index.parallelism:0}") int parallelism
+    ) {
+        this.rootPath = Paths.get(rootPathString).toAbsolutePath().normalize();
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread.ofVirtual().name("directory-size-index").start(this::rebuild);
+    }
+
+    @Scheduled(
+            fixedDelayString = "${app.storage.size-index.rescan-interval:PT6H}",
+            initialDelayString = "${app.storage.size-index.rescan-interval:PT6H}"
+    )
+    public void rescan() {
+        rebuild();
+    }
+
+    /**
+     * Walks the whole storage root and publishes fresh totals.
+     *
+     * @return false if another walk was already running.
+     */
+    boolean rebuild() {
+        if (!walking.compareAndSet(false, true)) {
+            return false;
+        }
+
+        try {
+            for (int attempt = 1; attempt <= MAX_WALK_ATTEMPTS; attempt++) {
+                long sequenceBefore = mutationSequence.get();
+                long startedAt = System.nanoTime();
+                Map<Path, DirectoryTotals> walked = walk();
+
+                synchronized (this) {
+                    if (mutationSequence.get() == sequenceBefore || attempt == MAX_WALK_ATTEMPTS) {
+                        totals = walked;
+                        log.info("Indexed sizes of {} directories under {} in {} ms",
+                                walked.size(), rootPath,
+                                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+                        return true;
+                    }
+                }
+                log.debug("Storage changed during size walk (attempt {}), walking again", attempt);
+            }
+            return true;
+        } finally {
+            walking.set(false);
+        }
+    }
+
+    /**
+     * Returns the totals of a directory, or null when the index is not built yet or the path is unknown.
+     */
+    DirectoryTotals totalsOf(Path directory) {
+        Map<Path, DirectoryTotals> current = totals;
+        return current == null ? null : current.get(directory);
+    }
+
+    synchronized void fileAdded(Path file, long size) {
+        Map<Path, DirectoryTotals> current = beginMutation();
+        if (current == null) {
+            return;
+        }
+        ensureDirectory(current, file.getParent());
+        adjust(current, file.getParent(), size, 1);
+    }
+
+    synchronized void directoryCreated(Path directory) {
+        Map<Path, DirectoryTotals> current = beginMutation();
+        if (current != null) {
+            ensureDirectory(current, directory);
+        }
+    }
+
+    /**
+     * Records removal of a file ({@code fileSize} bytes) or of a directory subtree (size taken from the index).
+     */
+    synchronized void removed(Path path, long fileSize) {
+        Map<Path, DirectoryTotals> current = beginMutation();
+        if (current == null) {
+            return;
+        }
+        DirectoryTotals subtree = current.get(path);
+        long size = subtree != null ? subtree.recursiveSize() : fileSize;
+        if (subtree != null) {
+            current.keySet().removeIf(key -> key.startsWith(path));
+        }
+        adjust(current, path.getParent(), -size, -1);
+    }
+
+    synchronized void moved(Path source, Path destination, long fileSize) {
+        Map<Path, DirectoryTotals> current = beginMutation();
+        if (current == null) {
+            return;
+        }
+        DirectoryTotals subtree = current.get(source);
+        long size = subtree != null ? subtree.recursiveSize() : fileSize;
+        adjust(current, source.getParent(), -size, -1);
+
+        if (subtree != null) {
+            List<Path> movedKeys = current.keySet().stream().filter(key -> key.startsWith(source)).toList();
+            for (Path key : movedKeys) {
+                current.put(destination.resolve(source.relativize(key)), current.remove(key));
+            }
+        }
+
+        ensureDirectory(current, destination.getParent());
+        adjust(current, destination.getParent(), size, 1);
+    }
+
+    /**
+     * Records a file or directory subtree that appeared at {@code path} from outside the index (e.g. restored
+     * from the trash). A directory's totals are taken from a walk of the subtree.
+     */
+    void added(Path path) {
+        Map<Path, DirectoryTotals> subtree = new ConcurrentHashMap<>();
+        long size;
+        try {
+            var attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            if (attrs.isDirectory()) {
+                try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+                    size = pool.invoke(new SubtreeTask(path, subtree));
+                }
+            } else {
+                size = attrs.size();
+            }
+        } catch (IOException e) {
+            log.debug("Cannot read added path '{}': {}", path, e.getMessage());
+            return;
+        }
+
+        synchronized (this) {
+            Map<Path, DirectoryTotals> current = beginMutation();
+            if (current == null) {
+                return;
+            }
+            current.putAll(subtree);
+            ensureDirectory(current, path.getParent());
+            adjust(current, path.getParent(), size, 1);
+        }
+    }
+
+    /**
+     * Records a copy of a file ({@code fileSize} bytes) or of a directory subtree, whose totals are duplicated
+     * from the source.
+     */
+    synchronized void copied(Path source, Path destination, long fileSize) {
+        Map<Path, DirectoryTotals> current = beginMutation();
+        if (current == null) {
+            return;
+        }
+        DirectoryTotals subtree = current.get(source);
+        long size = subtree != null ? subtree.recursiveSize() : fileSize;
+
+        if (subtree != null) {
+            List<Path> copiedKeys = current.keySet().stream().filter(key -> key.startsWith(source)).toList();
+            for (Path key : copiedKeys) {
+                current.put(destination.resolve(source.relativize(key)), current.get(key));
+            }
+        }
+
+        ensureDirectory(current, destination.getParent());
+        adjust(current, destination.getParent(), size, 1);
+    }
+
+    private Map<Path, DirectoryTotals> beginMutation() {
+        mutationSequence.incrementAndGet();
+        return totals;
+    }
+
+    /**
+     * Registers a directory (and any missing ancestors) with empty totals.
+     */
+    private void ensureDirectory(Map<Path, DirectoryTotals> current, Path directory) {
+        if (directory == null || !directory.startsWith(rootPath) || current.containsKey(directory)) {
+            return;
+        }
+        ensureDirectory(current, directory.getParent());
+        current.put(directory, DirectoryTotals.EMPTY);
+        if (!directory.equals(rootPath)) {
+            adjust(current, directory.getParent(), 0L, 1);
+        }
+    }
+
+    /**
+     * Applies a child delta to {@code directory} and a size delta to it and every ancestor up to the root.
+     */
+    private void adjust(Map<Path, DirectoryTotals> current, Path directory, long sizeDelta, long childDelta) {
+        if (directory == null || !directory.startsWith(rootPath)) {
+            return;
+        }
+        current.computeIfPresent(directory, (key, value) -> value.plus(sizeDelta, childDelta));
+        if (sizeDelta == 0L) {
+            return;
+        }
+        for (Path ancestor = directory.getParent();
+             ancestor != null && ancestor.startsWith(rootPath);
+             ancestor = ancestor.getParent()) {
+            current.computeIfPresent(ancestor, (key, value) -> value.plus(sizeDelta, 0L));
+        }
+    }
+
+    private Map<Path, DirectoryTotals> walk() {
+        Map<Path, DirectoryTotals> result = new ConcurrentHashMap<>();
+        try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+            pool.invoke(new SubtreeTask(rootPath, result));
+        }
+        return result;
+    }
+
+    /**
+     * Sums one directory and forks a task per subdirectory. Symbolic links are counted but not followed.
+     */
+    private final class SubtreeTask extends RecursiveTask<Long> {
+
+        private final Path directory;
+        private final Map<Path, DirectoryTotals> result;
+
+        private SubtreeTask(Path directory, Map<Path, DirectoryTotals> result) {
+            this.directory = directory;
+            this.result = result;
+        }
+
+        @Override
+        protected Long compute() {
+            long size = 0L;
+            long children = 0L;
+            List<SubtreeTask> subtasks = new ArrayList<>();
+
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (Path child : stream) {
+                    if (StorageExcludes.isExcluded(rootPath, child)) {
+                        continue;
+                    }
+                    children++;
+                    try {
+                        var attrs = Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                        if (attrs.isDirectory()) {
+                            subtasks.add(new SubtreeTask(child, result));
+                        } else {
+                            size += attrs.size();
+                        }
+                    } catch (IOException e) {
+                        log.debug("Skipping '{}' in size walk: {}", child, e.getMessage());
+                    }
+                }
+            } catch (IOException | DirectoryIteratorException e) {
+                log.debug("Cannot read directory '{}' in size walk: {}", directory, e.getMessage());
+            }
+
+            invokeAll(subtasks);
+            for (SubtreeTask subtask : subtasks) {
+                size += subtask.join();
+            }
+
+            result.put(directory, new DirectoryTotals(size, children));
+            return size;
+        }
+    }
+}
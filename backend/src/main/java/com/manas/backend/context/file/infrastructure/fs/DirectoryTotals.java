@@ -0,0 +1,13 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+/**
+ * Aggregated size of a directory subtree and the number of its direct children.
+ */
+record DirectoryTotals(long recursiveSize, long childCount) {
+
+    static final DirectoryTotals EMPTY = new DirectoryTotals(0L, 0L);
+
+    DirectoryTotals plus(long sizeDelta, long childDelta) {
+        return new DirectoryTotals(Math.max(0L, recursiveSize + sizeDelta), Math.max(0L, childCount + childDelta));
+    }
+}
@@ -0,0 +1,76 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import com.manas.backend.context.file.application.port.in.FileListSort;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sort orders and selection helpers for directory entries.
+ */
+final class EntryOrdering {
+
+    private EntryOrdering() {
+    }
+
+    /**
+     * Total order used for paging: directories first, then the sort key, then name as a tie-breaker so that
+     * cursors always identify a unique position.
+     */
+    static Comparator<PathEntry> comparator(FileListSort sort) {
+        Comparator<PathEntry> base = Comparator.comparing(PathEntry::isDirectory).reversed();
+
+        return switch (sort) {
+            case NAME_ASC -> base.thenComparing(PathEntry::name);
+            case NAME_DESC -> base.thenComparing(PathEntry::name, Comparator.reverseOrder());
+            case MODIFIED_DESC -> base.thenComparing(PathEntry::lastModified, Comparator.reverseOrder())
+                    .thenComparing(PathEntry::name);
+            case MODIFIED_ASC -> base.thenComparing(PathEntry::lastModified)
+                    .thenComparing(PathEntry::name);
+            case SIZE_DESC -> base.thenComparing(Comparator.comparingLong(PathEntry::size).reversed())
+                    .thenComparing(PathEntry::name);
+            case SIZE_ASC -> base.thenComparingLong(PathEntry::size)
+                    .thenComparing(PathEntry::name);
+            case EXTENSION_ASC -> base.thenComparing(PathEntry::extension)
+                    .thenComparing(PathEntry::name);
+            case EXTENSION_DESC -> base.thenComparing(PathEntry::extension, Comparator.reverseOrder())
+                    .thenComparing(PathEntry::name);
+        };
+    }
+
+    /**
+     * Returns the first {@code k} entries in comparator order using a bounded max-heap, O(n log k) instead of
+     * sorting all n entries.
+     */
+    static List<PathEntry> selectFirst(Iterable<PathEntry> entries, int k, Comparator<PathEntry> comparator) {
+        return selectFirstAfter(entries, null, k, comparator);
+    }
+
+    /**
+     * Like {@link #selectFirst} but only considers entries strictly after {@code after} (when non-null).
+     */
+    static List<PathEntry> selectFirstAfter(
+            Iterable<PathEntry> entries, PathEntry after, int k, Comparator<PathEntry> comparator) {
+        if (k <= 0) {
+            return List.of();
+        }
+
+        PriorityQueue<PathEntry> heap = new PriorityQueue<>(k + 1, comparator.reversed());
+        for (PathEntry entry : entries) {
+            if (after != null && comparator.compare(entry, after) <= 0) {
+                continue;
+            }
+            if (heap.size() < k) {
+                heap.offer(entry);
+            } else if (comparator.compare(entry, heap.peek()) < 0) {
+                heap.poll();
+                heap.offer(entry);
+            }
+        }
+
+        List<PathEntry> selected = new ArrayList<>(heap);
+        selected.sort(comparator);
+        return selected;
+    }
+}
@@ -0,0 +1,49 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Puts a finished entry at its final path without replacing anything that appeared there in the meantime.
+ * <p>
+ * A rename replaces an existing file at its target, so checking for the target first still loses a file created
+ * between the check and the rename. A regular file is therefore hard-linked at the target, which fails if the
+ * target exists, and then unlinked from its temporary name. Directories and symbolic links, and files on volumes
+ * without hard links, are renamed after the check; a directory rename at least never replaces a file or a
+ * non-empty directory.
+ */
+@Slf4j
+final class ExclusiveMove {
+
+    private ExclusiveMove() {
+    }
+
+    /**
+     * Moves {@code source} to {@code target}, which must be on the same file system.
+     *
+     * @throws FileAlreadyExistsException if {@code target} exists
+     */
+    static void move(Path source, Path target) throws IOException {
+        if (Files.isRegularFile(source, LinkOption.NOFOLLOW_LINKS)) {
+            try {
+                Files.createLink(target, source);
+                Files.delete(source);
+                return;
+            } catch (FileAlreadyExistsException e) {
+                throw e;
+            } catch (UnsupportedOperationException | FileSystemException e) {
+                log.debug("Cannot hard-link {}, renaming it instead: {}", source, e.toString());
+            }
+        }
+        if (Files.exists(target, LinkOption.NOFOLLOW_LINKS)) {
+            throw new FileAlreadyExistsException(target.toString());
+        }
+        Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,109 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import com.manas.backend.context.file.domain.FileRegion;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+/**
+ * Reads a byte range of a file with positional reads, so the channel position is never shared state.
+ * <p>
+ * Exposes the range as a {@link FileRegion} so the download response can hand it to the container for sendfile
+ * (see {@code SendfileTransfer}) without reading the stream at all.
+ */
+final class FileRangeInputStream extends InputStream implements FileRegion {
+
+    private final Path file;
+    private final FileChannel channel;
+    private final long end;
+    private long position;
+
+    FileRangeInputStream(Path file, FileChannel channel, long offset, long length) {
+        this.file = file;
+        this.channel = channel;
+        this.position = offset;
+        this.end = offset + length;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (position >= end) {
+            return -1;
+        }
+        int toRead = (int) Math.min(len, end - position);
+        int read = channel.read(ByteBuffer.wrap(buffer, off, toRead), position);
+        if (read < 0) {
+            // File was truncated while being read.
+            return -1;
+        }
+        position += read;
+        return read;
+    }
+
+    /**
+     * Streams the remaining range in {@link TransferBuffers#BUFFER_SIZE} reads, instead of the small buffer the
+     * default implementation reads through. Servlet output streams take a byte array, so the range is read
+     * straight into one.
+     */
+    @Override
+    public long transferTo(OutputStream out) throws IOException {
+        long transferred = 0;
+        byte[] buffer = new byte[(int) Math.min(TransferBuffers.BUFFER_SIZE, Math.max(1L, end - position))];
+        while (position < end) {
+            int read = channel.read(ByteBuffer.wrap(buffer, 0, (int) Math.min(buffer.length, end - position)),
+                    position);
+            if (read < 0) {
+                // File was truncated while being read.
+                break;
+            }
+            out.write(buffer, 0, read);
+            position += read;
+            transferred += read;
+        }
+        return transferred;
+    }
+
+    @Override
+    public Path file() {
+        return file;
+    }
+
+    @Override
+    public long position() {
+        return position;
+    }
+
+    @Override
+    public long remaining() {
+        return Math.max(0L, end - position);
+    }
+
+    @Override
+    public long skip(long n) {
+        long skipped = Math.max(0L, Math.min(n, end - position));
+        position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0L, end - position));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,99 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import static java.lang.foreign.ValueLayout.ADDRESS;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.SymbolLookup;
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Path;
+import java.util.Locale;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The few Linux libc calls the JDK does not expose, bound through the foreign function API. They are linked on
+ * Linux only; elsewhere, or when native access is denied, {@link #isAvailable()} is false and callers fall back
+ * to portable code. The calls return the raw result ({@code -1} on error) and leave {@code errno} unread.
+ */
+@Slf4j
+final class Libc {
+
+    static final int O_RDONLY = 0;
+    static final int O_WRONLY = 1;
+    static final int O_CREAT = 0100;
+    static final int O_EXCL = 0200;
+    static final int O_CLOEXEC = 02000000;
+
+    static final int SEEK_DATA = 3;
+    static final int SEEK_HOLE = 4;
+
+    /**
+     * ioctl request that makes a file share all extents of another one ({@code _IOW(0x94, 9, int)}).
+     */
+    static final long FICLONE = 0x40049409L;
+
+    private static final MethodHandle OPEN;
+    private static final MethodHandle CLOSE;
+    private static final MethodHandle LSEEK;
+    private static final MethodHandle IOCTL;
+
+    static {
+        MethodHandle open = null;
+        MethodHandle close = null;
+        MethodHandle lseek = null;
+        MethodHandle ioctl = null;
+        if (System.getProperty("os.name", "").toLowerCase(Locale.ROOT).startsWith("linux")) {
+            try {
+                Linker linker = Linker.nativeLinker();
+                SymbolLookup libc = linker.defaultLookup();
+                // open(path, flags, ...) and ioctl(fd, request, ...) are variadic.
+                open = linker.downcallHandle(libc.find("open").orElseThrow(),
+                        FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT, JAVA_INT),
+                        Linker.Option.firstVariadicArg(2));
+                close = linker.downcallHandle(libc.find("close").orElseThrow(),
+                        FunctionDescriptor.of(JAVA_INT, JAVA_INT));
+                lseek = linker.downcallHandle(libc.find("lseek").orElseThrow(),
+                        FunctionDescriptor.of(JAVA_LONG, JAVA_INT, JAVA_LONG, JAVA_INT));
+                ioctl = linker.downcallHandle(libc.find("ioctl").orElseThrow(),
+                        FunctionDescriptor.of(JAVA_INT, JAVA_INT, JAVA_LONG, JAVA_INT),
+                        Linker.Option.firstVariadicArg(2));
+            } catch (RuntimeException e) {
+                // IllegalCallerException when native access is disabled for this module.
+                log.info("Native file calls are not available, using portable fallbacks: {}", e.toString());
+                open = null;
+            }
+        }
+        OPEN = open;
+        CLOSE = close;
+        LSEEK = lseek;
+        IOCTL = ioctl;
+    }
+
+    private Libc() {
+    }
+
+    static boolean isAvailable() {
+        return OPEN != null;
+    }
+
+    static int open(Path path, int flags, int mode) throws Throwable {
+        try (Arena arena = Arena.ofConfined()) {
+            return (int) OPEN.invokeExact(arena.allocateFrom(path.toString()), flags, mode);
+        }
+    }
+
+    static void close(int fd) throws Throwable {
+        int result = (int) CLOSE.invokeExact(fd);
+    }
+
+    static long lseek(int fd, long offset, int whence) throws Throwable {
+        return (long) LSEEK.invokeExact(fd, offset, whence);
+    }
+
+    static int ioctl(int fd, long request, int argument) throws Throwable {
+        return (int) IOCTL.invokeExact(fd, request, argument);
+    }
+}
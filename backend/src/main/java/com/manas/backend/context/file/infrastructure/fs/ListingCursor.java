@@ -0,0 +1,94 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import com.manas.backend.context.file.application.port.in.FileListSort;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for directory listings. Encodes the sort key of the last returned row together with
+ * the snapshot version and position it was issued from.
+ */
+record ListingCursor(
+        FileListSort sort,
+        long version,
+        int position,
+        boolean directory,
+        String name,
+        long size,
+        Instant lastModified
+) {
+
+    static final long NO_SNAPSHOT = -1L;
+
+    private static final byte FORMAT_VERSION = 2;
+
+    static ListingCursor after(PathEntry entry, FileListSort sort, long version, int position) {
+        return new ListingCursor(sort, version, position, entry.isDirectory(), entry.name(), entry.size(),
+                entry.lastModified());
+    }
+
+    /**
+     * Decodes a client supplied cursor.
+     *
+     * @return null when no cursor was supplied.
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for another sort order.
+     */
+    static ListingCursor parse(String token, FileListSort expectedSort) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+
+        ListingCursor cursor;
+        try (var in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            if (in.readByte() != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported cursor format");
+            }
+            FileListSort sort = FileListSort.valueOf(in.readUTF());
+            long version = in.readLong();
+            int position = in.readInt();
+            boolean directory = in.readBoolean();
+            String name = in.readUTF();
+            long size = in.readLong();
+            Instant lastModified = Instant.ofEpochSecond(in.readLong(), in.readInt());
+            cursor = new ListingCursor(sort, version, Math.max(0, position), directory, name, size, lastModified);
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+
+        if (cursor.sort() != expectedSort) {
+            throw new IllegalArgumentException("Cursor was issued for sort " + cursor.sort());
+        }
+        return cursor;
+    }
+
+    String encode() {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeUTF(sort.name());
+            out.writeLong(version);
+            out.writeInt(position);
+            out.writeBoolean(directory);
+            out.writeUTF(name);
+            out.writeLong(size);
+            out.writeLong(lastModified.getEpochSecond());
+            out.writeInt(lastModified.getNano());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * Builds an entry carrying only the sort key, for comparisons against real entries.
+     */
+    PathEntry toProbe() {
+        return new PathEntry(null, name, directory, size, lastModified);
+    }
+}
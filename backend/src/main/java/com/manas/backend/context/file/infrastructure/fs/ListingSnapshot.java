@@ -0,0 +1,25 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+/**
+ * Sorted entries of one directory as observed at {@code directoryModified}. The version identifies the
+ * snapshot in listing cursors so follow-up pages can resume by position instead of by key.
+ * <p>
+ * A snapshot may hold only a sorted prefix of the directory (top-K selection) when {@code entries} is
+ * shorter than {@code totalCount}.
+ */
+record ListingSnapshot(long version, FileTime directoryModified, List<PathEntry> entries, int totalCount) {
+
+    boolean isComplete() {
+        return entries.size() >= totalCount;
+    }
+
+    /**
+     * Whether the page starting at {@code start} can be served from this snapshot.
+     */
+    boolean covers(int start, int limit) {
+        return isComplete() || (long) start + limit <= entries.size();
+    }
+}
@@ -3,25 +3,49 @@ package com.manas.backend.context.file.infrastructure.fs;
 import com.manas.backend.common.exception.FileOperationException;
 import com.manas.backend.common.exception.ResourceNotFoundException;
 import com.manas.backend.context.file.application.port.in.FileListSort;
+import com.manas.backend.context.file.application.port.out.FileScanPort;
 import com.manas.backend.context.file.application.port.out.FileStoragePort;
+import com.manas.backend.context.file.application.port.out.TrashPort;
+import com.manas.backend.context.file.application.port.out.UploadStagingPort;
+import com.manas.backend.context.file.domain.ArchiveSource;
+import com.manas.backend.context.file.domain.ByteRange;
 import com.manas.backend.context.file.domain.DirectoryListing;
 import com.manas.backend.context.file.domain.FileContent;
+import com.manas.backend.context.file.domain.FileMetadata;
 import com.manas.backend.context.file.domain.FileNode;
 import com.manas.backend.context.file.domain.PathNode;
+import com.manas.backend.context.file.domain.StoredFile;
+import com.manas.backend.context.file.domain.TransferProgress;
+import com.manas.backend.context.file.domain.TrashedEntry;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.FileStore;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.time.Instant;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.time.Instant;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -29,43 +53,219 @@ import org.springframework.stereotype.Component;
 
 @Slf4j
 @Component
-public class LocalFileSystemAdapter implements FileStoragePort {
+public class LocalFileSystemAdapter implements FileStoragePort, UploadStagingPort, TrashPort, FileScanPort {
 
-    private final Path rootPath;
+    /**
+     * Smallest prefix kept when a first page is served by top-K selection, so that the next pages are
+     * still answered from the cached prefix.
+     */
+    private static final int TOP_K_MIN_PREFIX = 1000;
 
-    public LocalFileSystemAdapter(@Value("${app.storage.root}") String rootPathString) {
+    /**
+     * Top-K selection is used only when the prefix is at most this fraction (1/n) of the directory.
+     */
+    private static final int TOP_K_MAX_FRACTION = 4;
+
+    private final Path rootPath;
+    private final DirectoryListingCache listingCache;
+    private final DirectorySizeAggregator sizeAggregator;
+    private final WriteDurability durability;
+    private final ZipArchiveWriter zipArchiveWriter;
+    private final RecursiveDeleter recursiveDeleter;
+    private final CrossVolumeMover crossVolumeMover;
+    private final TreeCopier treeCopier;
+    private final ContentLinker contentLinker;
+    private final TrashBin trashBin;
+    private final ContentTypeResolver contentTypes;
+
+    public LocalFileSystemAdapter(
+            @Value("${app.storage.root}") String rootPathString,
+            DirectoryListingCache listingCache,
+            DirectorySizeAggregator sizeAggregator,
+            WriteDurability durability,
+            ZipArchiveWriter zipArchiveWriter,
+            RecursiveDeleter recursiveDeleter,
+            CrossVolumeMover crossVolumeMover,
+            TreeCopier treeCopier,
+            ContentLinker contentLinker,
+            TrashBin trashBin,
+            ContentTypeResolver contentTypes
+    ) {
         this.rootPath = Paths.get(rootPathString).toAbsolutePath().normalize();
+        this.listingCache = listingCache;
+        this.sizeAggregator = sizeAggregator;
+        this.durability = durability;
+        this.zipArchiveWriter = zipArchiveWriter;
+        this.recursiveDeleter = recursiveDeleter;
+        this.crossVolumeMover = crossVolumeMover;
+        this.treeCopier = treeCopier;
+        this.contentLinker = contentLinker;
+        this.trashBin = trashBin;
+        this.contentTypes = contentTypes;
     }
 
     @Override
     public void delete(String pathString, UUID userId) {
         Path targetPath = resolveTarget(pathString);
 
-        if (!Files.exists(targetPath)) {
+        if (targetPath.equals(rootPath)) {
+            throw new IllegalArgumentException("The storage root cannot be deleted");
+        }
+
+        if (!Files.exists(targetPath, LinkOption.NOFOLLOW_LINKS)) {
             throw new ResourceNotFoundException("Path does not exist: " + targetPath);
         }
 
         try {
-            // TODO: Handle recursive delete if it's a directory?
-            // For now, standard delete (will fail if non-empty dir)
-            Files.delete(targetPath);
-            log.info("User {} deleted file: {}", userId, targetPath);
+            long removedSize = regularFileSize(targetPath);
+            if (trashBin.isEnabled() && moveToTrash(targetPath, removedSize, userId)) {
+                sizeAggregator.removed(targetPath, removedSize);
+                return;
+            }
+            long removedEntries = recursiveDeleter.delete(targetPath);
+            sizeAggregator.removed(targetPath, removedSize);
+            log.info("User {} deleted {} ({} entries)", userId, targetPath, removedEntries);
         } catch (IOException e) {
+            // Part of the tree may be gone: drop its totals and count again what is left.
+            boolean exists = Files.exists(targetPath, LinkOption.NOFOLLOW_LINKS);
+            if (!exists || Files.isDirectory(targetPath, LinkOption.NOFOLLOW_LINKS)) {
+                sizeAggregator.removed(targetPath, 0L);
+                if (exists) {
+                    sizeAggregator.added(targetPath);
+                }
+            }
             log.error("Failed to delete path: {}", targetPath, e);
             throw new FileOperationException("Failed to delete file: " + e.getMessage(), e);
+        } finally {
+            listingCache.invalidateTree(targetPath);
+            listingCache.invalidate(targetPath.getParent());
+        }
+    }
+
+    /**
+     * @return false if the target cannot be renamed into the trash and has to be deleted in place
+     */
+    private boolean moveToTrash(Path targetPath, long fileSize, UUID userId) throws IOException {
+        boolean directory = Files.isDirectory(targetPath, LinkOption.NOFOLLOW_LINKS);
+        DirectoryTotals totals = directory ? sizeAggregator.totalsOf(targetPath) : null;
+        long size = directory ? (totals != null ? totals.recursiveSize() : -1L) : fileSize;
+        try {
+            TrashedEntry entry = trashBin.moveToTrash(targetPath, directory, size, userId);
+            log.info("User {} moved {} to the trash of {} as {}", userId, targetPath, entry.volume(), entry.id());
+            return true;
+        } catch (AtomicMoveNotSupportedException e) {
+            log.warn("{} cannot be moved to the trash, deleting it permanently", targetPath);
+            return false;
+        }
+    }
+
+    @Override
+    public boolean scanChangedSince(Instant since, Predicate<FileNode> consumer) {
+        FileTime threshold = FileTime.from(since);
+        var stopped = new AtomicBoolean();
+
+        try {
+            Files.walkFileTree(rootPath, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    return !dir.equals(rootPath) && shouldExcludeByDefault(dir)
+                            ? FileVisitResult.SKIP_SUBTREE
+                            : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (!attrs.isRegularFile() || shouldExcludeByDefault(file)) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    // creationTime is the birth time where the file system records it, else the mtime.
+                    if (attrs.lastModifiedTime().compareTo(threshold) < 0
+                            && attrs.creationTime().compareTo(threshold) < 0) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    FileNode node = toFileNode(new PathEntry(file, file.getFileName().toString(), false,
+                            attrs.size(), attrs.lastModifiedTime().toInstant(), attrs.fileKey()));
+                    if (!consumer.test(node)) {
+                        stopped.set(true);
+                        return FileVisitResult.TERMINATE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    log.debug("Skipping '{}' during storage scan: {}", file, e.getMessage());
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            log.error("Failed to scan storage for changed files", e);
+            throw new FileOperationException("Failed to scan storage", e);
+        }
+        return !stopped.get();
+    }
+
+    @Override
+    public List<TrashedEntry> listTrash() {
+        return trashBin.list();
+    }
+
+    @Override
+    public TrashedEntry restore(String id, UUID userId) {
+        TrashedEntry entry = trashBin.find(id);
+        if (entry.originalPath() == null) {
+            throw new IllegalArgumentException("The original path of trash entry " + id + " is unknown");
+        }
+        Path targetPath = resolveTarget(entry.originalPath());
+
+        try {
+            trashBin.restore(entry, targetPath);
+            sizeAggregator.added(targetPath);
+            log.info("User {} restored {} from the trash", userId, targetPath);
+            return entry;
+        } catch (IOException e) {
+            log.error("Failed to restore trash entry {} to {}", id, targetPath, e);
+            throw new FileOperationException("Failed to restore from the trash: " + e.getMessage(), e);
+        } finally {
+            invalidateAncestors(targetPath);
+        }
+    }
+
+    @Override
+    public void purge(String id) {
+        TrashedEntry entry = trashBin.find(id);
+        try {
+            long removedEntries = trashBin.purge(entry);
+            log.info("Purged trash entry {} ({}, {} entries)", id, entry.originalPath(), removedEntries);
+        } catch (IOException e) {
+            log.error("Failed to purge trash entry {}", id, e);
+            throw new FileOperationException("Failed to purge from the trash: " + e.getMessage(), e);
         }
     }
 
     @Override
-    public void move(String sourcePathString, String destinationPathString, UUID userId) {
+    public long getAvailableSpace(String volume) {
+        try {
+            return trashBin.usableSpace(volume);
+        } catch (IOException e) {
+            log.error("Failed to get available disk space for volume: {}", volume, e);
+            throw new FileOperationException("Failed to check disk space", e);
+        }
+    }
+
+    @Override
+    public void move(String sourcePathString, String destinationPathString, UUID userId,
+                     TransferProgress progress) {
         Path sourcePath = resolveTarget(sourcePathString);
         Path destinationPath = resolveTarget(destinationPathString);
 
-        if (!Files.exists(sourcePath)) {
+        if (!Files.exists(sourcePath, LinkOption.NOFOLLOW_LINKS)) {
             throw new ResourceNotFoundException("Source path does not exist: " + sourcePath);
         }
 
-        if (Files.exists(destinationPath)) {
+        // A verified copy left by an interrupted move between volumes is already at the destination.
+        boolean finishingCopy = crossVolumeMover.hasVerifiedCopy(sourcePath, destinationPath);
+        if (!finishingCopy && Files.exists(destinationPath, LinkOption.NOFOLLOW_LINKS)) {
             throw new IllegalArgumentException("Destination path already exists: " + destinationPath);
         }
 
@@ -73,11 +273,68 @@ public class LocalFileSystemAdapter implements FileStoragePort {
             // Create parent directories if they don't exist
             Files.createDirectories(destinationPath.getParent());
 
-            Files.move(sourcePath, destinationPath);
+            long movedSize = regularFileSize(sourcePath);
+            if (finishingCopy || !renameWithinVolume(sourcePath, destinationPath)) {
+                crossVolumeMover.move(sourcePath, destinationPath, progress);
+            }
+            sizeAggregator.moved(sourcePath, destinationPath, movedSize);
             log.info("User {} moved file from {} to {}", userId, sourcePath, destinationPath);
+        } catch (FileAlreadyExistsException e) {
+            throw new IllegalArgumentException("Destination path already exists: " + destinationPath, e);
         } catch (IOException e) {
             log.error("Failed to move file from {} to {}", sourcePath, destinationPath, e);
             throw new FileOperationException("Failed to move file: " + e.getMessage(), e);
+        } finally {
+            listingCache.invalidateTree(sourcePath);
+            listingCache.invalidate(sourcePath.getParent());
+            invalidateAncestors(destinationPath);
+        }
+    }
+
+    @Override
+    public void copy(String sourcePathString, String destinationPathString, UUID userId,
+                     TransferProgress progress) {
+        Path sourcePath = resolveTarget(sourcePathString);
+        Path destinationPath = resolveTarget(destinationPathString);
+
+        if (!Files.exists(sourcePath, LinkOption.NOFOLLOW_LINKS)) {
+            throw new ResourceNotFoundException("Source path does not exist: " + sourcePath);
+        }
+        if (Files.exists(destinationPath, LinkOption.NOFOLLOW_LINKS)) {
+            throw new IllegalArgumentException("Destination path already exists: " + destinationPath);
+        }
+        if (destinationPath.startsWith(sourcePath)) {
+            throw new IllegalArgumentException("Cannot copy a directory into itself: " + sourcePath);
+        }
+
+        try {
+            Files.createDirectories(destinationPath.getParent());
+
+            long copiedSize = regularFileSize(sourcePath);
+            long copiedBytes = treeCopier.copy(sourcePath, destinationPath, progress);
+            sizeAggregator.copied(sourcePath, destinationPath, copiedSize);
+            log.info("User {} copied {} to {} ({} bytes)", userId, sourcePath, destinationPath, copiedBytes);
+        } catch (FileAlreadyExistsException e) {
+            throw new IllegalArgumentException("Destination path already exists: " + destinationPath, e);
+        } catch (IOException e) {
+            log.error("Failed to copy {} to {}", sourcePath, destinationPath, e);
+            throw new FileOperationException("Failed to copy file: " + e.getMessage(), e);
+        } finally {
+            invalidateAncestors(destinationPath);
+        }
+    }
+
+    /**
+     * Renames the entry, or returns false when source and destination are on different volumes.
+     *
+     * @throws FileAlreadyExistsException if the destination was created since it was checked
+     */
+    private static boolean renameWithinVolume(Path sourcePath, Path destinationPath) throws IOException {
+        try {
+            ExclusiveMove.move(sourcePath, destinationPath);
+            return true;
+        } catch (AtomicMoveNotSupportedException e) {
+            return false;
         }
     }
 
@@ -91,6 +348,8 @@ public class LocalFileSystemAdapter implements FileStoragePort {
 
         try {
             Files.createDirectories(targetPath);
+            sizeAggregator.directoryCreated(targetPath);
+            invalidateAncestors(targetPath);
             log.info("User {} created directory: {}", userId, targetPath);
         } catch (IOException e) {
             log.error("Failed to create directory: {}", targetPath, e);
@@ -99,47 +358,96 @@ public class LocalFileSystemAdapter implements FileStoragePort {
     }
 
     @Override
-    public void save(InputStream content, String pathString, long size, UUID userId) {
+    public StoredFile save(InputStream content, String pathString, long size, UUID userId, String expectedSha256) {
+        // Staged as a hidden sibling so a wrong size or checksum never becomes visible at the final path.
+        UUID stagingId = UUID.randomUUID();
+        createPartial(pathString, stagingId);
+
+        try {
+            MessageDigest digest = sha256();
+            long written = appendPartial(pathString, stagingId, 0L, new DigestInputStream(content, digest), size);
+            if (written != size) {
+                throw new IllegalArgumentException(
+                        "Uploaded content size " + written + " does not match declared size " + size);
+            }
+
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            if (expectedSha256 != null && !expectedSha256.equals(sha256)) {
+                throw new IllegalArgumentException("Checksum verification failed for uploaded file");
+            }
+
+            commitPartial(pathString, stagingId, userId);
+            return new StoredFile(pathString, written, sha256);
+        } catch (RuntimeException e) {
+            deletePartial(pathString, stagingId);
+            throw e;
+        }
+    }
+
+    @Override
+    public StoredFile saveDuplicate(String sourcePathString, String pathString, UUID userId, String sha256) {
+        Path sourcePath = resolveRegularFile(sourcePathString);
         Path targetPath = resolveTarget(pathString);
 
-        if (Files.exists(targetPath)) {
+        if (Files.exists(targetPath, LinkOption.NOFOLLOW_LINKS)) {
             throw new IllegalArgumentException("File already exists: " + targetPath);
         }
 
+        // Staged like an upload, so the file appears at its path complete or not at all.
+        UUID stagingId = UUID.randomUUID();
+        Path partialPath = partialPath(targetPath, stagingId);
         try {
             Files.createDirectories(targetPath.getParent());
-            Files.copy(content, targetPath);
-            log.info("User {} uploaded file: {} (Size: {})", userId, targetPath, size);
+            ContentLinker.Method method = contentLinker.link(sourcePath, partialPath);
+            if (method != ContentLinker.Method.HARDLINK) {
+                try (FileChannel channel = FileChannel.open(partialPath, StandardOpenOption.WRITE)) {
+                    durability.syncData(channel);
+                }
+            }
+            long size = Files.size(partialPath);
+
+            commitPartial(pathString, stagingId, userId);
+            log.info("User {} stored {} as a {} of {}", userId, targetPath, method, sourcePath);
+            return new StoredFile(pathString, size, sha256);
         } catch (IOException e) {
-            log.error("Failed to upload file to: {}", targetPath, e);
-            throw new FileOperationException("Failed to upload file", e);
+            deletePartial(pathString, stagingId);
+            log.error("Failed to store {} from existing content {}", targetPath, sourcePath, e);
+            throw new FileOperationException("Failed to store duplicate content", e);
+        } catch (RuntimeException e) {
+            deletePartial(pathString, stagingId);
+            throw e;
         }
     }
 
-    @Override
-    public FileContent retrieve(String pathString, UUID userId) {
-        Path targetPath = resolveTarget(pathString);
-
-        if (!Files.exists(targetPath)) {
-            throw new ResourceNotFoundException("File does not exist: " + targetPath);
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
         }
+    }
 
-        if (Files.isDirectory(targetPath)) {
-            throw new IllegalArgumentException("Path is a directory: " + targetPath);
-        }
+    @Override
+    public FileContent retrieve(String pathString, UUID userId) {
+        Path targetPath = resolveRegularFile(pathString);
 
         try {
-            String contentType = Files.probeContentType(targetPath);
-            if (contentType == null) {
-                contentType = "application/octet-stream";
+            var attrs = Files.readAttributes(targetPath, BasicFileAttributes.class);
+            FileChannel channel = FileChannel.open(targetPath, StandardOpenOption.READ);
+            String contentType;
+            try {
+                // Sniffs through the download channel itself, so a cache miss costs no extra open.
+                contentType = contentTypes.resolve(targetPath, attrs, channel);
+            } catch (IOException e) {
+                channel.close();
+                throw e;
             }
-            long size = Files.size(targetPath);
             String fileName = targetPath.getFileName().toString();
-            InputStream inputStream = Files.newInputStream(targetPath);
+            InputStream inputStream = new FileRangeInputStream(targetPath, channel, 0L, attrs.size());
 
             log.info("User {} downloading file: {}", userId, targetPath);
 
-            return new FileContent(fileName, contentType, size, inputStream);
+            return new FileContent(fileName, contentType, attrs.size(), inputStream);
         } catch (IOException e) {
             log.error("Failed to retrieve file: {}", targetPath, e);
             throw new FileOperationException("Failed to retrieve file content", e);
@@ -147,36 +455,216 @@ public class LocalFileSystemAdapter implements FileStoragePort {
     }
 
     @Override
-    public DirectoryListing listDirectory(String pathString, UUID userId, int offset, int limit, FileListSort sort) {
-        var targetPath = resolveAndValidate(pathString);
+    public FileContent retrieveRange(String pathString, UUID userId, ByteRange range) {
+        Path targetPath = resolveRegularFile(pathString);
+
+        try {
+            var attrs = Files.readAttributes(targetPath, BasicFileAttributes.class);
+            String contentType = contentTypes.resolve(targetPath, attrs);
+            long size = attrs.size();
+            if (range.offset() >= size && range.length() > 0) {
+                throw new IllegalArgumentException("Range starts beyond end of file: " + range.offset());
+            }
+            long length = Math.min(range.length(), size - range.offset());
+
+            log.debug("User {} reading bytes {}-{} of {}", userId, range.offset(), range.offset() + length - 1,
+                    targetPath);
+
+            return new FileContent(
+                    targetPath.getFileName().toString(),
+                    contentType,
+                    length,
+                    new FileRangeInputStream(targetPath,
+                            FileChannel.open(targetPath, StandardOpenOption.READ), range.offset(), length)
+            );
+        } catch (IOException e) {
+            log.error("Failed to retrieve file range: {}", targetPath, e);
+            throw new FileOperationException("Failed to retrieve file content", e);
+        }
+    }
 
-        int safeLimit = Math.max(1, limit);
+    @Override
+    public FileMetadata getMetadata(String pathString, UUID userId) {
+        Path targetPath = resolveRegularFile(pathString);
 
-        if (sort == FileListSort.NAME_ASC || sort == FileListSort.NAME_DESC) {
-            return listDirectoryByNameSort(targetPath, offset, safeLimit, sort);
+        try {
+            var attrs = Files.readAttributes(targetPath, BasicFileAttributes.class);
+            return new FileMetadata(
+                    targetPath.getFileName().toString(),
+                    contentTypes.resolve(targetPath, attrs),
+                    attrs.size(),
+                    attrs.lastModifiedTime().toInstant(),
+                    entityTag(attrs)
+            );
+        } catch (IOException e) {
+            log.error("Failed to read file metadata: {}", targetPath, e);
+            throw new FileOperationException("Failed to read file metadata", e);
         }
+    }
+
+    @Override
+    public void createPartial(String targetPathString, UUID sessionId) {
+        Path targetPath = resolveTarget(targetPathString);
 
-        if (sort == FileListSort.MODIFIED_ASC || sort == FileListSort.MODIFIED_DESC) {
-            return listDirectoryByModifiedSort(targetPath, offset, safeLimit, sort);
+        if (Files.exists(targetPath)) {
+            throw new IllegalArgumentException("File already exists: " + targetPath);
         }
 
-        var allItems = fetchFileNodes(targetPath, sort);
-        int totalCount = allItems.size();
-        int safeOffset = Math.min(Math.max(0, offset), totalCount);
-        int endExclusive = Math.min(safeOffset + safeLimit, totalCount);
+        Path partialPath = partialPath(targetPath, sessionId);
+        try {
+            Files.createDirectories(targetPath.getParent());
+            Files.createFile(partialPath);
+        } catch (IOException e) {
+            log.error("Failed to create partial upload file: {}", partialPath, e);
+            throw new FileOperationException("Failed to start upload", e);
+        }
+    }
 
-        var pagedItems = allItems.subList(safeOffset, endExclusive);
-        var breadcrumbs = generateBreadcrumbs(targetPath);
-        String logicalPath = toLogicalPath(targetPath);
+    @Override
+    public long appendPartial(String targetPathString, UUID sessionId, long offset, InputStream content,
+            long maxLength) {
+        Path partialPath = requirePartial(targetPathString, sessionId);
+
+        try (FileChannel channel = FileChannel.open(partialPath, StandardOpenOption.WRITE)) {
+            long existing = channel.size();
+            if (existing < offset) {
+                throw new FileOperationException("Partial upload is shorter than its committed offset");
+            }
+            // Drops whatever an interrupted chunk wrote past the last committed offset.
+            channel.truncate(offset);
+
+            long written = 0;
+            TransferBuffers.Buffer buffer = TransferBuffers.acquire();
+            try {
+                byte[] array = buffer.array();
+                int read;
+                while ((read = content.read(array, 0, array.length)) != -1) {
+                    if (written + read > maxLength) {
+                        channel.truncate(offset);
+                        throw new IllegalArgumentException("Chunk exceeds the declared upload size");
+                    }
+                    ByteBuffer source = buffer.fillFromArray(read);
+                    while (source.hasRemaining()) {
+                        written += channel.write(source, offset + written);
+                    }
+                }
+            } finally {
+                TransferBuffers.release(buffer);
+            }
 
-        return new DirectoryListing(
-                logicalPath,
-                breadcrumbs,
-                pagedItems,
-                totalCount,
-                safeOffset,
-                safeLimit
-        );
+            // Unless durability is off, the offset is only reported (and persisted by the caller) once the
+            // bytes are on disk.
+            durability.syncData(channel);
+            return offset + written;
+        } catch (IOException e) {
+            log.error("Failed to write upload chunk to: {}", partialPath, e);
+            throw new FileOperationException("Failed to write upload chunk", e);
+        }
+    }
+
+    @Override
+    public InputStream openPartial(String targetPathString, UUID sessionId) {
+        Path partialPath = requirePartial(targetPathString, sessionId);
+
+        try {
+            FileChannel channel = FileChannel.open(partialPath, StandardOpenOption.READ);
+            return new FileRangeInputStream(partialPath, channel, 0L, channel.size());
+        } catch (IOException e) {
+            log.error("Failed to open partial upload file: {}", partialPath, e);
+            throw new FileOperationException("Failed to read uploaded content", e);
+        }
+    }
+
+    @Override
+    public void commitPartial(String targetPathString, UUID sessionId, UUID userId) {
+        Path targetPath = resolveTarget(targetPathString);
+        Path partialPath = requirePartial(targetPathString, sessionId);
+
+        try {
+            long size = Files.size(partialPath);
+            // Never replaces a file created at the target since the session started.
+            ExclusiveMove.move(partialPath, targetPath);
+            durability.syncDirectory(targetPath.getParent());
+            sizeAggregator.fileAdded(targetPath, size);
+            invalidateAncestors(targetPath);
+            log.info("User {} uploaded file: {} (Size: {})", userId, targetPath, size);
+        } catch (FileAlreadyExistsException e) {
+            throw new IllegalArgumentException("File already exists: " + targetPath, e);
+        } catch (IOException e) {
+            log.error("Failed to move completed upload to: {}", targetPath, e);
+            throw new FileOperationException("Failed to complete upload", e);
+        }
+    }
+
+    @Override
+    public void deletePartial(String targetPathString, UUID sessionId) {
+        Path partialPath = partialPath(resolveTarget(targetPathString), sessionId);
+
+        try {
+            Files.deleteIfExists(partialPath);
+        } catch (IOException e) {
+            log.warn("Failed to delete partial upload file: {}", partialPath, e);
+        }
+    }
+
+    private Path requirePartial(String targetPathString, UUID sessionId) {
+        Path partialPath = partialPath(resolveTarget(targetPathString), sessionId);
+        if (!Files.isRegularFile(partialPath, LinkOption.NOFOLLOW_LINKS)) {
+            throw new ResourceNotFoundException("Partial upload does not exist: " + partialPath);
+        }
+        return partialPath;
+    }
+
+    /**
+     * Partial files are hidden siblings of the target, so completing the upload is a same-directory rename.
+     */
+    private static Path partialPath(Path targetPath, UUID sessionId) {
+        return targetPath.resolveSibling(
+                StorageExcludes.PARTIAL_UPLOAD_PREFIX + sessionId + StorageExcludes.PARTIAL_UPLOAD_SUFFIX);
+    }
+
+    @Override
+    public DirectoryListing listDirectory(
+            String pathString, UUID userId, int offset, int limit, FileListSort sort, String cursor) {
+        var targetPath = resolveAndValidate(pathString);
+
+        return listDirectoryFromSortedEntries(targetPath, offset, Math.max(1, limit), sort, cursor);
+    }
+
+    @Override
+    public ArchiveSource openArchive(List<String> paths, UUID userId) {
+        List<Path> targets = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            Path target = resolveTarget(path);
+            if (target.equals(rootPath)) {
+                throw new IllegalArgumentException("The storage root cannot be archived");
+            }
+            if (!Files.exists(target, LinkOption.NOFOLLOW_LINKS) || StorageExcludes.isExcluded(rootPath, target)) {
+                throw new ResourceNotFoundException("Path does not exist: " + target);
+            }
+            targets.add(target);
+        }
+
+        String fileName = targets.size() == 1 ? targets.getFirst().getFileName() + ".zip" : "download.zip";
+
+        log.info("User {} requested archive {} of {} paths", userId, fileName, targets.size());
+        return new ZipArchiveSource(rootPath, List.copyOf(targets), fileName, zipArchiveWriter);
+    }
+
+    @Override
+    public Stream<FileNode> streamDirectory(String pathString, UUID userId) {
+        var targetPath = resolveAndValidate(pathString);
+
+        try {
+            // Files.list is backed by a lazily iterated DirectoryStream; entries are stat-ed one at a time.
+            return Files.list(targetPath)
+                    .filter(p -> !shouldExcludeByDefault(p))
+                    .map(this::toFileNodeWithAttrs)
+                    .flatMap(Stream::ofNullable);
+        } catch (IOException e) {
+            log.error("Failed to open directory stream: {}", targetPath, e);
+            throw new FileOperationException("Failed to list directory content", e);
+        }
     }
 
     private Path resolveTarget(String pathString) {
@@ -194,9 +682,39 @@ public class LocalFileSystemAdapter implements FileStoragePort {
             log.warn("Security alert: Path traversal attempt to '{}'", targetPath);
             throw new SecurityException("Access denied: Path is outside the allowed storage root.");
         }
+        // The trash is only reachable through restore and purge.
+        for (Path name : rootPath.relativize(targetPath)) {
+            if (StorageExcludes.TRASH_DIRECTORY.equals(name.toString())) {
+                throw new IllegalArgumentException("Path is inside the trash: " + pathString);
+            }
+        }
+        return targetPath;
+    }
+
+    private Path resolveRegularFile(String pathString) {
+        Path targetPath = resolveTarget(pathString);
+
+        if (!Files.exists(targetPath)) {
+            throw new ResourceNotFoundException("File does not exist: " + targetPath);
+        }
+
+        if (Files.isDirectory(targetPath)) {
+            throw new IllegalArgumentException("Path is a directory: " + targetPath);
+        }
+
         return targetPath;
     }
 
+    /**
+     * Strong entity tag from the file identity (device/inode where available), size and mtime in microseconds.
+     * Replacing a file with another of equal size and mtime still changes the tag through its file key.
+     */
+    private static String entityTag(BasicFileAttributes attrs) {
+        long modified = attrs.lastModifiedTime().to(TimeUnit.MICROSECONDS);
+        String identity = attrs.fileKey() == null ? "0" : Integer.toHexString(attrs.fileKey().hashCode());
+        return "\"" + identity + "-" + Long.toHexString(attrs.size()) + "-" + Long.toHexString(modified) + "\"";
+    }
+
     private Path resolveAndValidate(String pathString) {
         Path targetPath = resolveTarget(pathString);
 
@@ -211,122 +729,153 @@ public class LocalFileSystemAdapter implements FileStoragePort {
         return targetPath;
     }
 
-    private List<FileNode> fetchFileNodes(Path directory, FileListSort sort) {
-        try (Stream<Path> stream = Files.list(directory)) {
-            return stream
-                    .map(this::toFileNodeWithAttrs)
-                    .flatMap(Stream::ofNullable)
-                    .sorted(comparatorBySort(sort))
-                    .toList();
-        } catch (IOException e) {
-            log.error("Failed to list directory: {}", directory, e);
-            throw new FileOperationException("Failed to list directory content", e);
+    private DirectoryListing listDirectoryFromSortedEntries(
+            Path targetPath, int offset, int limit, FileListSort sort, String cursor) {
+        ListingCursor resumeAfter = ListingCursor.parse(cursor, sort);
+        FileTime directoryModified = readLastModifiedTime(targetPath);
+        Comparator<PathEntry> comparator = EntryOrdering.comparator(sort);
+
+        ListingSnapshot snapshot = listingCache.get(targetPath, sort, directoryModified);
+        int start = 0;
+        if (snapshot != null) {
+            start = startPosition(snapshot, offset, resumeAfter, comparator);
+            if (!snapshot.covers(start, limit)) {
+                // Cached top-K prefix ends before the requested page.
+                snapshot = null;
+            }
         }
-    }
 
-    private DirectoryListing listDirectoryByNameSort(Path targetPath, int offset, int limit, FileListSort sort) {
-        var entries = fetchEntriesSortedByName(targetPath, sort);
-        int totalCount = entries.size();
-        int safeOffset = Math.min(Math.max(0, offset), totalCount);
-        int endExclusive = Math.min(safeOffset + limit, totalCount);
+        boolean freshlyScanned = snapshot == null;
+        if (freshlyScanned) {
+            List<PathEntry> scanned = scanEntries(targetPath);
+            if (resumeAfter != null && !listingCache.accepts(scanned.size())) {
+                return listDirectoryByKeyset(targetPath, scanned, limit, sort, resumeAfter);
+            }
+            snapshot = new ListingSnapshot(
+                    listingCache.nextVersion(),
+                    directoryModified,
+                    sortForPage(scanned, resumeAfter == null ? (long) Math.max(0, offset) + limit : -1, comparator),
+                    scanned.size()
+            );
+            listingCache.put(targetPath, sort, snapshot);
+            start = startPosition(snapshot, offset, resumeAfter, comparator);
+        }
 
-        var pagedItems = entries.subList(safeOffset, endExclusive).stream()
-                .map(entry -> toFileNodeWithAttrs(entry.path()))
+        var entries = snapshot.entries();
+        int totalCount = snapshot.totalCount();
+        int endExclusive = Math.min(start + limit, entries.size());
+
+        // Entries scanned by this request already carry fresh attributes; cached ones are re-read.
+        var pagedItems = entries.subList(start, endExclusive).stream()
+                .map(entry -> freshlyScanned ? toFileNode(entry) : toFileNodeWithAttrs(entry.path()))
                 .flatMap(Stream::ofNullable)
                 .toList();
 
+        String nextCursor = endExclusive < totalCount
+                ? ListingCursor.after(entries.get(endExclusive - 1), sort, snapshot.version(), endExclusive).encode()
+                : null;
+
         return new DirectoryListing(
                 toLogicalPath(targetPath),
                 generateBreadcrumbs(targetPath),
                 pagedItems,
                 totalCount,
-                safeOffset,
-                limit
+                start,
+                limit,
+                nextCursor
         );
     }
 
-    private DirectoryListing listDirectoryByModifiedSort(Path targetPath, int offset, int limit, FileListSort sort) {
-        var entries = fetchEntriesWithModified(targetPath, sort);
-        int totalCount = entries.size();
-        int safeOffset = Math.min(Math.max(0, offset), totalCount);
-        int endExclusive = Math.min(safeOffset + limit, totalCount);
+    /**
+     * Sorts the scanned entries, or only selects the first {@code pageEnd} of them (plus headroom for the
+     * following pages) when that is a small fraction of the directory. A negative {@code pageEnd} forces a
+     * full sort.
+     */
+    private static List<PathEntry> sortForPage(
+            List<PathEntry> scanned, long pageEnd, Comparator<PathEntry> comparator) {
+        long prefix = Math.max(pageEnd, TOP_K_MIN_PREFIX);
+        if (pageEnd >= 0 && prefix * TOP_K_MAX_FRACTION < scanned.size()) {
+            return List.copyOf(EntryOrdering.selectFirst(scanned, (int) prefix, comparator));
+        }
+        return scanned.stream().sorted(comparator).toList();
+    }
 
-        var pagedItems = entries.subList(safeOffset, endExclusive).stream()
-                .map(entry -> toFileNodeWithAttrs(entry.path()))
-                .flatMap(Stream::ofNullable)
-                .toList();
+    private int startPosition(
+            ListingSnapshot snapshot, int offset, ListingCursor resumeAfter, Comparator<PathEntry> comparator) {
+        return resumeAfter == null
+                ? Math.min(Math.max(0, offset), snapshot.totalCount())
+                : resumePosition(snapshot, resumeAfter, comparator);
+    }
+
+    /**
+     * Resumes from the cursor position directly when it was issued against this snapshot, otherwise locates
+     * the first entry after the cursor key so that entries added or removed in between are neither
+     * duplicated nor skipped.
+     */
+    private int resumePosition(ListingSnapshot snapshot, ListingCursor cursor, Comparator<PathEntry> comparator) {
+        var entries = snapshot.entries();
+        if (cursor.version() == snapshot.version() && cursor.position() <= entries.size()) {
+            return cursor.position();
+        }
+
+        int index = Collections.binarySearch(entries, cursor.toProbe(), comparator);
+        return index >= 0 ? index + 1 : -(index + 1);
+    }
+
+    /**
+     * Serves a cursor page for directories too large for {@link DirectoryListingCache} by selecting only
+     * the next {@code limit} entries after the cursor key with a bounded heap instead of sorting everything.
+     */
+    private DirectoryListing listDirectoryByKeyset(
+            Path targetPath, List<PathEntry> scanned, int limit, FileListSort sort, ListingCursor resumeAfter) {
+        Comparator<PathEntry> comparator = EntryOrdering.comparator(sort);
+        PathEntry probe = resumeAfter.toProbe();
+        int skipped = (int) scanned.stream().filter(entry -> comparator.compare(entry, probe) <= 0).count();
+        List<PathEntry> page = EntryOrdering.selectFirstAfter(scanned, probe, limit, comparator);
+
+        int endExclusive = skipped + page.size();
+        String nextCursor = endExclusive < scanned.size() && !page.isEmpty()
+                ? ListingCursor.after(page.getLast(), sort, ListingCursor.NO_SNAPSHOT, endExclusive).encode()
+                : null;
 
         return new DirectoryListing(
                 toLogicalPath(targetPath),
                 generateBreadcrumbs(targetPath),
-                pagedItems,
-                totalCount,
-                safeOffset,
-                limit
+                page.stream().map(this::toFileNode).toList(),
+                scanned.size(),
+                skipped,
+                limit,
+                nextCursor
         );
     }
 
-    private static final Set<String> DEFAULT_SYSTEM_EXCLUDES = Set.of(
-            ".Spotlight-V100",
-            ".fseventsd",
-            ".Trashes",
-            ".TemporaryItems",
-            ".DocumentRevisions-V100",
-            ".VolumeIcon.icns"
-    );
-
-    private static final Set<String> ROOT_VOLUME_EXCLUDES = Set.of(
-            "Macintosh HD",
-            "Macintosh HD - Data"
-    );
-
-    private boolean shouldExcludeByDefault(Path path) {
-        String name = path.getFileName() == null ? "" : path.getFileName().toString();
-
-        if (DEFAULT_SYSTEM_EXCLUDES.contains(name)) {
-            return true;
+    private FileTime readLastModifiedTime(Path directory) {
+        try {
+            return Files.getLastModifiedTime(directory);
+        } catch (IOException e) {
+            log.error("Failed to read directory metadata: {}", directory, e);
+            throw new FileOperationException("Failed to list directory content", e);
         }
+    }
 
-        Path parent = path.getParent();
-        if (parent != null && parent.equals(rootPath) && ROOT_VOLUME_EXCLUDES.contains(name)) {
-            return true;
+    private void invalidateAncestors(Path path) {
+        Path current = path.getParent();
+        while (current != null && current.startsWith(rootPath)) {
+            listingCache.invalidate(current);
+            current = current.getParent();
         }
-
-        return false;
     }
 
-    private List<PathEntry> fetchEntriesSortedByName(Path directory, FileListSort sort) {
-        try (Stream<Path> stream = Files.list(directory)) {
-            Comparator<String> nameComparator = sort == FileListSort.NAME_DESC
-                    ? Comparator.reverseOrder()
-                    : Comparator.naturalOrder();
-
-            Comparator<PathEntry> comparator = Comparator.comparing(PathEntry::isDirectory).reversed()
-                    .thenComparing(entry -> entry.path().getFileName().toString(), nameComparator);
-
-            return stream
-                    .filter(p -> !shouldExcludeByDefault(p))
-                    .map(this::toPathEntry)
-                    .flatMap(Stream::ofNullable)
-                    .sorted(comparator)
-                    .toList();
-        } catch (IOException e) {
-            log.error("Failed to list directory: {}", directory, e);
-            throw new FileOperationException("Failed to list directory content", e);
-        }
+    private boolean shouldExcludeByDefault(Path path) {
+        return StorageExcludes.isExcluded(rootPath, path);
     }
 
-    private List<PathEntry> fetchEntriesWithModified(Path directory, FileListSort sort) {
+    private List<PathEntry> scanEntries(Path directory) {
         try (Stream<Path> stream = Files.list(directory)) {
-            Comparator<PathEntry> comparator = Comparator.comparing(PathEntry::isDirectory).reversed()
-                    .thenComparing(PathEntry::lastModified,
-                            sort == FileListSort.MODIFIED_DESC ? Comparator.reverseOrder() : Comparator.naturalOrder());
-
             return stream
                     .filter(p -> !shouldExcludeByDefault(p))
-                    .map(this::toPathEntryWithModified)
+                    .map(this::toPathEntry)
                     .flatMap(Stream::ofNullable)
-                    .sorted(comparator)
                     .toList();
         } catch (IOException e) {
             log.error("Failed to list directory: {}", directory, e);
@@ -334,35 +883,50 @@ public class LocalFileSystemAdapter implements FileStoragePort {
         }
     }
 
+    /**
+     * Reads all attributes needed for sorting and rendering with a single stat call.
+     */
     private PathEntry toPathEntry(Path path) {
         try {
-            return new PathEntry(path, Files.isDirectory(path), null);
+            var attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            return new PathEntry(path, path.getFileName().toString(), attrs.isDirectory(), attrs.size(),
+                    attrs.lastModifiedTime().toInstant(), attrs.fileKey());
         } catch (Exception e) {
             log.warn("Skipping path '{}' due to metadata read error: {}", path, e.getMessage());
             return null;
         }
     }
 
-    private PathEntry toPathEntryWithModified(Path path) {
-        try {
-            return new PathEntry(path, Files.isDirectory(path), Files.getLastModifiedTime(path).toInstant());
-        } catch (Exception e) {
-            log.warn("Skipping path '{}' due to metadata read error: {}", path, e.getMessage());
-            return null;
-        }
+    private FileNode toFileNode(PathEntry entry) {
+        DirectoryTotals totals = entry.isDirectory() ? sizeAggregator.totalsOf(entry.path()) : null;
+        return new FileNode(
+                entry.name(),
+                toLogicalPath(entry.path()),
+                entry.isDirectory(),
+                entry.size(),
+                entry.lastModified(),
+                "system",
+                totals == null ? null : totals.recursiveSize(),
+                totals == null ? null : totals.childCount(),
+                entry.isDirectory() ? null : contentTypes.resolveListed(entry.path(), entry.name(), entry.fileKey(),
+                        FileTime.from(entry.lastModified()).to(TimeUnit.MICROSECONDS))
+        );
+    }
+
+    /**
+     * Size of a regular file (or link) for size index bookkeeping; directories report 0 as their totals are
+     * tracked by {@link DirectorySizeAggregator} itself.
+     */
+    private long regularFileSize(Path path) throws IOException {
+        var attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        return attrs.isDirectory() ? 0L : attrs.size();
     }
 
     private FileNode toFileNodeWithAttrs(Path path) {
         try {
             var attrs = Files.readAttributes(path, BasicFileAttributes.class);
-            return new FileNode(
-                    path.getFileName().toString(),
-                    toLogicalPath(path),
-                    attrs.isDirectory(),
-                    attrs.size(),
-                    attrs.lastModifiedTime().toInstant(),
-                    "system"
-            );
+            return toFileNode(new PathEntry(path, path.getFileName().toString(), attrs.isDirectory(), attrs.size(),
+                    attrs.lastModifiedTime().toInstant(), attrs.fileKey()));
         } catch (IOException e) {
             log.warn("Skipping file '{}' due to read error: {}", path, e.getMessage());
             return null;
@@ -377,17 +941,6 @@ public class LocalFileSystemAdapter implements FileStoragePort {
         return "/" + rootPath.relativize(path);
     }
 
-    private Comparator<FileNode> comparatorBySort(FileListSort sort) {
-        Comparator<FileNode> base = Comparator.comparing(FileNode::isDirectory).reversed();
-
-        return switch (sort) {
-            case NAME_DESC -> base.thenComparing(FileNode::name, Comparator.reverseOrder());
-            case MODIFIED_DESC -> base.thenComparing(FileNode::lastModified, Comparator.reverseOrder());
-            case MODIFIED_ASC -> base.thenComparing(FileNode::lastModified);
-            case NAME_ASC -> base.thenComparing(FileNode::name);
-        };
-    }
-
     private List<PathNode> generateBreadcrumbs(Path targetPath) {
         var breadcrumbs = new ArrayList<PathNode>();
         var current = targetPath;
@@ -431,9 +984,6 @@ public class LocalFileSystemAdapter implements FileStoragePort {
         }
     }
 
-    private record PathEntry(Path path, boolean isDirectory, Instant lastModified) {
-    }
-
     @Override
     public long getAvailableDiskSpace() {
         try {
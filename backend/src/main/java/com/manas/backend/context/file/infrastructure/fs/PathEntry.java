@@ -0,0 +1,25 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Directory entry carrying the attributes read once during a scan, used for sorting and paging.
+ *
+ * @param fileKey File identity from the same attributes, or null where unavailable.
+ */
+record PathEntry(Path path, String name, boolean isDirectory, long size, Instant lastModified, Object fileKey) {
+
+    PathEntry(Path path, String name, boolean isDirectory, long size, Instant lastModified) {
+        this(path, name, isDirectory, size, lastModified, null);
+    }
+
+    /**
+     * Lower-cased extension without the dot, or an empty string when the name has none.
+     */
+    String extension() {
+        int dot = name.lastIndexOf('.');
+        return (dot <= 0 || dot == name.length() - 1) ? "" : name.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,213 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import com.manas.backend.context.file.domain.VolumePermits;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deletes directory trees with a parallel post-order walk: subdirectories and batches of files in large
+ * directories are removed concurrently, and each directory is removed once its contents are gone.
+ * <p>
+ * Walks run on virtual threads, but every file system call holds a permit of its volume from
+ * {@link VolumePermits}, shared with copies and trash purges. A large delete therefore cannot flood one disk or
+ * starve other requests on it, and deletes on different volumes never wait for each other.
+ * Symbolic links are removed, never followed.
+ */
+@Slf4j
+@Component
+public class RecursiveDeleter {
+
+    /**
+     * Files of one directory are deleted in tasks of this size, so flat directories are spread over permits too.
+     */
+    private static final int FILE_BATCH_SIZE = 256;
+
+    private final Path rootPath;
+    private final VolumePermits volumePermits;
+
+    public RecursiveDeleter(
+            @Value("${app.storage.root}") String rootPathString,
+            VolumePermits volumePermits
+    ) {
+        this.rootPath = Paths.get(rootPathString).toAbsolutePath().normalize();
+        this.volumePermits = volumePermits;
+    }
+
+    /**
+     * Deletes a file, a symbolic link or a directory with everything below it. Entries that cannot be removed
+     * are left in place while the rest of the tree is still deleted; the call then fails with the first error.
+     *
+     * @return number of entries removed, including the target
+     */
+    long delete(Path target) throws IOException {
+        return delete(target, Integer.MAX_VALUE);
+    }
+
+    /**
+     * As {@link #delete(Path)}, with at most {@code maxParallelism} of the volume's permits, so background work
+     * such as trash purges leaves the rest to requests.
+     */
+    long delete(Path target, int maxParallelism) throws IOException {
+        Semaphore limit = maxParallelism < Integer.MAX_VALUE ? new Semaphore(Math.max(1, maxParallelism)) : null;
+        Walk walk = new Walk(volumePermits.calls(rootPath.relativize(target).toString()), limit);
+
+        try {
+            if (Files.isDirectory(target, LinkOption.NOFOLLOW_LINKS)) {
+                try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                    walk.deleteDirectory(target, executor);
+                }
+            } else {
+                walk.deleteEntry(target);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while deleting " + target);
+        }
+
+        walk.throwIfFailed(target);
+        return walk.removed.sum();
+    }
+
+    private static final class Walk {
+
+        private final Semaphore permits;
+        private final Semaphore limit;
+        private final LongAdder removed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final AtomicReference<IOException> firstFailure = new AtomicReference<>();
+
+        Walk(Semaphore permits, Semaphore limit) {
+            this.permits = permits;
+            this.limit = limit;
+        }
+
+        /**
+         * Returns whether the directory itself could be removed, i.e. its whole subtree is gone.
+         */
+        boolean deleteDirectory(Path directory, ExecutorService executor) throws InterruptedException {
+            List<Future<Boolean>> parts = new ArrayList<>();
+            List<Path> files = new ArrayList<>();
+
+            acquire();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                        parts.add(executor.submit(() -> deleteDirectory(entry, executor)));
+                    } else {
+                        files.add(entry);
+                        if (files.size() == FILE_BATCH_SIZE) {
+                            List<Path> batch = files;
+                            parts.add(executor.submit(() -> deleteFiles(batch)));
+                            files = new ArrayList<>();
+                        }
+                    }
+                }
+            } catch (NoSuchFileException e) {
+                return true;
+            } catch (IOException | DirectoryIteratorException e) {
+                fail(e instanceof DirectoryIteratorException iteration ? iteration.getCause() : (IOException) e);
+                return false;
+            } finally {
+                release();
+            }
+
+            boolean complete = deleteFiles(files);
+            for (Future<Boolean> part : parts) {
+                complete &= join(part);
+            }
+            return complete && deleteEntry(directory);
+        }
+
+        private boolean deleteFiles(List<Path> files) throws InterruptedException {
+            boolean complete = true;
+            for (Path file : files) {
+                complete &= deleteEntry(file);
+            }
+            return complete;
+        }
+
+        boolean deleteEntry(Path path) throws InterruptedException {
+            acquire();
+            try {
+                Files.delete(path);
+                removed.increment();
+                return true;
+            } catch (NoSuchFileException e) {
+                return true;
+            } catch (IOException e) {
+                fail(e);
+                return false;
+            } finally {
+                release();
+            }
+        }
+
+        private void acquire() throws InterruptedException {
+            if (limit != null) {
+                limit.acquire();
+            }
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                if (limit != null) {
+                    limit.release();
+                }
+                throw e;
+            }
+        }
+
+        private void release() {
+            permits.release();
+            if (limit != null) {
+                limit.release();
+            }
+        }
+
+        private static boolean join(Future<Boolean> part) throws InterruptedException {
+            try {
+                return part.get();
+            } catch (ExecutionException e) {
+                switch (e.getCause()) {
+                    case InterruptedException interrupted -> throw interrupted;
+                    case RuntimeException runtime -> throw runtime;
+                    case Error error -> throw error;
+                    default -> throw new IllegalStateException(e.getCause());
+                }
+            }
+        }
+
+        private void fail(IOException e) {
+            failed.increment();
+            if (!firstFailure.compareAndSet(null, e)) {
+                log.debug("Could not delete {}", e.getMessage());
+            }
+        }
+
+        void throwIfFailed(Path target) throws IOException {
+            IOException first = firstFailure.get();
+            if (first != null) {
+                throw new IOException("Could not delete " + failed.sum() + " entries under " + target
+                        + " (" + removed.sum() + " removed): " + first.getMessage(), first);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Clones files with {@code ioctl(FICLONE)} (see {@link Libc}): the clone shares the data extents of the source
+ * and only diverges where either file is written later (copy on write). Supported within one btrfs or XFS
+ * (reflink=1) file system; elsewhere the call fails and callers fall back.
+ */
+@Slf4j
+final class Reflinks {
+
+    private Reflinks() {
+    }
+
+    /**
+     * Creates {@code target}, which must not exist, as a clone of {@code source}.
+     *
+     * @return false, leaving nothing behind, when the file system cannot clone between the two paths
+     */
+    static boolean cloneFile(Path source, Path target) throws IOException {
+        if (!Libc.isAvailable()) {
+            return false;
+        }
+
+        boolean created = false;
+        boolean cloned = false;
+        try {
+            int in = Libc.open(source, Libc.O_RDONLY | Libc.O_CLOEXEC, 0);
+            if (in < 0) {
+                return false;
+            }
+            try {
+                int out = Libc.open(target, Libc.O_WRONLY | Libc.O_CREAT | Libc.O_EXCL | Libc.O_CLOEXEC, 0666);
+                if (out >= 0) {
+                    created = true;
+                    try {
+                        cloned = Libc.ioctl(out, Libc.FICLONE, in) == 0;
+                    } finally {
+                        Libc.close(out);
+                    }
+                }
+            } finally {
+                Libc.close(in);
+            }
+        } catch (Throwable e) {
+            log.debug("Could not clone {} to {}", source, target, e);
+        }
+
+        if (created && !cloned) {
+            Files.deleteIfExists(target);
+        }
+        return cloned;
+    }
+}
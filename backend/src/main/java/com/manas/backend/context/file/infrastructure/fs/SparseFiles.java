@@ -0,0 +1,76 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Finds the data regions of sparse files with {@code lseek(SEEK_DATA)} and {@code lseek(SEEK_HOLE)}, which the
+ * JDK does not expose (see {@link Libc}). Where the calls are not available every file is reported as one
+ * region, i.e. copied densely.
+ */
+@Slf4j
+final class SparseFiles {
+
+    /**
+     * Byte range {@code [start, end)} of a file that holds data.
+     */
+    record Region(long start, long end) {
+
+    }
+
+    private SparseFiles() {
+    }
+
+    static boolean isSupported() {
+        return Libc.isAvailable();
+    }
+
+    /**
+     * Returns the data regions of a file of the given size in ascending order. Holes between them read as
+     * zeros; a file without holes (or whose holes cannot be found) is a single region.
+     */
+    static List<Region> dataRegions(Path file, long size) {
+        if (size == 0L) {
+            return List.of();
+        }
+        List<Region> whole = List.of(new Region(0L, size));
+        if (!Libc.isAvailable()) {
+            return whole;
+        }
+
+        try {
+            int fd = Libc.open(file, Libc.O_RDONLY | Libc.O_CLOEXEC, 0);
+            if (fd < 0) {
+                return whole;
+            }
+            try {
+                long firstHole = Libc.lseek(fd, 0L, Libc.SEEK_HOLE);
+                if (firstHole < 0L || firstHole >= size) {
+                    return whole;
+                }
+
+                List<Region> regions = new ArrayList<>();
+                long position = 0L;
+                while (position < size) {
+                    long data = Libc.lseek(fd, position, Libc.SEEK_DATA);
+                    if (data < 0L || data >= size) {
+                        // ENXIO: only a hole is left up to the end of the file.
+                        break;
+                    }
+                    long hole = Libc.lseek(fd, data, Libc.SEEK_HOLE);
+                    long end = hole < 0L || hole > size ? size : hole;
+                    regions.add(new Region(data, end));
+                    position = end;
+                }
+                return regions;
+            } finally {
+                Libc.close(fd);
+            }
+        } catch (Throwable e) {
+            log.debug("Could not read the holes of {}, copying it densely", file, e);
+            return whole;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * Host system entries that are hidden from listings and ignored by storage-wide walks.
+ */
+public final class StorageExcludes {
+
+    /**
+     * Partial files of resumable uploads, stored next to their target as {@code .upload-<session>.part}.
+     */
+    static final String PARTIAL_UPLOAD_PREFIX = ".upload-";
+    static final String PARTIAL_UPLOAD_SUFFIX = ".part";
+
+    /**
+     * Copies and checkpoints of moves between volumes, stored next to their destination as
+     * {@code .nas-move-<id>} and {@code .nas-move-<id>.checkpoint}.
+     */
+    static final String MOVE_STAGING_PREFIX = ".nas-move-";
+
+    /**
+     * Server-side copies being built next to their destination as {@code .nas-copy-<id>}.
+     */
+    static final String COPY_STAGING_PREFIX = ".nas-copy-";
+
+    /**
+     * Trash of a volume, at its top level (see {@link TrashBin}).
+     */
+    static final String TRASH_DIRECTORY = ".nas-trash";
+
+    private static final Set<String> DEFAULT_SYSTEM_EXCLUDES = Set.of(
+            ".Spotlight-V100",
+            ".fseventsd",
+            ".Trashes",
+            ".TemporaryItems",
+            ".DocumentRevisions-V100",
+            ".VolumeIcon.icns"
+    );
+
+    private static final Set<String> ROOT_VOLUME_EXCLUDES = Set.of(
+            "Macintosh HD",
+            "Macintosh HD - Data"
+    );
+
+    private StorageExcludes() {
+    }
+
+    public static boolean isExcluded(Path rootPath, Path path) {
+        if (isExcludedName(path)) {
+            return true;
+        }
+
+        String name = path.getFileName() == null ? "" : path.getFileName().toString();
+        Path parent = path.getParent();
+        return parent != null && parent.equals(rootPath) && ROOT_VOLUME_EXCLUDES.contains(name);
+    }
+
+    /**
+     * Whether an entry is excluded by its name alone. Copies and moves of a tree skip these entries: the root
+     * volume names only matter at the storage root, which is never copied.
+     */
+    static boolean isExcludedName(Path path) {
+        String name = path.getFileName() == null ? "" : path.getFileName().toString();
+
+        if (DEFAULT_SYSTEM_EXCLUDES.contains(name) || TRASH_DIRECTORY.equals(name)) {
+            return true;
+        }
+
+        if (name.startsWith(PARTIAL_UPLOAD_PREFIX) && name.endsWith(PARTIAL_UPLOAD_SUFFIX)) {
+            return true;
+        }
+
+        return name.startsWith(MOVE_STAGING_PREFIX) || name.startsWith(COPY_STAGING_PREFIX);
+    }
+}
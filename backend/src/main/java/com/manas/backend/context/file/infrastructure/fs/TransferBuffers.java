@@ -0,0 +1,67 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Small pool of large direct buffers for writing streamed content, such as upload chunks, to file channels.
+ * <p>
+ * Writing from a heap buffer makes the JDK copy through a temporary direct buffer on every call; filling a
+ * pooled direct buffer avoids that and keeps the number of write syscalls low for multi-GB files. Direct buffers
+ * are created lazily up to the pool size; beyond that a heap buffer of the same size is used instead of
+ * allocating more off-heap memory.
+ */
+final class TransferBuffers {
+
+    static final int BUFFER_SIZE = 256 * 1024;
+
+    private static final int POOL_SIZE = 32;
+
+    private static final BlockingQueue<Buffer> POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+    private static final AtomicInteger CREATED = new AtomicInteger();
+
+    private TransferBuffers() {
+    }
+
+    static Buffer acquire() {
+        Buffer pooled = POOL.poll();
+        if (pooled != null) {
+            return pooled;
+        }
+        byte[] array = new byte[BUFFER_SIZE];
+        if (CREATED.getAndUpdate(n -> n < POOL_SIZE ? n + 1 : n) < POOL_SIZE) {
+            return new Buffer(ByteBuffer.allocateDirect(BUFFER_SIZE), array);
+        }
+        return new Buffer(ByteBuffer.wrap(array), array);
+    }
+
+    static void release(Buffer buffer) {
+        if (buffer.direct().isDirect()) {
+            buffer.direct().clear();
+            POOL.offer(buffer);
+        }
+    }
+
+    /**
+     * Buffer for channel I/O plus the heap array filled from an {@link java.io.InputStream}. For heap fallbacks
+     * both share the same array.
+     */
+    record Buffer(ByteBuffer direct, byte[] array) {
+
+        /**
+         * Moves the first {@code count} bytes of {@link #array()} to {@link #direct()}, ready for a channel write.
+         */
+        ByteBuffer fillFromArray(int count) {
+            direct.clear();
+            if (direct.isDirect()) {
+                direct.put(array, 0, count);
+                direct.flip();
+            } else {
+                direct.limit(count);
+            }
+            return direct;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import com.manas.backend.common.exception.ConflictException;
+import com.manas.backend.common.exception.ResourceNotFoundException;
+import com.manas.backend.context.file.domain.TrashedEntry;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-volume trash that deletes are moved into, so a delete is a single rename however large the tree is and can
+ * be undone until the entry is purged.
+ * <p>
+ * Every volume (top-level directory under the storage root) has a hidden {@code .nas-trash} directory laid out
+ * like the freedesktop.org trash: {@code files/<id>} holds the deleted entry and {@code info/<id>.trashinfo} its
+ * original path, deletion time and size. Top-level entries themselves go to the trash of the storage root. The
+ * record is written before the rename, so a failed rename leaves a record without data at worst. Records are not
+ * forced to disk, so a crash can also lose one; both kinds of incomplete entries are listed and purged like the
+ * others.
+ * <p>
+ * Purging uses at most a few of the volume's {@link RecursiveDeleter} permits, so unlinking a large trashed tree
+ * leaves most of the disk's capacity to requests.
+ */
+@Slf4j
+@Component
+public class TrashBin {
+
+    private static final String FILES = "files";
+    private static final String INFO = "info";
+    private static final String INFO_SUFFIX = ".trashinfo";
+
+    private final Path rootPath;
+    private final boolean enabled;
+    private final WriteDurability durability;
+    private final int purgeParallelism;
+    private final RecursiveDeleter recursiveDeleter;
+    private final Set<String> busy = ConcurrentHashMap.newKeySet();
+
+    public TrashBin(
+            @Value("${app.storage.root}") String rootPathString,
+            @Value("${app.storage.trash.enabled:true}") boolean enabled,
+            @Value("${app.storage.trash.purge-parallelism:2}") int purgeParallelism,
+            WriteDurability durability,
+            RecursiveDeleter recursiveDeleter
+    ) {
+        this.rootPath = Paths.get(rootPathString).toAbsolutePath().normalize();
+        this.enabled = enabled;
+        this.durability = durability;
+        this.purgeParallelism = purgeParallelism;
+        this.recursiveDeleter = recursiveDeleter;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Moves {@code target} into the trash of its volume.
+     *
+     * @param size bytes of file data below {@code target}, or -1 if unknown
+     * @throws AtomicMoveNotSupportedException if the target is on another device than its trash, i.e. a
+     *                                         top-level entry mounted separately from the storage root
+     */
+    TrashedEntry moveToTrash(Path target, boolean directory, long size, UUID userId) throws IOException {
+        Path trash = trashOf(target);
+        String id = UUID.randomUUID().toString();
+        TrashedEntry entry = new TrashedEntry(id, logicalPath(volumeOf(trash)), logicalPath(target), directory,
+                size, Instant.now(), userId);
+
+        Files.createDirectories(trash.resolve(FILES));
+        Files.createDirectories(trash.resolve(INFO));
+        Path info = infoPath(trash, id);
+        writeInfo(info, entry);
+        try {
+            Files.move(target, trash.resolve(FILES).resolve(id), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(info);
+            throw e;
+        }
+        durability.syncDirectory(target.getParent());
+        return entry;
+    }
+
+    /**
+     * Lists the entries in all trash directories, most recently deleted first.
+     */
+    List<TrashedEntry> list() {
+        List<TrashedEntry> entries = new ArrayList<>();
+        for (Path trash : trashDirectories()) {
+            Set<String> ids = new TreeSet<>();
+            collectIds(trash.resolve(FILES), "", ids);
+            collectIds(trash.resolve(INFO), INFO_SUFFIX, ids);
+            for (String id : ids) {
+                try {
+                    entries.add(read(trash, id));
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable trash entry {} in {}: {}", id, trash, e.getMessage());
+                }
+            }
+        }
+        entries.sort(Comparator.comparing(TrashedEntry::deletedAt).reversed());
+        return entries;
+    }
+
+    /**
+     * @throws ResourceNotFoundException if no trash holds an entry with this id
+     */
+    TrashedEntry find(String id) {
+        String checkedId = checkId(id);
+        for (Path trash : trashDirectories()) {
+            if (Files.exists(infoPath(trash, checkedId), LinkOption.NOFOLLOW_LINKS)
+                    || Files.exists(trash.resolve(FILES).resolve(checkedId), LinkOption.NOFOLLOW_LINKS)) {
+                try {
+                    return read(trash, checkedId);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Cannot read trash entry " + checkedId, e);
+                }
+            }
+        }
+        throw new ResourceNotFoundException("Trash entry does not exist: " + checkedId);
+    }
+
+    /**
+     * Moves the data of {@code entry} back to {@code target}, which must not exist, and drops its record.
+     */
+    void restore(TrashedEntry entry, Path target) throws IOException {
+        claim(entry.id());
+        try {
+            Path trash = trashDirectoryOf(entry);
+            Path data = trash.resolve(FILES).resolve(entry.id());
+            if (!Files.exists(data, LinkOption.NOFOLLOW_LINKS)) {
+                throw new ResourceNotFoundException("The data of trash entry " + entry.id() + " is gone");
+            }
+            if (Files.exists(target, LinkOption.NOFOLLOW_LINKS)) {
+                throw new IllegalArgumentException("Path already exists: " + entry.originalPath());
+            }
+
+            Files.createDirectories(target.getParent());
+            try {
+                ExclusiveMove.move(data, target);
+            } catch (FileAlreadyExistsException e) {
+                throw new IllegalArgumentException("Path already exists: " + entry.originalPath(), e);
+            }
+            durability.syncDirectory(target.getParent());
+            Files.deleteIfExists(infoPath(trash, entry.id()));
+        } finally {
+            busy.remove(entry.id());
+        }
+    }
+
+    /**
+     * Deletes the data of {@code entry}, then its record; a purge that fails part way is retried from the record.
+     *
+     * @return number of file system entries removed
+     */
+    long purge(TrashedEntry entry) throws IOException {
+        claim(entry.id());
+        try {
+            Path trash = trashDirectoryOf(entry);
+            Path data = trash.resolve(FILES).resolve(entry.id());
+            long removed = Files.exists(data, LinkOption.NOFOLLOW_LINKS)
+                    ? recursiveDeleter.delete(data, purgeParallelism)
+                    : 0L;
+            Files.deleteIfExists(infoPath(trash, entry.id()));
+            return removed;
+        } finally {
+            busy.remove(entry.id());
+        }
+    }
+
+    private void claim(String id) {
+        if (!busy.add(id)) {
+            throw new ConflictException("Trash entry " + id + " is being restored or purged");
+        }
+    }
+
+    private TrashedEntry read(Path trash, String id) throws IOException {
+        Path data = trash.resolve(FILES).resolve(id);
+        Path info = infoPath(trash, id);
+        boolean directory = Files.isDirectory(data, LinkOption.NOFOLLOW_LINKS);
+        String volume = logicalPath(volumeOf(trash));
+
+        if (!Files.exists(info, LinkOption.NOFOLLOW_LINKS)) {
+            // The record is gone (lost in a crash, or removed by hand); the data cannot be restored.
+            return new TrashedEntry(id, volume, null, directory, -1L, changeTime(data), null);
+        }
+
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(info, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        try {
+            String deletedBy = properties.getProperty("deletedBy");
+            return new TrashedEntry(
+                    id,
+                    volume,
+                    properties.getProperty("path"),
+                    directory || Boolean.parseBoolean(properties.getProperty("directory")),
+                    Long.parseLong(properties.getProperty("size", "-1")),
+                    Instant.parse(properties.getProperty("deletedAt")),
+                    deletedBy == null ? null : UUID.fromString(deletedBy)
+            );
+        } catch (IllegalArgumentException | NullPointerException | DateTimeParseException e) {
+            throw new IOException("Malformed trash record " + info + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeInfo(Path info, TrashedEntry entry) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("path", entry.originalPath());
+        properties.setProperty("directory", Boolean.toString(entry.directory()));
+        properties.setProperty("size", Long.toString(entry.size()));
+        properties.setProperty("deletedAt", entry.deletedAt().toString());
+        if (entry.deletedBy() != null) {
+            properties.setProperty("deletedBy", entry.deletedBy().toString());
+        }
+        try (Writer writer = Files.newBufferedWriter(info, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            properties.store(writer, null);
+        }
+    }
+
+    /**
+     * The inode change time is updated by the rename into the trash, so it approximates the deletion time of
+     * entries without a record; the modification time is the fallback where it is not available.
+     */
+    private static Instant changeTime(Path data) throws IOException {
+        try {
+            return ((FileTime) Files.getAttribute(data, "unix:ctime", LinkOption.NOFOLLOW_LINKS)).toInstant();
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            return Files.getLastModifiedTime(data, LinkOption.NOFOLLOW_LINKS).toInstant();
+        } catch (NoSuchFileException e) {
+            return Instant.EPOCH;
+        }
+    }
+
+    private static void collectIds(Path directory, String suffix, Set<String> ids) {
+        if (!Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                if (name.endsWith(suffix)) {
+                    ids.add(name.substring(0, name.length() - suffix.length()));
+                }
+            }
+        } catch (IOException | DirectoryIteratorException e) {
+            log.warn("Cannot read trash directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private List<Path> trashDirectories() {
+        List<Path> trashes = new ArrayList<>();
+        Path rootTrash = rootPath.resolve(StorageExcludes.TRASH_DIRECTORY);
+        if (Files.isDirectory(rootTrash, LinkOption.NOFOLLOW_LINKS)) {
+            trashes.add(rootTrash);
+        }
+        try (DirectoryStream<Path> volumes = Files.newDirectoryStream(rootPath,
+                path -> Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS))) {
+            for (Path volume : volumes) {
+                Path trash = volume.resolve(StorageExcludes.TRASH_DIRECTORY);
+                if (Files.isDirectory(trash, LinkOption.NOFOLLOW_LINKS)) {
+                    trashes.add(trash);
+                }
+            }
+        } catch (IOException | DirectoryIteratorException e) {
+            log.warn("Cannot list volumes under {}: {}", rootPath, e.getMessage());
+        }
+        return trashes;
+    }
+
+    /**
+     * Entries below a volume go to the trash of that volume, so the rename never crosses a device.
+     */
+    private Path trashOf(Path target) {
+        Path relative = rootPath.relativize(target);
+        Path volume = relative.getNameCount() > 1 ? rootPath.resolve(relative.getName(0)) : rootPath;
+        return volume.resolve(StorageExcludes.TRASH_DIRECTORY);
+    }
+
+    /**
+     * Bytes available on the file system holding the trash of {@code volume}.
+     */
+    long usableSpace(String volume) throws IOException {
+        return Files.getFileStore(volumePath(volume)).getUsableSpace();
+    }
+
+    private Path trashDirectoryOf(TrashedEntry entry) {
+        return volumePath(entry.volume()).resolve(StorageExcludes.TRASH_DIRECTORY);
+    }
+
+    private Path volumePath(String volume) {
+        Path path = rootPath.resolve(volume.startsWith("/") ? volume.substring(1) : volume).normalize();
+        if (!path.startsWith(rootPath)) {
+            throw new IllegalArgumentException("Invalid volume: " + volume);
+        }
+        return path;
+    }
+
+    private static Path volumeOf(Path trash) {
+        return trash.getParent();
+    }
+
+    private static Path infoPath(Path trash, String id) {
+        return trash.resolve(INFO).resolve(id + INFO_SUFFIX);
+    }
+
+    private String logicalPath(Path path) {
+        return "/" + rootPath.relativize(path).toString().replace('\\', '/');
+    }
+
+    private static String checkId(String id) {
+        try {
+            return UUID.fromString(id).toString();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid trash entry id: " + id);
+        }
+    }
+}
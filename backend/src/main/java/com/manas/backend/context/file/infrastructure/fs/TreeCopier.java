@@ -0,0 +1,368 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import com.manas.backend.common.exception.ConflictException;
+import com.manas.backend.context.file.domain.TransferProgress;
+import com.manas.backend.context.file.domain.VolumePermits;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Copies files and directory trees on the server.
+ * <p>
+ * File data is copied with {@link FileChannel#transferTo} between the two files, which the JDK turns into
+ * {@code copy_file_range} on Linux: the kernel copies without passing the data through user space, and file
+ * systems with reflinks (btrfs, XFS) share the extents instead of writing them again. Sparse files are copied
+ * region by region (see {@link SparseFiles}), so their holes stay holes. Entries hidden by {@link StorageExcludes}
+ * are not copied.
+ * <p>
+ * Subdirectories and batches of files are copied concurrently on virtual threads; as in
+ * {@link RecursiveDeleter}, every file system call holds a permit of the target volume from {@link VolumePermits}.
+ * The copy is built in a hidden staging entry next to the destination and renamed into place when complete, so a
+ * failed or interrupted copy never leaves a partial tree at the destination. Only one copy to a destination runs
+ * at a time; each attempt has its own staging entry, and those of earlier attempts are removed once the
+ * destination is claimed.
+ */
+@Slf4j
+@Component
+public class TreeCopier {
+
+    /**
+     * Files of one directory are copied in tasks of this size, so flat directories are spread over permits too.
+     */
+    private static final int FILE_BATCH_SIZE = 64;
+
+    /**
+     * Bytes handed to one {@code transferTo} call at most; also the granularity of progress updates.
+     */
+    private static final long MAX_TRANSFER_CHUNK = 64L * 1024 * 1024;
+
+    private final Path rootPath;
+    private final VolumePermits volumePermits;
+    private final RecursiveDeleter recursiveDeleter;
+    private final Set<Path> activeCopies = ConcurrentHashMap.newKeySet();
+
+    public TreeCopier(
+            @Value("${app.storage.root}") String rootPathString,
+            VolumePermits volumePermits,
+            RecursiveDeleter recursiveDeleter
+    ) {
+        this.rootPath = Paths.get(rootPathString).toAbsolutePath().normalize();
+        this.volumePermits = volumePermits;
+        this.recursiveDeleter = recursiveDeleter;
+    }
+
+    /**
+     * Copies a file, a symbolic link or a directory with everything below it to {@code destination}, which must
+     * not exist. Links are copied as links, never followed; modification times are kept. Fails with the first
+     * error, after removing what was copied so far.
+     *
+     * @return bytes of file data copied
+     * @throws ConflictException          if a copy to the same destination is already running
+     * @throws FileAlreadyExistsException if the destination was created while copying
+     */
+    long copy(Path source, Path destination, TransferProgress progress) throws IOException {
+        if (!activeCopies.add(destination)) {
+            throw new ConflictException("A copy to " + destination + " is already in progress");
+        }
+        try {
+            return copyClaimed(source, destination, progress);
+        } finally {
+            activeCopies.remove(destination);
+        }
+    }
+
+    private long copyClaimed(Path source, Path destination, TransferProgress progress) throws IOException {
+        String stagingPrefix = stagingPrefix(destination);
+        // Left by copies that were killed before they could clean up; no other copy to here is running.
+        discardStale(destination.getParent(), stagingPrefix);
+        Path staging = destination.resolveSibling(stagingPrefix + UUID.randomUUID());
+
+        BasicFileAttributes attrs = Files.readAttributes(source, BasicFileAttributes.class,
+                LinkOption.NOFOLLOW_LINKS);
+        Copy copy = new Copy(volumePermits.calls(rootPath.relativize(destination).toString()), totalBytes(source),
+                progress);
+
+        try {
+            if (attrs.isDirectory()) {
+                try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                    copy.copyDirectory(source, staging, attrs, executor);
+                }
+            } else {
+                copy.copyEntry(source, staging);
+            }
+            copy.throwIfFailed(source);
+
+            ExclusiveMove.move(staging, destination);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            discard(staging);
+            throw new InterruptedIOException("Interrupted while copying " + source);
+        } catch (IOException | RuntimeException e) {
+            discard(staging);
+            throw e;
+        }
+
+        progress.update(copy.bytesDone.get(), copy.totalBytes);
+        return copy.bytesDone.get();
+    }
+
+    private void discardStale(Path directory, String stagingPrefix) throws IOException {
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, stagingPrefix + "*")) {
+            for (Path staging : stale) {
+                recursiveDeleter.delete(staging);
+            }
+        }
+    }
+
+    private void discard(Path staging) {
+        try {
+            if (Files.exists(staging, LinkOption.NOFOLLOW_LINKS)) {
+                recursiveDeleter.delete(staging);
+            }
+        } catch (IOException e) {
+            log.warn("Could not remove the partial copy {}", staging, e);
+        }
+    }
+
+    /**
+     * Staging entries of copies to a destination share a prefix derived from it, so a later copy finds the
+     * leftovers of one that was killed.
+     */
+    static String stagingPrefix(Path destination) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(destination.toString().getBytes(StandardCharsets.UTF_8));
+            return StorageExcludes.COPY_STAGING_PREFIX + HexFormat.of().formatHex(digest, 0, 8) + "-";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static long totalBytes(Path source) throws IOException {
+        long[] total = {0L};
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return !dir.equals(source) && StorageExcludes.isExcludedName(dir)
+                        ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && !StorageExcludes.isExcludedName(file)) {
+                    total[0] += attrs.size();
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return total[0];
+    }
+
+    /**
+     * Copies a regular file to {@code target}, which must not exist. Only the data regions are copied; the holes
+     * between them are left unwritten, and the size is set at the end in case the file ends with a hole.
+     *
+     * @param transferred receives the byte count of every transfer
+     */
+    static void copyFileData(Path source, Path target, long size, LongConsumer transferred) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            for (SparseFiles.Region region : SparseFiles.dataRegions(source, size)) {
+                out.position(region.start());
+                long position = region.start();
+                while (position < region.end()) {
+                    long bytes = in.transferTo(position, Math.min(MAX_TRANSFER_CHUNK, region.end() - position), out);
+                    if (bytes <= 0L) {
+                        throw new IOException("Source file shrank while copying: " + source);
+                    }
+                    position += bytes;
+                    transferred.accept(bytes);
+                }
+            }
+            if (out.size() < size) {
+                out.write(ByteBuffer.allocate(1), size - 1);
+            }
+        }
+    }
+
+    private static final class Copy {
+
+        private final Semaphore permits;
+        private final long totalBytes;
+        private final TransferProgress progress;
+        private final AtomicLong bytesDone = new AtomicLong();
+        private final ReentrantLock reporting = new ReentrantLock();
+        private final AtomicReference<IOException> firstFailure = new AtomicReference<>();
+
+        Copy(Semaphore permits, long totalBytes, TransferProgress progress) {
+            this.permits = permits;
+            this.totalBytes = totalBytes;
+            this.progress = progress;
+        }
+
+        void copyDirectory(Path source, Path target, BasicFileAttributes attrs, ExecutorService executor)
+                throws InterruptedException {
+            List<Future<?>> parts = new ArrayList<>();
+            List<Path> files = new ArrayList<>();
+
+            permits.acquire();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(source)) {
+                Files.createDirectory(target);
+                for (Path entry : entries) {
+                    if (firstFailure.get() != null) {
+                        break;
+                    }
+                    if (StorageExcludes.isExcludedName(entry)) {
+                        // Trash, partial uploads and other transfers in progress are not part of the tree.
+                        continue;
+                    }
+                    Path entryTarget = target.resolve(entry.getFileName().toString());
+                    BasicFileAttributes entryAttrs = Files.readAttributes(entry, BasicFileAttributes.class,
+                            LinkOption.NOFOLLOW_LINKS);
+                    if (entryAttrs.isDirectory()) {
+                        parts.add(executor.submit(() -> {
+                            copyDirectory(entry, entryTarget, entryAttrs, executor);
+                            return null;
+                        }));
+                    } else {
+                        files.add(entry);
+                        if (files.size() == FILE_BATCH_SIZE) {
+                            List<Path> batch = files;
+                            parts.add(executor.submit(() -> {
+                                copyFiles(batch, target);
+                                return null;
+                            }));
+                            files = new ArrayList<>();
+                        }
+                    }
+                }
+            } catch (IOException | DirectoryIteratorException e) {
+                fail(e instanceof DirectoryIteratorException iteration ? iteration.getCause() : (IOException) e);
+                return;
+            } finally {
+                permits.release();
+            }
+
+            copyFiles(files, target);
+            for (Future<?> part : parts) {
+                join(part);
+            }
+            if (firstFailure.get() == null) {
+                try {
+                    // After the children, whose creation changed it.
+                    Files.setLastModifiedTime(target, attrs.lastModifiedTime());
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+        }
+
+        private void copyFiles(List<Path> files, Path targetDirectory) throws InterruptedException {
+            for (Path file : files) {
+                copyEntry(file, targetDirectory.resolve(file.getFileName().toString()));
+            }
+        }
+
+        void copyEntry(Path source, Path target) throws InterruptedException {
+            if (firstFailure.get() != null) {
+                return;
+            }
+            permits.acquire();
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(source, BasicFileAttributes.class,
+                        LinkOption.NOFOLLOW_LINKS);
+                if (attrs.isRegularFile()) {
+                    copyFile(source, target, attrs.size());
+                    Files.setLastModifiedTime(target, attrs.lastModifiedTime());
+                } else if (attrs.isSymbolicLink()) {
+                    Files.createSymbolicLink(target, Files.readSymbolicLink(source));
+                } else {
+                    throw new IOException("Cannot copy special file: " + source);
+                }
+            } catch (IOException e) {
+                fail(e);
+            } finally {
+                permits.release();
+            }
+        }
+
+        private void copyFile(Path source, Path target, long size) throws IOException {
+            copyFileData(source, target, size, this::transferred);
+        }
+
+        /**
+         * Reports progress from whichever thread gets there first; the others skip the update, so callbacks
+         * never run concurrently.
+         */
+        private void transferred(long bytes) {
+            bytesDone.addAndGet(bytes);
+            if (reporting.tryLock()) {
+                try {
+                    progress.update(bytesDone.get(), totalBytes);
+                } finally {
+                    reporting.unlock();
+                }
+            }
+        }
+
+        private static void join(Future<?> part) throws InterruptedException {
+            try {
+                part.get();
+            } catch (ExecutionException e) {
+                switch (e.getCause()) {
+                    case InterruptedException interrupted -> throw interrupted;
+                    case RuntimeException runtime -> throw runtime;
+                    case Error error -> throw error;
+                    default -> throw new IllegalStateException(e.getCause());
+                }
+            }
+        }
+
+        private void fail(IOException e) {
+            if (!firstFailure.compareAndSet(null, e)) {
+                log.debug("Could not copy {}", e.getMessage());
+            }
+        }
+
+        void throwIfFailed(Path source) throws IOException {
+            IOException first = firstFailure.get();
+            if (first != null) {
+                throw new IOException("Could not copy " + source + ": " + first.getMessage(), first);
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides when uploaded data, and the rename that publishes it, are forced to stable storage.
+ * <ul>
+ *     <li>{@code none}: left to OS writeback. A crash can lose recently completed files, and upload session
+ *     offsets may point past the data that reached the disk (the session then has to be restarted).</li>
+ *     <li>{@code fsync-on-close}: every write forces its file before it is renamed or acknowledged, and the
+ *     directory after the rename.</li>
+ *     <li>{@code group-commit}: same guarantees, but requests arriving within a short window are forced
+ *     together by one flusher, so concurrent small uploads share journal commits and directory flushes
+ *     instead of each paying a full flush.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class WriteDurability implements AutoCloseable {
+
+    enum Mode {
+        NONE, FSYNC_ON_CLOSE, GROUP_COMMIT;
+
+        static Mode parse(String value) {
+            try {
+                return valueOf(value.strip().replace('-', '_').toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown storage durability mode: " + value, e);
+            }
+        }
+    }
+
+    private final Mode mode;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final DistributionSummary batchSize;
+    private final BlockingQueue<SyncRequest> pending = new LinkedBlockingQueue<>();
+    private final Thread flusher;
+
+    public WriteDurability(
+            MeterRegistry meterRegistry,
+            @Value("${app.storage.durability.mode:fsync-on-close}") String mode,
+            @Value("${app.storage.durability.group-commit-window:PT0.005S}") Duration groupCommitWindow,
+            @Value("${app.storage.durability.group-commit-max-batch:64}") int maxBatch
+    ) {
+        this.mode = Mode.parse(mode);
+        this.windowNanos = groupCommitWindow.toNanos();
+        this.maxBatch = Math.max(1, maxBatch);
+        this.batchSize = meterRegistry.summary("app.storage.durability.batch.size");
+
+        if (this.mode == Mode.GROUP_COMMIT) {
+            flusher = Thread.ofPlatform().daemon().name("storage-group-commit").start(this::runFlusher);
+        } else {
+            flusher = null;
+        }
+        log.info("Storage durability mode: {}", this.mode);
+    }
+
+    Mode mode() {
+        return mode;
+    }
+
+    /**
+     * Forces the written content of a file, as the mode requires, before the write is acknowledged or the file
+     * renamed into place. The channel must stay open until this returns.
+     */
+    void syncData(FileChannel channel) throws IOException {
+        switch (mode) {
+            case NONE -> {
+            }
+            case FSYNC_ON_CLOSE -> channel.force(false);
+            case GROUP_COMMIT -> await(new SyncRequest(channel, null, new CompletableFuture<>()));
+        }
+    }
+
+    /**
+     * Forces a directory after an entry was renamed into it, so the rename itself survives a crash.
+     * Best effort: the rename already happened, so a failure is logged rather than reported to the caller.
+     * Platforms that cannot open directories for sync are skipped.
+     */
+    void syncDirectory(Path directory) {
+        try {
+            switch (mode) {
+                case NONE -> {
+                }
+                case FSYNC_ON_CLOSE -> forceDirectory(directory);
+                case GROUP_COMMIT -> await(new SyncRequest(null, directory, new CompletableFuture<>()));
+            }
+        } catch (IOException e) {
+            log.warn("Failed to sync directory {}", directory, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (flusher != null) {
+            flusher.interrupt();
+        }
+    }
+
+    private void await(SyncRequest request) throws IOException {
+        if (flusher == null || !flusher.isAlive()) {
+            throw new IOException("Group commit flusher is not running");
+        }
+        pending.add(request);
+        try {
+            request.done().get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for group commit", e);
+        }
+    }
+
+    private void runFlusher() {
+        List<SyncRequest> batch = new ArrayList<>(maxBatch);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                batch.add(pending.take());
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatch) {
+                    SyncRequest next = pending.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Shutting down: whatever was already handed over is still flushed so no caller waits forever.
+        pending.drainTo(batch);
+        flush(batch);
+    }
+
+    /**
+     * File channels are forced concurrently so the file system can fold them into shared journal commits;
+     * each directory is forced once per batch, after the file data.
+     */
+    private void flush(List<SyncRequest> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        batchSize.record(batch.size());
+
+        try (ExecutorService forces = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> dataForces = new ArrayList<>();
+            for (SyncRequest request : batch) {
+                if (request.channel() != null) {
+                    dataForces.add(forces.submit(() -> force(request)));
+                }
+            }
+            for (Future<?> force : dataForces) {
+                force.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // force(request) completes its own future and never throws.
+            log.warn("Unexpected group commit failure", e);
+        }
+
+        Set<Path> directories = new LinkedHashSet<>();
+        for (SyncRequest request : batch) {
+            if (request.directory() != null) {
+                directories.add(request.directory());
+            }
+        }
+        for (Path directory : directories) {
+            try {
+                forceDirectory(directory);
+                complete(batch, directory, null);
+            } catch (IOException e) {
+                complete(batch, directory, e);
+            }
+        }
+
+        // Anything left (e.g. interrupted while forcing) must not block its caller.
+        for (SyncRequest request : batch) {
+            request.done().completeExceptionally(new IOException("Group commit was interrupted"));
+        }
+    }
+
+    private static void force(SyncRequest request) {
+        try {
+            request.channel().force(false);
+            request.done().complete(null);
+        } catch (IOException e) {
+            request.done().completeExceptionally(e);
+        }
+    }
+
+    private static void complete(List<SyncRequest> batch, Path directory, IOException failure) {
+        for (SyncRequest request : batch) {
+            if (directory.equals(request.directory())) {
+                if (failure == null) {
+                    request.done().complete(null);
+                } else {
+                    request.done().completeExceptionally(failure);
+                }
+            }
+        }
+    }
+
+    static void forceDirectory(Path directory) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            log.debug("Directory sync not supported for {}", directory, e);
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    private record SyncRequest(FileChannel channel, Path directory, CompletableFuture<Void> done) {
+    }
+}
@@ -0,0 +1,103 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import com.manas.backend.context.file.domain.ArchiveSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Selection of already resolved paths below the storage root, walked while the archive is written.
+ * Each selected item becomes a top-level entry named after it; same-named items get a numbered suffix.
+ * Symbolic links and excluded system entries are left out.
+ */
+record ZipArchiveSource(Path rootPath, List<Path> targets, String fileName, ZipArchiveWriter writer)
+        implements ArchiveSource {
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        Set<String> topLevelNames = new HashSet<>();
+
+        try (ZipStream zip = writer.open(out)) {
+            for (Path target : targets) {
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(target, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+
+                if (attributes.isDirectory()) {
+                    String prefix = target.equals(rootPath)
+                            ? ""
+                            : uniqueName(topLevelNames, target.getFileName().toString(), true) + "/";
+                    addTree(zip, target, prefix);
+                } else if (attributes.isRegularFile()) {
+                    zip.addFile(target, uniqueName(topLevelNames, target.getFileName().toString(), false),
+                            attributes.size(), attributes.lastModifiedTime().toInstant());
+                }
+            }
+            zip.finish();
+        }
+    }
+
+    private void addTree(ZipStream zip, Path directory, String prefix) throws IOException {
+        Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (StorageExcludes.isExcluded(rootPath, dir) && !dir.equals(directory)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                String name = entryName(dir);
+                if (!name.isEmpty()) {
+                    zip.addDirectory(name + "/", attrs.lastModifiedTime().toInstant());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (attrs.isRegularFile() && !StorageExcludes.isExcluded(rootPath, file)) {
+                    zip.addFile(file, entryName(file), attrs.size(), attrs.lastModifiedTime().toInstant());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+                if (exc instanceof NoSuchFileException) {
+                    return FileVisitResult.CONTINUE;
+                }
+                throw exc;
+            }
+
+            private String entryName(Path path) {
+                String relative = directory.relativize(path).toString().replace('\\', '/');
+                if (relative.isEmpty()) {
+                    return prefix.isEmpty() ? "" : prefix.substring(0, prefix.length() - 1);
+                }
+                return prefix + relative;
+            }
+        });
+    }
+
+    private static String uniqueName(Set<String> used, String name, boolean directory) {
+        int dot = directory ? -1 : name.lastIndexOf('.');
+        String stem = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+
+        String candidate = name;
+        for (int i = 2; !used.add(candidate); i++) {
+            candidate = stem + " (" + i + ")" + extension;
+        }
+        return candidate;
+    }
+}
@@ -0,0 +1,70 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Shared settings and compression threads for streamed ZIP downloads.
+ * <p>
+ * Deflation runs on a fixed pool of platform threads sized to the CPU count, so concurrent archive downloads
+ * cannot occupy more cores than that and never pin the carriers of request-handling virtual threads.
+ */
+@Slf4j
+@Component
+public class ZipArchiveWriter implements AutoCloseable {
+
+    /**
+     * Extensions of formats that are already compressed; deflating them costs CPU and saves nothing.
+     */
+    private static final Set<String> STORED_EXTENSIONS = Set.of(
+            "jpg", "jpeg", "png", "gif", "webp", "heic", "heif", "avif",
+            "mp4", "m4v", "mov", "mkv", "avi", "webm",
+            "mp3", "m4a", "aac", "ogg", "opus", "flac",
+            "zip", "7z", "rar", "gz", "tgz", "bz2", "xz", "zst",
+            "docx", "xlsx", "pptx", "epub", "jar", "apk"
+    );
+
+    private final int parallelism;
+    private final int maxBufferedEntry;
+    private final int compressionLevel;
+    private final ExecutorService compressors;
+
+    public ZipArchiveWriter(
+            @Value("${app.archive.parallelism:0}") int parallelism,
+            @Value("${app.archive.max-buffered-entry:4MB}") DataSize maxBufferedEntry,
+            @Value("${app.archive.compression-level:6}") int compressionLevel
+    ) {
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.maxBufferedEntry = (int) Math.min(Integer.MAX_VALUE - 8, maxBufferedEntry.toBytes());
+        this.compressionLevel = Math.clamp(compressionLevel, Deflater.BEST_SPEED, Deflater.BEST_COMPRESSION);
+        this.compressors = Executors.newFixedThreadPool(this.parallelism,
+                Thread.ofPlatform().daemon().name("zip-deflate-", 0).factory());
+    }
+
+    /**
+     * Starts an archive on the given stream. The caller adds entries in order and closes it to write the
+     * central directory; the underlying stream is not closed.
+     */
+    ZipStream open(OutputStream out) {
+        return new ZipStream(out, compressors, parallelism, maxBufferedEntry, compressionLevel,
+                ZipStream.ZIP64_ENTRY_THRESHOLD);
+    }
+
+    static boolean isStored(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 && STORED_EXTENSIONS.contains(fileName.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    @Override
+    public void close() {
+        compressors.shutdownNow();
+    }
+}
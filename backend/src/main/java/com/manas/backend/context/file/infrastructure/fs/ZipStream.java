@@ -0,0 +1,492 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Writes one ZIP archive to a non-seekable stream, entry by entry, in the order entries are added.
+ * <p>
+ * Every file entry is followed by a data descriptor, so neither its CRC nor its compressed size is needed
+ * before its data is written and nothing is staged. Small compressible files are read and deflated ahead on
+ * the shared pool while earlier entries are still being written, within a window of {@code window} entries;
+ * larger files and already-compressed formats are streamed through on the calling thread. ZIP64 fields are
+ * written per entry and for the end of the central directory only when sizes, offsets or counts need them.
+ */
+@Slf4j
+final class ZipStream implements Closeable {
+
+    /**
+     * File entries above this size get ZIP64 sizes up front, since their final compressed size is unknown
+     * while the local header is written.
+     */
+    static final long ZIP64_ENTRY_THRESHOLD = Integer.MAX_VALUE;
+
+    private static final long MAX_32 = 0xFFFFFFFFL;
+    private static final int MAX_16 = 0xFFFF;
+    private static final int STREAM_BUFFER_SIZE = 256 * 1024;
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    private static final int LOCAL_HEADER = 0x04034b50;
+    private static final int DATA_DESCRIPTOR = 0x08074b50;
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int ZIP64_END = 0x06064b50;
+    private static final int ZIP64_LOCATOR = 0x07064b50;
+    private static final int END = 0x06054b50;
+    private static final int ZIP64_EXTRA = 0x0001;
+
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+    private static final int FLAG_DATA_DESCRIPTOR = 0x0008;
+    private static final int FLAG_UTF8 = 0x0800;
+    private static final int VERSION_DEFAULT = 20;
+    private static final int VERSION_ZIP64 = 45;
+    private static final int ATTRIBUTE_DIRECTORY = 0x10;
+
+    private final CountingOutputStream out;
+    private final ExecutorService compressors;
+    private final int window;
+    private final int maxBufferedEntry;
+    private final int compressionLevel;
+    private final long zip64Threshold;
+    private final Deque<PendingEntry> pending = new ArrayDeque<>();
+    private final List<CentralRecord> central = new ArrayList<>();
+    private final byte[] scratch = new byte[8];
+    private byte[] streamBuffer;
+    private byte[] deflateBuffer;
+    private Deflater deflater;
+
+    ZipStream(OutputStream target, ExecutorService compressors, int window, int maxBufferedEntry,
+            int compressionLevel, long zip64Threshold) {
+        this.out = new CountingOutputStream(new BufferedOutputStream(target, OUTPUT_BUFFER_SIZE));
+        this.compressors = compressors;
+        this.window = Math.max(1, window);
+        this.maxBufferedEntry = maxBufferedEntry;
+        this.compressionLevel = compressionLevel;
+        this.zip64Threshold = zip64Threshold;
+    }
+
+    /**
+     * Adds an empty directory entry; {@code name} must end with a slash.
+     */
+    void addDirectory(String name, Instant modified) throws IOException {
+        enqueue(new PendingEntry(null, name, 0L, modified, true, false, null));
+    }
+
+    /**
+     * Adds a regular file. Deflation is skipped for empty files and formats that are already compressed.
+     */
+    void addFile(Path file, String name, long size, Instant modified) throws IOException {
+        boolean stored = size == 0 || ZipArchiveWriter.isStored(name);
+        Future<Deflated> deflated = !stored && size <= maxBufferedEntry
+                ? compressors.submit(() -> deflate(file, compressionLevel))
+                : null;
+        enqueue(new PendingEntry(file, name, size, modified, false, stored, deflated));
+    }
+
+    /**
+     * Writes the remaining entries and the central directory, then flushes. The target stream stays open.
+     */
+    void finish() throws IOException {
+        while (!pending.isEmpty()) {
+            writeNext();
+        }
+
+        long centralStart = out.count();
+        for (CentralRecord record : central) {
+            writeCentralHeader(record);
+        }
+        writeEnd(centralStart, out.count() - centralStart);
+        out.flush();
+    }
+
+    /**
+     * Releases compression resources. Entries still pending (the archive was abandoned) are cancelled.
+     */
+    @Override
+    public void close() {
+        for (PendingEntry entry : pending) {
+            if (entry.deflated() != null) {
+                entry.deflated().cancel(true);
+            }
+        }
+        pending.clear();
+        if (deflater != null) {
+            deflater.end();
+        }
+    }
+
+    private void enqueue(PendingEntry entry) throws IOException {
+        pending.add(entry);
+        while (pending.size() > window) {
+            writeNext();
+        }
+    }
+
+    private void writeNext() throws IOException {
+        PendingEntry entry = pending.poll();
+        byte[] name = entry.name().getBytes(StandardCharsets.UTF_8);
+        long dosTime = dosTime(entry.modified());
+
+        if (entry.directory()) {
+            long offset = out.count();
+            writeLocalHeader(name, FLAG_UTF8, METHOD_STORED, dosTime, false);
+            central.add(new CentralRecord(name, FLAG_UTF8, METHOD_STORED, dosTime, 0L, 0L, 0L, offset, false,
+                    true));
+        } else if (entry.deflated() != null) {
+            writeBuffered(entry, name, dosTime);
+        } else {
+            writeStreamed(entry, name, dosTime);
+        }
+    }
+
+    private void writeBuffered(PendingEntry entry, byte[] name, long dosTime) throws IOException {
+        Deflated deflated;
+        try {
+            deflated = entry.deflated().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing " + entry.name());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof NoSuchFileException) {
+                log.debug("Skipping archive entry removed during download: {}", entry.file());
+                return;
+            }
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        }
+
+        int flags = FLAG_UTF8 | FLAG_DATA_DESCRIPTOR;
+        long offset = out.count();
+        writeLocalHeader(name, flags, METHOD_DEFLATED, dosTime, false);
+        deflated.data().writeTo(out);
+        writeDataDescriptor(deflated.crc(), deflated.data().size(), deflated.size(), false);
+        central.add(new CentralRecord(name, flags, METHOD_DEFLATED, dosTime, deflated.crc(),
+                deflated.data().size(), deflated.size(), offset, false, false));
+    }
+
+    private void writeStreamed(PendingEntry entry, byte[] name, long dosTime) throws IOException {
+        InputStream in;
+        try {
+            in = Files.newInputStream(entry.file());
+        } catch (NoSuchFileException e) {
+            log.debug("Skipping archive entry removed during download: {}", entry.file());
+            return;
+        }
+
+        int method = entry.stored() ? METHOD_STORED : METHOD_DEFLATED;
+        int flags = FLAG_UTF8 | FLAG_DATA_DESCRIPTOR;
+        boolean zip64 = entry.size() > zip64Threshold;
+        long offset = out.count();
+        writeLocalHeader(name, flags, method, dosTime, zip64);
+
+        CRC32 crc = new CRC32();
+        long size = 0;
+        long dataStart = out.count();
+        try (in) {
+            byte[] buffer = streamBuffer();
+            Deflater compressor = entry.stored() ? null : deflater();
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+                size += read;
+                if (compressor == null) {
+                    out.write(buffer, 0, read);
+                } else {
+                    compressor.setInput(buffer, 0, read);
+                    while (!compressor.needsInput()) {
+                        drain(compressor);
+                    }
+                }
+            }
+            if (compressor != null) {
+                compressor.finish();
+                while (!compressor.finished()) {
+                    drain(compressor);
+                }
+                compressor.reset();
+            }
+        }
+
+        long compressedSize = out.count() - dataStart;
+        if (!zip64 && (size > MAX_32 || compressedSize > MAX_32)) {
+            throw new IOException("Archive entry grew past 4 GiB while it was written: " + entry.name());
+        }
+        writeDataDescriptor(crc.getValue(), compressedSize, size, zip64);
+        central.add(new CentralRecord(name, flags, method, dosTime, crc.getValue(), compressedSize, size,
+                offset, zip64, false));
+    }
+
+    private void drain(Deflater compressor) throws IOException {
+        byte[] buffer = deflateBuffer();
+        int written = compressor.deflate(buffer);
+        out.write(buffer, 0, written);
+    }
+
+    /**
+     * Runs on the compression pool: reads a small file and deflates it into memory.
+     */
+    private static Deflated deflate(Path file, int level) throws IOException {
+        byte[] input = Files.readAllBytes(file);
+        CRC32 crc = new CRC32();
+        crc.update(input);
+
+        Deflater compressor = new Deflater(level, true);
+        try {
+            compressor.setInput(input);
+            compressor.finish();
+            var data = new ByteArrayOutputStream(Math.max(64, input.length / 2));
+            byte[] buffer = new byte[Math.clamp(input.length, 64, 64 * 1024)];
+            while (!compressor.finished()) {
+                int written = compressor.deflate(buffer);
+                data.write(buffer, 0, written);
+            }
+            return new Deflated(data, crc.getValue(), input.length);
+        } finally {
+            compressor.end();
+        }
+    }
+
+    private void writeLocalHeader(byte[] name, int flags, int method, long dosTime, boolean zip64)
+            throws IOException {
+        writeInt(LOCAL_HEADER);
+        writeShort(zip64 ? VERSION_ZIP64 : VERSION_DEFAULT);
+        writeShort(flags);
+        writeShort(method);
+        writeInt(dosTime);
+        // CRC and sizes follow in the data descriptor.
+        writeInt(0);
+        writeInt(zip64 ? MAX_32 : 0);
+        writeInt(zip64 ? MAX_32 : 0);
+        writeShort(name.length);
+        writeShort(zip64 ? 20 : 0);
+        out.write(name);
+        if (zip64) {
+            writeShort(ZIP64_EXTRA);
+            writeShort(16);
+            writeLong(0);
+            writeLong(0);
+        }
+    }
+
+    private void writeDataDescriptor(long crc, long compressedSize, long size, boolean zip64) throws IOException {
+        writeInt(DATA_DESCRIPTOR);
+        writeInt(crc);
+        if (zip64) {
+            writeLong(compressedSize);
+            writeLong(size);
+        } else {
+            writeInt(compressedSize);
+            writeInt(size);
+        }
+    }
+
+    private void writeCentralHeader(CentralRecord record) throws IOException {
+        boolean sizeOverflow = record.size() >= MAX_32;
+        boolean compressedOverflow = record.compressedSize() >= MAX_32;
+        boolean offsetOverflow = record.offset() >= MAX_32;
+        int extraLength = (sizeOverflow ? 8 : 0) + (compressedOverflow ? 8 : 0) + (offsetOverflow ? 8 : 0);
+        int version = extraLength > 0 || record.zip64() ? VERSION_ZIP64 : VERSION_DEFAULT;
+
+        writeInt(CENTRAL_HEADER);
+        writeShort(version);
+        writeShort(version);
+        writeShort(record.flags());
+        writeShort(record.method());
+        writeInt(record.dosTime());
+        writeInt(record.crc());
+        writeInt(compressedOverflow ? MAX_32 : record.compressedSize());
+        writeInt(sizeOverflow ? MAX_32 : record.size());
+        writeShort(record.name().length);
+        writeShort(extraLength > 0 ? extraLength + 4 : 0);
+        writeShort(0);
+        writeShort(0);
+        writeShort(0);
+        writeInt(record.directory() ? ATTRIBUTE_DIRECTORY : 0);
+        writeInt(offsetOverflow ? MAX_32 : record.offset());
+        out.write(record.name());
+        if (extraLength > 0) {
+            writeShort(ZIP64_EXTRA);
+            writeShort(extraLength);
+            if (sizeOverflow) {
+                writeLong(record.size());
+            }
+            if (compressedOverflow) {
+                writeLong(record.compressedSize());
+            }
+            if (offsetOverflow) {
+                writeLong(record.offset());
+            }
+        }
+    }
+
+    private void writeEnd(long centralStart, long centralSize) throws IOException {
+        long entries = central.size();
+        if (entries >= MAX_16 || centralStart >= MAX_32 || centralSize >= MAX_32) {
+            long zip64EndOffset = out.count();
+            writeInt(ZIP64_END);
+            writeLong(44);
+            writeShort(VERSION_ZIP64);
+            writeShort(VERSION_ZIP64);
+            writeInt(0);
+            writeInt(0);
+            writeLong(entries);
+            writeLong(entries);
+            writeLong(centralSize);
+            writeLong(centralStart);
+
+            writeInt(ZIP64_LOCATOR);
+            writeInt(0);
+            writeLong(zip64EndOffset);
+            writeInt(1);
+        }
+
+        writeInt(END);
+        writeShort(0);
+        writeShort(0);
+        writeShort((int) Math.min(entries, MAX_16));
+        writeShort((int) Math.min(entries, MAX_16));
+        writeInt(Math.min(centralSize, MAX_32));
+        writeInt(Math.min(centralStart, MAX_32));
+        writeShort(0);
+    }
+
+    /**
+     * MS-DOS date and time in the local zone, as unzip tools expect; clamped to the representable range.
+     */
+    static long dosTime(Instant modified) {
+        LocalDateTime time = LocalDateTime.ofInstant(modified, ZoneId.systemDefault());
+        if (time.getYear() < 1980) {
+            return (1L << 21) | (1L << 16);
+        }
+        if (time.getYear() > 2107) {
+            time = LocalDateTime.of(2107, 12, 31, 23, 59, 58);
+        }
+        return ((long) (time.getYear() - 1980) << 25)
+                | ((long) time.getMonthValue() << 21)
+                | ((long) time.getDayOfMonth() << 16)
+                | ((long) time.getHour() << 11)
+                | ((long) time.getMinute() << 5)
+                | (time.getSecond() >> 1);
+    }
+
+    private void writeShort(int value) throws IOException {
+        scratch[0] = (byte) value;
+        scratch[1] = (byte) (value >>> 8);
+        out.write(scratch, 0, 2);
+    }
+
+    private void writeInt(long value) throws IOException {
+        for (int i = 0; i < 4; i++) {
+            scratch[i] = (byte) (value >>> (8 * i));
+        }
+        out.write(scratch, 0, 4);
+    }
+
+    private void writeLong(long value) throws IOException {
+        for (int i = 0; i < 8; i++) {
+            scratch[i] = (byte) (value >>> (8 * i));
+        }
+        out.write(scratch, 0, 8);
+    }
+
+    private byte[] streamBuffer() {
+        if (streamBuffer == null) {
+            streamBuffer = new byte[STREAM_BUFFER_SIZE];
+        }
+        return streamBuffer;
+    }
+
+    private byte[] deflateBuffer() {
+        if (deflateBuffer == null) {
+            deflateBuffer = new byte[OUTPUT_BUFFER_SIZE];
+        }
+        return deflateBuffer;
+    }
+
+    private Deflater deflater() {
+        if (deflater == null) {
+            deflater = new Deflater(compressionLevel, true);
+        }
+        return deflater;
+    }
+
+    private record PendingEntry(
+            Path file,
+            String name,
+            long size,
+            Instant modified,
+            boolean directory,
+            boolean stored,
+            Future<Deflated> deflated
+    ) {
+    }
+
+    private record Deflated(ByteArrayOutputStream data, long crc, long size) {
+    }
+
+    private record CentralRecord(
+            byte[] name,
+            int flags,
+            int method,
+            long dosTime,
+            long crc,
+            long compressedSize,
+            long size,
+            long offset,
+            boolean zip64,
+            boolean directory
+    ) {
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private final OutputStream target;
+        private long count;
+
+        CountingOutputStream(OutputStream target) {
+            this.target = target;
+        }
+
+        long count() {
+            return count;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            target.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.manas.backend.context.file.infrastructure.persistence;
+
+import com.manas.backend.context.file.application.port.out.LoadContentIndexPort;
+import com.manas.backend.context.file.application.port.out.SaveContentIndexPort;
+import com.manas.backend.context.file.domain.IndexedContent;
+import com.manas.backend.context.file.infrastructure.persistence.entity.ContentIndexEntity;
+import com.manas.backend.context.file.infrastructure.persistence.repository.JpaContentIndexRepository;
+import java.time.Instant;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+@RequiredArgsConstructor
+public class JpaContentIndexAdapter implements LoadContentIndexPort, SaveContentIndexPort {
+
+    private final JpaContentIndexRepository repository;
+
+    @Override
+    public Optional<IndexedContent> findBySha256(String sha256) {
+        return repository.findById(sha256).map(JpaContentIndexAdapter::toDomain);
+    }
+
+    @Override
+    @Transactional
+    public void registerIfAbsent(IndexedContent content) {
+        repository.insertIfAbsent(content.sha256(), content.path(), content.size(), content.entityTag(),
+                Instant.now());
+    }
+
+    @Override
+    @Transactional
+    public void delete(String sha256) {
+        repository.deleteById(sha256);
+    }
+
+    @Override
+    @Transactional
+    public int deleteUnder(String path) {
+        return repository.deleteUnder(path, descendantPattern(path));
+    }
+
+    @Override
+    @Transactional
+    public int moveUnder(String sourcePath, String destinationPath) {
+        return repository.moveUnder(sourcePath, destinationPath, descendantPattern(sourcePath));
+    }
+
+    /**
+     * LIKE pattern for the paths strictly below {@code path}; wildcards in the path itself match literally.
+     */
+    private static String descendantPattern(String path) {
+        String escaped = path.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return escaped.endsWith("/") ? escaped + "%" : escaped + "/%";
+    }
+
+    private static IndexedContent toDomain(ContentIndexEntity entity) {
+        return new IndexedContent(
+                entity.getSha256(),
+                entity.getPath(),
+                entity.getSize(),
+                entity.getEntityTag()
+        );
+    }
+}
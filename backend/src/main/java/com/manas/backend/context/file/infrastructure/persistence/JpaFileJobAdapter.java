@@ -0,0 +1,126 @@
+package com.manas.backend.context.file.infrastructure.persistence;
+
+import com.manas.backend.context.file.application.port.out.LoadFileJobPort;
+import com.manas.backend.context.file.application.port.out.SaveFileJobPort;
+import com.manas.backend.context.file.domain.FileJob;
+import com.manas.backend.context.file.domain.FileJobItem;
+import com.manas.backend.context.file.domain.FileJobState;
+import com.manas.backend.context.file.infrastructure.persistence.entity.FileJobEntity;
+import com.manas.backend.context.file.infrastructure.persistence.entity.FileJobItemEntity;
+import com.manas.backend.context.file.infrastructure.persistence.repository.JpaFileJobItemRepository;
+import com.manas.backend.context.file.infrastructure.persistence.repository.JpaFileJobRepository;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+@RequiredArgsConstructor
+public class JpaFileJobAdapter implements LoadFileJobPort, SaveFileJobPort {
+
+    private final JpaFileJobRepository jobRepository;
+    private final JpaFileJobItemRepository itemRepository;
+
+    @Override
+    public Optional<FileJob> findById(UUID jobId) {
+        return jobRepository.findById(jobId).map(JpaFileJobAdapter::toDomain);
+    }
+
+    @Override
+    public List<FileJob> findRecentByUser(UUID userId, int limit) {
+        return jobRepository.findByUserIdOrderByCreatedAtDesc(userId, Limit.of(limit)).stream()
+                .map(JpaFileJobAdapter::toDomain)
+                .toList();
+    }
+
+    @Override
+    public List<FileJob> findUnfinished() {
+        return jobRepository.findByStateInOrderByCreatedAt(List.of(FileJobState.QUEUED, FileJobState.RUNNING))
+                .stream()
+                .map(JpaFileJobAdapter::toDomain)
+                .toList();
+    }
+
+    @Override
+    public List<FileJobItem> findItems(UUID jobId) {
+        return itemRepository.findByIdJobIdOrderByIdPosition(jobId).stream()
+                .map(entity -> new FileJobItem(
+                        entity.getId().getPosition(),
+                        entity.getSourcePath(),
+                        entity.getState(),
+                        entity.getMessage()
+                ))
+                .toList();
+    }
+
+    @Override
+    public void save(FileJob job) {
+        jobRepository.save(new FileJobEntity(
+                job.id(),
+                job.userId(),
+                job.type(),
+                job.state(),
+                job.destination(),
+                job.totalItems(),
+                job.completedItems(),
+                job.failedItems(),
+                job.currentPath(),
+                job.currentBytesDone(),
+                job.currentBytesTotal(),
+                job.message(),
+                job.createdAt(),
+                job.updatedAt(),
+                job.finishedAt()
+        ));
+    }
+
+    @Override
+    @Transactional
+    public void saveItems(UUID jobId, List<FileJobItem> items) {
+        itemRepository.saveAll(items.stream().map(item -> toEntity(jobId, item)).toList());
+    }
+
+    @Override
+    public void saveItem(UUID jobId, FileJobItem item) {
+        itemRepository.save(toEntity(jobId, item));
+    }
+
+    @Override
+    @Transactional
+    public int deleteFinishedBefore(Instant cutoff) {
+        return jobRepository.deleteByFinishedAtBefore(cutoff);
+    }
+
+    private static FileJobItemEntity toEntity(UUID jobId, FileJobItem item) {
+        return new FileJobItemEntity(
+                new FileJobItemEntity.Key(jobId, item.position()),
+                item.sourcePath(),
+                item.state(),
+                item.message()
+        );
+    }
+
+    private static FileJob toDomain(FileJobEntity entity) {
+        return new FileJob(
+                entity.getId(),
+                entity.getUserId(),
+                entity.getType(),
+                entity.getState(),
+                entity.getDestination(),
+                entity.getTotalItems(),
+                entity.getCompletedItems(),
+                entity.getFailedItems(),
+                entity.getCurrentPath(),
+                entity.getCurrentBytesDone(),
+                entity.getCurrentBytesTotal(),
+                entity.getMessage(),
+                entity.getCreatedAt(),
+                entity.getUpdatedAt(),
+                entity.getFinishedAt()
+        );
+    }
+}
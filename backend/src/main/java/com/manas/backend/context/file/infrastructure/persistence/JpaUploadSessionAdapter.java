@@ -0,0 +1,69 @@
+package com.manas.backend.context.file.infrastructure.persistence;
+
+import com.manas.backend.context.file.application.port.out.LoadUploadSessionPort;
+import com.manas.backend.context.file.application.port.out.SaveUploadSessionPort;
+import com.manas.backend.context.file.domain.UploadSession;
+import com.manas.backend.context.file.infrastructure.persistence.entity.UploadSessionEntity;
+import com.manas.backend.context.file.infrastructure.persistence.repository.JpaUploadSessionRepository;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class JpaUploadSessionAdapter implements LoadUploadSessionPort, SaveUploadSessionPort {
+
+    private final JpaUploadSessionRepository repository;
+
+    @Override
+    public Optional<UploadSession> findById(UUID sessionId) {
+        return repository.findById(sessionId).map(JpaUploadSessionAdapter::toDomain);
+    }
+
+    @Override
+    public Optional<UploadSession> findByTargetPath(String targetPath) {
+        return repository.findByTargetPath(targetPath).map(JpaUploadSessionAdapter::toDomain);
+    }
+
+    @Override
+    public List<UploadSession> findExpired(Instant now) {
+        return repository.findByExpiresAtLessThanEqual(now).stream()
+                .map(JpaUploadSessionAdapter::toDomain)
+                .toList();
+    }
+
+    @Override
+    public void save(UploadSession session) {
+        repository.save(new UploadSessionEntity(
+                session.id(),
+                session.userId(),
+                session.targetPath(),
+                session.totalSize(),
+                session.committedOffset(),
+                session.checksumSha256(),
+                session.createdAt(),
+                session.expiresAt()
+        ));
+    }
+
+    @Override
+    public void delete(UUID sessionId) {
+        repository.deleteById(sessionId);
+    }
+
+    private static UploadSession toDomain(UploadSessionEntity entity) {
+        return new UploadSession(
+                entity.getId(),
+                entity.getUserId(),
+                entity.getTargetPath(),
+                entity.getTotalSize(),
+                entity.getCommittedOffset(),
+                entity.getChecksumSha256(),
+                entity.getCreatedAt(),
+                entity.getExpiresAt()
+        );
+    }
+}
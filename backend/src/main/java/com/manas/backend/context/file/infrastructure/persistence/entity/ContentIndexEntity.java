@@ -0,0 +1,35 @@
+package com.manas.backend.context.file.infrastructure.persistence.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "content_index")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContentIndexEntity {
+
+    @Id
+    private String sha256;
+
+    @Column(nullable = false)
+    private String path;
+
+    @Column(nullable = false)
+    private long size;
+
+    private String entityTag;
+
+    @Column(nullable = false)
+    private Instant indexedAt;
+
+}
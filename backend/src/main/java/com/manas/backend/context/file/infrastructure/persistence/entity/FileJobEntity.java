@@ -0,0 +1,69 @@
+package com.manas.backend.context.file.infrastructure.persistence.entity;
+
+import com.manas.backend.context.file.domain.FileJobState;
+import com.manas.backend.context.file.domain.FileJobType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "file_jobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileJobEntity {
+
+    @Id
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private FileJobType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private FileJobState state;
+
+    private String destination;
+
+    @Column(nullable = false)
+    private int totalItems;
+
+    @Column(nullable = false)
+    private int completedItems;
+
+    @Column(nullable = false)
+    private int failedItems;
+
+    private String currentPath;
+
+    @Column(nullable = false)
+    private long currentBytesDone;
+
+    @Column(nullable = false)
+    private long currentBytesTotal;
+
+    private String message;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    private Instant finishedAt;
+
+}
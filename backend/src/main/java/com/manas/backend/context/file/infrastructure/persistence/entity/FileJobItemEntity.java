@@ -0,0 +1,53 @@
+package com.manas.backend.context.file.infrastructure.persistence.entity;
+
+import com.manas.backend.context.file.domain.FileJobItem;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "file_job_items")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileJobItemEntity {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false)
+    private String sourcePath;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private FileJobItem.State state;
+
+    private String message;
+
+    @Embeddable
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        @Column(nullable = false)
+        private UUID jobId;
+
+        @Column(nullable = false)
+        private int position;
+
+    }
+}
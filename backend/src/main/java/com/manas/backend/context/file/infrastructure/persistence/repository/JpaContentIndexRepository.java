@@ -0,0 +1,42 @@
+package com.manas.backend.context.file.infrastructure.persistence.repository;
+
+import com.manas.backend.context.file.infrastructure.persistence.entity.ContentIndexEntity;
+import java.time.Instant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JpaContentIndexRepository extends JpaRepository<ContentIndexEntity, String> {
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO content_index (sha256, path, size, entity_tag, indexed_at)
+            VALUES (:sha256, :path, :size, :entityTag, :indexedAt)
+            ON CONFLICT (sha256) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("sha256") String sha256, @Param("path") String path, @Param("size") long size,
+                       @Param("entityTag") String entityTag, @Param("indexedAt") Instant indexedAt);
+
+    /**
+     * @param prefix LIKE pattern matching the paths below {@code path}, with {@code \} as escape character
+     */
+    @Modifying
+    @Query(value = "DELETE FROM content_index WHERE path = :path OR path LIKE :prefix ESCAPE '\\'",
+            nativeQuery = true)
+    int deleteUnder(@Param("path") String path, @Param("prefix") String prefix);
+
+    /**
+     * @param prefix LIKE pattern matching the paths below {@code source}, with {@code \} as escape character
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE content_index
+            SET path = :destination || substring(path from char_length(:source) + 1)
+            WHERE path = :source OR path LIKE :prefix ESCAPE '\\'
+            """, nativeQuery = true)
+    int moveUnder(@Param("source") String source, @Param("destination") String destination,
+                  @Param("prefix") String prefix);
+}
@@ -0,0 +1,13 @@
+package com.manas.backend.context.file.infrastructure.persistence.repository;
+
+import com.manas.backend.context.file.infrastructure.persistence.entity.FileJobItemEntity;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JpaFileJobItemRepository extends JpaRepository<FileJobItemEntity, FileJobItemEntity.Key> {
+
+    List<FileJobItemEntity> findByIdJobIdOrderByIdPosition(UUID jobId);
+}
@@ -0,0 +1,29 @@
+package com.manas.backend.context.file.infrastructure.persistence.repository;
+
+import com.manas.backend.context.file.domain.FileJobState;
+import com.manas.backend.context.file.infrastructure.persistence.entity.FileJobEntity;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JpaFileJobRepository extends JpaRepository<FileJobEntity, UUID> {
+
+    List<FileJobEntity> findByUserIdOrderByCreatedAtDesc(UUID userId, Limit limit);
+
+    List<FileJobEntity> findByStateInOrderByCreatedAt(Collection<FileJobState> states);
+
+    /**
+     * Bulk delete; items go with their job through the foreign key's ON DELETE CASCADE.
+     */
+    @Modifying
+    @Query("delete from FileJobEntity j where j.finishedAt < :cutoff")
+    int deleteByFinishedAtBefore(@Param("cutoff") Instant cutoff);
+}
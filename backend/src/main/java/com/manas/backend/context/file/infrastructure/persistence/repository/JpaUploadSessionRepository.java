@@ -0,0 +1,17 @@
+package com.manas.backend.context.file.infrastructure.persistence.repository;
+
+import com.manas.backend.context.file.infrastructure.persistence.entity.UploadSessionEntity;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JpaUploadSessionRepository extends JpaRepository<UploadSessionEntity, UUID> {
+
+    Optional<UploadSessionEntity> findByTargetPath(String targetPath);
+
+    List<UploadSessionEntity> findByExpiresAtLessThanEqual(Instant now);
+}
@@ -0,0 +1,476 @@
+package com.manas.backend.context.file.infrastructure.preview;
+
+import com.manas.backend.common.exception.FileOperationException;
+import com.manas.backend.context.file.domain.FileContent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Disk tier of the preview cache (see {@link TieredPreviewCache}) in {@code app.storage.cache-dir}, bounded by
+ * {@code app.preview.cache.max-size} with LRU eviction.
+ * <p>
+ * Previews are stored two levels deep by key prefix ({@code previews/ab/cd/abcd….jpg}), so no directory holds
+ * more than a few entries even with millions of previews. Sizes and recency live in memory and are recorded in an
+ * append-only access log, replayed at startup and rewritten once it holds {@value #COMPACT_FACTOR} records per
+ * entry. The lock only guards the in-memory state: log writes, compaction and the unlinking of evicted previews
+ * run on one background thread, fed by a queue of records. A preview is logged before it is moved into place, its
+ * put waiting for the log to be flushed: after a crash the log may name a missing file, which is dropped on its
+ * first access, but a stored file is never left untracked. Access records may be lost in a crash, which only ages
+ * the affected entries. A log that cannot be written is reported once as an error and in
+ * {@code app.preview.cache.log.failures}, and reopened with the next records.
+ */
+@Slf4j
+@Component
+public class DiskPreviewCache implements AutoCloseable {
+
+    static final String PREVIEW_DIRECTORY = "previews";
+    static final String TEMP_DIRECTORY = "tmp";
+    static final String ACCESS_LOG = "access.log";
+
+    private static final int COMPACT_FACTOR = 4;
+    private static final int MIN_COMPACT_RECORDS = 10_000;
+    private static final char PUT = 'P';
+    private static final char ACCESS = 'A';
+    private static final char DELETE = 'D';
+    private static final Pattern KEY = Pattern.compile("[0-9a-f]{4,128}");
+
+    /**
+     * Files of the former flat layout, {@code <sha256>.jpg} directly in the cache directory.
+     */
+    private static final Pattern LEGACY_FILE = Pattern.compile("[0-9a-f]{64}\\.jpg");
+
+    private final Path cacheDir;
+    private final Path previewDir;
+    private final Path tempDir;
+    private final Path logFile;
+    private final long maxBytes;
+    private final Counter evictionCounter;
+    private final Counter logFailureCounter;
+    private final ExecutorService logWriter =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("preview-cache-log").factory());
+
+    // Guarded by this.
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(1024, 0.75f, true);
+    private final Set<String> storing = new HashSet<>();
+    private long totalBytes;
+    private long logRecords;
+    private List<String> pendingRecords = new ArrayList<>();
+    private List<String> pendingDeletes = new ArrayList<>();
+    private boolean maintenanceScheduled;
+    private boolean closed;
+
+    // Confined to the log writer thread, and to the constructor before it.
+    private BufferedWriter accessLog;
+    private boolean logFailed;
+
+    public DiskPreviewCache(
+            @Value("${app.storage.cache-dir}") String cacheDirString,
+            @Value("${app.preview.cache.max-size:2GB}") DataSize maxSize,
+            MeterRegistry meterRegistry
+    ) {
+        this.cacheDir = Paths.get(cacheDirString).toAbsolutePath().normalize();
+        this.previewDir = cacheDir.resolve(PREVIEW_DIRECTORY);
+        this.tempDir = cacheDir.resolve(TEMP_DIRECTORY);
+        this.logFile = cacheDir.resolve(ACCESS_LOG);
+        this.maxBytes = Math.max(0, maxSize.toBytes());
+        this.evictionCounter = meterRegistry.counter("app.preview.cache.evictions");
+        this.logFailureCounter = meterRegistry.counter("app.preview.cache.log.failures");
+        meterRegistry.gauge("app.preview.cache.size", this, DiskPreviewCache::totalBytes);
+        meterRegistry.gauge("app.preview.cache.entries", this, DiskPreviewCache::entryCount);
+
+        initialize();
+        Thread.ofVirtual().name("preview-cache-legacy-cleanup").start(this::removeLegacyFiles);
+    }
+
+    /**
+     * Returns the cached preview as {@code image/jpeg}, or null if it is not cached.
+     */
+    public FileContent get(String key) {
+        Long size;
+        synchronized (this) {
+            // A preview being moved into place is a miss until its file is there.
+            size = storing.contains(key) ? null : entries.get(key);
+            if (size == null) {
+                return null;
+            }
+            record(ACCESS + " " + key);
+            scheduleMaintenance();
+        }
+
+        try {
+            return new FileContent("thumbnail.jpg", "image/jpeg", size, Files.newInputStream(fileOf(key)));
+        } catch (NoSuchFileException e) {
+            // Removed outside the application, or its put was interrupted by a crash.
+            synchronized (this) {
+                if (!storing.contains(key)) {
+                    forget(key);
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            log.warn("Failed to read cached preview {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    public synchronized boolean contains(String key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Stores a preview unless it exceeds the whole budget or the same key is being stored already. Failures are
+     * logged, not thrown.
+     */
+    public void put(String key, byte[] preview) {
+        if (!KEY.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid preview cache key: " + key);
+        }
+        if (preview.length > maxBytes) {
+            return;
+        }
+
+        Path target = fileOf(key);
+        Path temp = tempDir.resolve(UUID.randomUUID() + ".jpg");
+        boolean claimed = false;
+        boolean stored = false;
+        try {
+            Files.write(temp, preview, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            Files.createDirectories(target.getParent());
+
+            synchronized (this) {
+                if (closed || !storing.add(key)) {
+                    return;
+                }
+                claimed = true;
+                Long previous = entries.put(key, (long) preview.length);
+                totalBytes += preview.length - (previous == null ? 0 : previous);
+                record(PUT + " " + key + " " + preview.length);
+                evictOverBudget();
+            }
+            awaitMaintenance();
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            stored = true;
+        } catch (IOException e) {
+            log.warn("Failed to store preview {} in the cache: {}", key, e.getMessage());
+        } finally {
+            if (claimed) {
+                synchronized (this) {
+                    storing.remove(key);
+                    // Also unlinks a preview evicted by another put while it was being moved into place.
+                    if (!stored || !entries.containsKey(key)) {
+                        forget(key);
+                        pendingDeletes.add(key);
+                        scheduleMaintenance();
+                    }
+                }
+            }
+            deleteQuietly(temp);
+        }
+    }
+
+    synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    synchronized int entryCount() {
+        return entries.size();
+    }
+
+    /**
+     * Writes the queued records and closes the access log.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        logWriter.execute(() -> {
+            maintain();
+            closeLog();
+        });
+        logWriter.close();
+    }
+
+    private synchronized void initialize() {
+        try {
+            Files.createDirectories(previewDir);
+            Files.createDirectories(tempDir);
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(tempDir)) {
+                leftovers.forEach(DiskPreviewCache::deleteQuietly);
+            }
+            if (Files.exists(logFile)) {
+                replay();
+            }
+            evictOverBudget();
+            pendingDeletes.forEach(key -> deleteQuietly(fileOf(key)));
+            pendingDeletes.clear();
+            pendingRecords.clear();
+            compact(snapshot());
+            logRecords = entries.size();
+        } catch (IOException e) {
+            throw new FileOperationException("Failed to initialize preview cache: " + cacheDir, e);
+        }
+        log.info("Preview cache holds {} previews ({} bytes of {}) in {}", entries.size(), totalBytes, maxBytes,
+                previewDir);
+    }
+
+    /**
+     * Rebuilds sizes and recency from the access log. A torn last line from a crash is skipped.
+     */
+    private void replay() throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(logFile, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(" ");
+                if (fields.length < 2 || fields[0].length() != 1 || !KEY.matcher(fields[1]).matches()) {
+                    continue;
+                }
+                switch (fields[0].charAt(0)) {
+                    case PUT -> {
+                        if (fields.length == 3) {
+                            long size = parseSize(fields[2]);
+                            if (size >= 0) {
+                                Long previous = entries.put(fields[1], size);
+                                totalBytes += size - (previous == null ? 0 : previous);
+                            }
+                        }
+                    }
+                    case ACCESS -> entries.get(fields[1]);
+                    case DELETE -> {
+                        Long removed = entries.remove(fields[1]);
+                        if (removed != null) {
+                            totalBytes -= removed;
+                        }
+                    }
+                    default -> {
+                        // unknown record type, e.g. a torn line
+                    }
+                }
+            }
+        }
+    }
+
+    private static long parseSize(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void evictOverBudget() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            totalBytes -= eldest.getValue();
+            record(DELETE + " " + eldest.getKey());
+            pendingDeletes.add(eldest.getKey());
+            evictionCounter.increment();
+        }
+    }
+
+    private void forget(String key) {
+        Long removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes -= removed;
+            record(DELETE + " " + key);
+        }
+    }
+
+    private void record(String line) {
+        pendingRecords.add(line);
+    }
+
+    private void scheduleMaintenance() {
+        if (!maintenanceScheduled && !closed) {
+            maintenanceScheduled = true;
+            logWriter.execute(this::maintain);
+        }
+    }
+
+    /**
+     * Runs the queued work now and waits for it, so the records queued so far are in the log.
+     */
+    private void awaitMaintenance() throws IOException {
+        try {
+            logWriter.submit(this::maintain).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing the preview cache access log");
+        } catch (ExecutionException | RejectedExecutionException e) {
+            throw new IOException("Preview cache access log is closed", e);
+        }
+    }
+
+    /**
+     * Unlinks evicted previews and writes the queued records, or compacts the log instead once it has grown too
+     * long. Runs on the log writer thread.
+     */
+    private void maintain() {
+        List<String> records;
+        List<String> evicted;
+        List<Map.Entry<String, Long>> snapshot = null;
+        synchronized (this) {
+            maintenanceScheduled = false;
+            records = pendingRecords;
+            evicted = pendingDeletes;
+            pendingRecords = new ArrayList<>();
+            pendingDeletes = new ArrayList<>();
+            logRecords += records.size();
+            if (logRecords > Math.max(MIN_COMPACT_RECORDS, (long) COMPACT_FACTOR * entries.size())) {
+                // Covers every record taken above. On failure it is retried once the log has grown as much again.
+                snapshot = snapshot();
+                logRecords = snapshot.size();
+            }
+        }
+
+        for (String key : evicted) {
+            synchronized (this) {
+                if (entries.containsKey(key) || storing.contains(key)) {
+                    continue;
+                }
+            }
+            deleteQuietly(fileOf(key));
+        }
+
+        if (snapshot != null) {
+            try {
+                compact(snapshot);
+                return;
+            } catch (IOException e) {
+                log.warn("Failed to compact preview cache access log: {}", e.getMessage());
+            }
+        }
+        writeRecords(records);
+    }
+
+    /**
+     * The entries, least recently used first.
+     */
+    private List<Map.Entry<String, Long>> snapshot() {
+        List<Map.Entry<String, Long>> snapshot = new ArrayList<>(entries.size());
+        entries.forEach((key, size) -> snapshot.add(Map.entry(key, size)));
+        return snapshot;
+    }
+
+    /**
+     * Replaces the access log with one put record per entry.
+     */
+    private void compact(List<Map.Entry<String, Long>> snapshot) throws IOException {
+        Path compacted = cacheDir.resolve(ACCESS_LOG + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(compacted, StandardCharsets.US_ASCII)) {
+            for (Map.Entry<String, Long> entry : snapshot) {
+                writer.write(PUT + " " + entry.getKey() + " " + entry.getValue() + "\n");
+            }
+        }
+        closeLog();
+        Files.move(compacted, logFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        openLog();
+    }
+
+    private void writeRecords(List<String> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        try {
+            if (accessLog == null) {
+                openLog();
+            }
+            for (String line : records) {
+                accessLog.write(line);
+                accessLog.write('\n');
+            }
+            accessLog.flush();
+        } catch (IOException e) {
+            logFailureCounter.increment();
+            if (!logFailed) {
+                logFailed = true;
+                log.error("Cannot write preview cache access log {}; previews stored meanwhile stay untracked after "
+                        + "a restart: {}", logFile, e.getMessage());
+            }
+            closeLog();
+        }
+    }
+
+    private void openLog() throws IOException {
+        accessLog = Files.newBufferedWriter(logFile, StandardCharsets.US_ASCII, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+        if (logFailed) {
+            logFailed = false;
+            log.info("Preview cache access log {} is writable again", logFile);
+        }
+    }
+
+    private void closeLog() {
+        if (accessLog == null) {
+            return;
+        }
+        try {
+            accessLog.close();
+        } catch (IOException e) {
+            log.warn("Failed to close preview cache access log: {}", e.getMessage());
+        }
+        accessLog = null;
+    }
+
+    private Path fileOf(String key) {
+        return previewDir.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key + ".jpg");
+    }
+
+    private void removeLegacyFiles() {
+        int removed = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(cacheDir,
+                path -> LEGACY_FILE.matcher(path.getFileName().toString()).matches())) {
+            for (Path file : files) {
+                deleteQuietly(file);
+                removed++;
+            }
+        } catch (IOException e) {
+            log.warn("Failed to remove previews of the former cache layout: {}", e.getMessage());
+        }
+        if (removed > 0) {
+            log.info("Removed {} previews of the former cache layout from {}", removed, cacheDir);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Failed to delete {}: {}", file, e.getMessage());
+        }
+    }
+}
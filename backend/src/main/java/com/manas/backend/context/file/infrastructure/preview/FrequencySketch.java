@@ -0,0 +1,85 @@
+package com.manas.backend.context.file.infrastructure.preview;
+
+/**
+ * Count-Min sketch of 4-bit counters estimating how often a key was accessed, the admission filter of
+ * W-TinyLFU.
+ * <p>
+ * Each key maps to four counters, one per hash function, within the same 64-bit word group; its estimate is the
+ * smallest of them. Counters saturate at 15. After {@code 10 × width} increments all counters are halved, so the
+ * sketch follows recent popularity instead of accumulating history forever.
+ */
+final class FrequencySketch {
+
+    static final int MAX_FREQUENCY = 15;
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777_7777_7777_7777L;
+    private static final long ONE_MASK = 0x1111_1111_1111_1111L;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param expectedEntries Number of entries the cache is expected to hold; sizes the sketch.
+     */
+    FrequencySketch(int expectedEntries) {
+        int width = Integer.highestOneBit(Math.clamp(expectedEntries, 16, 1 << 20) - 1) << 1;
+        this.table = new long[width];
+        this.tableMask = width - 1;
+        this.sampleSize = 10 * width;
+    }
+
+    int frequency(String key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = MAX_FREQUENCY;
+        for (int i = 0; i < 4; i++) {
+            long counter = (table[indexOf(hash, i)] >>> ((start + i) << 2)) & 0xF;
+            frequency = Math.min(frequency, (int) counter);
+        }
+        return frequency;
+    }
+
+    void increment(String key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int offset = (start + i) << 2;
+            if (((table[index] >>> offset) & 0xF) != 0xF) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Halves every counter. Truncated odd counters are subtracted from the addition count as well.
+     */
+    private void reset() {
+        int truncated = 0;
+        for (int i = 0; i < table.length; i++) {
+            truncated += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions = (additions - (truncated >>> 2)) >>> 1;
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return (int) h & tableMask;
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,325 @@
+package com.manas.backend.context.file.infrastructure.preview;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Hot tier of the preview cache: previews in one preallocated direct (off-heap) arena, bounded by
+ * {@code app.preview.cache.memory-size} with W-TinyLFU admission.
+ * <p>
+ * New previews enter a small LRU window ({@value #WINDOW_PERCENT}% of the budget) that keeps the caller's heap
+ * array. What falls out of the window competes with the eldest entries of the main area and is only admitted if it
+ * was accessed more often, according to a {@link FrequencySketch} fed by every lookup, hits and misses alike. A
+ * one-off scan of a large folder thus cannot push out the thumbnails that are requested again and again. The main
+ * area is a segmented LRU: entries hit again move from probation to the protected segment
+ * ({@value #PROTECTED_PERCENT}% of the main area).
+ * <p>
+ * Only admitted previews are copied off-heap, into a run of {@value #PAGE_BYTES}-byte pages of the arena, so
+ * rejected candidates never allocate direct memory. Lookups hand out {@link Lease leases} of read-only views; the
+ * pages of an evicted preview are reused only once the last lease on them is closed.
+ */
+@Component
+public class MemoryPreviewCache {
+
+    private static final int WINDOW_PERCENT = 1;
+    private static final int PROTECTED_PERCENT = 80;
+
+    /**
+     * Allocation unit of the arena; each preview wastes less than one page.
+     */
+    static final int PAGE_BYTES = 512;
+
+    /**
+     * Typical size of a thumbnail, used to size the frequency sketch.
+     */
+    private static final int TYPICAL_PREVIEW_BYTES = 16 * 1024;
+
+    private final ByteBuffer arena;
+    private final int pageCount;
+    private final BitSet usedPages = new BitSet();
+    private final long windowMaxBytes;
+    private final int protectedMaxPages;
+    private final FrequencySketch sketch;
+    private final Counter hitCounter;
+    private final Counter evictionCounter;
+    private final Counter rejectionCounter;
+
+    private final LinkedHashMap<String, byte[]> window = new LinkedHashMap<>(64, 0.75f, true);
+    private final LinkedHashMap<String, Slot> probation = new LinkedHashMap<>(256, 0.75f, true);
+    private final LinkedHashMap<String, Slot> protectedSegment = new LinkedHashMap<>(1024, 0.75f, true);
+    private long windowBytes;
+    private long mainBytes;
+    private int probationPages;
+    private int protectedPages;
+
+    public MemoryPreviewCache(
+            @Value("${app.preview.cache.memory-size:64MB}") DataSize maxSize,
+            MeterRegistry meterRegistry
+    ) {
+        long maxBytes = Math.max(0, maxSize.toBytes());
+        this.windowMaxBytes = maxBytes * WINDOW_PERCENT / 100;
+        this.pageCount = (int) Math.min((maxBytes - windowMaxBytes) / PAGE_BYTES, Integer.MAX_VALUE / PAGE_BYTES);
+        this.protectedMaxPages = pageCount * PROTECTED_PERCENT / 100;
+        this.arena = ByteBuffer.allocateDirect(pageCount * PAGE_BYTES);
+        this.sketch = new FrequencySketch((int) Math.min(Integer.MAX_VALUE, maxBytes / TYPICAL_PREVIEW_BYTES));
+        this.hitCounter = meterRegistry.counter("app.preview.cache.memory.hit");
+        this.evictionCounter = meterRegistry.counter("app.preview.cache.memory.evictions");
+        this.rejectionCounter = meterRegistry.counter("app.preview.cache.memory.rejections");
+        meterRegistry.gauge("app.preview.cache.memory.size", this, MemoryPreviewCache::totalBytes);
+        meterRegistry.gauge("app.preview.cache.memory.entries", this, MemoryPreviewCache::entryCount);
+    }
+
+    /**
+     * Returns a lease on a read-only view of the cached preview, or null. Counts as an access either way. The
+     * lease must be closed once the view is no longer read.
+     */
+    public synchronized Lease get(String key) {
+        sketch.increment(key);
+
+        byte[] windowed = window.get(key);
+        if (windowed != null) {
+            hitCounter.increment();
+            return new Lease(ByteBuffer.wrap(windowed).asReadOnlyBuffer(), null);
+        }
+
+        Slot slot = protectedSegment.get(key);
+        if (slot == null) {
+            slot = probation.remove(key);
+            if (slot != null) {
+                probationPages -= slot.pages;
+                protectedSegment.put(key, slot);
+                protectedPages += slot.pages;
+                demoteProtected();
+            }
+        }
+        if (slot == null) {
+            return null;
+        }
+        hitCounter.increment();
+        slot.leases++;
+        return new Lease(arena.slice(slot.firstPage * PAGE_BYTES, slot.length).asReadOnlyBuffer(), slot);
+    }
+
+    public synchronized boolean contains(String key) {
+        return window.containsKey(key) || probation.containsKey(key) || protectedSegment.containsKey(key);
+    }
+
+    /**
+     * Largest preview the tier can hold.
+     */
+    public long maxEntryBytes() {
+        return (long) pageCount * PAGE_BYTES;
+    }
+
+    /**
+     * Adds a preview to the window, replacing an existing one with the same key. Unlike {@link #get}, this does not
+     * count as an access, so previews generated ahead of any request have to prove themselves before being admitted
+     * to the main area. The array is kept, not copied, until then; callers must not modify it.
+     */
+    public synchronized void put(String key, byte[] preview) {
+        if (preview.length == 0 || preview.length > maxEntryBytes()) {
+            return;
+        }
+
+        remove(key);
+        window.put(key, preview);
+        windowBytes += preview.length;
+
+        Iterator<Map.Entry<String, byte[]>> iterator = window.entrySet().iterator();
+        while (windowBytes > windowMaxBytes && iterator.hasNext()) {
+            Map.Entry<String, byte[]> eldest = iterator.next();
+            iterator.remove();
+            windowBytes -= eldest.getValue().length;
+            admit(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    synchronized long totalBytes() {
+        return windowBytes + mainBytes;
+    }
+
+    synchronized int entryCount() {
+        return window.size() + probation.size() + protectedSegment.size();
+    }
+
+    /**
+     * Copies a candidate from the window into probation if it was accessed more often than each of the main area
+     * entries it would evict, eldest probation entries first. Otherwise the candidate is dropped without touching
+     * the arena. The copy is a few kilobytes, so it is done under the lock.
+     */
+    private void admit(String key, byte[] candidate) {
+        int pages = pagesOf(candidate.length);
+        int needed = probationPages + protectedPages + pages - pageCount;
+        if (needed > 0) {
+            int candidateFrequency = sketch.frequency(key);
+            List<String> victims = new ArrayList<>();
+            int freed = collectVictims(probation, candidateFrequency, needed, victims);
+            if (freed >= 0 && freed < needed) {
+                int more = collectVictims(protectedSegment, candidateFrequency, needed - freed, victims);
+                freed = more < 0 ? -1 : freed + more;
+            }
+            if (freed < needed) {
+                rejectionCounter.increment();
+                return;
+            }
+            for (String victim : victims) {
+                remove(victim);
+                evictionCounter.increment();
+            }
+        }
+
+        // Leased pages of evicted previews, or scattered free pages, may leave no run long enough.
+        int firstPage = allocate(pages);
+        if (firstPage < 0) {
+            rejectionCounter.increment();
+            return;
+        }
+        arena.put(firstPage * PAGE_BYTES, candidate);
+        probation.put(key, new Slot(firstPage, pages, candidate.length));
+        probationPages += pages;
+        mainBytes += candidate.length;
+    }
+
+    /**
+     * Collects eldest entries of a segment until {@code needed} pages are covered.
+     *
+     * @return Pages covered by the collected victims, or -1 if an entry accessed at least as often as the candidate
+     *         would have to go.
+     */
+    private int collectVictims(LinkedHashMap<String, Slot> segment, int candidateFrequency, int needed,
+            List<String> victims) {
+        int freed = 0;
+        for (Map.Entry<String, Slot> entry : segment.entrySet()) {
+            if (freed >= needed) {
+                break;
+            }
+            if (sketch.frequency(entry.getKey()) >= candidateFrequency) {
+                return -1;
+            }
+            victims.add(entry.getKey());
+            freed += entry.getValue().pages;
+        }
+        return freed;
+    }
+
+    private void demoteProtected() {
+        Iterator<Map.Entry<String, Slot>> iterator = protectedSegment.entrySet().iterator();
+        while (protectedPages > protectedMaxPages && iterator.hasNext()) {
+            Map.Entry<String, Slot> eldest = iterator.next();
+            iterator.remove();
+            protectedPages -= eldest.getValue().pages;
+            probation.put(eldest.getKey(), eldest.getValue());
+            probationPages += eldest.getValue().pages;
+        }
+    }
+
+    private void remove(String key) {
+        byte[] windowed = window.remove(key);
+        if (windowed != null) {
+            windowBytes -= windowed.length;
+            return;
+        }
+        Slot slot = probation.remove(key);
+        if (slot != null) {
+            probationPages -= slot.pages;
+        } else {
+            slot = protectedSegment.remove(key);
+            if (slot == null) {
+                return;
+            }
+            protectedPages -= slot.pages;
+        }
+        mainBytes -= slot.length;
+        slot.evicted = true;
+        if (slot.leases == 0) {
+            usedPages.clear(slot.firstPage, slot.firstPage + slot.pages);
+        }
+    }
+
+    /**
+     * First fit over the arena pages.
+     *
+     * @return The first page of a free run of {@code pages}, now marked used, or -1.
+     */
+    private int allocate(int pages) {
+        int start = usedPages.nextClearBit(0);
+        while (start + pages <= pageCount) {
+            int nextUsed = usedPages.nextSetBit(start);
+            if (nextUsed < 0 || nextUsed >= start + pages) {
+                usedPages.set(start, start + pages);
+                return start;
+            }
+            start = usedPages.nextClearBit(nextUsed);
+        }
+        return -1;
+    }
+
+    private synchronized void release(Slot slot) {
+        slot.leases--;
+        if (slot.evicted && slot.leases == 0) {
+            usedPages.clear(slot.firstPage, slot.firstPage + slot.pages);
+        }
+    }
+
+    private static int pagesOf(int bytes) {
+        return (bytes + PAGE_BYTES - 1) / PAGE_BYTES;
+    }
+
+    /**
+     * A read-only view of a cached preview. Its arena pages stay reserved, even if the preview is evicted, until
+     * the lease is closed.
+     */
+    public final class Lease implements AutoCloseable {
+
+        private final ByteBuffer buffer;
+        private final Slot slot;
+        private boolean closed;
+
+        private Lease(ByteBuffer buffer, Slot slot) {
+            this.buffer = buffer;
+            this.slot = slot;
+        }
+
+        public ByteBuffer buffer() {
+            return buffer;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                if (slot != null) {
+                    release(slot);
+                }
+            }
+        }
+    }
+
+    /**
+     * Pages of an admitted preview. Guarded by the cache lock.
+     */
+    private static final class Slot {
+
+        private final int firstPage;
+        private final int pages;
+        private final int length;
+        private int leases;
+        private boolean evicted;
+
+        private Slot(int firstPage, int pages, int length) {
+            this.firstPage = firstPage;
+            this.pages = pages;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.manas.backend.context.file.infrastructure.preview;
+
+import com.manas.backend.context.file.application.port.out.PreviewCachePort;
+import com.manas.backend.context.file.domain.FileContent;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Preview cache of an off-heap {@link MemoryPreviewCache} above the {@link DiskPreviewCache}.
+ * <p>
+ * Memory hits are served without touching the file system; the response stream holds a lease on the preview until
+ * it is closed. Disk hits are read into memory in full (previews are small) and offered to the memory tier, which
+ * admits them once they are requested often enough. New previews are written to both tiers. The tiers evict
+ * independently, so a preview may be held by either or both.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TieredPreviewCache implements PreviewCachePort {
+
+    private static final String FILE_NAME = "thumbnail.jpg";
+    private static final String CONTENT_TYPE = "image/jpeg";
+
+    private final MemoryPreviewCache memory;
+    private final DiskPreviewCache disk;
+
+    @Override
+    public FileContent get(String key) {
+        MemoryPreviewCache.Lease hot = memory.get(key);
+        if (hot != null) {
+            return new FileContent(FILE_NAME, CONTENT_TYPE, hot.buffer().remaining(), new LeaseInputStream(hot));
+        }
+
+        FileContent cold = disk.get(key);
+        if (cold == null || cold.size() > memory.maxEntryBytes()) {
+            return cold;
+        }
+
+        byte[] preview;
+        try (InputStream in = cold.inputStream()) {
+            preview = in.readAllBytes();
+        } catch (IOException e) {
+            log.warn("Failed to read cached preview {}: {}", key, e.getMessage());
+            return null;
+        }
+        memory.put(key, preview);
+        return new FileContent(FILE_NAME, CONTENT_TYPE, preview.length, new ByteArrayInputStream(preview));
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return memory.contains(key) || disk.contains(key);
+    }
+
+    @Override
+    public void put(String key, byte[] preview) {
+        disk.put(key, preview);
+        memory.put(key, preview);
+    }
+
+    /**
+     * Streams a leased view of an off-heap preview. The lease keeps the preview's pages from being reused while
+     * the response is written, even if the preview is evicted in the meantime; closing the stream releases it.
+     */
+    private static final class LeaseInputStream extends InputStream {
+
+        private final MemoryPreviewCache.Lease lease;
+        private final ByteBuffer buffer;
+
+        private LeaseInputStream(MemoryPreviewCache.Lease lease) {
+            this.lease = lease;
+            this.buffer = lease.buffer();
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            int count = (int) Math.clamp(n, 0, buffer.remaining());
+            buffer.position(buffer.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+
+        @Override
+        public void close() {
+            lease.close();
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.manas.backend.context.file.infrastructure.search;
+
+import com.manas.backend.context.file.application.port.out.FileSearchPort;
+import com.manas.backend.context.file.domain.FileSearchHit;
+import com.manas.backend.context.file.domain.FileSearchResult;
+import com.manas.backend.context.file.domain.event.DirectoryCreatedEvent;
+import com.manas.backend.context.file.domain.event.FileCopiedEvent;
+import com.manas.backend.context.file.domain.event.FileDeletedEvent;
+import com.manas.backend.context.file.domain.event.FileDeletionFailedEvent;
+import com.manas.backend.context.file.domain.event.FileMovedEvent;
+import com.manas.backend.context.file.domain.event.FileRestoredEvent;
+import com.manas.backend.context.file.domain.event.FileUploadedEvent;
+import com.manas.backend.context.file.infrastructure.fs.StorageExcludes;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Filename search over the whole storage root backed by {@link PathTrigramIndex}.
+ * <p>
+ * The index is built by a parallel walk after startup and periodically to pick up changes made outside the
+ * application; file events keep it current in between. A walk that overlaps with an event is repeated so
+ * the published index does not lose the change.
+ */
+@Slf4j
+@Component
+public class InMemoryFileSearchAdapter implements FileSearchPort {
+
+    private static final int MAX_BUILD_ATTEMPTS = 3;
+
+    private final Path rootPath;
+    private final int parallelism;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean building = new AtomicBoolean();
+    private final AtomicLong mutationSequence = new AtomicLong();
+    private PathTrigramIndex index;
+
+    public InMemoryFileSearchAdapter(
+            @Value("${app.storage.root}") String rootPathString,
+            @Value("${app.search.index.parallelism:0}") int parallelism
+    ) {
+        this.rootPath = Paths.get(rootPathString).toAbsolutePath().normalize();
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread.ofVirtual().name("file-search-index").start(this::rebuild);
+    }
+
+    @Scheduled(
+            fixedDelayString = "${app.search.index.rescan-interval:PT6H}",
+            initialDelayString = "${app.search.index.rescan-interval:PT6H}"
+    )
+    public void rescan() {
+        rebuild();
+    }
+
+    /**
+     * Walks the storage root and publishes a fresh index.
+     *
+     * @return false if another build was already running.
+     */
+    boolean rebuild() {
+        if (!building.compareAndSet(false, true)) {
+            return false;
+        }
+
+        try {
+            for (int attempt = 1; attempt <= MAX_BUILD_ATTEMPTS; attempt++) {
+                long sequenceBefore = mutationSequence.get();
+                long startedAt = System.nanoTime();
+                PathTrigramIndex built = load(walk());
+
+                lock.writeLock().lock();
+                try {
+                    if (mutationSequence.get() == sequenceBefore || attempt == MAX_BUILD_ATTEMPTS) {
+                        index = built;
+                        log.info("Indexed {} paths under {} for search in {} ms", built.liveCount(), rootPath,
+                                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+                        return true;
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                log.debug("Storage changed during search index build (attempt {}), walking again", attempt);
+            }
+            return true;
+        } finally {
+            building.set(false);
+        }
+    }
+
+    @Override
+    public FileSearchResult search(String query, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            if (index == null) {
+                return new FileSearchResult(query, List.of(), 0, offset, limit, true);
+            }
+
+            PathTrigramIndex.Matches matches = index.search(query, offset, limit);
+            List<FileSearchHit> hits = matches.ids().stream()
+                    .map(id -> new FileSearchHit(index.nameOf(id), index.pathOf(id), index.isDirectory(id)))
+                    .toList();
+            return new FileSearchResult(query, hits, matches.totalCount(), offset, limit, false);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onFileUploaded(FileUploadedEvent event) {
+        mutate(current -> current.addPath(event.filePath(), false));
+    }
+
+    @EventListener
+    public void onDirectoryCreated(DirectoryCreatedEvent event) {
+        mutate(current -> current.addPath(event.directoryPath(), true));
+    }
+
+    @EventListener
+    public void onFileDeleted(FileDeletedEvent event) {
+        mutate(current -> {
+            int id = current.find(event.filePath());
+            if (id > PathTrigramIndex.ROOT) {
+                current.remove(id);
+            }
+        });
+    }
+
+    @EventListener
+    public void onFileMoved(FileMovedEvent event) {
+        mutate(current -> {
+            int id = current.find(event.sourcePath());
+            List<String> destination = PathTrigramIndex.split(event.destinationPath());
+            if (id <= PathTrigramIndex.ROOT || destination.isEmpty()) {
+                return;
+            }
+            String parentPath = "/" + String.join("/", destination.subList(0, destination.size() - 1));
+            current.move(id, current.addPath(parentPath, true), destination.getLast());
+        });
+    }
+
+    @EventListener
+    public void onFileCopied(FileCopiedEvent event) {
+        mutate(current -> {
+            int id = current.find(event.sourcePath());
+            List<String> destination = PathTrigramIndex.split(event.destinationPath());
+            if (id <= PathTrigramIndex.ROOT || destination.isEmpty()) {
+                return;
+            }
+            String parentPath = "/" + String.join("/", destination.subList(0, destination.size() - 1));
+            current.copy(id, current.addPath(parentPath, true), destination.getLast());
+        });
+    }
+
+    @EventListener
+    public void onFileRestored(FileRestoredEvent event) {
+        List<String> parts = PathTrigramIndex.split(event.path());
+        if (parts.isEmpty()) {
+            return;
+        }
+        List<WalkedEntry> restoredChildren = walkSubtree(parts, event.directory());
+        mutate(current -> addAll(current, current.addPath(event.path(), event.directory()), restoredChildren));
+    }
+
+    /**
+     * Replaces the subtree of a failed delete with what is left of it on disk.
+     */
+    @EventListener
+    public void onFileDeletionFailed(FileDeletionFailedEvent event) {
+        List<String> parts = PathTrigramIndex.split(event.filePath());
+        if (parts.isEmpty()) {
+            return;
+        }
+        Path target = rootPath.resolve(String.join("/", parts));
+        boolean exists = Files.exists(target, LinkOption.NOFOLLOW_LINKS);
+        boolean directory = Files.isDirectory(target, LinkOption.NOFOLLOW_LINKS);
+        List<WalkedEntry> remaining = exists ? walkSubtree(parts, directory) : List.of();
+        mutate(current -> {
+            int id = current.find(event.filePath());
+            if (id > PathTrigramIndex.ROOT) {
+                current.remove(id);
+            }
+            if (exists) {
+                addAll(current, current.addPath(event.filePath(), directory), remaining);
+            }
+        });
+    }
+
+    /**
+     * Walks the children of a directory before taking the lock, like a rebuild.
+     */
+    private List<WalkedEntry> walkSubtree(List<String> parts, boolean directory) {
+        if (!directory) {
+            return List.of();
+        }
+        try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+            return pool.invoke(new WalkTask(rootPath.resolve(String.join("/", parts))));
+        }
+    }
+
+    /**
+     * Applies an event to the published index. Failures are logged, never propagated to the file operation
+     * that already succeeded; the periodic rebuild repairs the index.
+     */
+    private void mutate(Consumer<PathTrigramIndex> change) {
+        mutationSequence.incrementAndGet();
+        lock.writeLock().lock();
+        try {
+            if (index == null) {
+                return;
+            }
+            change.accept(index);
+            if (index.needsCompaction()) {
+                index = index.compact();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to update search index: {}", e.getMessage(), e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<WalkedEntry> walk() {
+        try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+            return pool.invoke(new WalkTask(rootPath));
+        }
+    }
+
+    private static PathTrigramIndex load(List<WalkedEntry> rootChildren) {
+        PathTrigramIndex loaded = new PathTrigramIndex(1024);
+        addAll(loaded, PathTrigramIndex.ROOT, rootChildren);
+        loaded.trimPostings();
+        return loaded;
+    }
+
+    private static void addAll(PathTrigramIndex target, int parentId, List<WalkedEntry> children) {
+        List<WalkedEntry> pending = new ArrayList<>(children);
+        List<Integer> parents = new ArrayList<>();
+        children.forEach(entry -> parents.add(parentId));
+
+        while (!pending.isEmpty()) {
+            WalkedEntry entry = pending.removeLast();
+            int parent = parents.removeLast();
+            int id = target.add(parent, entry.name(), entry.directory());
+            for (WalkedEntry child : entry.children()) {
+                pending.add(child);
+                parents.add(id);
+            }
+        }
+    }
+
+    private record WalkedEntry(String name, boolean directory, List<WalkedEntry> children) {
+    }
+
+    /**
+     * Lists one directory and forks a task per subdirectory. Symbolic links are indexed but not followed.
+     */
+    private final class WalkTask extends RecursiveTask<List<WalkedEntry>> {
+
+        private final Path directory;
+
+        private WalkTask(Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        protected List<WalkedEntry> compute() {
+            List<String> files = new ArrayList<>();
+            List<String> subdirectoryNames = new ArrayList<>();
+            List<WalkTask> subtasks = new ArrayList<>();
+
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (Path child : stream) {
+                    if (StorageExcludes.isExcluded(rootPath, child)) {
+                        continue;
+                    }
+                    if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                        subdirectoryNames.add(child.getFileName().toString());
+                        subtasks.add(new WalkTask(child));
+                    } else {
+                        files.add(child.getFileName().toString());
+                    }
+                }
+            } catch (IOException | DirectoryIteratorException e) {
+                log.debug("Cannot read directory '{}' for search index: {}", directory, e.getMessage());
+            }
+
+            invokeAll(subtasks);
+
+            List<WalkedEntry> entries = new ArrayList<>(files.size() + subtasks.size());
+            for (int i = 0; i < subtasks.size(); i++) {
+                entries.add(new WalkedEntry(subdirectoryNames.get(i), true, subtasks.get(i).join()));
+            }
+            for (String file : files) {
+                entries.add(new WalkedEntry(file, false, List.of()));
+            }
+            return entries;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.manas.backend.context.file.infrastructure.search;
+
+import java.util.Arrays;
+
+/**
+ * Growable array of ascending ints, used as a posting list without boxing.
+ */
+final class IntList {
+
+    private int[] values = new int[4];
+    private int size;
+
+    /**
+     * Appends {@code value} unless it equals the last element (one posting per entry and trigram).
+     */
+    void appendDistinct(int value) {
+        if (size > 0 && values[size - 1] == value) {
+            return;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + (size >> 1) + 1);
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * Inserts {@code value} at its sorted position unless present; shifts the larger elements.
+     */
+    void insert(int value) {
+        int position = Arrays.binarySearch(values, 0, size, value);
+        if (position >= 0) {
+            return;
+        }
+        position = -position - 1;
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + (size >> 1) + 1);
+        }
+        System.arraycopy(values, position, values, position + 1, size - position);
+        values[position] = value;
+        size++;
+    }
+
+    void remove(int value) {
+        int position = Arrays.binarySearch(values, 0, size, value);
+        if (position >= 0) {
+            System.arraycopy(values, position + 1, values, position, size - position - 1);
+            size--;
+        }
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(int value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    void trimToSize() {
+        if (values.length != size) {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,589 @@
+package com.manas.backend.context.file.infrastructure.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.function.LongConsumer;
+
+/**
+ * In-memory filename index over the logical tree of the storage root.
+ * <p>
+ * Entries are stored as a parent-pointer tree in parallel arrays (parent id, name), so a path costs one name
+ * string plus a few ints and moving or renaming a directory only touches that one entry. Each name is indexed by
+ * the case-insensitive character trigrams of its NFC form, so names stored decomposed (NFD, as macOS writes them)
+ * match composed queries; posting lists hold ascending entry ids. Path lookups go through an open-addressing
+ * table of child ids keyed by (parent, name) instead, so they cost the same for short names. Removed entries are
+ * tombstoned and dropped by {@link #compact()}. Not thread-safe; callers synchronize.
+ */
+final class PathTrigramIndex {
+
+    static final int ROOT = 0;
+    private static final int NOT_FOUND = -1;
+    private static final int EMPTY_SLOT = ROOT;
+
+    private int size;
+    private int[] parents;
+    private String[] names;
+    // NFC form of a name where it differs from the stored one, else null.
+    private String[] normalizedNames;
+    private final BitSet directories = new BitSet();
+    private final BitSet removed = new BitSet();
+    private int removedCount;
+    private final PostingMap postings = new PostingMap();
+    // Child ids by (parent, name), linear probing; the root is never a child, so 0 marks an empty slot.
+    private int[] childSlots;
+    private int childCount;
+
+    PathTrigramIndex(int expectedEntries) {
+        int capacity = Math.max(16, expectedEntries + 1);
+        this.parents = new int[capacity];
+        this.names = new String[capacity];
+        this.normalizedNames = new String[capacity];
+        this.childSlots = new int[Integer.highestOneBit(capacity * 2 - 1) * 2];
+        this.parents[ROOT] = NOT_FOUND;
+        this.names[ROOT] = "";
+        this.directories.set(ROOT);
+        this.size = 1;
+    }
+
+    /**
+     * Appends a child entry without checking for duplicates. Used while bulk loading a walked tree.
+     */
+    int add(int parent, String name, boolean directory) {
+        if (size == parents.length) {
+            int capacity = size + (size >> 1);
+            parents = Arrays.copyOf(parents, capacity);
+            names = Arrays.copyOf(names, capacity);
+            normalizedNames = Arrays.copyOf(normalizedNames, capacity);
+        }
+        int id = size++;
+        parents[id] = parent;
+        setName(id, name);
+        if (directory) {
+            directories.set(id);
+        }
+        putChild(id);
+        forEachTrigram(searchName(id), key -> postings.getOrCreate(key).appendDistinct(id));
+        return id;
+    }
+
+    /**
+     * Adds a logical path, creating missing ancestors as directories.
+     *
+     * @return the id of the (new or existing) entry.
+     */
+    int addPath(String logicalPath, boolean directory) {
+        List<String> parts = split(logicalPath);
+        int current = ROOT;
+        for (int i = 0; i < parts.size(); i++) {
+            boolean last = i == parts.size() - 1;
+            int child = findChild(current, parts.get(i));
+            current = child != NOT_FOUND ? child : add(current, parts.get(i), !last || directory);
+        }
+        return current;
+    }
+
+    /**
+     * @return the id of the live entry at the logical path, or -1.
+     */
+    int find(String logicalPath) {
+        int current = ROOT;
+        for (String part : split(logicalPath)) {
+            current = findChild(current, part);
+            if (current == NOT_FOUND) {
+                return NOT_FOUND;
+            }
+        }
+        return current;
+    }
+
+    void remove(int id) {
+        if (id != ROOT && !removed.get(id)) {
+            removed.set(id);
+            removedCount++;
+            removeChild(id);
+        }
+    }
+
+    /**
+     * Moves an entry (and implicitly its subtree) under a new parent, renaming it if needed. The entry keeps its
+     * id, so its children stay attached; a rename only updates the posting lists of the changed trigrams.
+     */
+    void move(int id, int newParent, String newName) {
+        removeChild(id);
+        if (!names[id].equals(newName)) {
+            long[] oldTrigrams = trigrams(searchName(id));
+            setName(id, newName);
+            long[] newTrigrams = trigrams(searchName(id));
+            for (long key : oldTrigrams) {
+                if (Arrays.binarySearch(newTrigrams, key) < 0) {
+                    postings.get(key).remove(id);
+                }
+            }
+            for (long key : newTrigrams) {
+                if (Arrays.binarySearch(oldTrigrams, key) < 0) {
+                    postings.getOrCreate(key).insert(id);
+                }
+            }
+        }
+        parents[id] = newParent;
+        putChild(id);
+    }
+
+    int liveCount() {
+        return size - 1 - removedCount;
+    }
+
+    boolean needsCompaction() {
+        return removedCount > 1024 && removedCount > size / 4;
+    }
+
+    String pathOf(int id) {
+        return path(id, false);
+    }
+
+    private String path(int id, boolean normalized) {
+        if (id == ROOT) {
+            return "/";
+        }
+        List<String> parts = new ArrayList<>();
+        for (int current = id; current != ROOT; current = parents[current]) {
+            parts.add(normalized ? searchName(current) : names[current]);
+        }
+        StringBuilder path = new StringBuilder();
+        for (int i = parts.size() - 1; i >= 0; i--) {
+            path.append('/').append(parts.get(i));
+        }
+        return path.toString();
+    }
+
+    String nameOf(int id) {
+        return names[id];
+    }
+
+    boolean isDirectory(int id) {
+        return directories.get(id);
+    }
+
+    /**
+     * Ranks live entries whose name contains the longest query term and whose path contains every other term.
+     * Ranking: exact name, name prefix, word-boundary match, other substring; then shallower paths, shorter
+     * names, and insertion order.
+     */
+    Matches search(String query, int offset, int limit) {
+        List<String> terms = terms(query);
+        if (terms.isEmpty()) {
+            return new Matches(List.of(), 0);
+        }
+
+        String primary = terms.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+        List<String> others = new ArrayList<>(terms);
+        others.remove(primary);
+
+        int wanted = offset + limit;
+        PriorityQueue<Match> best = new PriorityQueue<>(wanted + 1, Match.RANKING.reversed());
+        int total = 0;
+
+        CandidateCursor candidates = candidates(primary);
+        for (int id = candidates.next(); id != NOT_FOUND; id = candidates.next()) {
+            if (removed.get(id)) {
+                continue;
+            }
+            String name = searchName(id);
+            int position = indexOfIgnoreCase(name, primary);
+            if (position < 0) {
+                continue;
+            }
+            int depth = depthIfLive(id);
+            if (depth < 0 || !pathContainsAll(id, others)) {
+                continue;
+            }
+
+            total++;
+            best.offer(new Match(id, matchClass(name, primary, position), depth, name.length()));
+            if (best.size() > wanted) {
+                best.poll();
+            }
+        }
+
+        List<Match> ranked = new ArrayList<>(best);
+        ranked.sort(Match.RANKING);
+        List<Integer> page = ranked.stream()
+                .skip(offset)
+                .map(Match::id)
+                .toList();
+        return new Matches(page, total);
+    }
+
+    /**
+     * Rebuilds the arrays and posting lists without tombstoned entries and their subtrees.
+     */
+    PathTrigramIndex compact() {
+        Children children = children();
+        PathTrigramIndex compacted = new PathTrigramIndex(liveCount());
+        int[] stack = new int[size];
+        int[] newIds = new int[size];
+        int top = 0;
+        stack[top++] = ROOT;
+        newIds[ROOT] = ROOT;
+        while (top > 0) {
+            int id = stack[--top];
+            for (int i = children.first()[id]; i < children.first()[id + 1]; i++) {
+                int child = children.ids()[i];
+                if (removed.get(child)) {
+                    continue;
+                }
+                newIds[child] = compacted.add(newIds[id], names[child], directories.get(child));
+                stack[top++] = child;
+            }
+        }
+        compacted.trimPostings();
+        return compacted;
+    }
+
+    /**
+     * Adds a copy of an entry and its live subtree under a new parent.
+     *
+     * @return the id of the copy.
+     */
+    int copy(int id, int newParent, String newName) {
+        Children children = children();
+        int copied = add(newParent, newName, directories.get(id));
+        // Pairs of (original, copy) still to descend into; copies get ids beyond the grouped children.
+        int[] stack = new int[2 * children.ids().length + 2];
+        int top = 0;
+        stack[top++] = id;
+        stack[top++] = copied;
+        while (top > 0) {
+            int copy = stack[--top];
+            int original = stack[--top];
+            for (int i = children.first()[original]; i < children.first()[original + 1]; i++) {
+                int child = children.ids()[i];
+                if (removed.get(child)) {
+                    continue;
+                }
+                stack[top++] = child;
+                stack[top++] = add(copy, names[child], directories.get(child));
+            }
+        }
+        return copied;
+    }
+
+    /**
+     * Groups the current entries by parent (counting sort), so a tree can be walked top-down: the children of
+     * {@code id} are {@code ids[first[id]] .. ids[first[id + 1] - 1]}.
+     */
+    private Children children() {
+        int[] childCounts = new int[size];
+        for (int id = 1; id < size; id++) {
+            childCounts[parents[id]]++;
+        }
+        int[] firstChild = new int[size + 1];
+        for (int id = 0; id < size; id++) {
+            firstChild[id + 1] = firstChild[id] + childCounts[id];
+        }
+        int[] children = new int[size];
+        int[] fill = Arrays.copyOf(firstChild, size);
+        for (int id = 1; id < size; id++) {
+            children[fill[parents[id]]++] = id;
+        }
+        return new Children(firstChild, children);
+    }
+
+    void trimPostings() {
+        postings.forEachList(IntList::trimToSize);
+    }
+
+    /**
+     * Splits a logical path into its components, resolving "." and "..".
+     */
+    static List<String> split(String logicalPath) {
+        List<String> parts = new ArrayList<>();
+        if (logicalPath == null) {
+            return parts;
+        }
+        for (String part : logicalPath.replace('\\', '/').split("/")) {
+            if (part.isEmpty() || ".".equals(part)) {
+                continue;
+            }
+            if ("..".equals(part)) {
+                if (!parts.isEmpty()) {
+                    parts.removeLast();
+                }
+                continue;
+            }
+            parts.add(part);
+        }
+        return parts;
+    }
+
+    private int findChild(int parent, String name) {
+        int mask = childSlots.length - 1;
+        for (int slot = childSlot(parent, name, mask); ; slot = (slot + 1) & mask) {
+            int id = childSlots[slot];
+            if (id == EMPTY_SLOT) {
+                return NOT_FOUND;
+            }
+            if (parents[id] == parent && names[id].equals(name)) {
+                return removed.get(id) ? NOT_FOUND : id;
+            }
+        }
+    }
+
+    /**
+     * Makes {@code id} the child found under its current parent and name, replacing an entry with the same key.
+     */
+    private void putChild(int id) {
+        if ((childCount + 1) * 3 > childSlots.length * 2) {
+            resizeChildSlots(childSlots.length * 2);
+        }
+        int mask = childSlots.length - 1;
+        for (int slot = childSlot(parents[id], names[id], mask); ; slot = (slot + 1) & mask) {
+            int existing = childSlots[slot];
+            if (existing == EMPTY_SLOT) {
+                childSlots[slot] = id;
+                childCount++;
+                return;
+            }
+            if (parents[existing] == parents[id] && names[existing].equals(names[id])) {
+                childSlots[slot] = id;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Drops {@code id} from the child table; must run before its parent or name changes, which locate its slot.
+     */
+    private void removeChild(int id) {
+        int mask = childSlots.length - 1;
+        int hole = childSlot(parents[id], names[id], mask);
+        while (childSlots[hole] != id) {
+            if (childSlots[hole] == EMPTY_SLOT) {
+                return;
+            }
+            hole = (hole + 1) & mask;
+        }
+        // Backward-shift deletion: pull later entries of the probe run into the hole, so lookups need no
+        // tombstones.
+        for (int next = (hole + 1) & mask; childSlots[next] != EMPTY_SLOT; next = (next + 1) & mask) {
+            int candidate = childSlots[next];
+            int home = childSlot(parents[candidate], names[candidate], mask);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                childSlots[hole] = candidate;
+                hole = next;
+            }
+        }
+        childSlots[hole] = EMPTY_SLOT;
+        childCount--;
+    }
+
+    private void resizeChildSlots(int capacity) {
+        int[] old = childSlots;
+        childSlots = new int[capacity];
+        int mask = capacity - 1;
+        for (int id : old) {
+            if (id != EMPTY_SLOT) {
+                int slot = childSlot(parents[id], names[id], mask);
+                while (childSlots[slot] != EMPTY_SLOT) {
+                    slot = (slot + 1) & mask;
+                }
+                childSlots[slot] = id;
+            }
+        }
+    }
+
+    private static int childSlot(int parent, String name, int mask) {
+        int hash = parent * 0x9E3779B9 + name.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private void setName(int id, String name) {
+        names[id] = name;
+        String normalized = normalize(name);
+        normalizedNames[id] = normalized.equals(name) ? null : normalized;
+    }
+
+    /**
+     * The NFC form of the name, which is what search matches against.
+     */
+    private String searchName(int id) {
+        String normalized = normalizedNames[id];
+        return normalized != null ? normalized : names[id];
+    }
+
+    static String normalize(String text) {
+        return Normalizer.isNormalized(text, Normalizer.Form.NFC) ? text
+                : Normalizer.normalize(text, Normalizer.Form.NFC);
+    }
+
+    /**
+     * Entries whose name may contain {@code term}: the intersection of its trigram posting lists, or every
+     * entry when the term is shorter than a trigram.
+     */
+    private CandidateCursor candidates(String term) {
+        if (term.length() < 3) {
+            return new CandidateCursor(null, List.of(), size);
+        }
+
+        List<IntList> lists = new ArrayList<>();
+        boolean[] missing = {false};
+        forEachTrigram(term, key -> {
+            IntList list = postings.get(key);
+            if (list == null) {
+                missing[0] = true;
+            } else {
+                lists.add(list);
+            }
+        });
+        if (missing[0]) {
+            return new CandidateCursor(new IntList(), List.of(), 0);
+        }
+
+        lists.sort(Comparator.comparingInt(IntList::size));
+        return new CandidateCursor(lists.getFirst(), lists.subList(1, lists.size()), 0);
+    }
+
+    private int depthIfLive(int id) {
+        int depth = 0;
+        for (int current = id; current != ROOT; current = parents[current]) {
+            if (removed.get(current)) {
+                return -1;
+            }
+            depth++;
+        }
+        return depth;
+    }
+
+    private boolean pathContainsAll(int id, List<String> terms) {
+        if (terms.isEmpty()) {
+            return true;
+        }
+        String path = path(id, true);
+        for (String term : terms) {
+            if (indexOfIgnoreCase(path, term) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int matchClass(String name, String term, int position) {
+        if (position == 0) {
+            return name.length() == term.length() ? 0 : 1;
+        }
+        return Character.isLetterOrDigit(name.charAt(position - 1)) ? 3 : 2;
+    }
+
+    private static List<String> terms(String query) {
+        List<String> terms = new ArrayList<>();
+        for (String term : normalize(query).toLowerCase(Locale.ROOT).split("[\\s/\\\\]+")) {
+            if (!term.isEmpty() && !terms.contains(term)) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Case-insensitive {@code indexOf}; {@code lowerTerm} must already be lower-cased.
+     */
+    static int indexOfIgnoreCase(String text, String lowerTerm) {
+        int last = text.length() - lowerTerm.length();
+        for (int i = 0; i <= last; i++) {
+            if (text.regionMatches(true, i, lowerTerm, 0, lowerTerm.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static void forEachTrigram(String text, LongConsumer consumer) {
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            consumer.accept(((long) lower(text.charAt(i)) << 32)
+                    | ((long) lower(text.charAt(i + 1)) << 16)
+                    | lower(text.charAt(i + 2)));
+        }
+    }
+
+    /**
+     * The distinct trigram keys of {@code text}, sorted.
+     */
+    private static long[] trigrams(String text) {
+        long[] keys = new long[Math.max(0, text.length() - 2)];
+        int[] count = {0};
+        forEachTrigram(text, key -> keys[count[0]++] = key);
+        Arrays.sort(keys);
+        int distinct = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (i == 0 || keys[i] != keys[i - 1]) {
+                keys[distinct++] = keys[i];
+            }
+        }
+        return Arrays.copyOf(keys, distinct);
+    }
+
+    private static char lower(char c) {
+        return Character.toLowerCase(c);
+    }
+
+    record Matches(List<Integer> ids, int totalCount) {
+    }
+
+    private record Children(int[] first, int[] ids) {
+    }
+
+    private record Match(int id, int matchClass, int depth, int nameLength) {
+
+        static final Comparator<Match> RANKING = Comparator.comparingInt(Match::matchClass)
+                .thenComparingInt(Match::depth)
+                .thenComparingInt(Match::nameLength)
+                .thenComparingInt(Match::id);
+    }
+
+    /**
+     * Iterates the smallest posting list and keeps ids present in all others; without a driving list it
+     * iterates every id from 1 to {@code scanEnd}.
+     */
+    private static final class CandidateCursor {
+
+        private final IntList driver;
+        private final List<IntList> filters;
+        private final int scanEnd;
+        private int position;
+
+        private CandidateCursor(IntList driver, List<IntList> filters, int scanEnd) {
+            this.driver = driver;
+            this.filters = filters;
+            this.scanEnd = scanEnd;
+            this.position = driver == null ? 1 : 0;
+        }
+
+        int next() {
+            if (driver == null) {
+                return position < scanEnd ? position++ : NOT_FOUND;
+            }
+            while (position < driver.size()) {
+                int id = driver.get(position++);
+                if (containedInAll(id)) {
+                    return id;
+                }
+            }
+            return NOT_FOUND;
+        }
+
+        private boolean containedInAll(int id) {
+            for (IntList filter : filters) {
+                if (!filter.contains(id)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
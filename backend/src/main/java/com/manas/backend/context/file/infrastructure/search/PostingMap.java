@@ -0,0 +1,80 @@
+package com.manas.backend.context.file.infrastructure.search;
+
+import java.util.function.Consumer;
+
+/**
+ * Open-addressing map from trigram keys to posting lists. Keys stay primitive, so an entry costs one slot in
+ * each of two arrays instead of a boxed key and a hash node.
+ */
+final class PostingMap {
+
+    private long[] keys;
+    private IntList[] lists;
+    private int size;
+
+    PostingMap() {
+        keys = new long[1024];
+        lists = new IntList[1024];
+    }
+
+    /**
+     * @return the posting list of {@code key}, or null.
+     */
+    IntList get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = slotOf(key, mask); lists[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return lists[slot];
+            }
+        }
+        return null;
+    }
+
+    IntList getOrCreate(long key) {
+        if ((size + 1) * 3 > keys.length * 2) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int slot = slotOf(key, mask);
+        for (; lists[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return lists[slot];
+            }
+        }
+        keys[slot] = key;
+        lists[slot] = new IntList();
+        size++;
+        return lists[slot];
+    }
+
+    void forEachList(Consumer<IntList> action) {
+        for (IntList list : lists) {
+            if (list != null) {
+                action.accept(list);
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        IntList[] oldLists = lists;
+        keys = new long[capacity];
+        lists = new IntList[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldLists.length; i++) {
+            if (oldLists[i] != null) {
+                int slot = slotOf(oldKeys[i], mask);
+                while (lists[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                lists[slot] = oldLists[i];
+            }
+        }
+    }
+
+    private static int slotOf(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
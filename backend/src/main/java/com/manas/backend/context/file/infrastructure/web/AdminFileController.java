@@ -2,6 +2,7 @@ package com.manas.backend.context.file.infrastructure.web;
 
 import com.manas.backend.context.auth.infrastructure.security.AuthenticatedUserAccessor;
 import com.manas.backend.context.auth.infrastructure.security.AuthenticatedUserPrincipal;
+import com.manas.backend.context.file.application.port.in.CopyFileUseCase;
 import com.manas.backend.context.file.application.port.in.CreateDirectoryUseCase;
 import com.manas.backend.context.file.application.port.in.DeleteFilesResult;
 import com.manas.backend.context.file.application.port.in.DeleteFilesUseCase;
@@ -9,35 +10,63 @@ import com.manas.backend.context.file.application.port.in.FileListSort;
 import com.manas.backend.context.file.application.port.in.ListDirectoryQuery;
 import com.manas.backend.context.file.application.port.in.ListDirectoryUseCase;
 import com.manas.backend.context.file.application.port.in.MoveFileUseCase;
+import com.manas.backend.context.file.application.port.in.StreamDirectoryUseCase;
+import com.manas.backend.context.file.application.port.in.TrashUseCase;
 import com.manas.backend.context.file.domain.DirectoryListing;
+import com.manas.backend.context.file.domain.FileNode;
+import com.manas.backend.context.file.infrastructure.web.dto.CopyFileRequest;
 import com.manas.backend.context.file.infrastructure.web.dto.CreateDirectoryRequest;
 import com.manas.backend.context.file.infrastructure.web.dto.DeleteFilesRequest;
 import com.manas.backend.context.file.infrastructure.web.dto.DeleteFilesResponse;
 import com.manas.backend.context.file.infrastructure.web.dto.DirectoryListingDTO;
 import com.manas.backend.context.file.infrastructure.web.dto.MoveFileRequest;
+import com.manas.backend.context.file.infrastructure.web.dto.TrashedEntryDTO;
 import com.manas.backend.context.file.infrastructure.web.mapper.FileMapper;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
 
+@Slf4j
 @RestController
 @RequestMapping("/api/admin/files")
 @RequiredArgsConstructor
 public class AdminFileController {
 
+    /**
+     * Rows written between flushes, so the first rows reach the client quickly without a flush per row.
+     */
+    private static final int STREAM_FLUSH_INTERVAL = 256;
+
     private final ListDirectoryUseCase listDirectoryUseCase;
+    private final StreamDirectoryUseCase streamDirectoryUseCase;
     private final DeleteFilesUseCase deleteFilesUseCase;
     private final MoveFileUseCase moveFileUseCase;
+    private final CopyFileUseCase copyFileUseCase;
     private final CreateDirectoryUseCase createDirectoryUseCase;
+    private final TrashUseCase trashUseCase;
     private final FileMapper fileMapper;
     private final AuthenticatedUserAccessor authenticatedUserAccessor;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/list")
     @PreAuthorize("hasRole('ADMIN')")
@@ -46,16 +75,46 @@ public class AdminFileController {
             @RequestParam(defaultValue = "0") int offset,
             @RequestParam(defaultValue = "100") int limit,
             @RequestParam(defaultValue = "NAME_ASC") FileListSort sort,
+            @RequestParam(required = false) String cursor,
             @AuthenticationPrincipal AuthenticatedUserPrincipal user
     ) {
         var userId = authenticatedUserAccessor.requiredUserId(user);
 
         DirectoryListing result = listDirectoryUseCase.listDirectory(
-                new ListDirectoryQuery(path, userId, offset, limit, sort)
+                new ListDirectoryQuery(path, userId, offset, limit, sort, cursor)
         );
         return ResponseEntity.ok(fileMapper.toDTO(result));
     }
 
+    /**
+     * Streams directory entries as newline-delimited JSON ({@code FileNodeDTO} per line) while the directory
+     * is read, unsorted. Intended for folders too large to wait for a full listing.
+     * <p>
+     * Once streaming has started the status can no longer change, so a failure while reading ends the stream
+     * with a last line of the form {@code {"error": "..."}} after the entries read so far.
+     */
+    @GetMapping(value = "/list/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamFiles(
+            @RequestParam(required = false) String path,
+            @AuthenticationPrincipal AuthenticatedUserPrincipal user
+    ) {
+        var userId = authenticatedUserAccessor.requiredUserId(user);
+
+        // Opened before the response is committed so invalid paths still map to 4xx responses.
+        Stream<FileNode> entries = streamDirectoryUseCase.streamDirectory(path, userId);
+        StreamingResponseBody body = outputStream -> {
+            try (entries) {
+                writeNdjson(entries.iterator(), outputStream);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header("X-Accel-Buffering", "no")
+                .body(body);
+    }
+
     @PostMapping("/delete")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<DeleteFilesResponse> deleteFiles(
@@ -86,6 +145,61 @@ public class AdminFileController {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/copy")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> copyFile(
+            @RequestBody CopyFileRequest request,
+            @AuthenticationPrincipal AuthenticatedUserPrincipal user
+    ) {
+        var userId = authenticatedUserAccessor.requiredUserId(user);
+        copyFileUseCase.copyFile(request.sourcePath(), request.destinationPath(), userId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Lists deleted entries that are still in the trash, most recently deleted first.
+     */
+    @GetMapping("/trash")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<TrashedEntryDTO>> listTrash() {
+        return ResponseEntity.ok(trashUseCase.listTrash().stream().map(fileMapper::toDTO).toList());
+    }
+
+    @PostMapping("/trash/{id}/restore")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<TrashedEntryDTO> restoreFromTrash(
+            @PathVariable String id,
+            @AuthenticationPrincipal AuthenticatedUserPrincipal user
+    ) {
+        var userId = authenticatedUserAccessor.requiredUserId(user);
+        return ResponseEntity.ok(fileMapper.toDTO(trashUseCase.restore(id, userId)));
+    }
+
+    /**
+     * Deletes one entry of the trash permanently.
+     */
+    @DeleteMapping("/trash/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> purgeFromTrash(
+            @PathVariable String id,
+            @AuthenticationPrincipal AuthenticatedUserPrincipal user
+    ) {
+        var userId = authenticatedUserAccessor.requiredUserId(user);
+        trashUseCase.purge(id, userId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Empties the trash of every volume. Purging continues in the background; its outcome is audited.
+     */
+    @DeleteMapping("/trash")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> emptyTrash(@AuthenticationPrincipal AuthenticatedUserPrincipal user) {
+        var userId = authenticatedUserAccessor.requiredUserId(user);
+        trashUseCase.emptyTrash(userId);
+        return ResponseEntity.accepted().build();
+    }
+
     @PostMapping("/create-directory")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Void> createDirectory(
@@ -96,4 +210,24 @@ public class AdminFileController {
         createDirectoryUseCase.createDirectory(request.parentPath(), request.name(), userId);
         return ResponseEntity.noContent().build();
     }
+
+    private void writeNdjson(Iterator<FileNode> entries, OutputStream outputStream) throws IOException {
+        var out = new BufferedOutputStream(outputStream);
+        int written = 0;
+        try {
+            while (entries.hasNext()) {
+                out.write(objectMapper.writeValueAsBytes(fileMapper.toDTO(entries.next())));
+                out.write('\n');
+                if (++written % STREAM_FLUSH_INTERVAL == 0) {
+                    out.flush();
+                }
+            }
+        } catch (RuntimeException e) {
+            // The exception handlers would append a problem detail the client cannot tell apart from an entry.
+            log.error("Directory stream failed after {} entries", written, e);
+            out.write(objectMapper.writeValueAsBytes(Map.of("error", "Failed to read directory content")));
+            out.write('\n');
+        }
+        out.flush();
+    }
 }
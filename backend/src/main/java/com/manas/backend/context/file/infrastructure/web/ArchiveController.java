@@ -0,0 +1,90 @@
+package com.manas.backend.context.file.infrastructure.web;
+
+import com.manas.backend.common.security.ClientIpResolver;
+import com.manas.backend.context.auth.infrastructure.security.AuthenticatedUserAccessor;
+import com.manas.backend.context.auth.infrastructure.security.AuthenticatedUserPrincipal;
+import com.manas.backend.context.file.application.port.in.DownloadArchiveUseCase;
+import com.manas.backend.context.file.domain.ArchiveSource;
+import com.manas.backend.context.file.infrastructure.web.dto.ArchiveRequest;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Downloads folders and multi-selections as one ZIP archive, streamed while the tree is walked. The archive
+ * length is unknown up front, so responses are chunked and cannot be resumed with range requests.
+ * <p>
+ * The archive is written on the request thread rather than as a {@code StreamingResponseBody}: requests run
+ * on virtual threads, and an async response would be cut off by the async request timeout on large folders.
+ * <p>
+ * An archive exposes whole trees, so it is restricted to admins like the directory listing.
+ */
+@RestController
+@RequestMapping("/api/files/archive")
+@RequiredArgsConstructor
+public class ArchiveController {
+
+    private static final String APPLICATION_ZIP = "application/zip";
+
+    private final DownloadArchiveUseCase downloadArchiveUseCase;
+    private final ClientIpResolver clientIpResolver;
+    private final AuthenticatedUserAccessor authenticatedUserAccessor;
+
+    /**
+     * Link-friendly form for a folder or a short selection: {@code ?path=/a&path=/b}.
+     */
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public void downloadArchive(
+            @RequestParam("path") List<String> paths,
+            @AuthenticationPrincipal AuthenticatedUserPrincipal user,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        archive(paths, user, request, response);
+    }
+
+    /**
+     * Body form for selections too long for a query string.
+     */
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public void downloadArchive(
+            @RequestBody ArchiveRequest archiveRequest,
+            @AuthenticationPrincipal AuthenticatedUserPrincipal user,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        archive(archiveRequest.paths(), user, request, response);
+    }
+
+    private void archive(List<String> paths, AuthenticatedUserPrincipal user, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        var userId = authenticatedUserAccessor.requiredUserId(user);
+        String clientIp = clientIpResolver.resolve(request);
+
+        // Validated before the response is committed so invalid paths still map to 4xx responses.
+        ArchiveSource source = downloadArchiveUseCase.openArchive(paths, userId, clientIp);
+
+        response.setContentType(APPLICATION_ZIP);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(source.fileName(), StandardCharsets.UTF_8)
+                .build()
+                .toString());
+        response.setHeader("X-Accel-Buffering", "no");
+        source.writeTo(response.getOutputStream());
+    }
+}
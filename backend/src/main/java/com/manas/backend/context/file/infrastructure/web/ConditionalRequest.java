@@ -0,0 +1,62 @@
+package com.manas.backend.context.file.infrastructure.web;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import org.springframework.http.ETag;
+
+/**
+ * Evaluation of {@code If-None-Match} / {@code If-Modified-Since} (RFC 9110 section 13), done before the
+ * content is opened so cache hits cost a single stat.
+ */
+final class ConditionalRequest {
+
+    private ConditionalRequest() {
+    }
+
+    /**
+     * Whether a GET can be answered with 304. {@code If-Modified-Since} is only considered when the request
+     * carries no {@code If-None-Match}.
+     */
+    static boolean isNotModified(String ifNoneMatch, String ifModifiedSince, String entityTag, Instant lastModified) {
+        if (ifNoneMatch != null && !ifNoneMatch.isBlank()) {
+            return entityTag != null && anyMatches(ifNoneMatch, ETag.create(entityTag), false);
+        }
+
+        Instant since = parseHttpDate(ifModifiedSince);
+        return since != null && lastModified != null
+                && !lastModified.truncatedTo(ChronoUnit.SECONDS).isAfter(since);
+    }
+
+    /**
+     * Strong comparison as required by {@code If-Range}.
+     */
+    static boolean strongMatch(String candidate, String entityTag) {
+        return entityTag != null && anyMatches(candidate, ETag.create(entityTag), true);
+    }
+
+    /**
+     * Parses an IMF-fixdate, returning null when absent or malformed.
+     */
+    static Instant parseHttpDate(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return ZonedDateTime.parse(value.strip(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static boolean anyMatches(String header, ETag current, boolean strong) {
+        for (ETag candidate : ETag.parse(header)) {
+            if (candidate.isWildcard() || candidate.compare(current, strong)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
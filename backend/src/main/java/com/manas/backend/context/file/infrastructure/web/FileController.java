@@ -1,5 +1,6 @@
 package com.manas.backend.context.file.infrastructure.web;
 
+import com.manas.backend.common.exception.ResourceNotFoundException;
 import com.manas.backend.common.security.ClientIpResolver;
 import com.manas.backend.context.auth.infrastructure.security.AuthenticatedUserAccessor;
 import com.manas.backend.context.auth.infrastructure.security.AuthenticatedUserPrincipal;
@@ -8,11 +9,27 @@ import com.manas.backend.context.file.application.port.in.FileUploadCommand;
 import com.manas.backend.context.file.application.port.in.FileUploadUseCase;
 import com.manas.backend.context.file.application.port.in.GetFilePreviewUseCase;
 import com.manas.backend.context.file.application.port.in.GetUploadStatusUseCase;
+import com.manas.backend.context.file.application.port.in.InstantUploadChallenge;
+import com.manas.backend.context.file.application.port.in.InstantUploadCommand;
+import com.manas.backend.context.file.application.port.in.SearchFilesQuery;
+import com.manas.backend.context.file.application.port.in.SearchFilesUseCase;
 import com.manas.backend.context.file.application.port.in.UploadStatusResult;
+import com.manas.backend.context.file.domain.ByteRange;
 import com.manas.backend.context.file.domain.FileContent;
+import com.manas.backend.context.file.domain.FileMetadata;
+import com.manas.backend.context.file.domain.FileSearchResult;
+import com.manas.backend.context.file.domain.StoredFile;
+import com.manas.backend.context.file.infrastructure.web.dto.FileSearchHitDTO;
+import com.manas.backend.context.file.infrastructure.web.dto.FileSearchResultDTO;
+import com.manas.backend.context.file.infrastructure.web.dto.InstantUploadChallengeResponse;
 import com.manas.backend.context.file.infrastructure.web.dto.UploadStatusResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.InputStreamResource;
@@ -22,9 +39,11 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -39,6 +58,7 @@ public class FileController {
     private final DownloadFileUseCase downloadFileUseCase;
     private final GetFilePreviewUseCase getFilePreviewUseCase;
     private final GetUploadStatusUseCase getUploadStatusUseCase;
+    private final SearchFilesUseCase searchFilesUseCase;
     private final ClientIpResolver clientIpResolver;
     private final AuthenticatedUserAccessor authenticatedUserAccessor;
 
@@ -61,9 +81,86 @@ public class FileController {
                 checksumSha256
         );
 
-        fileUploadUseCase.upload(command);
+        return created(fileUploadUseCase.upload(command));
+    }
+
+    /**
+     * Streams the raw request body straight into the destination file. Unlike the multipart endpoint, the
+     * upload is not spooled to the container's temp directory first and the multipart size limit does not
+     * apply. Validation and the disk-space check run before the body is read, so a client sending
+     * {@code Expect: 100-continue} is rejected without transmitting it.
+     */
+    @PostMapping(value = "/upload", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<Void> uploadFileStream(
+            @RequestParam("fileName") String fileName,
+            @RequestParam(value = "directory", defaultValue = "/") String directory,
+            @RequestParam(value = "checksumSha256", required = false) String checksumSha256,
+            @AuthenticationPrincipal AuthenticatedUserPrincipal user,
+            HttpServletRequest request
+    ) throws IOException {
+
+        var userId = authenticatedUserAccessor.requiredUserId(user);
+
+        long size = request.getContentLengthLong();
+        if (size < 0) {
+            throw new IllegalArgumentException("Content-Length is required for streaming uploads");
+        }
 
-        return ResponseEntity.status(HttpStatus.CREATED).build();
+        FileUploadCommand command = new FileUploadCommand(
+                request.getInputStream(),
+                fileName,
+                directory,
+                size,
+                userId,
+                checksumSha256
+        );
+
+        return created(fileUploadUseCase.upload(command));
+    }
+
+    /**
+     * Names the byte range and nonce whose SHA-256 proves that the client has the content it wants to store
+     * instantly.
+     * Answers the same way whether or not the content is stored.
+     */
+    @PostMapping("/upload/instant/challenge")
+    public ResponseEntity<InstantUploadChallengeResponse> challengeExisting(
+            @RequestParam("size") long size,
+            @RequestParam("checksumSha256") String checksumSha256,
+            @AuthenticationPrincipal AuthenticatedUserPrincipal user
+    ) {
+        var userId = authenticatedUserAccessor.requiredUserId(user);
+
+        InstantUploadChallenge challenge = fileUploadUseCase.challengeExisting(checksumSha256, size, userId);
+
+        return ResponseEntity.ok(new InstantUploadChallengeResponse(
+                challenge.id(), challenge.nonce(), challenge.offset(), challenge.length()));
+    }
+
+    /**
+     * Stores a file from content the server already has, identified by its SHA-256, without any body. The
+     * checksum alone is not enough: {@code proofSha256} is the SHA-256 of the challenge nonce bytes followed by
+     * the range named by the challenge. Answers 404 when the content is not known or the proof does not match;
+     * the client then uploads the file normally.
+     */
+    @PostMapping("/upload/instant")
+    public ResponseEntity<Void> uploadExisting(
+            @RequestParam("fileName") String fileName,
+            @RequestParam(value = "directory", defaultValue = "/") String directory,
+            @RequestParam("size") long size,
+            @RequestParam("checksumSha256") String checksumSha256,
+            @RequestParam("challengeId") String challengeId,
+            @RequestParam("proofSha256") String proofSha256,
+            @AuthenticationPrincipal AuthenticatedUserPrincipal user
+    ) {
+        var userId = authenticatedUserAccessor.requiredUserId(user);
+
+        InstantUploadCommand command = new InstantUploadCommand(fileName, directory, size, userId, checksumSha256,
+                challengeId, proofSha256);
+
+        return fileUploadUseCase.uploadExisting(command)
+                .map(FileController::created)
+                .orElseThrow(() -> new ResourceNotFoundException("No stored content matches the checksum"));
     }
 
     @GetMapping("/upload/status")
@@ -74,47 +171,194 @@ public class FileController {
         return ResponseEntity.ok(new UploadStatusResponse(result.exists(), result.size()));
     }
 
+    /**
+     * Searches the whole storage tree, so it is restricted like the directory listing it short-cuts.
+     */
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<FileSearchResultDTO> searchFiles(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "50") int limit,
+            @AuthenticationPrincipal AuthenticatedUserPrincipal user
+    ) {
+        var userId = authenticatedUserAccessor.requiredUserId(user);
+
+        FileSearchResult result = searchFilesUseCase.search(new SearchFilesQuery(query, userId, offset, limit));
+
+        return ResponseEntity.ok(new FileSearchResultDTO(
+                result.query(),
+                result.items().stream()
+                        .map(hit -> new FileSearchHitDTO(
+                                hit.name(), hit.path(), hit.isDirectory() ? "DIRECTORY" : "FILE"))
+                        .toList(),
+                result.totalCount(),
+                result.offset(),
+                result.limit(),
+                result.indexing()
+        ));
+    }
+
     @GetMapping("/download")
     public ResponseEntity<Resource> downloadFile(
             @RequestParam("path") String path,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.IF_MODIFIED_SINCE, required = false) String ifModifiedSince,
             @AuthenticationPrincipal AuthenticatedUserPrincipal user,
             HttpServletRequest request
     ) {
         var userId = authenticatedUserAccessor.requiredUserId(user);
 
+        // Validators come from a stat; a cache hit neither opens the file nor writes an audit entry.
+        FileMetadata metadata = downloadFileUseCase.getMetadata(path, userId);
+        if (ConditionalRequest.isNotModified(
+                ifNoneMatch, ifModifiedSince, metadata.entityTag(), metadata.lastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(metadata.entityTag())
+                    .lastModified(metadata.lastModified())
+                    .build();
+        }
+
         String clientIp = clientIpResolver.resolve(request);
 
-        FileContent content = downloadFileUseCase.download(path, userId, clientIp);
+        if (range == null) {
+            return fullDownload(downloadFileUseCase.download(path, userId, clientIp), metadata, request);
+        }
 
-        InputStreamResource resource = new InputStreamResource(content.inputStream());
+        RangeRequest rangeRequest = RangeRequest.resolve(range, ifRange, metadata);
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=\"" + content.fileName() + "\"")
-                .header(HttpHeaders.CONTENT_TYPE, content.contentType())
-                .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(content.size()))
-                .body(resource);
+        return switch (rangeRequest.kind()) {
+            case FULL -> fullDownload(downloadFileUseCase.download(path, userId, clientIp), metadata, request);
+            case UNSATISFIABLE -> ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + metadata.size())
+                    .build();
+            case PARTIAL -> rangeRequest.ranges().size() == 1
+                    ? singleRangeDownload(
+                            path, userId, clientIp, rangeRequest.ranges().getFirst(), metadata, request)
+                    : multiRangeDownload(path, userId, clientIp, rangeRequest.ranges(), metadata);
+        };
     }
 
     @GetMapping("/preview")
     public ResponseEntity<Resource> getPreview(
             @RequestParam("path") String path,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.IF_MODIFIED_SINCE, required = false) String ifModifiedSince,
             @AuthenticationPrincipal AuthenticatedUserPrincipal user
     ) {
         var userId = authenticatedUserAccessor.requiredUserId(user);
 
-        FileContent content = getFilePreviewUseCase.getPreview(path, userId);
-
-        InputStreamResource resource = new InputStreamResource(content.inputStream());
-
         // Cache previews for 1 hour in browser
         CacheControl cacheControl = CacheControl.maxAge(1, TimeUnit.HOURS).cachePublic();
 
+        FileMetadata source = getFilePreviewUseCase.getSourceMetadata(path, userId);
+        String previewTag = previewEntityTag(source.entityTag());
+        if (ConditionalRequest.isNotModified(ifNoneMatch, ifModifiedSince, previewTag, source.lastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(cacheControl)
+                    .eTag(previewTag)
+                    .lastModified(source.lastModified())
+                    .build();
+        }
+
+        FileContent content = getFilePreviewUseCase.getPreview(path, userId, source);
+
+        InputStreamResource resource = new InputStreamResource(content.inputStream());
+
         return ResponseEntity.ok()
                 .cacheControl(cacheControl)
+                .eTag(previewTag)
+                .lastModified(source.lastModified())
                 .contentType(MediaType.parseMediaType(content.contentType()))
                 .body(resource);
     }
 
-}
+    /**
+     * Adds the RFC 9530 representation digest of the stored bytes, so clients can verify without downloading.
+     */
+    private static ResponseEntity<Void> created(StoredFile stored) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header("Repr-Digest", "sha-256=:" + Base64.getEncoder()
+                        .encodeToString(HexFormat.of().parseHex(stored.sha256())) + ":")
+                .build();
+    }
+
+    /**
+     * Previews are derived from the source, so they get a weak tag of the source version: equivalent, not
+     * byte-identical across regenerations.
+     */
+    private static String previewEntityTag(String sourceTag) {
+        if (sourceTag == null) {
+            return null;
+        }
+        String opaque = sourceTag.startsWith("W/") ? sourceTag.substring(2) : sourceTag;
+        return "W/\"" + opaque.replace("\"", "") + "-preview\"";
+    }
 
+    private ResponseEntity<Resource> fullDownload(
+            FileContent content, FileMetadata metadata, HttpServletRequest request) {
+        var response = ResponseEntity.ok()
+                .eTag(metadata.entityTag())
+                .lastModified(metadata.lastModified())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + content.fileName() + "\"")
+                .header(HttpHeaders.CONTENT_TYPE, content.contentType())
+                .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(content.size()))
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        return withBody(response, content, request);
+    }
+
+    private ResponseEntity<Resource> singleRangeDownload(
+            String path, UUID userId, String clientIp, ByteRange range, FileMetadata metadata,
+            HttpServletRequest request) {
+        FileContent content = downloadFileUseCase.downloadRange(
+                path, userId, clientIp, range, metadata.entityTag());
+
+        var response = ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                .eTag(metadata.entityTag())
+                .lastModified(metadata.lastModified())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + content.fileName() + "\"")
+                .header(HttpHeaders.CONTENT_TYPE, content.contentType())
+                .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(content.size()))
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_RANGE, "bytes " + range.offset() + "-"
+                        + (range.offset() + content.size() - 1) + "/" + metadata.size());
+
+        return withBody(response, content, request);
+    }
+
+    /**
+     * Lets the container send the file with sendfile when it can; otherwise streams it (through pooled direct
+     * buffers when the content is file backed).
+     */
+    private static ResponseEntity<Resource> withBody(
+            ResponseEntity.BodyBuilder response, FileContent content, HttpServletRequest request) {
+        if (SendfileTransfer.tryHandOff(request, content)) {
+            return response.build();
+        }
+        return response.body(new InputStreamResource(content.inputStream()));
+    }
+
+    private ResponseEntity<Resource> multiRangeDownload(
+            String path, UUID userId, String clientIp, List<ByteRange> ranges, FileMetadata metadata) {
+        var body = new MultipartByteRanges(ranges, metadata.contentType(), metadata.size());
+        InputStream stream = body.open(
+                range -> downloadFileUseCase.downloadRange(path, userId, clientIp, range, metadata.entityTag())
+                        .inputStream());
+
+        return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                .eTag(metadata.entityTag())
+                .lastModified(metadata.lastModified())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + metadata.fileName() + "\"")
+                .contentType(body.mediaType())
+                .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(body.contentLength()))
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .body(new InputStreamResource(stream));
+    }
+}
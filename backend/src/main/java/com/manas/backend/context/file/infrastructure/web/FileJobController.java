@@ -0,0 +1,118 @@
+package com.manas.backend.context.file.infrastructure.web;
+
+import com.manas.backend.context.auth.infrastructure.security.AuthenticatedUserAccessor;
+import com.manas.backend.context.auth.infrastructure.security.AuthenticatedUserPrincipal;
+import com.manas.backend.context.file.application.port.in.FileJobUseCase;
+import com.manas.backend.context.file.application.port.in.SubmitFileJobCommand;
+import com.manas.backend.context.file.domain.FileJob;
+import com.manas.backend.context.file.infrastructure.web.dto.FileJobDTO;
+import com.manas.backend.context.file.infrastructure.web.dto.FileJobItemDTO;
+import com.manas.backend.context.file.infrastructure.web.dto.SubmitFileJobRequest;
+import com.manas.backend.context.file.infrastructure.web.mapper.FileMapper;
+import java.net.URI;
+import java.util.List;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Background file operations: submit a job, follow its progress as Server-Sent Events, cancel it.
+ */
+@RestController
+@RequestMapping("/api/admin/files/jobs")
+@RequiredArgsConstructor
+public class FileJobController {
+
+    private final FileJobUseCase fileJobUseCase;
+    private final FileJobEventStream fileJobEventStream;
+    private final FileMapper fileMapper;
+    private final AuthenticatedUserAccessor authenticatedUserAccessor;
+
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<FileJobDTO> submitJob(
+            @RequestBody SubmitFileJobRequest request,
+            @AuthenticationPrincipal AuthenticatedUserPrincipal user
+    ) {
+        var userId = authenticatedUserAccessor.requiredUserId(user);
+
+        FileJob job = fileJobUseCase.submit(new SubmitFileJobCommand(
+                request.type(),
+                request.sourcePaths(),
+                request.destination(),
+                userId
+        ));
+
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/admin/files/jobs/" + job.id()))
+                .body(fileMapper.toDTO(job));
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<FileJobDTO>> listJobs(@AuthenticationPrincipal AuthenticatedUserPrincipal user) {
+        var userId = authenticatedUserAccessor.requiredUserId(user);
+        return ResponseEntity.ok(fileJobUseCase.listJobs(userId).stream().map(fileMapper::toDTO).toList());
+    }
+
+    @GetMapping("/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<FileJobDTO> getJob(
+            @PathVariable UUID jobId,
+            @AuthenticationPrincipal AuthenticatedUserPrincipal user
+    ) {
+        var userId = authenticatedUserAccessor.requiredUserId(user);
+        return ResponseEntity.ok(fileMapper.toDTO(fileJobUseCase.getJob(jobId, userId)));
+    }
+
+    @GetMapping("/{jobId}/items")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<FileJobItemDTO>> getItems(
+            @PathVariable UUID jobId,
+            @AuthenticationPrincipal AuthenticatedUserPrincipal user
+    ) {
+        var userId = authenticatedUserAccessor.requiredUserId(user);
+        return ResponseEntity.ok(fileJobUseCase.getItems(jobId, userId).stream().map(fileMapper::toDTO).toList());
+    }
+
+    /**
+     * Progress stream. The first event is the current state, the last one the final state. Reconnecting clients
+     * simply receive the current state again.
+     */
+    @GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<SseEmitter> streamJob(
+            @PathVariable UUID jobId,
+            @AuthenticationPrincipal AuthenticatedUserPrincipal user
+    ) {
+        var userId = authenticatedUserAccessor.requiredUserId(user);
+
+        // Checked before the stream starts so unknown jobs still get a 404.
+        fileJobUseCase.getJob(jobId, userId);
+        SseEmitter emitter = fileJobEventStream.subscribe(jobId, () -> fileJobUseCase.getJob(jobId, userId));
+
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
+
+    @PostMapping("/{jobId}/cancel")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<FileJobDTO> cancelJob(
+            @PathVariable UUID jobId,
+            @AuthenticationPrincipal AuthenticatedUserPrincipal user
+    ) {
+        var userId = authenticatedUserAccessor.requiredUserId(user);
+        return ResponseEntity.ok(fileMapper.toDTO(fileJobUseCase.cancel(jobId, userId)));
+    }
+}
@@ -0,0 +1,118 @@
+package com.manas.backend.context.file.infrastructure.web;
+
+import com.manas.backend.context.file.domain.FileJob;
+import com.manas.backend.context.file.domain.event.FileJobUpdatedEvent;
+import com.manas.backend.context.file.infrastructure.web.mapper.FileMapper;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-Sent Events subscribers of job progress. Every update is sent as a {@code progress} event carrying the
+ * whole job, so a client needs no history; the stream completes once the job is finished. Comment lines are sent
+ * in between, so proxies that close idle connections (nginx after 60 seconds by default) keep the stream open
+ * while a job makes no progress.
+ */
+@Slf4j
+@Component
+public class FileJobEventStream {
+
+    static final String PROGRESS_EVENT = "progress";
+    static final String HEARTBEAT_COMMENT = "keepalive";
+
+    private final FileMapper fileMapper;
+    private final long timeoutMillis;
+    private final Map<UUID, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    public FileJobEventStream(
+            FileMapper fileMapper,
+            @Value("${app.jobs.sse-timeout:PT30M}") Duration timeout
+    ) {
+        this.fileMapper = fileMapper;
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    /**
+     * Registers a subscriber and sends it the current state. The snapshot is read after registering, so no
+     * update between the two is lost.
+     */
+    SseEmitter subscribe(UUID jobId, Supplier<FileJob> snapshot) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        subscribers.computeIfAbsent(jobId, id -> ConcurrentHashMap.newKeySet()).add(emitter);
+        emitter.onCompletion(() -> unsubscribe(jobId, emitter));
+        emitter.onTimeout(() -> unsubscribe(jobId, emitter));
+        emitter.onError(e -> unsubscribe(jobId, emitter));
+
+        try {
+            send(jobId, emitter, snapshot.get());
+        } catch (RuntimeException e) {
+            unsubscribe(jobId, emitter);
+            throw e;
+        }
+        return emitter;
+    }
+
+    @EventListener
+    public void onJobUpdated(FileJobUpdatedEvent event) {
+        Set<SseEmitter> emitters = subscribers.get(event.job().id());
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            send(event.job().id(), emitter, event.job());
+        }
+    }
+
+    /**
+     * Sends a comment to every subscriber; EventSource clients ignore it.
+     */
+    @Scheduled(
+            fixedDelayString = "${app.jobs.sse-heartbeat-interval:PT20S}",
+            initialDelayString = "${app.jobs.sse-heartbeat-interval:PT20S}"
+    )
+    public void sendHeartbeats() {
+        subscribers.forEach((jobId, emitters) -> {
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment(HEARTBEAT_COMMENT));
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Dropping progress subscriber of job {}: {}", jobId, e.getMessage());
+                    unsubscribe(jobId, emitter);
+                }
+            }
+        });
+    }
+
+    private void send(UUID jobId, SseEmitter emitter, FileJob job) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name(PROGRESS_EVENT)
+                    .data(fileMapper.toDTO(job), MediaType.APPLICATION_JSON));
+            if (job.state().isFinished()) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the emitter already completed.
+            log.debug("Dropping progress subscriber of job {}: {}", jobId, e.getMessage());
+            unsubscribe(jobId, emitter);
+        }
+    }
+
+    private void unsubscribe(UUID jobId, SseEmitter emitter) {
+        subscribers.computeIfPresent(jobId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
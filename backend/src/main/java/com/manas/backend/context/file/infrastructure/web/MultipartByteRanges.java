@@ -0,0 +1,77 @@
+package com.manas.backend.context.file.infrastructure.web;
+
+import com.manas.backend.context.file.domain.ByteRange;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.function.Function;
+import org.springframework.http.MediaType;
+
+/**
+ * {@code multipart/byteranges} response body. Part headers are precomputed so the exact
+ * {@code Content-Length} is known; part contents are opened lazily, one at a time, while streaming.
+ */
+final class MultipartByteRanges {
+
+    private final String boundary = UUID.randomUUID().toString().replace("-", "");
+    private final List<ByteRange> ranges;
+    private final List<byte[]> partHeaders = new ArrayList<>();
+    private final byte[] closingDelimiter;
+
+    MultipartByteRanges(List<ByteRange> ranges, String contentType, long totalSize) {
+        this.ranges = List.copyOf(ranges);
+        for (int i = 0; i < ranges.size(); i++) {
+            ByteRange range = ranges.get(i);
+            String header = (i == 0 ? "" : "\r\n") + "--" + boundary + "\r\n"
+                    + "Content-Type: " + contentType + "\r\n"
+                    + "Content-Range: bytes " + range.offset() + "-" + range.lastPosition() + "/" + totalSize
+                    + "\r\n\r\n";
+            partHeaders.add(header.getBytes(StandardCharsets.US_ASCII));
+        }
+        this.closingDelimiter = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    MediaType mediaType() {
+        return MediaType.parseMediaType("multipart/byteranges; boundary=" + boundary);
+    }
+
+    long contentLength() {
+        long length = closingDelimiter.length;
+        for (int i = 0; i < ranges.size(); i++) {
+            length += partHeaders.get(i).length + ranges.get(i).length();
+        }
+        return length;
+    }
+
+    InputStream open(Function<ByteRange, InputStream> partOpener) {
+        return new SequenceInputStream(new Enumeration<>() {
+            private int next;
+
+            @Override
+            public boolean hasMoreElements() {
+                return next <= ranges.size() * 2;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                if (!hasMoreElements()) {
+                    throw new NoSuchElementException();
+                }
+                int element = next++;
+                if (element == ranges.size() * 2) {
+                    return new ByteArrayInputStream(closingDelimiter);
+                }
+                int part = element / 2;
+                return element % 2 == 0
+                        ? new ByteArrayInputStream(partHeaders.get(part))
+                        : partOpener.apply(ranges.get(part));
+            }
+        });
+    }
+}
@@ -0,0 +1,106 @@
+package com.manas.backend.context.file.infrastructure.web;
+
+import com.manas.backend.context.file.domain.ByteRange;
+import com.manas.backend.context.file.domain.FileMetadata;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.springframework.http.HttpRange;
+
+/**
+ * Interpretation of the {@code Range} and {@code If-Range} headers of a download against the current file
+ * (RFC 9110 section 14).
+ */
+record RangeRequest(Kind kind, List<ByteRange> ranges) {
+
+    enum Kind {
+        /** Serve the whole file with 200. */
+        FULL,
+        /** Serve the ranges with 206. */
+        PARTIAL,
+        /** None of the ranges overlaps the file: 416. */
+        UNSATISFIABLE
+    }
+
+    /**
+     * Requests with more ranges are answered with the full file instead, which RFC 9110 permits and which
+     * avoids turning one request into many tiny reads.
+     */
+    static final int MAX_RANGES = 16;
+
+    private static final RangeRequest FULL_CONTENT = new RangeRequest(Kind.FULL, List.of());
+    private static final RangeRequest NOT_SATISFIABLE = new RangeRequest(Kind.UNSATISFIABLE, List.of());
+
+    static RangeRequest resolve(String rangeHeader, String ifRange, FileMetadata metadata) {
+        if (rangeHeader == null || rangeHeader.isBlank() || !ifRangeMatches(ifRange, metadata)) {
+            return FULL_CONTENT;
+        }
+
+        List<HttpRange> httpRanges;
+        try {
+            httpRanges = HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            // A malformed Range header is ignored.
+            return FULL_CONTENT;
+        }
+        if (httpRanges.isEmpty() || httpRanges.size() > MAX_RANGES) {
+            return FULL_CONTENT;
+        }
+
+        long size = metadata.size();
+        List<ByteRange> satisfiable = new ArrayList<>();
+        for (HttpRange httpRange : httpRanges) {
+            try {
+                long start = httpRange.getRangeStart(size);
+                long end = httpRange.getRangeEnd(size);
+                if (start <= end) {
+                    satisfiable.add(new ByteRange(start, end - start + 1));
+                }
+            } catch (IllegalArgumentException e) {
+                // Range starts beyond the end of the file; other ranges may still be satisfiable.
+            }
+        }
+
+        return satisfiable.isEmpty() ? NOT_SATISFIABLE : new RangeRequest(Kind.PARTIAL, coalesce(satisfiable));
+    }
+
+    /**
+     * {@code If-Range} carries either an entity tag, which must match strongly, or a date, which must match
+     * the modification time exactly.
+     */
+    private static boolean ifRangeMatches(String ifRange, FileMetadata metadata) {
+        if (ifRange == null || ifRange.isBlank()) {
+            return true;
+        }
+        String value = ifRange.strip();
+        if (value.startsWith("\"") || value.startsWith("W/")) {
+            return ConditionalRequest.strongMatch(value, metadata.entityTag());
+        }
+        Instant date = ConditionalRequest.parseHttpDate(value);
+        return date != null && date.equals(metadata.lastModified().truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    /**
+     * Sorts the ranges and merges overlapping or adjacent ones.
+     */
+    private static List<ByteRange> coalesce(List<ByteRange> ranges) {
+        List<ByteRange> sorted = new ArrayList<>(ranges);
+        sorted.sort(Comparator.comparingLong(ByteRange::offset));
+
+        List<ByteRange> merged = new ArrayList<>();
+        ByteRange current = sorted.getFirst();
+        for (ByteRange next : sorted.subList(1, sorted.size())) {
+            if (next.offset() <= current.lastPosition() + 1) {
+                long end = Math.max(current.lastPosition(), next.lastPosition());
+                current = new ByteRange(current.offset(), end - current.offset() + 1);
+            } else {
+                merged.add(current);
+                current = next;
+            }
+        }
+        merged.add(current);
+        return List.copyOf(merged);
+    }
+}
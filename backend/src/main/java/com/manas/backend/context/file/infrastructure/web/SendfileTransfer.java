@@ -0,0 +1,57 @@
+package com.manas.backend.context.file.infrastructure.web;
+
+import com.manas.backend.context.file.domain.FileContent;
+import com.manas.backend.context.file.domain.FileRegion;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hands a file region to the servlet container for a sendfile transfer, using Tomcat's request attributes.
+ * <p>
+ * The container only advertises support on connectors that can do it (e.g. plain NIO, not TLS); everywhere
+ * else the body is streamed as before.
+ */
+@Slf4j
+final class SendfileTransfer {
+
+    static final String SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    static final String FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    static final String START_ATTR = "org.apache.tomcat.sendfile.start";
+    static final String END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * Below this size the setup cost outweighs the saved copies; same threshold as Tomcat's DefaultServlet.
+     */
+    static final long MIN_SIZE = 48 * 1024;
+
+    private SendfileTransfer() {
+    }
+
+    /**
+     * Registers the content's file region with the container and closes the content stream.
+     *
+     * @return true if the container will write the body; the response must then carry no body.
+     */
+    static boolean tryHandOff(HttpServletRequest request, FileContent content) {
+        InputStream body = content.inputStream();
+        if (!(body instanceof FileRegion region)
+                || region.remaining() < MIN_SIZE
+                || !Boolean.TRUE.equals(request.getAttribute(SUPPORT_ATTR))) {
+            return false;
+        }
+
+        request.setAttribute(FILENAME_ATTR, region.file().toString());
+        request.setAttribute(START_ATTR, region.position());
+        request.setAttribute(END_ATTR, region.position() + region.remaining());
+
+        // The container reopens the file by name.
+        try {
+            body.close();
+        } catch (IOException e) {
+            log.debug("Failed to close content stream of {}", region.file(), e);
+        }
+        return true;
+    }
+}
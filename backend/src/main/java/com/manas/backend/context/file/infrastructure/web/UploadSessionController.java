@@ -0,0 +1,132 @@
+package com.manas.backend.context.file.infrastructure.web;
+
+import com.manas.backend.context.auth.infrastructure.security.AuthenticatedUserAccessor;
+import com.manas.backend.context.auth.infrastructure.security.AuthenticatedUserPrincipal;
+import com.manas.backend.context.file.application.port.in.CreateUploadSessionCommand;
+import com.manas.backend.context.file.application.port.in.UploadChunkCommand;
+import com.manas.backend.context.file.application.port.in.UploadSessionUseCase;
+import com.manas.backend.context.file.domain.UploadSession;
+import com.manas.backend.context.file.infrastructure.web.dto.CreateUploadSessionRequest;
+import com.manas.backend.context.file.infrastructure.web.dto.UploadSessionResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.net.URI;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Resumable uploads: create a session, PUT raw chunks at the committed offset, then complete. Chunks are
+ * request bodies rather than multipart parts, so they are not subject to the multipart size limit and are
+ * streamed straight to the partial file.
+ */
+@RestController
+@RequestMapping("/api/files/uploads")
+@RequiredArgsConstructor
+public class UploadSessionController {
+
+    /**
+     * Committed offset, also sent on chunk responses so clients need no extra round trip to continue.
+     */
+    static final String UPLOAD_OFFSET_HEADER = "Upload-Offset";
+
+    private final UploadSessionUseCase uploadSessionUseCase;
+    private final AuthenticatedUserAccessor authenticatedUserAccessor;
+
+    @PostMapping
+    public ResponseEntity<UploadSessionResponse> createSession(
+            @RequestBody CreateUploadSessionRequest request,
+            @AuthenticationPrincipal AuthenticatedUserPrincipal user
+    ) {
+        var userId = authenticatedUserAccessor.requiredUserId(user);
+
+        UploadSession session = uploadSessionUseCase.create(new CreateUploadSessionCommand(
+                request.fileName(),
+                request.directory() == null ? "/" : request.directory(),
+                request.size(),
+                userId,
+                request.checksumSha256()
+        ));
+
+        return ResponseEntity.created(URI.create("/api/files/uploads/" + session.id()))
+                .header(UPLOAD_OFFSET_HEADER, String.valueOf(session.committedOffset()))
+                .body(toResponse(session));
+    }
+
+    @GetMapping("/{sessionId}")
+    public ResponseEntity<UploadSessionResponse> getSession(
+            @PathVariable UUID sessionId,
+            @AuthenticationPrincipal AuthenticatedUserPrincipal user
+    ) {
+        var userId = authenticatedUserAccessor.requiredUserId(user);
+
+        UploadSession session = uploadSessionUseCase.getSession(sessionId, userId);
+
+        return ResponseEntity.ok()
+                .header(UPLOAD_OFFSET_HEADER, String.valueOf(session.committedOffset()))
+                .body(toResponse(session));
+    }
+
+    @PutMapping(value = "/{sessionId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<UploadSessionResponse> uploadChunk(
+            @PathVariable UUID sessionId,
+            @RequestParam("offset") long offset,
+            @AuthenticationPrincipal AuthenticatedUserPrincipal user,
+            HttpServletRequest request
+    ) throws IOException {
+        var userId = authenticatedUserAccessor.requiredUserId(user);
+
+        UploadSession session = uploadSessionUseCase.appendChunk(
+                new UploadChunkCommand(sessionId, userId, offset, request.getInputStream()));
+
+        return ResponseEntity.ok()
+                .header(UPLOAD_OFFSET_HEADER, String.valueOf(session.committedOffset()))
+                .body(toResponse(session));
+    }
+
+    @PostMapping("/{sessionId}/complete")
+    public ResponseEntity<Void> completeSession(
+            @PathVariable UUID sessionId,
+            @AuthenticationPrincipal AuthenticatedUserPrincipal user
+    ) {
+        var userId = authenticatedUserAccessor.requiredUserId(user);
+
+        uploadSessionUseCase.complete(sessionId, userId);
+
+        return ResponseEntity.status(HttpStatus.CREATED).build();
+    }
+
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<Void> abortSession(
+            @PathVariable UUID sessionId,
+            @AuthenticationPrincipal AuthenticatedUserPrincipal user
+    ) {
+        var userId = authenticatedUserAccessor.requiredUserId(user);
+
+        uploadSessionUseCase.abort(sessionId, userId);
+
+        return ResponseEntity.noContent().build();
+    }
+
+    private static UploadSessionResponse toResponse(UploadSession session) {
+        return new UploadSessionResponse(
+                session.id(),
+                session.targetPath(),
+                session.totalSize(),
+                session.committedOffset(),
+                session.expiresAt()
+        );
+    }
+}
@@ -0,0 +1,7 @@
+package com.manas.backend.context.file.infrastructure.web.dto;
+
+import java.util.List;
+
+public record ArchiveRequest(List<String> paths) {
+
+}
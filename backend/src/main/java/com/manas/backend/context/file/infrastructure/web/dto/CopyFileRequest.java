@@ -0,0 +1,5 @@
+package com.manas.backend.context.file.infrastructure.web.dto;
+
+public record CopyFileRequest(String sourcePath, String destinationPath) {
+
+}
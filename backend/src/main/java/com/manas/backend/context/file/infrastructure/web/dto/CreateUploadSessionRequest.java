@@ -0,0 +1,10 @@
+package com.manas.backend.context.file.infrastructure.web.dto;
+
+public record CreateUploadSessionRequest(
+        String fileName,
+        String directory,
+        long size,
+        String checksumSha256
+) {
+
+}
@@ -8,5 +8,6 @@ public record DirectoryListingDTO(
     List<FileNodeDTO> items,
     int totalCount,
     int offset,
-    int limit
+    int limit,
+    String nextCursor
 ) {}
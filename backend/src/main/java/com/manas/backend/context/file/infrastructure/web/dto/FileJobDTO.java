@@ -0,0 +1,25 @@
+package com.manas.backend.context.file.infrastructure.web.dto;
+
+import com.manas.backend.context.file.domain.FileJobState;
+import com.manas.backend.context.file.domain.FileJobType;
+import java.time.Instant;
+import java.util.UUID;
+
+public record FileJobDTO(
+        UUID id,
+        FileJobType type,
+        FileJobState state,
+        String destination,
+        int totalItems,
+        int completedItems,
+        int failedItems,
+        String currentPath,
+        long currentBytesDone,
+        long currentBytesTotal,
+        String message,
+        Instant createdAt,
+        Instant updatedAt,
+        Instant finishedAt
+) {
+
+}
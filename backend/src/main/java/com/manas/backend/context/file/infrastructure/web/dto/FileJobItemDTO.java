@@ -0,0 +1,11 @@
+package com.manas.backend.context.file.infrastructure.web.dto;
+
+import com.manas.backend.context.file.domain.FileJobItem;
+
+public record FileJobItemDTO(
+        String sourcePath,
+        FileJobItem.State state,
+        String message
+) {
+
+}
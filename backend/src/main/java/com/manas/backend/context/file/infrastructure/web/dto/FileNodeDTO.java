@@ -8,5 +8,8 @@ public record FileNodeDTO(
     String type, // "FILE" or "DIRECTORY"
     long size,
     Instant lastModified,
-    String owner
+    String owner,
+    Long recursiveSize,
+    Long childCount,
+    String contentType
 ) {}
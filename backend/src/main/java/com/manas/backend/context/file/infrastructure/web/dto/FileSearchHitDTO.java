@@ -0,0 +1,7 @@
+package com.manas.backend.context.file.infrastructure.web.dto;
+
+public record FileSearchHitDTO(
+    String name,
+    String path,
+    String type // "FILE" or "DIRECTORY"
+) {}
@@ -0,0 +1,12 @@
+package com.manas.backend.context.file.infrastructure.web.dto;
+
+import java.util.List;
+
+public record FileSearchResultDTO(
+    String query,
+    List<FileSearchHitDTO> items,
+    int totalCount,
+    int offset,
+    int limit,
+    boolean indexing
+) {}
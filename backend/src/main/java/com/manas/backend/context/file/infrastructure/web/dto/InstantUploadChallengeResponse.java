@@ -0,0 +1,9 @@
+package com.manas.backend.context.file.infrastructure.web.dto;
+
+public record InstantUploadChallengeResponse(
+        String challengeId,
+        String nonce,
+        long offset,
+        long length
+) {
+}
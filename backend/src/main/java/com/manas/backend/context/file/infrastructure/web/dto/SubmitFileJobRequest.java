@@ -0,0 +1,12 @@
+package com.manas.backend.context.file.infrastructure.web.dto;
+
+import com.manas.backend.context.file.domain.FileJobType;
+import java.util.List;
+
+public record SubmitFileJobRequest(
+        FileJobType type,
+        List<String> sourcePaths,
+        String destination
+) {
+
+}
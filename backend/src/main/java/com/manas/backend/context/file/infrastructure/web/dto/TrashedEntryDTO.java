@@ -0,0 +1,20 @@
+package com.manas.backend.context.file.infrastructure.web.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * @param originalPath null if the record of the entry was lost; such entries cannot be restored.
+ * @param size         null if unknown.
+ */
+public record TrashedEntryDTO(
+        String id,
+        String volume,
+        String originalPath,
+        boolean directory,
+        Long size,
+        Instant deletedAt,
+        UUID deletedBy
+) {
+
+}
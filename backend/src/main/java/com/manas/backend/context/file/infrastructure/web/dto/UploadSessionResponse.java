@@ -0,0 +1,14 @@
+package com.manas.backend.context.file.infrastructure.web.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record UploadSessionResponse(
+        UUID id,
+        String path,
+        long size,
+        long offset,
+        Instant expiresAt
+) {
+
+}
@@ -1,11 +1,17 @@
 package com.manas.backend.context.file.infrastructure.web.mapper;
 
 import com.manas.backend.context.file.domain.DirectoryListing;
+import com.manas.backend.context.file.domain.FileJob;
+import com.manas.backend.context.file.domain.FileJobItem;
 import com.manas.backend.context.file.domain.FileNode;
 import com.manas.backend.context.file.domain.PathNode;
+import com.manas.backend.context.file.domain.TrashedEntry;
 import com.manas.backend.context.file.infrastructure.web.dto.DirectoryListingDTO;
+import com.manas.backend.context.file.infrastructure.web.dto.FileJobDTO;
+import com.manas.backend.context.file.infrastructure.web.dto.FileJobItemDTO;
 import com.manas.backend.context.file.infrastructure.web.dto.FileNodeDTO;
 import com.manas.backend.context.file.infrastructure.web.dto.PathNodeDTO;
+import com.manas.backend.context.file.infrastructure.web.dto.TrashedEntryDTO;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -18,4 +24,11 @@ public interface FileMapper {
 
     @Mapping(target = "type", expression = "java(domain.isDirectory() ? \"DIRECTORY\" : \"FILE\")")
     FileNodeDTO toDTO(FileNode domain);
+
+    FileJobDTO toDTO(FileJob domain);
+
+    FileJobItemDTO toDTO(FileJobItem domain);
+
+    @Mapping(target = "size", expression = "java(domain.size() < 0 ? null : domain.size())")
+    TrashedEntryDTO toDTO(TrashedEntry domain);
 }
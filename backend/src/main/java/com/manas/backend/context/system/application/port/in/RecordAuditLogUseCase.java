@@ -6,4 +6,13 @@ public interface RecordAuditLogUseCase {
 
     void record(UUID userId, String action, String targetResource, String ipAddress, String status);
 
+    /**
+     * As {@link #record(UUID, String, String, String, String)}, for batch actions whose target resource is only a
+     * summary.
+     *
+     * @param details Outcome of every path of the batch, one per line.
+     */
+    void record(UUID userId, String action, String targetResource, String ipAddress, String status,
+            String details);
+
 }
@@ -37,6 +37,13 @@ public class AuditLogService implements RecordAuditLogUseCase, GetAuditLogsUseCa
     @Async
     @Override
     public void record(UUID userId, String action, String targetResource, String ipAddress, String status) {
+        record(userId, action, targetResource, ipAddress, status, null);
+    }
+
+    @Async
+    @Override
+    public void record(UUID userId, String action, String targetResource, String ipAddress, String status,
+            String details) {
         String traceId = MDC.get(TraceConstants.TRACE_ID_MDC_KEY);
 
         AuditLog auditLog = AuditLog.create(
@@ -45,7 +52,8 @@ public class AuditLogService implements RecordAuditLogUseCase, GetAuditLogsUseCa
                 targetResource,
                 traceId != null ? traceId : "UNKNOWN",
                 ipAddress,
-                status
+                status,
+                details
         );
 
         try {
@@ -52,6 +52,9 @@ public class SystemMonitoringService implements GetSystemHealthUseCase {
         double previewHit = getCounterValue("app.preview.cache.hit");
         double previewMiss = getCounterValue("app.preview.cache.miss");
         double previewRatio = (previewHit + previewMiss) <= 0 ? 0.0 : (previewHit / (previewHit + previewMiss));
+        double listingHit = getCounterValue("app.listing.cache.hit");
+        double listingMiss = getCounterValue("app.listing.cache.miss");
+        double listingRatio = (listingHit + listingMiss) <= 0 ? 0.0 : (listingHit / (listingHit + listingMiss));
         double auditP95Ms = getAuditQueryP95Ms();
 
         SystemHealthDto computed = new SystemHealthDto(
@@ -63,6 +66,9 @@ public class SystemMonitoringService implements GetSystemHealthUseCase {
                 previewHit,
                 previewMiss,
                 previewRatio,
+                listingHit,
+                listingMiss,
+                listingRatio,
                 auditP95Ms
         );
 
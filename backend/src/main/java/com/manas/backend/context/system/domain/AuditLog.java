@@ -6,17 +6,24 @@ import java.util.UUID;
 public record AuditLog(
         Long id,
         UUID userId,
-        String action, // e.g., "LOGIN", "DELETE_FILE"
+        String action, // e.g., "LOGIN", "DELETE_FILES"
         String targetResource, // e.g., filename, username
         String traceId,
         String ipAddress,
         Instant timestamp,
-        String status // "SUCCESS", "FAILURE"
+        String status, // "SUCCESS", "FAILURE", "PARTIAL" (batch actions)
+        String details // batch actions: outcome per path, one per line; null otherwise
 ) {
 
     public static AuditLog create(UUID userId, String action, String targetResource, String traceId,
             String ipAddress, String status) {
-        return new AuditLog(null, userId, action, targetResource, traceId, ipAddress, Instant.now(), status);
+        return create(userId, action, targetResource, traceId, ipAddress, status, null);
+    }
+
+    public static AuditLog create(UUID userId, String action, String targetResource, String traceId,
+            String ipAddress, String status, String details) {
+        return new AuditLog(null, userId, action, targetResource, traceId, ipAddress, Instant.now(), status,
+                details);
     }
 
 }
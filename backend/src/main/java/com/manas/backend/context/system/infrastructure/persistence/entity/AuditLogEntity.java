@@ -42,6 +42,9 @@ public class AuditLogEntity {
     @Column(nullable = false)
     private String status;
 
+    @Column(columnDefinition = "TEXT")
+    private String details;
+
     public AuditLogEntity(UUID userId, String action, String targetResource, String traceId, String ipAddress,
             Instant timestamp, String status) {
         this.userId = userId;
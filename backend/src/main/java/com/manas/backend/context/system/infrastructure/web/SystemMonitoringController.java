@@ -50,7 +50,8 @@ public class SystemMonitoringController {
                 log.traceId(),
                 log.ipAddress(),
                 log.timestamp(),
-                log.status()
+                log.status(),
+                log.details()
         );
     }
 }
@@ -11,7 +11,8 @@ public record AuditLogDto(
         String traceId,
         String ipAddress,
         Instant timestamp,
-        String status
+        String status,
+        String details
 ) {
 
 }
@@ -9,6 +9,9 @@ public record SystemHealthDto(
         double previewCacheHit,
         double previewCacheMiss,
         double previewCacheHitRatio,
+        double listingCacheHit,
+        double listingCacheMiss,
+        double listingCacheHitRatio,
         double auditLogsQueryP95Ms
 ) {
 
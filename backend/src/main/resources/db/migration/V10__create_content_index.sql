@@ -0,0 +1,11 @@
+CREATE TABLE content_index
+(
+    sha256     VARCHAR(64) PRIMARY KEY,
+    path       VARCHAR(4096) NOT NULL,
+    size       BIGINT        NOT NULL,
+    entity_tag VARCHAR(128),
+    indexed_at TIMESTAMP     NOT NULL
+);
+
+-- Prefix lookups (path LIKE '/dir/%') for deletes and moves of whole directories.
+CREATE INDEX idx_content_index_path ON content_index (path text_pattern_ops);
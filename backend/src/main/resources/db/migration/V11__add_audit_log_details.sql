@@ -0,0 +1,2 @@
+-- Full outcome of batch actions, one line per path; target_resource only holds a summary.
+ALTER TABLE audit_logs ADD COLUMN details TEXT;
@@ -0,0 +1,13 @@
+CREATE TABLE upload_sessions
+(
+    id               UUID PRIMARY KEY,
+    user_id          UUID          NOT NULL,
+    target_path      VARCHAR(4096) NOT NULL UNIQUE,
+    total_size       BIGINT        NOT NULL,
+    committed_offset BIGINT        NOT NULL,
+    checksum_sha256  VARCHAR(64),
+    created_at       TIMESTAMP     NOT NULL,
+    expires_at       TIMESTAMP     NOT NULL
+);
+
+CREATE INDEX idx_upload_sessions_expires_at ON upload_sessions (expires_at);
@@ -0,0 +1,29 @@
+CREATE TABLE file_jobs
+(
+    id              UUID PRIMARY KEY,
+    user_id         UUID          NOT NULL,
+    type            VARCHAR(20)   NOT NULL,
+    state           VARCHAR(20)   NOT NULL,
+    destination     VARCHAR(4096),
+    total_items     INT           NOT NULL,
+    completed_items INT           NOT NULL,
+    failed_items    INT           NOT NULL,
+    current_path    VARCHAR(4096),
+    message         VARCHAR(1024),
+    created_at      TIMESTAMP     NOT NULL,
+    updated_at      TIMESTAMP     NOT NULL,
+    finished_at     TIMESTAMP
+);
+
+CREATE INDEX idx_file_jobs_user_id_created_at ON file_jobs (user_id, created_at DESC);
+CREATE INDEX idx_file_jobs_state ON file_jobs (state);
+
+CREATE TABLE file_job_items
+(
+    job_id      UUID          NOT NULL REFERENCES file_jobs (id) ON DELETE CASCADE,
+    position    INT           NOT NULL,
+    source_path VARCHAR(4096) NOT NULL,
+    state       VARCHAR(20)   NOT NULL,
+    message     VARCHAR(1024),
+    PRIMARY KEY (job_id, position)
+);
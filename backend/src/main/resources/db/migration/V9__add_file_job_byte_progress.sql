@@ -0,0 +1,3 @@
+ALTER TABLE file_jobs
+    ADD COLUMN current_bytes_done  BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN current_bytes_total BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,94 @@
+package com.manas.backend.context.file.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+
+import com.manas.backend.context.file.application.port.out.FileStoragePort;
+import com.manas.backend.context.file.application.port.out.SaveContentIndexPort;
+import com.manas.backend.context.file.domain.FileMetadata;
+import com.manas.backend.context.file.domain.IndexedContent;
+import com.manas.backend.context.file.domain.event.FileDeletedEvent;
+import com.manas.backend.context.file.domain.event.FileDeletionFailedEvent;
+import com.manas.backend.context.file.domain.event.FileMovedEvent;
+import com.manas.backend.context.file.domain.event.FileUploadedEvent;
+import java.time.Instant;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ContentIndexServiceTest {
+
+    private static final String SHA256 = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+    @Mock
+    private FileStoragePort fileStoragePort;
+
+    @Mock
+    private SaveContentIndexPort saveContentIndexPort;
+
+    @InjectMocks
+    private ContentIndexService service;
+
+    @Test
+    void onFileUploaded_ShouldRegisterNormalizedPathWithEntityTag() {
+        UUID userId = UUID.randomUUID();
+        given(fileStoragePort.getMetadata("/docs/a.txt", userId))
+                .willReturn(new FileMetadata("a.txt", "text/plain", 5, Instant.now(), "\"tag\""));
+
+        service.onFileUploaded(new FileUploadedEvent(userId, "docs//a.txt", 5, Instant.now(), SHA256));
+
+        then(saveContentIndexPort).should()
+                .registerIfAbsent(new IndexedContent(SHA256, "/docs/a.txt", 5, "\"tag\""));
+    }
+
+    @Test
+    void onFileUploaded_ShouldNotPropagateIndexFailures() {
+        UUID userId = UUID.randomUUID();
+        given(fileStoragePort.getMetadata("/docs/a.txt", userId))
+                .willReturn(new FileMetadata("a.txt", "text/plain", 5, Instant.now(), "\"tag\""));
+        willThrow(new IllegalStateException("database down"))
+                .given(saveContentIndexPort).registerIfAbsent(any());
+
+        service.onFileUploaded(new FileUploadedEvent(userId, "/docs/a.txt", 5, Instant.now(), SHA256));
+        service.onFileDeleted(new FileDeletedEvent(userId, "/docs/", Instant.now()));
+
+        then(saveContentIndexPort).should().deleteUnder("/docs");
+    }
+
+    @Test
+    void onFileUploaded_ShouldSkipUploadsWithoutChecksum() {
+        service.onFileUploaded(new FileUploadedEvent(UUID.randomUUID(), "/a.txt", 5, Instant.now(), null));
+
+        then(fileStoragePort).should(never()).getMetadata(any(), any());
+        then(saveContentIndexPort).should(never()).registerIfAbsent(any());
+    }
+
+    @Test
+    void onFileDeletionFailed_ShouldDropEntriesBelowThePath() {
+        service.onFileDeletionFailed(new FileDeletionFailedEvent(UUID.randomUUID(), "docs/old", Instant.now()));
+
+        then(saveContentIndexPort).should().deleteUnder("/docs/old");
+    }
+
+    @Test
+    void onFileMoved_ShouldMoveEntriesBelowTheSource() {
+        service.onFileMoved(new FileMovedEvent(UUID.randomUUID(), "/photos", "/archive/photos/", Instant.now()));
+
+        then(saveContentIndexPort).should().moveUnder("/photos", "/archive/photos");
+    }
+
+    @Test
+    void normalize_ShouldProduceRootedPathsWithoutTrailingSlash() {
+        assertThat(ContentIndexService.normalize("a/b/")).isEqualTo("/a/b");
+        assertThat(ContentIndexService.normalize("//a//b")).isEqualTo("/a/b");
+        assertThat(ContentIndexService.normalize("/")).isEqualTo("/");
+    }
+}
@@ -0,0 +1,71 @@
+package com.manas.backend.context.file.application.service;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.verify;
+
+import com.manas.backend.context.file.application.port.out.FileStoragePort;
+import com.manas.backend.context.file.domain.event.FileCopiedEvent;
+import com.manas.backend.context.system.application.port.in.RecordAuditLogUseCase;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+@ExtendWith(MockitoExtension.class)
+class CopyFileServiceTest {
+
+    @Mock
+    private FileStoragePort fileStoragePort;
+    @Mock
+    private RecordAuditLogUseCase recordAuditLogUseCase;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private CopyFileService copyFileService;
+
+    @Test
+    @DisplayName("Should copy file and record audit log on success")
+    void copyFile_Success() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        String src = "/src/file.txt";
+        String dest = "/dest/file.txt";
+
+        willDoNothing().given(fileStoragePort).copy(src, dest, userId);
+
+        // When
+        copyFileService.copyFile(src, dest, userId);
+
+        // Then
+        verify(fileStoragePort).copy(src, dest, userId);
+        verify(eventPublisher).publishEvent(any(FileCopiedEvent.class));
+        verify(recordAuditLogUseCase).record(userId, "COPY_FILE", src + " -> " + dest, "N/A", "SUCCESS");
+    }
+
+    @Test
+    @DisplayName("Should record failure audit log when copy fails")
+    void copyFile_Failure() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        String src = "/src/file.txt";
+        String dest = "/dest/file.txt";
+
+        willThrow(new RuntimeException("IO Error")).given(fileStoragePort).copy(src, dest, userId);
+
+        // When & Then
+        assertThatThrownBy(() -> copyFileService.copyFile(src, dest, userId))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("IO Error");
+
+        verify(recordAuditLogUseCase).record(userId, "COPY_FILE", src + " -> " + dest, "N/A", "FAILURE");
+    }
+
+}
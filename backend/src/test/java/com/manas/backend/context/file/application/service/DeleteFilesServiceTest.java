@@ -1,21 +1,31 @@
 package com.manas.backend.context.file.application.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import com.manas.backend.common.exception.FileOperationException;
+import com.manas.backend.common.exception.ResourceNotFoundException;
 import com.manas.backend.context.file.application.port.in.DeleteFilesResult;
 import com.manas.backend.context.file.application.port.out.FileStoragePort;
+import com.manas.backend.context.file.domain.event.FileDeletedEvent;
+import com.manas.backend.context.file.domain.event.FileDeletionFailedEvent;
 import com.manas.backend.context.system.application.port.in.RecordAuditLogUseCase;
 import java.util.List;
 import java.util.UUID;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 @ExtendWith(MockitoExtension.class)
 class DeleteFilesServiceTest {
@@ -24,12 +34,14 @@ class DeleteFilesServiceTest {
     private FileStoragePort fileStoragePort;
     @Mock
     private RecordAuditLogUseCase recordAuditLogUseCase;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private DeleteFilesService deleteFilesService;
 
     @Test
-    @DisplayName("Should delete files and record success audit log")
+    @DisplayName("Should delete files and record one success audit log for the request")
     void deleteFiles_Success() {
         UUID userId = UUID.randomUUID();
         String path1 = "/path/to/file1.txt";
@@ -45,10 +57,9 @@ class DeleteFilesServiceTest {
         assertThat(result.failed()).isEmpty();
 
         verify(fileStoragePort).delete(path1, userId);
-        verify(recordAuditLogUseCase).record(userId, "DELETE_FILE", path1, "N/A", "SUCCESS");
-
         verify(fileStoragePort).delete(path2, userId);
-        verify(recordAuditLogUseCase).record(userId, "DELETE_FILE", path2, "N/A", "SUCCESS");
+        verify(recordAuditLogUseCase).record(userId, "DELETE_FILES", path1 + " (+1 more)", "N/A", "SUCCESS",
+                "DELETED " + path1 + "\nDELETED " + path2);
     }
 
     @Test
@@ -70,9 +81,54 @@ class DeleteFilesServiceTest {
         assertThat(result.failed().getFirst().reason()).contains("IO Error");
 
         verify(fileStoragePort).delete(path1, userId);
-        verify(recordAuditLogUseCase).record(userId, "DELETE_FILE", path1, "N/A", "SUCCESS");
-
         verify(fileStoragePort).delete(path2, userId);
-        verify(recordAuditLogUseCase).record(userId, "DELETE_FILE", path2, "N/A", "FAILURE");
+        verify(recordAuditLogUseCase).record(userId, "DELETE_FILES", path1 + " (+1 more)", "N/A", "PARTIAL",
+                "DELETED " + path1 + "\nFAILED " + path2 + ": IO Error");
+    }
+
+    @Test
+    @DisplayName("Should publish deletions of removed roots and a failure event for a root removed part way")
+    void deleteFiles_PartialPublishesEvents() {
+        UUID userId = UUID.randomUUID();
+        List<String> paths = List.of("/done", "/half", "/missing");
+
+        willThrow(new FileOperationException("Failed to delete file: busy")).given(fileStoragePort)
+                .delete("/half", userId);
+        willThrow(new ResourceNotFoundException("Path does not exist")).given(fileStoragePort)
+                .delete("/missing", userId);
+
+        DeleteFilesResult result = deleteFilesService.deleteFiles(paths, userId);
+
+        assertThat(result.deleted()).containsExactly("/done");
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertThat(events.getAllValues().get(0)).isInstanceOfSatisfying(FileDeletedEvent.class,
+                event -> assertThat(event.filePath()).isEqualTo("/done"));
+        assertThat(events.getAllValues().get(1)).isInstanceOfSatisfying(FileDeletionFailedEvent.class,
+                event -> assertThat(event.filePath()).isEqualTo("/half"));
+    }
+
+    @Test
+    @DisplayName("Should delete paths inside a selected directory together with it")
+    void deleteFiles_NestedSelection() {
+        UUID userId = UUID.randomUUID();
+        List<String> paths = List.of("/cache/a/file.bin", "/cache", "/cache/a");
+
+        willThrow(new RuntimeException("Permission denied")).given(fileStoragePort).delete("/cache", userId);
+
+        DeleteFilesResult result = deleteFilesService.deleteFiles(paths, userId);
+
+        assertThat(result.deleted()).isEmpty();
+        assertThat(result.failed()).extracting(DeleteFilesResult.DeleteFailure::path)
+                .containsExactly("/cache/a/file.bin", "/cache", "/cache/a");
+        assertThat(result.failed()).allSatisfy(failure -> assertThat(failure.reason()).isEqualTo("Permission denied"));
+
+        verify(fileStoragePort, times(1)).delete(anyString(), any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+        verify(recordAuditLogUseCase).record(userId, "DELETE_FILES", "/cache/a/file.bin (+2 more)", "N/A",
+                "FAILURE", """
+                        FAILED /cache/a/file.bin: Permission denied
+                        FAILED /cache: Permission denied
+                        FAILED /cache/a: Permission denied""");
     }
 }
@@ -0,0 +1,99 @@
+package com.manas.backend.context.file.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.manas.backend.common.exception.ResourceNotFoundException;
+import com.manas.backend.context.file.application.port.out.FileStoragePort;
+import com.manas.backend.context.file.domain.ArchiveSource;
+import com.manas.backend.context.system.application.port.in.RecordAuditLogUseCase;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class DownloadArchiveServiceTest {
+
+    @Mock
+    private FileStoragePort fileStoragePort;
+
+    @Mock
+    private RecordAuditLogUseCase recordAuditLogUseCase;
+
+    @InjectMocks
+    private DownloadArchiveService downloadArchiveService;
+
+    private UUID userId;
+    private String clientIp;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        clientIp = "127.0.0.1";
+    }
+
+    @Test
+    @DisplayName("Should open the archive and record a single audit entry for the selection")
+    void shouldOpenArchiveAndAuditOnce() {
+        List<String> paths = List.of("/photos", "/docs/a.txt", "/docs/b.txt");
+        ArchiveSource source = mock(ArchiveSource.class);
+        when(fileStoragePort.openArchive(paths, userId)).thenReturn(source);
+
+        ArchiveSource result = downloadArchiveService.openArchive(paths, userId, clientIp);
+
+        assertSame(source, result);
+        verify(recordAuditLogUseCase).record(
+                userId, "DOWNLOAD_ARCHIVE", "/photos (+2 more)", clientIp, "SUCCESS");
+    }
+
+    @Test
+    @DisplayName("Should truncate audit targets to the column length")
+    void shouldTruncateLongAuditTarget() {
+        List<String> paths = List.of("/" + "a".repeat(400));
+        when(fileStoragePort.openArchive(paths, userId)).thenReturn(mock(ArchiveSource.class));
+
+        downloadArchiveService.openArchive(paths, userId, clientIp);
+
+        ArgumentCaptor<String> target = ArgumentCaptor.forClass(String.class);
+        verify(recordAuditLogUseCase).record(eq(userId), eq("DOWNLOAD_ARCHIVE"), target.capture(), eq(clientIp),
+                eq("SUCCESS"));
+        assertEquals(255, target.getValue().length());
+    }
+
+    @Test
+    @DisplayName("Should reject an empty selection")
+    void shouldRejectEmptySelection() {
+        assertThrows(IllegalArgumentException.class,
+                () -> downloadArchiveService.openArchive(List.of(), userId, clientIp));
+
+        verifyNoInteractions(fileStoragePort, recordAuditLogUseCase);
+    }
+
+    @Test
+    @DisplayName("Should not audit when a selected path does not exist")
+    void shouldNotAuditMissingPath() {
+        List<String> paths = List.of("/missing");
+        when(fileStoragePort.openArchive(paths, userId)).thenThrow(new ResourceNotFoundException("missing"));
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> downloadArchiveService.openArchive(paths, userId, clientIp));
+
+        verify(recordAuditLogUseCase, never()).record(any(), anyString(), anyString(), any(), anyString());
+    }
+}
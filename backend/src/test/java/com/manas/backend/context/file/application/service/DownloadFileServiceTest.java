@@ -6,19 +6,21 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.manas.backend.context.file.application.port.out.FileStoragePort;
+import com.manas.backend.context.file.domain.ByteRange;
 import com.manas.backend.context.file.domain.FileContent;
 import com.manas.backend.context.system.application.port.in.RecordAuditLogUseCase;
 import java.io.ByteArrayInputStream;
+import java.time.Duration;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -31,7 +33,6 @@ class DownloadFileServiceTest {
     @Mock
     private RecordAuditLogUseCase recordAuditLogUseCase;
 
-    @InjectMocks
     private DownloadFileService downloadFileService;
 
     private UUID userId;
@@ -40,6 +41,7 @@ class DownloadFileServiceTest {
 
     @BeforeEach
     void setUp() {
+        downloadFileService = new DownloadFileService(fileStoragePort, recordAuditLogUseCase, Duration.ofMinutes(30));
         userId = UUID.randomUUID();
         clientIp = "127.0.0.1";
         path = "/test/file.txt";
@@ -90,4 +92,58 @@ class DownloadFileServiceTest {
         verify(recordAuditLogUseCase, never()).record(any(), any(), any(), any(), any());
     }
 
+    @Test
+    @DisplayName("Should audit a ranged download once, whichever range it starts with")
+    void shouldAuditRangedDownloadOnce() {
+        when(fileStoragePort.retrieveRange(eq(path), eq(userId), any())).thenAnswer(invocation -> content());
+
+        downloadFileService.downloadRange(path, userId, clientIp, new ByteRange(1, 9), "\"v1\"");
+        downloadFileService.downloadRange(path, userId, clientIp, new ByteRange(0, 1), "\"v1\"");
+        downloadFileService.downloadRange(path, userId, clientIp, new ByteRange(50, 10), "\"v1\"");
+
+        verify(recordAuditLogUseCase, times(1)).record(userId, "DOWNLOAD", path, clientIp, "SUCCESS");
+    }
+
+    @Test
+    @DisplayName("Should audit ranged downloads of another version or by another user separately")
+    void shouldAuditEachVersionAndUser() {
+        UUID otherUser = UUID.randomUUID();
+        when(fileStoragePort.retrieveRange(eq(path), any(), any())).thenAnswer(invocation -> content());
+
+        downloadFileService.downloadRange(path, userId, clientIp, new ByteRange(50, 10), "\"v1\"");
+        downloadFileService.downloadRange(path, userId, clientIp, new ByteRange(50, 10), "\"v2\"");
+        downloadFileService.downloadRange(path, otherUser, clientIp, new ByteRange(50, 10), "\"v2\"");
+
+        verify(recordAuditLogUseCase, times(2)).record(userId, "DOWNLOAD", path, clientIp, "SUCCESS");
+        verify(recordAuditLogUseCase).record(otherUser, "DOWNLOAD", path, clientIp, "SUCCESS");
+    }
+
+    @Test
+    @DisplayName("Should audit a ranged download again after a pause longer than the window")
+    void shouldAuditAgainAfterWindow() {
+        downloadFileService = new DownloadFileService(fileStoragePort, recordAuditLogUseCase, Duration.ZERO);
+        when(fileStoragePort.retrieveRange(eq(path), eq(userId), any())).thenAnswer(invocation -> content());
+
+        downloadFileService.downloadRange(path, userId, clientIp, new ByteRange(0, 10), "\"v1\"");
+        downloadFileService.downloadRange(path, userId, clientIp, new ByteRange(10, 10), "\"v1\"");
+
+        verify(recordAuditLogUseCase, times(2)).record(userId, "DOWNLOAD", path, clientIp, "SUCCESS");
+    }
+
+    @Test
+    @DisplayName("Should not audit a ranged download that fails to open")
+    void shouldNotAuditFailedRange() {
+        when(fileStoragePort.retrieveRange(eq(path), eq(userId), any()))
+                .thenThrow(new IllegalArgumentException("File not found"));
+
+        assertThrows(IllegalArgumentException.class, () ->
+                downloadFileService.downloadRange(path, userId, clientIp, new ByteRange(0, 10), "\"v1\""));
+
+        verify(recordAuditLogUseCase, never()).record(any(), any(), any(), any(), any());
+    }
+
+    private static FileContent content() {
+        return new FileContent("file.txt", "text/plain", 10L, new ByteArrayInputStream(new byte[10]));
+    }
+
 }
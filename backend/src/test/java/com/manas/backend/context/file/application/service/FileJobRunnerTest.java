@@ -0,0 +1,202 @@
+package com.manas.backend.context.file.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import com.manas.backend.common.exception.FileOperationException;
+import com.manas.backend.context.file.application.port.out.FileStoragePort;
+import com.manas.backend.context.file.application.port.out.LoadFileJobPort;
+import com.manas.backend.context.file.application.port.out.SaveFileJobPort;
+import com.manas.backend.context.file.domain.FileJob;
+import com.manas.backend.context.file.domain.FileJobItem;
+import com.manas.backend.context.file.domain.FileJobState;
+import com.manas.backend.context.file.domain.FileJobType;
+import com.manas.backend.context.file.domain.TransferProgress;
+import com.manas.backend.context.file.domain.VolumePermits;
+import com.manas.backend.context.file.domain.event.FileDeletedEvent;
+import com.manas.backend.context.file.domain.event.FileDeletionFailedEvent;
+import com.manas.backend.context.system.application.port.in.RecordAuditLogUseCase;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+@ExtendWith(MockitoExtension.class)
+class FileJobRunnerTest {
+
+    private static final long WAIT_MILLIS = 5_000;
+
+    @Mock
+    private LoadFileJobPort loadFileJobPort;
+    @Mock
+    private SaveFileJobPort saveFileJobPort;
+    @Mock
+    private FileStoragePort fileStoragePort;
+    @Mock
+    private RecordAuditLogUseCase recordAuditLogUseCase;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private FileJobRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        runner = new FileJobRunner(loadFileJobPort, saveFileJobPort, fileStoragePort, recordAuditLogUseCase,
+                eventPublisher, new VolumePermits(8, 2));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        runner.close();
+    }
+
+    @Test
+    @DisplayName("Should run every item, keep going after a failure and record one audit entry")
+    void start_DeleteJob() {
+        UUID userId = UUID.randomUUID();
+        FileJob job = FileJob.queued(userId, FileJobType.DELETE, null, 2, Instant.now());
+        given(loadFileJobPort.findItems(job.id())).willReturn(List.of(
+                FileJobItem.pending(0, "/data/fail.txt"),
+                FileJobItem.pending(1, "/data/ok.txt")));
+        willThrow(new RuntimeException("IO Error")).given(fileStoragePort).delete("/data/fail.txt", userId);
+
+        runner.start(job, false);
+
+        verify(recordAuditLogUseCase, timeout(WAIT_MILLIS))
+                .record(userId, "DELETE_FILES", "/data/fail.txt (+1 more)", "N/A", "PARTIAL",
+                        "FAILED /data/fail.txt: IO Error\nDONE /data/ok.txt");
+        verify(fileStoragePort).delete("/data/ok.txt", userId);
+        verify(saveFileJobPort).saveItem(job.id(), FileJobItem.pending(0, "/data/fail.txt").failed("IO Error"));
+        verify(saveFileJobPort).saveItem(job.id(), FileJobItem.pending(1, "/data/ok.txt").done());
+
+        FileJob last = lastSaved();
+        assertThat(last.state()).isEqualTo(FileJobState.FAILED);
+        assertThat(last.completedItems()).isEqualTo(1);
+        assertThat(last.failedItems()).isEqualTo(1);
+        assertThat(last.finishedAt()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should report a delete that failed part way, so the indexes drop what is gone")
+    void start_DeleteJobFailingPartWay() {
+        UUID userId = UUID.randomUUID();
+        FileJob job = FileJob.queued(userId, FileJobType.DELETE, null, 1, Instant.now());
+        given(loadFileJobPort.findItems(job.id())).willReturn(List.of(FileJobItem.pending(0, "/data/photos")));
+        willThrow(new FileOperationException("Failed to delete file: busy")).given(fileStoragePort)
+                .delete("/data/photos", userId);
+
+        runner.start(job, false);
+
+        verify(recordAuditLogUseCase, timeout(WAIT_MILLIS))
+                .record(eq(userId), eq("DELETE_FILES"), any(), eq("N/A"), eq("FAILURE"), any());
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, atLeastOnce()).publishEvent(events.capture());
+        assertThat(events.getAllValues()).filteredOn(FileDeletionFailedEvent.class::isInstance).singleElement()
+                .isInstanceOfSatisfying(FileDeletionFailedEvent.class,
+                        event -> assertThat(event.filePath()).isEqualTo("/data/photos"));
+        assertThat(events.getAllValues()).noneMatch(FileDeletedEvent.class::isInstance);
+    }
+
+    @Test
+    @DisplayName("Should skip finished items and the already moved first item of a resumed job")
+    void start_ResumedMoveJob() {
+        UUID userId = UUID.randomUUID();
+        FileJob job = FileJob.queued(userId, FileJobType.MOVE, "/backup", 3, Instant.now());
+        given(loadFileJobPort.findItems(job.id())).willReturn(List.of(
+                FileJobItem.pending(0, "/data/a").done(),
+                FileJobItem.pending(1, "/data/b"),
+                FileJobItem.pending(2, "/data/c")));
+        given(fileStoragePort.exists("/data/b", userId)).willReturn(false);
+        given(fileStoragePort.exists("/backup/b", userId)).willReturn(true);
+
+        runner.start(job, true);
+
+        verify(recordAuditLogUseCase, timeout(WAIT_MILLIS))
+                .record(eq(userId), eq("MOVE_FILES"), any(), eq("N/A"), eq("SUCCESS"), any());
+        verify(fileStoragePort, never()).move(eq("/data/a"), any(), any(), any());
+        verify(fileStoragePort, never()).move(eq("/data/b"), any(), any(), any());
+        verify(fileStoragePort).move(eq("/data/c"), eq("/backup/c"), eq(userId), any());
+        assertThat(lastSaved().state()).isEqualTo(FileJobState.SUCCEEDED);
+    }
+
+    @Test
+    @DisplayName("Should copy every item and treat an existing copy of a resumed job as finished")
+    void start_ResumedCopyJob() {
+        UUID userId = UUID.randomUUID();
+        FileJob job = FileJob.queued(userId, FileJobType.COPY, "/backup", 2, Instant.now());
+        given(loadFileJobPort.findItems(job.id())).willReturn(List.of(
+                FileJobItem.pending(0, "/data/a"),
+                FileJobItem.pending(1, "/data/b")));
+        given(fileStoragePort.exists("/backup/a", userId)).willReturn(true);
+        given(fileStoragePort.exists("/backup/b", userId)).willReturn(false);
+
+        runner.start(job, true);
+
+        verify(recordAuditLogUseCase, timeout(WAIT_MILLIS))
+                .record(userId, "COPY_FILES", "/data/a (+1 more)", "N/A", "SUCCESS", "DONE /data/a\nDONE /data/b");
+        verify(fileStoragePort, never()).copy(eq("/data/a"), any(), any(), any());
+        verify(fileStoragePort).copy(eq("/data/b"), eq("/backup/b"), eq(userId), any());
+        assertThat(lastSaved().state()).isEqualTo(FileJobState.SUCCEEDED);
+    }
+
+    @Test
+    @DisplayName("Should stop a running move at its next progress update and leave the item pending")
+    void cancel_StopsRunningMove() throws InterruptedException {
+        UUID userId = UUID.randomUUID();
+        FileJob job = FileJob.queued(userId, FileJobType.MOVE, "/backup", 2, Instant.now());
+        given(loadFileJobPort.findItems(job.id())).willReturn(List.of(
+                FileJobItem.pending(0, "/data/big"),
+                FileJobItem.pending(1, "/data/next")));
+        CountDownLatch transferring = new CountDownLatch(1);
+        willAnswer(invocation -> {
+            TransferProgress progress = invocation.getArgument(3);
+            transferring.countDown();
+            for (long done = 0; ; done += 1024) {
+                progress.update(done, Long.MAX_VALUE);
+                Thread.sleep(1);
+            }
+        }).given(fileStoragePort).move(eq("/data/big"), eq("/backup/big"), eq(userId), any());
+
+        runner.start(job, false);
+        assertThat(transferring.await(WAIT_MILLIS, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(runner.cancel(job.id())).isTrue();
+
+        verify(recordAuditLogUseCase, timeout(WAIT_MILLIS)).record(userId, "MOVE_FILES", "/data/big (+1 more)",
+                "N/A", "CANCELLED", "PENDING /data/big\nPENDING /data/next");
+        verify(saveFileJobPort, never()).saveItem(any(), any());
+        verify(fileStoragePort, never()).move(eq("/data/next"), any(), any(), any());
+        assertThat(lastSaved().state()).isEqualTo(FileJobState.CANCELLED);
+    }
+
+    @Test
+    @DisplayName("Should derive the destination of a moved entry from its name")
+    void destinationOf() {
+        FileJob job = FileJob.queued(UUID.randomUUID(), FileJobType.MOVE, "/backup/", 1, Instant.now());
+
+        assertThat(FileJobRunner.destinationOf(job, "/data/photos")).isEqualTo("/backup/photos");
+    }
+
+    private FileJob lastSaved() {
+        ArgumentCaptor<FileJob> saved = ArgumentCaptor.forClass(FileJob.class);
+        verify(saveFileJobPort, atLeastOnce()).save(saved.capture());
+        return saved.getValue();
+    }
+}
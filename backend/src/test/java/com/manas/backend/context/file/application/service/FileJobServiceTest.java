@@ -0,0 +1,143 @@
+package com.manas.backend.context.file.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.manas.backend.common.exception.ResourceNotFoundException;
+import com.manas.backend.context.file.application.port.in.SubmitFileJobCommand;
+import com.manas.backend.context.file.application.port.out.LoadFileJobPort;
+import com.manas.backend.context.file.application.port.out.SaveFileJobPort;
+import com.manas.backend.context.file.domain.FileJob;
+import com.manas.backend.context.file.domain.FileJobItem;
+import com.manas.backend.context.file.domain.FileJobState;
+import com.manas.backend.context.file.domain.FileJobType;
+import com.manas.backend.context.file.domain.event.FileJobUpdatedEvent;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+@ExtendWith(MockitoExtension.class)
+class FileJobServiceTest {
+
+    @Mock
+    private LoadFileJobPort loadFileJobPort;
+    @Mock
+    private SaveFileJobPort saveFileJobPort;
+    @Mock
+    private FileJobRunner fileJobRunner;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private FileJobService fileJobService;
+
+    @BeforeEach
+    void setUp() {
+        fileJobService = new FileJobService(loadFileJobPort, saveFileJobPort, fileJobRunner, eventPublisher,
+                Duration.ofDays(7));
+    }
+
+    @Test
+    @DisplayName("Should store a queued job with one item per selected root and start it")
+    @SuppressWarnings("unchecked")
+    void submit_StoresAndStartsJob() {
+        UUID userId = UUID.randomUUID();
+
+        FileJob job = fileJobService.submit(new SubmitFileJobCommand(FileJobType.DELETE,
+                List.of("/data/a", "/data/a/nested.txt", "/data/b.txt"), null, userId));
+
+        assertThat(job.state()).isEqualTo(FileJobState.QUEUED);
+        assertThat(job.totalItems()).isEqualTo(2);
+        verify(saveFileJobPort).save(job);
+        ArgumentCaptor<List<FileJobItem>> items = ArgumentCaptor.forClass(List.class);
+        verify(saveFileJobPort).saveItems(eq(job.id()), items.capture());
+        assertThat(items.getValue()).containsExactly(
+                FileJobItem.pending(0, "/data/a"),
+                FileJobItem.pending(1, "/data/b.txt"));
+        verify(fileJobRunner).start(job, false);
+    }
+
+    @Test
+    @DisplayName("Should reject moves without a destination or into a selected directory")
+    void submit_RejectsInvalidMoves() {
+        UUID userId = UUID.randomUUID();
+
+        assertThatThrownBy(() -> fileJobService.submit(new SubmitFileJobCommand(FileJobType.MOVE,
+                List.of("/data/a"), " ", userId)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> fileJobService.submit(new SubmitFileJobCommand(FileJobType.MOVE,
+                List.of("/data/a"), "/data/a/inner", userId)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("into itself");
+        assertThatThrownBy(() -> fileJobService.submit(new SubmitFileJobCommand(FileJobType.DELETE,
+                List.of(), null, userId)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verify(fileJobRunner, never()).start(any(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Should hide jobs of other users")
+    void getJob_OtherUser() {
+        FileJob job = FileJob.queued(UUID.randomUUID(), FileJobType.DELETE, null, 1, Instant.now());
+        given(loadFileJobPort.findById(job.id())).willReturn(Optional.of(job));
+
+        assertThatThrownBy(() -> fileJobService.getJob(job.id(), UUID.randomUUID()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Should mark a job that is not active in this process as cancelled")
+    void cancel_InactiveJob() {
+        UUID userId = UUID.randomUUID();
+        FileJob job = FileJob.queued(userId, FileJobType.DELETE, null, 1, Instant.now());
+        given(loadFileJobPort.findById(job.id())).willReturn(Optional.of(job));
+        given(fileJobRunner.cancel(job.id())).willReturn(false);
+
+        FileJob cancelled = fileJobService.cancel(job.id(), userId);
+
+        assertThat(cancelled.state()).isEqualTo(FileJobState.CANCELLED);
+        assertThat(cancelled.finishedAt()).isNotNull();
+        verify(saveFileJobPort).save(cancelled);
+        verify(eventPublisher).publishEvent(new FileJobUpdatedEvent(cancelled));
+    }
+
+    @Test
+    @DisplayName("Should leave cancellation of an active job to the runner")
+    void cancel_ActiveJob() {
+        UUID userId = UUID.randomUUID();
+        FileJob job = FileJob.queued(userId, FileJobType.DELETE, null, 1, Instant.now());
+        given(loadFileJobPort.findById(job.id())).willReturn(Optional.of(job));
+        given(fileJobRunner.cancel(job.id())).willReturn(true);
+
+        fileJobService.cancel(job.id(), userId);
+
+        verify(saveFileJobPort, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should resume unfinished jobs on startup")
+    void resumeUnfinished() {
+        FileJob job = FileJob.queued(UUID.randomUUID(), FileJobType.DELETE, null, 1, Instant.now());
+        given(loadFileJobPort.findUnfinished()).willReturn(List.of(job));
+
+        fileJobService.resumeUnfinished();
+
+        verify(fileJobRunner).start(job, true);
+    }
+}
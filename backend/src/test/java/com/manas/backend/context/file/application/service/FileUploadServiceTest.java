@@ -1,7 +1,11 @@
 package com.manas.backend.context.file.application.service;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.doThrow;
@@ -10,13 +14,27 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import com.manas.backend.common.exception.ResourceNotFoundException;
 import com.manas.backend.context.file.application.port.in.FileUploadCommand;
+import com.manas.backend.context.file.application.port.in.InstantUploadChallenge;
+import com.manas.backend.context.file.application.port.in.InstantUploadCommand;
 import com.manas.backend.context.file.application.port.out.FileStoragePort;
+import com.manas.backend.context.file.application.port.out.LoadContentIndexPort;
+import com.manas.backend.context.file.application.port.out.SaveContentIndexPort;
+import com.manas.backend.context.file.domain.ByteRange;
 import com.manas.backend.context.file.domain.FileContent;
+import com.manas.backend.context.file.domain.FileMetadata;
 import com.manas.backend.context.file.domain.FileValidator;
+import com.manas.backend.context.file.domain.IndexedContent;
+import com.manas.backend.context.file.domain.StoredFile;
 import com.manas.backend.context.file.domain.event.FileUploadedEvent;
 import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -28,6 +46,8 @@ import org.springframework.context.ApplicationEventPublisher;
 @ExtendWith(MockitoExtension.class)
 class FileUploadServiceTest {
 
+    private static final String HELLO_SHA256 = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
     @Mock
     private FileStoragePort fileStoragePort;
 
@@ -37,6 +57,12 @@ class FileUploadServiceTest {
     @Mock
     private ApplicationEventPublisher eventPublisher;
 
+    @Mock
+    private LoadContentIndexPort loadContentIndexPort;
+
+    @Mock
+    private SaveContentIndexPort saveContentIndexPort;
+
     @InjectMocks
     private FileUploadService service;
 
@@ -52,10 +78,13 @@ class FileUploadServiceTest {
 
         when(fileStoragePort.getAvailableDiskSpace()).thenReturn(10L * 1024 * 1024 * 1024);
 
+        when(fileStoragePort.save(content, "/documents/test.txt", size, userId, null))
+                .thenReturn(new StoredFile("/documents/test.txt", size, "00"));
+
         service.upload(command);
 
         verify(fileValidator).validate(fileName, size);
-        verify(fileStoragePort).save(eq(content), eq("/documents/test.txt"), eq(size), eq(userId));
+        verify(fileStoragePort).save(eq(content), eq("/documents/test.txt"), eq(size), eq(userId), eq(null));
         verify(eventPublisher).publishEvent(any(FileUploadedEvent.class));
     }
 
@@ -88,7 +117,7 @@ class FileUploadServiceTest {
     }
 
     @Test
-    void upload_ShouldPass_WhenChecksumMatches() {
+    void upload_ShouldPassNormalizedChecksumToStorageAndPublishDigest() {
         UUID userId = UUID.randomUUID();
         byte[] uploaded = "hello".getBytes(StandardCharsets.UTF_8);
         String expectedSha256 = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
@@ -99,22 +128,25 @@ class FileUploadServiceTest {
                 "/documents",
                 uploaded.length,
                 userId,
-                expectedSha256
+                " " + expectedSha256.toUpperCase() + " "
         );
 
         when(fileStoragePort.getAvailableDiskSpace()).thenReturn(10L * 1024 * 1024 * 1024);
-        when(fileStoragePort.retrieve("/documents/hello.txt", userId))
-                .thenReturn(new FileContent("hello.txt", "text/plain", uploaded.length, new ByteArrayInputStream(uploaded)));
+        when(fileStoragePort.save(any(), eq("/documents/hello.txt"), eq((long) uploaded.length), eq(userId),
+                eq(expectedSha256)))
+                .thenReturn(new StoredFile("/documents/hello.txt", uploaded.length, expectedSha256));
 
-        service.upload(command);
+        StoredFile stored = service.upload(command);
 
-        verify(fileStoragePort).save(any(), eq("/documents/hello.txt"), eq((long) uploaded.length), eq(userId));
-        verify(fileStoragePort, never()).delete(any(), any());
-        verify(eventPublisher).publishEvent(any(FileUploadedEvent.class));
+        assertEquals(expectedSha256, stored.sha256());
+        verify(fileStoragePort, never()).retrieve(any(), any());
+        verify(eventPublisher).publishEvent(argThat((Object event) ->
+                event instanceof FileUploadedEvent uploadedEvent
+                        && expectedSha256.equals(uploadedEvent.sha256())));
     }
 
     @Test
-    void upload_ShouldRollback_WhenChecksumMismatch() {
+    void upload_ShouldNotPublish_WhenStorageRejectsChecksum() {
         UUID userId = UUID.randomUUID();
         byte[] uploaded = "hello".getBytes(StandardCharsets.UTF_8);
 
@@ -128,12 +160,211 @@ class FileUploadServiceTest {
         );
 
         when(fileStoragePort.getAvailableDiskSpace()).thenReturn(10L * 1024 * 1024 * 1024);
-        when(fileStoragePort.retrieve("/documents/hello.txt", userId))
-                .thenReturn(new FileContent("hello.txt", "text/plain", uploaded.length, new ByteArrayInputStream(uploaded)));
+        when(fileStoragePort.save(any(), any(), anyLong(), any(), any()))
+                .thenThrow(new IllegalArgumentException("Checksum verification failed for uploaded file"));
 
         assertThrows(IllegalArgumentException.class, () -> service.upload(command));
 
-        verify(fileStoragePort).delete("/documents/hello.txt", userId);
+        verify(fileStoragePort, never()).delete(any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void upload_ShouldLinkIndexedContentAfterReadingTheBody() {
+        UUID userId = UUID.randomUUID();
+        String sha256 = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+        ByteArrayInputStream body = new ByteArrayInputStream("hello".getBytes(StandardCharsets.UTF_8));
+
+        when(fileStoragePort.getAvailableDiskSpace()).thenReturn(10L * 1024 * 1024 * 1024);
+        when(loadContentIndexPort.findBySha256(sha256))
+                .thenReturn(Optional.of(new IndexedContent(sha256, "/archive/hello.txt", 5, "\"tag\"")));
+        when(fileStoragePort.getMetadata("/archive/hello.txt", userId))
+                .thenReturn(new FileMetadata("hello.txt", "text/plain", 5, Instant.now(), "\"tag\""));
+        when(fileStoragePort.saveDuplicate("/archive/hello.txt", "/documents/hello.txt", userId, sha256))
+                .thenReturn(new StoredFile("/documents/hello.txt", 5, sha256));
+
+        StoredFile stored = service.upload(new FileUploadCommand(body, "hello.txt", "/documents", 5, userId, sha256));
+
+        assertEquals("/documents/hello.txt", stored.path());
+        assertEquals(0, body.available());
+        verify(fileStoragePort, never()).save(any(), any(), anyLong(), any(), any());
+        verify(eventPublisher).publishEvent(any(FileUploadedEvent.class));
+    }
+
+    @Test
+    void upload_ShouldNotLinkIndexedContent_WhenTheBodyDiffers() {
+        UUID userId = UUID.randomUUID();
+        String sha256 = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+        InputStream body = new ByteArrayInputStream("other".getBytes(StandardCharsets.UTF_8));
+
+        when(fileStoragePort.getAvailableDiskSpace()).thenReturn(10L * 1024 * 1024 * 1024);
+        when(loadContentIndexPort.findBySha256(sha256))
+                .thenReturn(Optional.of(new IndexedContent(sha256, "/archive/hello.txt", 5, "\"tag\"")));
+        when(fileStoragePort.getMetadata("/archive/hello.txt", userId))
+                .thenReturn(new FileMetadata("hello.txt", "text/plain", 5, Instant.now(), "\"tag\""));
+
+        assertThrows(IllegalArgumentException.class, () -> service.upload(
+                new FileUploadCommand(body, "hello.txt", "/documents", 5, userId, sha256)));
+
+        verify(fileStoragePort, never()).saveDuplicate(any(), any(), any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void upload_ShouldDropStaleIndexEntryAndSaveTheBody() {
+        UUID userId = UUID.randomUUID();
+        String sha256 = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+        ByteArrayInputStream content = new ByteArrayInputStream(new byte[5]);
+
+        when(fileStoragePort.getAvailableDiskSpace()).thenReturn(10L * 1024 * 1024 * 1024);
+        when(loadContentIndexPort.findBySha256(sha256))
+                .thenReturn(Optional.of(new IndexedContent(sha256, "/archive/hello.txt", 5, "\"old\"")));
+        when(fileStoragePort.getMetadata("/archive/hello.txt", userId))
+                .thenReturn(new FileMetadata("hello.txt", "text/plain", 5, Instant.now(), "\"edited\""));
+        when(fileStoragePort.save(content, "/documents/hello.txt", 5, userId, sha256))
+                .thenReturn(new StoredFile("/documents/hello.txt", 5, sha256));
+
+        service.upload(new FileUploadCommand(content, "hello.txt", "/documents", 5, userId, sha256));
+
+        verify(saveContentIndexPort).delete(sha256);
+        verify(fileStoragePort, never()).saveDuplicate(any(), any(), any(), any());
+    }
+
+    @Test
+    void challengeExisting_ShouldChooseARangeInsideTheContent() {
+        long size = 10L * 1024 * 1024;
+
+        InstantUploadChallenge small = service.challengeExisting(HELLO_SHA256, 5, UUID.randomUUID());
+        InstantUploadChallenge large = service.challengeExisting(HELLO_SHA256, size, UUID.randomUUID());
+
+        assertEquals(0L, small.offset());
+        assertEquals(5L, small.length());
+        assertEquals(64L * 1024, large.length());
+        assertTrue(large.offset() >= 0 && large.offset() + large.length() <= size);
+        assertNotEquals(small.id(), large.id());
+        assertNotEquals(small.nonce(), large.nonce());
+        assertEquals(32, small.nonce().length());
+        verifyNoInteractions(loadContentIndexPort, fileStoragePort);
+    }
+
+    @Test
+    void uploadExisting_ShouldLinkIndexedContent_WhenTheProofMatches() throws Exception {
+        UUID userId = UUID.randomUUID();
+        stubIndexedHello(userId);
+        when(fileStoragePort.retrieveRange("/archive/hello.txt", userId, new ByteRange(0, 5)))
+                .thenReturn(new FileContent("hello.txt", "text/plain", 5,
+                        new ByteArrayInputStream("hello".getBytes(StandardCharsets.UTF_8))));
+        when(fileStoragePort.saveDuplicate("/archive/hello.txt", "/documents/hello.txt", userId, HELLO_SHA256))
+                .thenReturn(new StoredFile("/documents/hello.txt", 5, HELLO_SHA256));
+        InstantUploadChallenge challenge = service.challengeExisting(HELLO_SHA256, 5, userId);
+
+        Optional<StoredFile> stored = service.uploadExisting(new InstantUploadCommand("hello.txt", "/documents", 5,
+                userId, HELLO_SHA256, challenge.id(), proof(challenge, "hello").toUpperCase()));
+
+        assertEquals("/documents/hello.txt", stored.orElseThrow().path());
+        verify(eventPublisher).publishEvent(any(FileUploadedEvent.class));
+    }
+
+    @Test
+    void uploadExisting_ShouldNotAcceptTheChecksumAsProof_WhenTheWholeContentIsChallenged() {
+        UUID userId = UUID.randomUUID();
+        stubIndexedHello(userId);
+        when(fileStoragePort.retrieveRange("/archive/hello.txt", userId, new ByteRange(0, 5)))
+                .thenReturn(new FileContent("hello.txt", "text/plain", 5,
+                        new ByteArrayInputStream("hello".getBytes(StandardCharsets.UTF_8))));
+        InstantUploadChallenge challenge = service.challengeExisting(HELLO_SHA256, 5, userId);
+
+        Optional<StoredFile> stored = service.uploadExisting(new InstantUploadCommand("hello.txt", "/documents", 5,
+                userId, HELLO_SHA256, challenge.id(), HELLO_SHA256));
+
+        assertEquals(Optional.empty(), stored);
+        verify(fileStoragePort, never()).saveDuplicate(any(), any(), any(), any());
+    }
+
+    @Test
+    void uploadExisting_ShouldReturnEmpty_WhenTheProofDoesNotMatch() {
+        UUID userId = UUID.randomUUID();
+        stubIndexedHello(userId);
+        when(fileStoragePort.retrieveRange("/archive/hello.txt", userId, new ByteRange(0, 5)))
+                .thenReturn(new FileContent("hello.txt", "text/plain", 5,
+                        new ByteArrayInputStream("hello".getBytes(StandardCharsets.UTF_8))));
+        InstantUploadChallenge challenge = service.challengeExisting(HELLO_SHA256, 5, userId);
+
+        Optional<StoredFile> stored = service.uploadExisting(new InstantUploadCommand("hello.txt", "/documents", 5,
+                userId, HELLO_SHA256, challenge.id(), "0".repeat(64)));
+
+        assertEquals(Optional.empty(), stored);
+        verify(fileStoragePort, never()).saveDuplicate(any(), any(), any(), any());
         verifyNoInteractions(eventPublisher);
     }
+
+    @Test
+    void uploadExisting_ShouldRejectChallengesThatAreUnknownUsedOrIssuedToOthers() {
+        UUID userId = UUID.randomUUID();
+        stubIndexedHello(userId);
+        when(fileStoragePort.retrieveRange(any(), any(), any())).thenAnswer(invocation -> new FileContent(
+                "hello.txt", "text/plain", 5, new ByteArrayInputStream("hello".getBytes(StandardCharsets.UTF_8))));
+        InstantUploadChallenge challenge = service.challengeExisting(HELLO_SHA256, 5, userId);
+        InstantUploadChallenge othersChallenge = service.challengeExisting(HELLO_SHA256, 5, UUID.randomUUID());
+
+        assertThrows(IllegalArgumentException.class, () -> service.uploadExisting(new InstantUploadCommand(
+                "hello.txt", "/documents", 5, userId, HELLO_SHA256, "unknown", HELLO_SHA256)));
+        assertThrows(IllegalArgumentException.class, () -> service.uploadExisting(new InstantUploadCommand(
+                "hello.txt", "/documents", 5, userId, HELLO_SHA256, othersChallenge.id(), HELLO_SHA256)));
+        service.uploadExisting(new InstantUploadCommand("hello.txt", "/documents", 5, userId, HELLO_SHA256,
+                challenge.id(), "0".repeat(64)));
+        assertThrows(IllegalArgumentException.class, () -> service.uploadExisting(new InstantUploadCommand(
+                "hello.txt", "/documents", 5, userId, HELLO_SHA256, challenge.id(), HELLO_SHA256)));
+
+        verify(fileStoragePort, never()).saveDuplicate(any(), any(), any(), any());
+    }
+
+    @Test
+    void uploadExisting_ShouldReturnEmpty_WhenIndexedFileIsGone() {
+        UUID userId = UUID.randomUUID();
+        String sha256 = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+        when(loadContentIndexPort.findBySha256(sha256))
+                .thenReturn(Optional.of(new IndexedContent(sha256, "/archive/hello.txt", 5, "\"tag\"")));
+        when(fileStoragePort.getMetadata("/archive/hello.txt", userId))
+                .thenThrow(new ResourceNotFoundException("gone"));
+
+        InstantUploadChallenge challenge = service.challengeExisting(sha256, 5, userId);
+        Optional<StoredFile> stored = service.uploadExisting(
+                new InstantUploadCommand("hello.txt", "/documents", 5, userId, sha256, challenge.id(), sha256));
+
+        assertEquals(Optional.empty(), stored);
+        verify(saveContentIndexPort).delete(sha256);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void uploadExisting_ShouldIgnoreIndexEntryOfAnotherSize() {
+        UUID userId = UUID.randomUUID();
+        String sha256 = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+        when(loadContentIndexPort.findBySha256(sha256))
+                .thenReturn(Optional.of(new IndexedContent(sha256, "/archive/hello.txt", 5, "\"tag\"")));
+
+        InstantUploadChallenge challenge = service.challengeExisting(sha256, 6, userId);
+        Optional<StoredFile> stored = service.uploadExisting(
+                new InstantUploadCommand("hello.txt", "/documents", 6, userId, sha256, challenge.id(), sha256));
+
+        assertEquals(Optional.empty(), stored);
+        verify(fileStoragePort, never()).getMetadata(any(), any());
+    }
+
+    private static String proof(InstantUploadChallenge challenge, String content) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(HexFormat.of().parseHex(challenge.nonce()));
+        digest.update(content.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void stubIndexedHello(UUID userId) {
+        when(loadContentIndexPort.findBySha256(HELLO_SHA256))
+                .thenReturn(Optional.of(new IndexedContent(HELLO_SHA256, "/archive/hello.txt", 5, "\"tag\"")));
+        when(fileStoragePort.getMetadata("/archive/hello.txt", userId))
+                .thenReturn(new FileMetadata("hello.txt", "text/plain", 5, Instant.now(), "\"tag\""));
+    }
 }
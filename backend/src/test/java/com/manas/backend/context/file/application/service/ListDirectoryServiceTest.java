@@ -1,6 +1,8 @@
 package com.manas.backend.context.file.application.service;
 
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -8,6 +10,9 @@ import com.manas.backend.context.file.application.port.in.FileListSort;
 import com.manas.backend.context.file.application.port.in.ListDirectoryQuery;
 import com.manas.backend.context.file.application.port.out.FileStoragePort;
 import com.manas.backend.context.file.domain.DirectoryListing;
+import com.manas.backend.context.file.domain.FileNode;
+import com.manas.backend.context.file.domain.event.DirectoryListedEvent;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
@@ -15,6 +20,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 @ExtendWith(MockitoExtension.class)
 class ListDirectoryServiceTest {
@@ -22,19 +28,50 @@ class ListDirectoryServiceTest {
     @Mock
     private FileStoragePort fileStoragePort;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ListDirectoryService listDirectoryService;
 
     @Test
     void shouldNormalizeOffsetAndLimit() {
         UUID userId = UUID.randomUUID();
-        DirectoryListing listing = new DirectoryListing("/", List.of(), List.of(), 0, 0, 1);
+        DirectoryListing listing = new DirectoryListing("/", List.of(), List.of(), 0, 0, 1, null);
 
-        when(fileStoragePort.listDirectory(eq("/"), eq(userId), eq(0), eq(500), eq(FileListSort.NAME_ASC)))
+        when(fileStoragePort.listDirectory(eq("/"), eq(userId), eq(0), eq(500), eq(FileListSort.NAME_ASC), isNull()))
                 .thenReturn(listing);
 
-        listDirectoryService.listDirectory(new ListDirectoryQuery("/", userId, -10, 9999, FileListSort.NAME_ASC));
+        listDirectoryService.listDirectory(
+                new ListDirectoryQuery("/", userId, -10, 9999, FileListSort.NAME_ASC, null));
+
+        verify(fileStoragePort).listDirectory("/", userId, 0, 500, FileListSort.NAME_ASC, null);
+    }
+
+    @Test
+    void shouldPassCursorThrough() {
+        UUID userId = UUID.randomUUID();
+        when(fileStoragePort.listDirectory("/photos", userId, 0, 100, FileListSort.NAME_ASC, "opaque"))
+                .thenReturn(new DirectoryListing("/photos", List.of(), List.of(), 0, 0, 100, null));
+
+        listDirectoryService.listDirectory(
+                new ListDirectoryQuery("/photos", userId, 0, 100, FileListSort.NAME_ASC, "opaque"));
+
+        verify(fileStoragePort).listDirectory("/photos", userId, 0, 100, FileListSort.NAME_ASC, "opaque");
+    }
+
+    @Test
+    void shouldPublishListedPage() {
+        UUID userId = UUID.randomUUID();
+        FileNode photo = new FileNode("a.jpg", "/photos/a.jpg", false, 10, Instant.EPOCH, "system", null, null,
+                "image/jpeg");
+        when(fileStoragePort.listDirectory("/photos", userId, 0, 100, FileListSort.NAME_ASC, null))
+                .thenReturn(new DirectoryListing("/photos", List.of(), List.of(photo), 1, 0, 100, null));
+
+        listDirectoryService.listDirectory(
+                new ListDirectoryQuery("/photos", userId, 0, 100, FileListSort.NAME_ASC, null));
 
-        verify(fileStoragePort).listDirectory("/", userId, 0, 500, FileListSort.NAME_ASC);
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof DirectoryListedEvent listed
+                && listed.directoryPath().equals("/photos") && listed.items().equals(List.of(photo))));
     }
 }
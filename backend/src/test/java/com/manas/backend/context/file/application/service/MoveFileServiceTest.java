@@ -1,11 +1,13 @@
 package com.manas.backend.context.file.application.service;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.verify;
 
 import com.manas.backend.context.file.application.port.out.FileStoragePort;
+import com.manas.backend.context.file.domain.event.FileMovedEvent;
 import com.manas.backend.context.system.application.port.in.RecordAuditLogUseCase;
 import java.util.UUID;
 import org.junit.jupiter.api.DisplayName;
@@ -14,6 +16,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 @ExtendWith(MockitoExtension.class)
 class MoveFileServiceTest {
@@ -22,6 +25,8 @@ class MoveFileServiceTest {
     private FileStoragePort fileStoragePort;
     @Mock
     private RecordAuditLogUseCase recordAuditLogUseCase;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private MoveFileService moveFileService;
@@ -41,6 +46,7 @@ class MoveFileServiceTest {
 
         // Then
         verify(fileStoragePort).move(src, dest, userId);
+        verify(eventPublisher).publishEvent(any(FileMovedEvent.class));
         verify(recordAuditLogUseCase).record(userId, "MOVE_FILE", src + " -> " + dest, "N/A", "SUCCESS");
     }
 
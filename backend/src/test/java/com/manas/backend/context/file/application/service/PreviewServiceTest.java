@@ -2,103 +2,119 @@ package com.manas.backend.context.file.application.service;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.manas.backend.context.file.application.port.out.FileStoragePort;
+import com.manas.backend.context.file.application.port.out.PreviewCachePort;
 import com.manas.backend.context.file.application.port.out.PreviewGeneratorPort;
 import com.manas.backend.context.file.domain.FileContent;
+import com.manas.backend.context.file.domain.FileMetadata;
 import com.manas.backend.context.file.domain.PreviewType;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
-import io.micrometer.core.instrument.Counter;
-import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
 class PreviewServiceTest {
 
-    @TempDir
-    Path tempCacheDir;
     @Mock
     private FileStoragePort fileStoragePort;
     @Mock
     private PreviewGeneratorPort previewGeneratorPort;
     @Mock
-    private MeterRegistry meterRegistry;
-    @Mock
-    private Counter counter;
+    private PreviewCachePort previewCachePort;
+    private SimpleMeterRegistry meterRegistry;
     private PreviewService previewService;
     private UUID userId;
 
     @BeforeEach
     void setUp() {
-        when(meterRegistry.counter(any())).thenReturn(counter);
-        previewService = new PreviewService(fileStoragePort, previewGeneratorPort, meterRegistry,
-                tempCacheDir.toString());
+        meterRegistry = new SimpleMeterRegistry();
+        previewService = new PreviewService(fileStoragePort, previewGeneratorPort, previewCachePort, meterRegistry,
+                2);
         userId = UUID.randomUUID();
     }
 
     @Test
-    @DisplayName("Should return cached preview if exists")
+    @DisplayName("Should generate and cache a preview on a miss and serve the cached one on a hit")
     void shouldReturnCachedPreview() throws IOException {
-        // Given
         String path = "/images/existing.jpg";
-        // Calculate expected hash (SHA-256 of path) manually or trust logic
-        // But simpler: Run once to populate cache, then mock dependencies to fail if called, and run again.
-
-        // Let's rely on the service to generate the key.
-        // But to test "hit", I must manually place a file where the service expects it.
-        // Since `generateCacheKey` is private, I can't call it.
-        // I'll trust the logic: SHA-256 hex + ".jpg".
-
-        // But to avoid reimplementing hash logic in test, I will use a different approach:
-        // Call getPreview once (Miss), verify generation.
-        // Call getPreview again (Hit), verify no generation.
-
+        FileMetadata metadata = metadata("\"1-64-1\"");
         FileContent source = new FileContent("existing.jpg", "image/jpeg", 100,
                 new ByteArrayInputStream(new byte[100]));
-        FileContent generated = new FileContent("thumb.jpg", "image/jpeg", 50,
+        FileContent generated = new FileContent("thumb.jpg", "image/jpeg", 3,
                 new ByteArrayInputStream(new byte[]{1, 2, 3}));
 
         when(fileStoragePort.retrieve(path, userId)).thenReturn(source);
         when(previewGeneratorPort.supports("image/jpeg")).thenReturn(true);
         when(previewGeneratorPort.generate(any(), eq(PreviewType.THUMBNAIL))).thenReturn(generated);
 
-        // When (First Call - Miss)
-        FileContent result1 = previewService.getPreview(path, userId);
+        // First call - miss
+        FileContent result1 = previewService.getPreview(path, userId, metadata);
 
-        // Then
         assertNotNull(result1);
-        verify(previewGeneratorPort).generate(any(), eq(PreviewType.THUMBNAIL));
+        assertArrayEquals(new byte[]{1, 2, 3}, result1.inputStream().readAllBytes());
+        ArgumentCaptor<String> key = ArgumentCaptor.forClass(String.class);
+        verify(previewCachePort).put(key.capture(), eq(new byte[]{1, 2, 3}));
 
-        // When (Second Call - Hit)
-        // Reset mocks to ensure they aren't called
-        org.mockito.Mockito.clearInvocations(fileStoragePort, previewGeneratorPort);
+        // Second call - hit
+        clearInvocations(fileStoragePort, previewGeneratorPort);
+        FileContent cached = new FileContent("thumbnail.jpg", "image/jpeg", 3,
+                new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        when(previewCachePort.get(key.getValue())).thenReturn(cached);
 
-        FileContent result2 = previewService.getPreview(path, userId);
+        FileContent result2 = previewService.getPreview(path, userId, metadata);
 
-        // Then
-        assertNotNull(result2);
+        assertSame(cached, result2);
         verify(fileStoragePort, never()).retrieve(any(), any());
         verify(previewGeneratorPort, never()).generate(any(), any());
+    }
 
-        byte[] content1 = result1.inputStream().readAllBytes();
-        byte[] content2 = result2.inputStream().readAllBytes();
-        assertArrayEquals(new byte[]{1, 2, 3}, content1);
-        assertArrayEquals(new byte[]{1, 2, 3}, content2);
+    @Test
+    @DisplayName("Should key previews by source version")
+    void shouldKeyPreviewsBySourceVersion() {
+        String path = "/images/replaced.jpg";
+        when(fileStoragePort.retrieve(path, userId)).thenAnswer(invocation -> new FileContent("replaced.jpg",
+                "image/jpeg", 100, new ByteArrayInputStream(new byte[100])));
+        when(previewGeneratorPort.supports("image/jpeg")).thenReturn(true);
+        when(previewGeneratorPort.generate(any(), eq(PreviewType.THUMBNAIL))).thenAnswer(invocation ->
+                new FileContent("thumb.jpg", "image/jpeg", 1, new ByteArrayInputStream(new byte[]{1})));
+
+        previewService.getPreview(path, userId, metadata("\"1-64-1\""));
+        previewService.getPreview(path, userId, metadata("\"2-64-2\""));
+
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        verify(previewCachePort, times(2)).put(keys.capture(), any());
+        assertNotEquals(keys.getAllValues().get(0), keys.getAllValues().get(1));
     }
 
     @Test
@@ -108,6 +124,7 @@ class PreviewServiceTest {
         FileContent source = new FileContent("corrupt.jpg", "image/jpeg", 100,
                 new ByteArrayInputStream(new byte[]{9, 9, 9}));
 
+        when(fileStoragePort.getMetadata(path, userId)).thenReturn(metadata("\"1-3-1\""));
         when(fileStoragePort.retrieve(path, userId)).thenReturn(source);
         when(previewGeneratorPort.supports("image/jpeg")).thenReturn(true);
         when(previewGeneratorPort.generate(any(), any())).thenReturn(null); // Failed
@@ -115,6 +132,103 @@ class PreviewServiceTest {
         FileContent result = previewService.getPreview(path, userId);
 
         assertEquals(source, result);
+        verify(previewCachePort, never()).put(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Should pre-generate a thumbnail only if it is not cached and the type is supported")
+    void shouldPregenerateOnce() {
+        String path = "/images/new.jpg";
+        when(fileStoragePort.getMetadata(path, null)).thenReturn(metadata("\"1-64-1\""));
+        when(fileStoragePort.retrieve(path, null)).thenReturn(new FileContent("new.jpg", "image/jpeg", 100,
+                new ByteArrayInputStream(new byte[100])));
+        when(previewGeneratorPort.supports("image/jpeg")).thenReturn(true);
+        when(previewGeneratorPort.generate(any(), eq(PreviewType.THUMBNAIL))).thenReturn(new FileContent(
+                "thumb.jpg", "image/jpeg", 3, new ByteArrayInputStream(new byte[]{1, 2, 3})));
+
+        assertTrue(previewService.pregenerate(path, null));
+        when(previewCachePort.contains(anyString())).thenReturn(true);
+        assertFalse(previewService.pregenerate(path, null));
+
+        verify(fileStoragePort).retrieve(path, null);
+        verify(previewCachePort).put(anyString(), eq(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    @DisplayName("Should generate a missing preview once for concurrent requests")
+    void shouldCoalesceConcurrentGeneration() throws Exception {
+        String path = "/images/popular.jpg";
+        FileMetadata metadata = metadata("\"1-64-1\"");
+        CountDownLatch generating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(fileStoragePort.retrieve(path, userId)).thenReturn(new FileContent("popular.jpg", "image/jpeg", 100,
+                new ByteArrayInputStream(new byte[100])));
+        when(previewGeneratorPort.supports("image/jpeg")).thenReturn(true);
+        when(previewGeneratorPort.generate(any(), eq(PreviewType.THUMBNAIL))).thenAnswer(invocation -> {
+            generating.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new FileContent("thumb.jpg", "image/jpeg", 3, new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        });
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<FileContent> leader = executor.submit(() -> previewService.getPreview(path, userId, metadata));
+            assertTrue(generating.await(5, TimeUnit.SECONDS));
+            Future<FileContent> follower = executor.submit(() -> previewService.getPreview(path, userId, metadata));
+            for (int i = 0; i < 500 && meterRegistry.counter("app.preview.generate.coalesced").count() < 1; i++) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            assertArrayEquals(new byte[]{1, 2, 3}, leader.get(5, TimeUnit.SECONDS).inputStream().readAllBytes());
+            assertArrayEquals(new byte[]{1, 2, 3}, follower.get(5, TimeUnit.SECONDS).inputStream().readAllBytes());
+        }
+        verify(fileStoragePort, times(1)).retrieve(path, userId);
+        verify(previewGeneratorPort, times(1)).generate(any(), any());
+        verify(previewCachePort, times(1)).put(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Should not run more decodes at once than permitted")
+    void shouldLimitConcurrentDecodes() throws Exception {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        when(fileStoragePort.retrieve(anyString(), eq(userId))).thenAnswer(invocation -> new FileContent("a.jpg",
+                "image/jpeg", 100, new ByteArrayInputStream(new byte[100])));
+        when(previewGeneratorPort.supports("image/jpeg")).thenReturn(true);
+        when(previewGeneratorPort.generate(any(), eq(PreviewType.THUMBNAIL))).thenAnswer(invocation -> {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            active.decrementAndGet();
+            return new FileContent("thumb.jpg", "image/jpeg", 1, new ByteArrayInputStream(new byte[]{1}));
+        });
+
+        List<Future<FileContent>> previews = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 8; i++) {
+                String path = "/images/" + i + ".jpg";
+                previews.add(executor.submit(() -> previewService.getPreview(path, userId, metadata("\"1-64-1\""))));
+            }
+            for (Future<FileContent> preview : previews) {
+                assertNotNull(preview.get(5, TimeUnit.SECONDS));
+            }
+        }
+        assertTrue(maxActive.get() <= 2);
+    }
+
+    @Test
+    @DisplayName("Should derive the decode limit from processors and heap unless configured")
+    void shouldDeriveDecodeLimit() {
+        long gigabyte = 1024L * 1024 * 1024;
+
+        assertEquals(3, PreviewService.decodeLimit(3, 16, gigabyte));
+        assertEquals(4, PreviewService.decodeLimit(0, 16, gigabyte));
+        assertEquals(8, PreviewService.decodeLimit(0, 8, 8 * gigabyte));
+        assertEquals(1, PreviewService.decodeLimit(0, 4, 128L * 1024 * 1024));
+    }
+
+    private static FileMetadata metadata(String entityTag) {
+        return new FileMetadata("file.jpg", "image/jpeg", 100, Instant.parse("2026-01-01T00:00:00Z"), entityTag);
     }
 
 }
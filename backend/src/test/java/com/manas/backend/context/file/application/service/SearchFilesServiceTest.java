@@ -0,0 +1,40 @@
+package com.manas.backend.context.file.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import com.manas.backend.context.file.application.port.in.SearchFilesQuery;
+import com.manas.backend.context.file.application.port.out.FileSearchPort;
+import com.manas.backend.context.file.domain.FileSearchResult;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class SearchFilesServiceTest {
+
+    @Mock
+    private FileSearchPort fileSearchPort;
+
+    @InjectMocks
+    private SearchFilesService searchFilesService;
+
+    @Test
+    void shouldNormalizeQueryAndPaging() {
+        searchFilesService.search(new SearchFilesQuery("  holiday ", UUID.randomUUID(), -5, 9999));
+
+        verify(fileSearchPort).search("holiday", 0, 200);
+    }
+
+    @Test
+    void shouldReturnEmptyResultForBlankQuery() {
+        FileSearchResult result = searchFilesService.search(new SearchFilesQuery("   ", UUID.randomUUID(), 0, 20));
+
+        assertEquals(0, result.totalCount());
+        verifyNoInteractions(fileSearchPort);
+    }
+}
@@ -0,0 +1,136 @@
+package com.manas.backend.context.file.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+import com.manas.backend.context.file.application.port.out.FileScanPort;
+import com.manas.backend.context.file.application.port.out.PreviewGeneratorPort;
+import com.manas.backend.context.file.application.service.ThumbnailPregenerator.Priority;
+import com.manas.backend.context.file.domain.FileNode;
+import com.manas.backend.context.file.domain.event.DirectoryListedEvent;
+import com.manas.backend.context.file.domain.event.FileUploadedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ThumbnailPregeneratorTest {
+
+    @Mock
+    private PreviewService previewService;
+    @Mock
+    private PreviewGeneratorPort previewGeneratorPort;
+    @Mock
+    private FileScanPort fileScanPort;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ThumbnailPregenerator pregenerator;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        pregenerator = new ThumbnailPregenerator(previewService, previewGeneratorPort, fileScanPort, meterRegistry,
+                true, 1, 3, Duration.ofDays(1));
+        userId = UUID.randomUUID();
+    }
+
+    @Test
+    void shouldTakeViewedFilesFirstAndNewestFirstWithinPriority() throws InterruptedException {
+        given(previewGeneratorPort.supports("image/jpeg")).willReturn(true);
+
+        pregenerator.onFileUploaded(new FileUploadedEvent(userId, "/up/1.jpg", 1, Instant.now(), "a"));
+        pregenerator.onFileUploaded(new FileUploadedEvent(userId, "/up/2.jpg", 1, Instant.now(), "b"));
+        pregenerator.onDirectoryListed(new DirectoryListedEvent(userId, "/grid",
+                List.of(image("/grid/a.jpg"), directory("/grid/sub"), image("/grid/b.jpg")), Instant.now()));
+
+        assertThat(List.of(next(), next(), next(), next()))
+                .containsExactly("/grid/b.jpg", "/grid/a.jpg", "/up/2.jpg", "/up/1.jpg");
+    }
+
+    @Test
+    void shouldRaisePriorityOfQueuedFile() throws InterruptedException {
+        given(previewGeneratorPort.supports("image/jpeg")).willReturn(true);
+        pregenerator.enqueue("/up/1.jpg", userId, Priority.UPLOADED);
+        pregenerator.enqueue("/up/2.jpg", userId, Priority.UPLOADED);
+
+        pregenerator.onDirectoryListed(new DirectoryListedEvent(userId, "/up", List.of(image("/up/1.jpg")),
+                Instant.now()));
+        pregenerator.enqueue("/up/1.jpg", userId, Priority.SCANNED);
+
+        assertThat(next()).isEqualTo("/up/1.jpg");
+        assertThat(next()).isEqualTo("/up/2.jpg");
+        assertThat(meterRegistry.get("app.preview.pregenerate.queued").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldBoundQueueExceptForViewedFiles() {
+        assertThat(pregenerator.enqueue("/1.jpg", null, Priority.SCANNED)).isTrue();
+        assertThat(pregenerator.enqueue("/2.jpg", null, Priority.SCANNED)).isTrue();
+        assertThat(pregenerator.enqueue("/3.jpg", null, Priority.UPLOADED)).isTrue();
+
+        assertThat(pregenerator.enqueue("/4.jpg", null, Priority.SCANNED)).isFalse();
+        assertThat(pregenerator.enqueue("/5.jpg", userId, Priority.VIEWED)).isTrue();
+    }
+
+    @Test
+    void shouldKeepScanWatermarkWhenQueueOverflows() {
+        given(previewGeneratorPort.supports("image/jpeg")).willReturn(true);
+        List<Instant> scannedSince = new ArrayList<>();
+        given(fileScanPort.scanChangedSince(any(), any())).willAnswer(invocation -> {
+            scannedSince.add(invocation.getArgument(0));
+            Predicate<FileNode> consumer = invocation.getArgument(1);
+            for (int i = 0; i < 5; i++) {
+                if (!consumer.test(image("/scan/" + i + ".jpg"))) {
+                    return false;
+                }
+            }
+            return true;
+        });
+
+        pregenerator.scan();
+        pregenerator.scan();
+
+        assertThat(scannedSince).hasSize(2);
+        assertThat(scannedSince.get(1)).isEqualTo(scannedSince.get(0));
+    }
+
+    @Test
+    void shouldCountFailuresWithoutStopping() {
+        given(previewService.pregenerate("/broken.jpg", userId)).willThrow(new IllegalStateException("corrupt"));
+        given(previewService.pregenerate("/fine.jpg", userId)).willReturn(true);
+
+        pregenerator.process(new ThumbnailPregenerator.Task("/broken.jpg", userId, Priority.UPLOADED, 1));
+        pregenerator.process(new ThumbnailPregenerator.Task("/fine.jpg", userId, Priority.UPLOADED, 2));
+
+        verify(previewService).pregenerate(eq("/fine.jpg"), eq(userId));
+        assertThat(meterRegistry.counter("app.preview.pregenerate.failed").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("app.preview.pregenerate.generated").count()).isEqualTo(1.0);
+    }
+
+    private String next() throws InterruptedException {
+        return pregenerator.take().path();
+    }
+
+    private static FileNode image(String path) {
+        return new FileNode(path.substring(path.lastIndexOf('/') + 1), path, false, 10, Instant.EPOCH, "system",
+                null, null, "image/jpeg");
+    }
+
+    private static FileNode directory(String path) {
+        return new FileNode(path.substring(path.lastIndexOf('/') + 1), path, true, 0, Instant.EPOCH, "system",
+                null, null, null);
+    }
+}
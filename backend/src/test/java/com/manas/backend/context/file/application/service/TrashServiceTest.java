@@ -0,0 +1,156 @@
+package com.manas.backend.context.file.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import com.manas.backend.common.exception.ResourceNotFoundException;
+import com.manas.backend.context.file.application.port.out.TrashPort;
+import com.manas.backend.context.file.domain.TrashedEntry;
+import com.manas.backend.context.file.domain.event.FileRestoredEvent;
+import com.manas.backend.context.system.application.port.in.RecordAuditLogUseCase;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.util.unit.DataSize;
+
+class TrashServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-01T12:00:00Z");
+
+    private TrashPort trashPort;
+    private RecordAuditLogUseCase recordAuditLogUseCase;
+    private ApplicationEventPublisher eventPublisher;
+    private TrashService service;
+
+    @BeforeEach
+    void setUp() {
+        trashPort = mock(TrashPort.class);
+        recordAuditLogUseCase = mock(RecordAuditLogUseCase.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        service = new TrashService(trashPort, recordAuditLogUseCase, eventPublisher, Duration.ofDays(30),
+                DataSize.ofBytes(100), DataSize.ofBytes(1000));
+    }
+
+    @Test
+    @DisplayName("Should select expired entries and the oldest entries beyond each volume's maximum size")
+    void selectForPurge_RetentionAndQuota() {
+        TrashedEntry expired = entry("expired", "/a", 10, NOW.minus(Duration.ofDays(31)));
+        TrashedEntry newest = entry("newest", "/a", 60, NOW.minus(Duration.ofHours(1)));
+        TrashedEntry older = entry("older", "/a", 30, NOW.minus(Duration.ofDays(2)));
+        TrashedEntry overQuota = entry("over", "/a", 20, NOW.minus(Duration.ofDays(3)));
+        TrashedEntry unknownSize = entry("unknown", "/a", -1, NOW.minus(Duration.ofDays(4)));
+        TrashedEntry otherVolume = entry("other", "/b", 90, NOW.minus(Duration.ofDays(5)));
+
+        List<TrashedEntry> selected = service.selectForPurge(
+                List.of(newest, expired, older, overQuota, unknownSize, otherVolume), NOW);
+
+        // 60 + 30 fit into 100 bytes; the next entry overflows, and everything older than it goes too.
+        assertThat(selected).extracting(TrashedEntry::id).containsExactly("expired", "unknown", "over");
+    }
+
+    @Test
+    @DisplayName("Should keep purging after an entry fails")
+    void purge_ContinuesAfterFailure() {
+        TrashedEntry first = entry("first", "/a", 1, NOW.minus(Duration.ofDays(40)));
+        TrashedEntry second = entry("second", "/a", 1, NOW.minus(Duration.ofDays(35)));
+        given(trashPort.listTrash()).willReturn(List.of(second, first));
+        willThrow(new IllegalStateException("busy")).given(trashPort).purge("first");
+
+        service.purge();
+
+        verify(trashPort).purge("first");
+        verify(trashPort).purge("second");
+    }
+
+    @Test
+    @DisplayName("Should publish an event and audit a restore")
+    void restore_Success() {
+        UUID userId = UUID.randomUUID();
+        TrashedEntry entry = entry("id", "/a", 1, NOW);
+        given(trashPort.restore("id", userId)).willReturn(entry);
+
+        assertThat(service.restore("id", userId)).isEqualTo(entry);
+
+        verify(eventPublisher).publishEvent(any(FileRestoredEvent.class));
+        verify(recordAuditLogUseCase).record(userId, "RESTORE_FILE", "/a/id", "N/A", "SUCCESS");
+    }
+
+    @Test
+    @DisplayName("Should audit a failed restore")
+    void restore_Failure() {
+        UUID userId = UUID.randomUUID();
+        given(trashPort.restore("missing", userId)).willThrow(new ResourceNotFoundException("gone"));
+
+        assertThatThrownBy(() -> service.restore("missing", userId)).isInstanceOf(ResourceNotFoundException.class);
+
+        verify(eventPublisher, never()).publishEvent(any());
+        verify(recordAuditLogUseCase).record(userId, "RESTORE_FILE", "missing", "N/A", "FAILURE");
+    }
+
+    @Test
+    @DisplayName("Should audit purging a single entry")
+    void purgeEntry_Audited() {
+        UUID userId = UUID.randomUUID();
+
+        service.purge("id", userId);
+
+        verify(trashPort).purge("id");
+        verify(recordAuditLogUseCase).record(userId, "PURGE_TRASH", "id", "N/A", "SUCCESS");
+    }
+
+    @Test
+    @DisplayName("Should empty the trash oldest first in the background and audit every entry")
+    void emptyTrash_PurgesEverything() {
+        UUID userId = UUID.randomUUID();
+        TrashedEntry newer = entry("newer", "/a", 1, NOW.minus(Duration.ofHours(1)));
+        TrashedEntry older = entry("older", "/b", 1, NOW.minus(Duration.ofDays(1)));
+        given(trashPort.listTrash()).willReturn(List.of(newer, older));
+        willThrow(new IllegalStateException("busy")).given(trashPort).purge("newer");
+
+        service.emptyTrash(userId);
+
+        verify(recordAuditLogUseCase, timeout(5000)).record(userId, "EMPTY_TRASH", "older (+1 more)", "N/A",
+                "PARTIAL", "PURGED older\nFAILED newer: busy");
+        InOrder order = inOrder(trashPort);
+        order.verify(trashPort).purge("older");
+        order.verify(trashPort).purge("newer");
+    }
+
+    @Test
+    @DisplayName("Should purge the oldest entries of a volume only until it has enough free space")
+    void purgeForFreeSpace_StopsWhenEnoughSpace() {
+        TrashedEntry oldest = entry("oldest", "/a", 500, NOW.minus(Duration.ofDays(3)));
+        TrashedEntry older = entry("older", "/a", 500, NOW.minus(Duration.ofDays(2)));
+        TrashedEntry newest = entry("newest", "/a", 500, NOW.minus(Duration.ofDays(1)));
+        TrashedEntry roomy = entry("roomy", "/b", 500, NOW.minus(Duration.ofDays(5)));
+        given(trashPort.listTrash()).willReturn(List.of(newest, roomy, oldest, older));
+        given(trashPort.getAvailableSpace("/a")).willReturn(100L, 600L, 1100L);
+        given(trashPort.getAvailableSpace("/b")).willReturn(5000L);
+
+        service.purgeForFreeSpace();
+
+        InOrder order = inOrder(trashPort);
+        order.verify(trashPort).purge("oldest");
+        order.verify(trashPort).purge("older");
+        verify(trashPort, never()).purge("newest");
+        verify(trashPort, never()).purge("roomy");
+    }
+
+    private static TrashedEntry entry(String id, String volume, long size, Instant deletedAt) {
+        return new TrashedEntry(id, volume, volume + "/" + id, false, size, deletedAt, null);
+    }
+}
@@ -0,0 +1,251 @@
+package com.manas.backend.context.file.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.manas.backend.common.exception.ConflictException;
+import com.manas.backend.common.exception.ResourceNotFoundException;
+import com.manas.backend.context.file.application.port.in.CreateUploadSessionCommand;
+import com.manas.backend.context.file.application.port.in.UploadChunkCommand;
+import com.manas.backend.context.file.application.port.out.FileStoragePort;
+import com.manas.backend.context.file.application.port.out.LoadUploadSessionPort;
+import com.manas.backend.context.file.application.port.out.SaveUploadSessionPort;
+import com.manas.backend.context.file.application.port.out.UploadStagingPort;
+import com.manas.backend.context.file.domain.FileValidator;
+import com.manas.backend.context.file.domain.UploadSession;
+import com.manas.backend.context.file.domain.event.FileUploadedEvent;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+@ExtendWith(MockitoExtension.class)
+class UploadSessionServiceTest {
+
+    @Mock
+    private LoadUploadSessionPort loadUploadSessionPort;
+
+    @Mock
+    private SaveUploadSessionPort saveUploadSessionPort;
+
+    @Mock
+    private UploadStagingPort uploadStagingPort;
+
+    @Mock
+    private FileStoragePort fileStoragePort;
+
+    @Mock
+    private FileValidator fileValidator;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private UploadSessionService service;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        service = new UploadSessionService(loadUploadSessionPort, saveUploadSessionPort, uploadStagingPort,
+                fileStoragePort, fileValidator, eventPublisher, Duration.ofHours(24));
+        userId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("Should create a session and its partial file")
+    void shouldCreateSession() {
+        when(loadUploadSessionPort.findByTargetPath("/videos/big.mkv")).thenReturn(Optional.empty());
+        when(fileStoragePort.getAvailableDiskSpace()).thenReturn(Long.MAX_VALUE);
+
+        UploadSession session = service.create(
+                new CreateUploadSessionCommand("big.mkv", "/videos/", 5_000L, userId, " ABCDEF "));
+
+        assertEquals("/videos/big.mkv", session.targetPath());
+        assertEquals(0L, session.committedOffset());
+        assertEquals("abcdef", session.checksumSha256());
+        verify(fileValidator).validate("big.mkv", 5_000L);
+        verify(saveUploadSessionPort).save(session);
+        verify(uploadStagingPort).createPartial("/videos/big.mkv", session.id());
+    }
+
+    @Test
+    @DisplayName("Should resume the caller's existing session for the same target")
+    void shouldResumeExistingSession() {
+        UploadSession existing = session(userId, 1_000L, 400L);
+        when(loadUploadSessionPort.findByTargetPath("/videos/big.mkv")).thenReturn(Optional.of(existing));
+
+        UploadSession session = service.create(
+                new CreateUploadSessionCommand("big.mkv", "/videos", 1_000L, userId, null));
+
+        assertSame(existing, session);
+        verify(uploadStagingPort, never()).createPartial(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should find the existing session through an equivalent spelling of its path")
+    void shouldNormalizeTargetPath() {
+        UploadSession existing = session(UUID.randomUUID(), 1_000L, 400L);
+        when(loadUploadSessionPort.findByTargetPath("/videos/big.mkv")).thenReturn(Optional.of(existing));
+
+        assertThrows(ConflictException.class, () -> service.create(
+                new CreateUploadSessionCommand("big.mkv", "videos//", 1_000L, userId, null)));
+    }
+
+    @Test
+    @DisplayName("Should reject a second upload to the same path by another user")
+    void shouldRejectConcurrentUploadToSamePath() {
+        UploadSession existing = session(UUID.randomUUID(), 1_000L, 400L);
+        when(loadUploadSessionPort.findByTargetPath("/videos/big.mkv")).thenReturn(Optional.of(existing));
+
+        assertThrows(ConflictException.class, () -> service.create(
+                new CreateUploadSessionCommand("big.mkv", "/videos", 1_000L, userId, null)));
+    }
+
+    @Test
+    @DisplayName("Should append a chunk at the committed offset and persist the new offset")
+    void shouldAppendChunk() {
+        UploadSession existing = session(userId, 1_000L, 400L);
+        var content = new ByteArrayInputStream("chunk".getBytes(StandardCharsets.UTF_8));
+        when(loadUploadSessionPort.findById(existing.id())).thenReturn(Optional.of(existing));
+        when(uploadStagingPort.appendPartial("/videos/big.mkv", existing.id(), 400L, content, 600L))
+                .thenReturn(405L);
+
+        UploadSession updated = service.appendChunk(new UploadChunkCommand(existing.id(), userId, 400L, content));
+
+        assertEquals(405L, updated.committedOffset());
+        verify(saveUploadSessionPort).save(updated);
+    }
+
+    @Test
+    @DisplayName("Should reject a chunk at a stale offset")
+    void shouldRejectStaleOffset() {
+        UploadSession existing = session(userId, 1_000L, 400L);
+        when(loadUploadSessionPort.findById(existing.id())).thenReturn(Optional.of(existing));
+
+        assertThrows(ConflictException.class, () -> service.appendChunk(
+                new UploadChunkCommand(existing.id(), userId, 0L, new ByteArrayInputStream(new byte[1]))));
+
+        verify(uploadStagingPort, never()).appendPartial(any(), any(), anyLong(), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should hide sessions of other users")
+    void shouldHideForeignSession() {
+        UploadSession existing = session(UUID.randomUUID(), 1_000L, 400L);
+        when(loadUploadSessionPort.findById(existing.id())).thenReturn(Optional.of(existing));
+
+        assertThrows(ResourceNotFoundException.class, () -> service.getSession(existing.id(), userId));
+    }
+
+    @Test
+    @DisplayName("Should refuse to complete before all bytes are committed")
+    void shouldRejectIncompleteCompletion() {
+        UploadSession existing = session(userId, 1_000L, 400L);
+        when(loadUploadSessionPort.findById(existing.id())).thenReturn(Optional.of(existing));
+
+        assertThrows(ConflictException.class, () -> service.complete(existing.id(), userId));
+
+        verify(uploadStagingPort, never()).commitPartial(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should commit the partial file, drop the session and publish the upload event")
+    void shouldCompleteSession() {
+        UploadSession existing = session(userId, 1_000L, 1_000L);
+        when(loadUploadSessionPort.findById(existing.id())).thenReturn(Optional.of(existing));
+        when(uploadStagingPort.openPartial("/videos/big.mkv", existing.id()))
+                .thenReturn(new ByteArrayInputStream(new byte[1_000]));
+
+        String path = service.complete(existing.id(), userId);
+
+        assertEquals("/videos/big.mkv", path);
+        verify(uploadStagingPort).commitPartial("/videos/big.mkv", existing.id(), userId);
+        verify(saveUploadSessionPort).delete(existing.id());
+        ArgumentCaptor<FileUploadedEvent> event = ArgumentCaptor.forClass(FileUploadedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(1_000L, event.getValue().size());
+        assertEquals(64, event.getValue().sha256().length());
+    }
+
+    @Test
+    @DisplayName("Should hash chunks while they are written and not re-read the file on completion")
+    void shouldUseRunningDigestOnCompletion() {
+        String sha256 = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+        UploadSession created = new UploadSession(UUID.randomUUID(), userId, "/videos/big.mkv", 5L, 0L, sha256,
+                Instant.now(), Instant.now().plus(Duration.ofHours(1)));
+        when(loadUploadSessionPort.findById(created.id()))
+                .thenReturn(Optional.of(created))
+                .thenReturn(Optional.of(created.withProgress(2L, created.expiresAt())))
+                .thenReturn(Optional.of(created.withProgress(5L, created.expiresAt())));
+        when(uploadStagingPort.appendPartial(eq("/videos/big.mkv"), eq(created.id()), anyLong(), any(), anyLong()))
+                .thenAnswer(invocation -> invocation.<Long>getArgument(2)
+                        + invocation.<InputStream>getArgument(3).readAllBytes().length);
+
+        service.appendChunk(new UploadChunkCommand(created.id(), userId, 0L, stream("he")));
+        service.appendChunk(new UploadChunkCommand(created.id(), userId, 2L, stream("llo")));
+        service.complete(created.id(), userId);
+
+        verify(uploadStagingPort, never()).openPartial(any(), any());
+        verify(uploadStagingPort).commitPartial("/videos/big.mkv", created.id(), userId);
+        ArgumentCaptor<FileUploadedEvent> event = ArgumentCaptor.forClass(FileUploadedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(sha256, event.getValue().sha256());
+    }
+
+    @Test
+    @DisplayName("Should discard a completed upload whose checksum does not match")
+    void shouldDiscardOnChecksumMismatch() {
+        UploadSession existing = new UploadSession(UUID.randomUUID(), userId, "/videos/big.mkv", 3L, 3L,
+                "0".repeat(64), Instant.now(), Instant.now().plus(Duration.ofHours(1)));
+        when(loadUploadSessionPort.findById(existing.id())).thenReturn(Optional.of(existing));
+        when(uploadStagingPort.openPartial("/videos/big.mkv", existing.id()))
+                .thenReturn(new ByteArrayInputStream("abc".getBytes(StandardCharsets.UTF_8)));
+
+        assertThrows(IllegalArgumentException.class, () -> service.complete(existing.id(), userId));
+
+        verify(uploadStagingPort).deletePartial("/videos/big.mkv", existing.id());
+        verify(saveUploadSessionPort).delete(existing.id());
+        verify(uploadStagingPort, never()).commitPartial(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should purge expired sessions and their partial files")
+    void shouldPurgeExpiredSessions() {
+        UploadSession expired = new UploadSession(UUID.randomUUID(), userId, "/videos/old.mkv", 10L, 5L, null,
+                Instant.now().minus(Duration.ofDays(2)), Instant.now().minus(Duration.ofDays(1)));
+        when(loadUploadSessionPort.findExpired(any())).thenReturn(List.of(expired));
+
+        service.purgeExpired();
+
+        verify(uploadStagingPort).deletePartial("/videos/old.mkv", expired.id());
+        verify(saveUploadSessionPort).delete(eq(expired.id()));
+    }
+
+    private static UploadSession session(UUID owner, long totalSize, long committedOffset) {
+        Instant now = Instant.now();
+        return new UploadSession(UUID.randomUUID(), owner, "/videos/big.mkv", totalSize, committedOffset, null,
+                now, now.plus(Duration.ofHours(1)));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
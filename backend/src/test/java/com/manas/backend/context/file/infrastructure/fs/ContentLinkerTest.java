@@ -0,0 +1,65 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ContentLinkerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should share the data of the source, by reflink where supported and by hard link otherwise")
+    void shouldLinkContent() throws IOException {
+        Path source = Files.writeString(tempDir.resolve("source.bin"), "shared content");
+        Path target = tempDir.resolve("target.bin");
+
+        ContentLinker.Method method = new ContentLinker(true).link(source, target);
+
+        assertEquals("shared content", Files.readString(target));
+        if (method == ContentLinker.Method.HARDLINK) {
+            assertEquals(fileKey(source), fileKey(target));
+        } else {
+            // A reflink is a file of its own that shares extents; tmpfs and ext4 never get here.
+            assertEquals(ContentLinker.Method.REFLINK, method);
+            assertNotEquals(fileKey(source), fileKey(target));
+        }
+    }
+
+    @Test
+    @DisplayName("Should copy instead of hard linking when hard links are disabled")
+    void shouldCopyWithoutHardLinks() throws IOException {
+        Path source = Files.writeString(tempDir.resolve("source.bin"), "content");
+        Path target = tempDir.resolve("target.bin");
+
+        ContentLinker.Method method = new ContentLinker(false).link(source, target);
+
+        assertNotEquals(ContentLinker.Method.HARDLINK, method);
+        assertNotEquals(fileKey(source), fileKey(target));
+        assertEquals("content", Files.readString(target));
+    }
+
+    @Test
+    @DisplayName("Should never replace an existing target")
+    void shouldRefuseExistingTarget() throws IOException {
+        Path source = Files.writeString(tempDir.resolve("source.bin"), "new");
+        Path target = Files.writeString(tempDir.resolve("target.bin"), "old");
+
+        assertThrows(FileAlreadyExistsException.class, () -> new ContentLinker(true).link(source, target));
+        assertEquals("old", Files.readString(target));
+    }
+
+    private static Object fileKey(Path path) throws IOException {
+        return Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+    }
+}
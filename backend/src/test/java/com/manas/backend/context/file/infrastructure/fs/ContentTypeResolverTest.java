@@ -0,0 +1,106 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ContentTypeResolverTest {
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 0x0D};
+    private static final byte[] ZIP = {'P', 'K', 0x03, 0x04, 0x14, 0, 0, 0};
+
+    @TempDir
+    Path tempDir;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ContentTypeResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        resolver = new ContentTypeResolver(meterRegistry, 100);
+    }
+
+    @Test
+    @DisplayName("Should prefer the magic number over a wrong or missing extension")
+    void shouldSniffMagicNumber() throws IOException {
+        assertEquals("image/png", resolve(Files.write(tempDir.resolve("photo.jpg"), PNG)));
+        assertEquals("image/png", resolve(Files.write(tempDir.resolve("photo"), PNG)));
+        assertEquals("image/jpeg", resolve(Files.write(tempDir.resolve("IMG_0001"),
+                new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0})));
+        assertEquals("image/heic", resolve(Files.write(tempDir.resolve("IMG_0002"),
+                new byte[]{0, 0, 0, 0x18, 'f', 't', 'y', 'p', 'h', 'e', 'i', 'c'})));
+    }
+
+    @Test
+    @DisplayName("Should let a known extension name the format of a generic container")
+    void shouldRefineContainers() throws IOException {
+        assertEquals("application/vnd.openxmlformats-officedocument.wordprocessingml.document",
+                resolve(Files.write(tempDir.resolve("report.docx"), ZIP)));
+        assertEquals("application/zip", resolve(Files.write(tempDir.resolve("archive"), ZIP)));
+        assertEquals("application/zip", resolve(Files.write(tempDir.resolve("archive.txt"), ZIP)));
+    }
+
+    @Test
+    @DisplayName("Should fall back to the extension, then to a text heuristic")
+    void shouldFallBackToExtensionAndText() throws IOException {
+        assertEquals("text/csv", resolve(Files.writeString(tempDir.resolve("data.csv"), "a,b\n1,2\n")));
+        assertEquals("text/plain", resolve(Files.writeString(tempDir.resolve("README"), "Grüße\tfrom the NAS\n")));
+        assertEquals("application/octet-stream", resolve(Files.write(tempDir.resolve("blob"),
+                new byte[]{0x00, 0x01, 0x02, 0x03, (byte) 0x9F})));
+    }
+
+    @Test
+    @DisplayName("Should accept a UTF-8 sequence cut off by the sniffed prefix")
+    void shouldAcceptTruncatedUtf8() {
+        byte[] head = new byte[ContentTypeResolver.SNIFF_LENGTH];
+        Arrays.fill(head, (byte) 'a');
+        head[head.length - 1] = (byte) 0xEC;
+
+        assertEquals("text/plain", ContentTypeResolver.sniff(head, head.length));
+    }
+
+    @Test
+    @DisplayName("Should cache sniff results per file key and mtime")
+    void shouldCacheByFileKeyAndModificationTime() throws IOException {
+        Path file = Files.write(tempDir.resolve("photo"), PNG);
+
+        resolve(file);
+        assertEquals("image/png", resolve(file));
+        assertEquals(1.0, meterRegistry.counter("app.content-type.cache.hit").count());
+
+        Files.write(file, ZIP);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1000));
+        assertEquals("application/zip", resolve(file));
+        assertEquals(2.0, meterRegistry.counter("app.content-type.cache.miss").count());
+    }
+
+    @Test
+    @DisplayName("Should resolve listed files from the cache or the extension without opening them")
+    void shouldResolveListedEntries() throws IOException {
+        Path file = Files.write(tempDir.resolve("scan"), PNG);
+        var attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        long modified = attrs.lastModifiedTime().to(TimeUnit.MICROSECONDS);
+
+        assertEquals("application/octet-stream", resolver.resolveListed(file, "scan", attrs.fileKey(), modified));
+        assertEquals("video/mp4", resolver.resolveListed(null, "clip.MP4", null, modified));
+
+        resolve(file);
+        assertEquals("image/png", resolver.resolveListed(file, "scan", attrs.fileKey(), modified));
+    }
+
+    private String resolve(Path file) throws IOException {
+        return resolver.resolve(file, Files.readAttributes(file, BasicFileAttributes.class));
+    }
+}
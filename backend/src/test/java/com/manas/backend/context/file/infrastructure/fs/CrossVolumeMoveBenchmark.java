@@ -0,0 +1,79 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import com.manas.backend.context.file.domain.TransferProgress;
+import com.manas.backend.context.file.domain.VolumePermits;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Compares moving a large file between two volumes with a plain stream copy (what {@link Files#move} falls back
+ * to) and with {@link CrossVolumeMover}. Source and target must be on different disks to mean anything:
+ * {@code BENCHMARK_MOVE_SOURCE_DIR} and {@code BENCHMARK_MOVE_TARGET_DIR} (default: both in the system temp
+ * directory). Run with {@code RUN_BENCHMARKS=true ./gradlew test --rerun --tests '*CrossVolumeMoveBenchmark'}.
+ * File size and checkpoint interval can be overridden with {@code BENCHMARK_MOVE_SIZE_MB} (default 4096) and
+ * {@code BENCHMARK_MOVE_CHECKPOINT_MB} (default 1024).
+ */
+@EnabledIfEnvironmentVariable(named = "RUN_BENCHMARKS", matches = "true")
+class CrossVolumeMoveBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(CrossVolumeMoveBenchmark.class);
+
+    private static final int MB = 1024 * 1024;
+
+    @Test
+    void compareCrossVolumeMoves() throws Exception {
+        long sizeMb = Long.parseLong(System.getenv().getOrDefault("BENCHMARK_MOVE_SIZE_MB", "4096"));
+        long checkpointMb = Long.parseLong(System.getenv().getOrDefault("BENCHMARK_MOVE_CHECKPOINT_MB", "1024"));
+        String temp = System.getProperty("java.io.tmpdir");
+        Path source = Files.createTempDirectory(Path.of(System.getenv().getOrDefault("BENCHMARK_MOVE_SOURCE_DIR",
+                temp)), "move-source-");
+        Path target = Files.createTempDirectory(Path.of(System.getenv().getOrDefault("BENCHMARK_MOVE_TARGET_DIR",
+                temp)), "move-target-");
+        var deleter = new RecursiveDeleter("/", new VolumePermits(8, 1));
+
+        try {
+            Path file = createFile(source.resolve("stream.bin"), sizeMb);
+            long start = System.nanoTime();
+            try (InputStream in = Files.newInputStream(file);
+                 OutputStream out = Files.newOutputStream(target.resolve("stream.bin"))) {
+                in.transferTo(out);
+            }
+            Files.delete(file);
+            report("stream copy + delete", sizeMb, System.nanoTime() - start);
+
+            file = createFile(source.resolve("mover.bin"), sizeMb);
+            var mover = new CrossVolumeMover(deleter, DataSize.ofMegabytes(checkpointMb), "size");
+            start = System.nanoTime();
+            mover.move(file, target.resolve("mover.bin"), TransferProgress.NONE);
+            report("CrossVolumeMover (checkpoint every " + checkpointMb + " MB)", sizeMb, System.nanoTime() - start);
+        } finally {
+            deleter.delete(source);
+            deleter.delete(target);
+        }
+    }
+
+    private static Path createFile(Path file, long sizeMb) throws IOException {
+        byte[] block = new byte[MB];
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (long i = 0; i < sizeMb; i++) {
+                block[0] = (byte) i;
+                out.write(block);
+            }
+        }
+        return file;
+    }
+
+    private static void report(String mode, long sizeMb, long elapsedNanos) {
+        log.info("{}: {} MB in {} ms ({} MB/s)", mode, sizeMb, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                String.format("%.0f", sizeMb / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1))));
+    }
+}
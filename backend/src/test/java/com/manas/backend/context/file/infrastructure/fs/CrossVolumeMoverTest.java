@@ -0,0 +1,174 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.manas.backend.context.file.domain.VolumePermits;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class CrossVolumeMoverTest {
+
+    private static final int MB = 1024 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should copy the tree with links and timestamps, then delete the source and staging files")
+    void shouldMoveTree() throws IOException {
+        Path source = Files.createDirectories(tempDir.resolve("volume-a/photos/2024"));
+        Files.writeString(source.resolve("a.jpg"), "first");
+        Files.createFile(source.resolve("empty.txt"));
+        Files.createSymbolicLink(source.resolve("latest"), Path.of("a.jpg"));
+        FileTime modified = FileTime.from(Instant.parse("2024-05-01T10:00:00Z"));
+        Files.setLastModifiedTime(source.resolve("a.jpg"), modified);
+        Path destination = Files.createDirectory(tempDir.resolve("volume-b")).resolve("2024");
+        List<Long> progress = new ArrayList<>();
+
+        mover(DataSize.ofGigabytes(1)).move(source, destination, (done, total) -> progress.add(done));
+
+        assertTrue(Files.notExists(source));
+        assertEquals("first", Files.readString(destination.resolve("a.jpg")));
+        assertEquals(modified, Files.getLastModifiedTime(destination.resolve("a.jpg")));
+        assertEquals(0L, Files.size(destination.resolve("empty.txt")));
+        assertEquals(Path.of("a.jpg"), Files.readSymbolicLink(destination.resolve("latest")));
+        assertEquals(5L, progress.getLast());
+        try (Stream<Path> entries = Files.list(tempDir.resolve("volume-b"))) {
+            assertEquals(List.of(destination), entries.toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Should resume an interrupted copy from its last checkpoint")
+    void shouldResumeFromCheckpoint() throws IOException {
+        Path source = Files.createDirectories(tempDir.resolve("volume-a/videos"));
+        byte[] first = randomBytes(3 * MB, 1);
+        byte[] second = randomBytes(5 * MB, 2);
+        Files.write(source.resolve("1.mp4"), first);
+        Files.write(source.resolve("2.mp4"), second);
+        Path destination = Files.createDirectory(tempDir.resolve("volume-b")).resolve("videos");
+        CrossVolumeMover mover = mover(DataSize.ofMegabytes(1));
+
+        // Stops halfway through the second file.
+        assertThrows(IllegalStateException.class, () -> mover.move(source, destination, (done, total) -> {
+            if (done >= 5L * MB) {
+                throw new IllegalStateException("interrupted");
+            }
+        }));
+        assertTrue(Files.exists(source.resolve("2.mp4")));
+        assertFalse(mover.hasVerifiedCopy(source, destination));
+
+        List<Long> progress = new ArrayList<>();
+        mover.move(source, destination, (done, total) -> progress.add(done));
+
+        assertTrue(progress.getFirst() > 4L * MB, "resumed at " + progress.getFirst());
+        assertEquals(8L * MB, progress.getLast());
+        assertArrayEquals(first, Files.readAllBytes(destination.resolve("1.mp4")));
+        assertArrayEquals(second, Files.readAllBytes(destination.resolve("2.mp4")));
+        assertTrue(Files.notExists(source));
+    }
+
+    @Test
+    @DisplayName("Should copy again from the start when the source changed before the checkpoint")
+    void shouldRestartWhenSourceChanged() throws IOException {
+        Path source = Files.createDirectories(tempDir.resolve("volume-a/docs"));
+        Files.write(source.resolve("b.bin"), randomBytes(2 * MB, 3));
+        Files.write(source.resolve("c.bin"), randomBytes(2 * MB, 4));
+        Path destination = Files.createDirectory(tempDir.resolve("volume-b")).resolve("docs");
+        CrossVolumeMover mover = mover(DataSize.ofMegabytes(1));
+
+        assertThrows(IllegalStateException.class, () -> mover.move(source, destination, (done, total) -> {
+            if (done >= 3L * MB) {
+                throw new IllegalStateException("interrupted");
+            }
+        }));
+        Files.writeString(source.resolve("a.txt"), "added later");
+
+        mover.move(source, destination, (done, total) -> {
+        });
+
+        assertEquals("added later", Files.readString(destination.resolve("a.txt")));
+        assertEquals(2L * MB, Files.size(destination.resolve("b.bin")));
+        assertEquals(2L * MB, Files.size(destination.resolve("c.bin")));
+        assertTrue(Files.notExists(source));
+    }
+
+    @Test
+    @DisplayName("Should copy again a file edited in place after it was copied, keeping the rest of the copy")
+    void shouldCopyAgainFilesChangedAfterCheckpoint() throws IOException {
+        Path source = Files.createDirectories(tempDir.resolve("volume-a/reports"));
+        Files.write(source.resolve("1.bin"), randomBytes(2 * MB, 5));
+        Files.setLastModifiedTime(source.resolve("1.bin"), FileTime.from(Instant.parse("2024-05-01T10:00:00Z")));
+        byte[] second = randomBytes(3 * MB, 6);
+        Files.write(source.resolve("2.bin"), second);
+        Path destination = Files.createDirectory(tempDir.resolve("volume-b")).resolve("reports");
+        CrossVolumeMover mover = new CrossVolumeMover(deleter(), DataSize.ofMegabytes(1), "size");
+
+        // Stops in the second file, after the first one is checkpointed.
+        assertThrows(IllegalStateException.class, () -> mover.move(source, destination, (done, total) -> {
+            if (done >= 3L * MB) {
+                throw new IllegalStateException("interrupted");
+            }
+        }));
+        byte[] edited = randomBytes(2 * MB, 7);
+        Files.write(source.resolve("1.bin"), edited);
+
+        List<Long> progress = new ArrayList<>();
+        mover.move(source, destination, (done, total) -> progress.add(done));
+
+        assertTrue(progress.getFirst() > 2L * MB, "resumed at " + progress.getFirst());
+        assertArrayEquals(edited, Files.readAllBytes(destination.resolve("1.bin")));
+        assertArrayEquals(second, Files.readAllBytes(destination.resolve("2.bin")));
+        assertTrue(Files.notExists(source));
+    }
+
+    @Test
+    @DisplayName("Should leave trash, partial uploads and staging entries out of the copy")
+    void shouldSkipExcludedEntries() throws IOException {
+        Path source = Files.createDirectories(tempDir.resolve("volume-a/projects"));
+        Files.writeString(source.resolve("notes.txt"), "keep");
+        Files.writeString(Files.createDirectories(source.resolve(".nas-trash/1")).resolve("old.txt"), "trash");
+        Files.writeString(source.resolve(".upload-42.part"), "partial");
+        Files.writeString(Files.createDirectories(source.resolve("sub/.nas-copy-2c3d")).resolve("x.bin"), "copying");
+        Path destination = Files.createDirectory(tempDir.resolve("volume-b")).resolve("projects");
+        List<Long> totals = new ArrayList<>();
+
+        mover(DataSize.ofGigabytes(1)).move(source, destination, (done, total) -> totals.add(total));
+
+        assertTrue(Files.notExists(source));
+        assertEquals(4L, totals.getLast());
+        try (Stream<Path> entries = Files.walk(destination)) {
+            assertEquals(List.of(destination, destination.resolve("notes.txt"), destination.resolve("sub")),
+                    entries.sorted().toList());
+        }
+    }
+
+    private CrossVolumeMover mover(DataSize checkpointInterval) {
+        return new CrossVolumeMover(deleter(), checkpointInterval, "content");
+    }
+
+    private RecursiveDeleter deleter() {
+        return new RecursiveDeleter(tempDir.toString(), new VolumePermits(4, 1));
+    }
+
+    private static byte[] randomBytes(int size, long seed) {
+        byte[] bytes = new byte[size];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+}
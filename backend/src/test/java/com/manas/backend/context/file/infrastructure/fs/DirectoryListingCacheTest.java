@@ -0,0 +1,70 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.manas.backend.context.file.application.port.in.FileListSort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class DirectoryListingCacheTest {
+
+    private static final FileTime MODIFIED = FileTime.fromMillis(1_000L);
+
+    private DirectoryListingCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new DirectoryListingCache(new SimpleMeterRegistry(), 3);
+    }
+
+    @Test
+    @DisplayName("Should treat snapshot as stale when directory mtime changes")
+    void shouldTreatSnapshotAsStaleWhenMtimeChanges() {
+        Path dir = Path.of("/root/photos");
+        List<PathEntry> entries = List.of(entry(dir, "a.jpg"));
+        cache.put(dir, FileListSort.NAME_ASC, snapshot(entries));
+
+        assertEquals(entries, cache.get(dir, FileListSort.NAME_ASC, MODIFIED).entries());
+        assertNull(cache.get(dir, FileListSort.NAME_ASC, FileTime.fromMillis(2_000L)));
+    }
+
+    @Test
+    @DisplayName("Should evict least recently used snapshots over the entry budget")
+    void shouldEvictLeastRecentlyUsedSnapshots() {
+        Path first = Path.of("/root/first");
+        Path second = Path.of("/root/second");
+        cache.put(first, FileListSort.NAME_ASC, snapshot(List.of(entry(first, "a"), entry(first, "b"))));
+        cache.put(second, FileListSort.NAME_ASC, snapshot(List.of(entry(second, "c"), entry(second, "d"))));
+
+        assertNull(cache.get(first, FileListSort.NAME_ASC, MODIFIED));
+        assertEquals(2, cache.get(second, FileListSort.NAME_ASC, MODIFIED).entries().size());
+    }
+
+    @Test
+    @DisplayName("Should invalidate a directory subtree")
+    void shouldInvalidateSubtree() {
+        Path parent = Path.of("/root/parent");
+        Path child = parent.resolve("child");
+        cache.put(parent, FileListSort.NAME_ASC, snapshot(List.of(entry(parent, "child"))));
+        cache.put(child, FileListSort.MODIFIED_DESC, snapshot(List.of(entry(child, "a"))));
+
+        cache.invalidateTree(parent);
+
+        assertNull(cache.get(parent, FileListSort.NAME_ASC, MODIFIED));
+        assertNull(cache.get(child, FileListSort.MODIFIED_DESC, MODIFIED));
+    }
+
+    private ListingSnapshot snapshot(List<PathEntry> entries) {
+        return new ListingSnapshot(cache.nextVersion(), MODIFIED, entries, entries.size());
+    }
+
+    private static PathEntry entry(Path dir, String name) {
+        return new PathEntry(dir.resolve(name), name, false, 0L, MODIFIED.toInstant());
+    }
+}
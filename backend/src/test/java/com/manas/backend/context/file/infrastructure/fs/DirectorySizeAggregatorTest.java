@@ -0,0 +1,79 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DirectorySizeAggregatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DirectorySizeAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        aggregator = new DirectorySizeAggregator(tempDir.toString(), 2);
+    }
+
+    @Test
+    @DisplayName("Should report no totals before the first walk")
+    void shouldReportNothingBeforeWalk() {
+        assertNull(aggregator.totalsOf(tempDir));
+    }
+
+    @Test
+    @DisplayName("Should aggregate subtree sizes and direct child counts")
+    void shouldAggregateSubtree() throws IOException {
+        Files.createDirectories(tempDir.resolve("a/b"));
+        Files.writeString(tempDir.resolve("a/one.txt"), "x".repeat(10));
+        Files.writeString(tempDir.resolve("a/b/two.txt"), "x".repeat(5));
+        Files.createDirectory(tempDir.resolve(".Trashes"));
+
+        assertTrue(aggregator.rebuild());
+
+        assertEquals(new DirectoryTotals(15, 1), aggregator.totalsOf(tempDir));
+        assertEquals(new DirectoryTotals(15, 2), aggregator.totalsOf(tempDir.resolve("a")));
+        assertEquals(new DirectoryTotals(5, 1), aggregator.totalsOf(tempDir.resolve("a/b")));
+    }
+
+    @Test
+    @DisplayName("Should apply additions and removals to every ancestor")
+    void shouldApplyIncrementalChanges() throws IOException {
+        Files.createDirectories(tempDir.resolve("a/b"));
+        aggregator.rebuild();
+
+        aggregator.fileAdded(tempDir.resolve("a/b/new.bin"), 100);
+        aggregator.fileAdded(tempDir.resolve("a/c/d/deep.bin"), 50);
+        aggregator.removed(tempDir.resolve("a/b/new.bin"), 100);
+
+        assertEquals(new DirectoryTotals(50, 1), aggregator.totalsOf(tempDir));
+        assertEquals(new DirectoryTotals(50, 2), aggregator.totalsOf(tempDir.resolve("a")));
+        assertEquals(new DirectoryTotals(0, 0), aggregator.totalsOf(tempDir.resolve("a/b")));
+        assertEquals(new DirectoryTotals(50, 1), aggregator.totalsOf(tempDir.resolve("a/c/d")));
+    }
+
+    @Test
+    @DisplayName("Should carry subtree totals along when a directory is moved")
+    void shouldMoveSubtreeTotals() throws IOException {
+        Files.createDirectories(tempDir.resolve("src/inner"));
+        Files.createDirectory(tempDir.resolve("dst"));
+        Files.writeString(tempDir.resolve("src/inner/file.txt"), "x".repeat(8));
+        aggregator.rebuild();
+
+        aggregator.moved(tempDir.resolve("src"), tempDir.resolve("dst/src"), 0);
+
+        assertNull(aggregator.totalsOf(tempDir.resolve("src")));
+        assertEquals(new DirectoryTotals(8, 1), aggregator.totalsOf(tempDir.resolve("dst/src/inner")));
+        assertEquals(new DirectoryTotals(8, 1), aggregator.totalsOf(tempDir.resolve("dst")));
+        assertEquals(new DirectoryTotals(8, 1), aggregator.totalsOf(tempDir));
+    }
+}
@@ -0,0 +1,186 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares download transfer paths over a loopback socket:
+ * <ul>
+ *     <li>{@code stream}: {@code Files.newInputStream} copied into an opaque {@link OutputStream}, as the
+ *     servlet path did before</li>
+ *     <li>{@code range}: {@link FileRangeInputStream#transferTo(OutputStream)} with 256 KiB positional reads
+ *     (fallback when sendfile is unavailable)</li>
+ *     <li>{@code sendfile}: {@link FileChannel#transferTo} straight into the socket channel, the kernel path
+ *     Tomcat takes for the region handed over by {@code SendfileTransfer}</li>
+ * </ul>
+ * Run with {@code RUN_BENCHMARKS=true ./gradlew test --rerun --tests '*DownloadTransferBenchmark'}.
+ * Sizes in MB can be overridden with {@code BENCHMARK_TRANSFER_SIZES_MB} (default {@code 1,100,5120}).
+ */
+@EnabledIfEnvironmentVariable(named = "RUN_BENCHMARKS", matches = "true")
+class DownloadTransferBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(DownloadTransferBenchmark.class);
+
+    private static final long MB = 1024L * 1024;
+    private static final long BYTES_PER_MEASUREMENT = 2048 * MB;
+    private static final int MAX_ROUNDS = 200;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void compareTransferPaths() throws Exception {
+        for (long sizeMb : sizes()) {
+            Path file = createFile(sizeMb * MB);
+            int rounds = (int) Math.clamp(BYTES_PER_MEASUREMENT / (sizeMb * MB), 2, MAX_ROUNDS);
+
+            try {
+                for (Mode mode : Mode.values()) {
+                    // Warm-up round, also pulls the file into the page cache.
+                    transfer(mode, file, 1);
+                    Result result = transfer(mode, file, rounds);
+                    log.info("{} MB {}: {} MB/s, cpu {} ms/GB, gc {} collections ({} rounds)",
+                            sizeMb, mode, String.format("%.0f", result.throughputMbPerSecond()),
+                            String.format("%.1f", result.cpuMsPerGb()), result.gcCount(), rounds);
+                }
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private enum Mode {
+        STREAM, RANGE, SENDFILE
+    }
+
+    private record Result(double throughputMbPerSecond, double cpuMsPerGb, long gcCount) {
+    }
+
+    private static long[] sizes() {
+        String configured = System.getenv().getOrDefault("BENCHMARK_TRANSFER_SIZES_MB", "1,100,5120");
+        return Arrays.stream(configured.split(",")).map(String::strip).mapToLong(Long::parseLong).toArray();
+    }
+
+    private Path createFile(long size) throws IOException {
+        Path file = tempDir.resolve("transfer-" + size + ".bin");
+        byte[] block = new byte[(int) Math.min(size, MB)];
+        new Random(size).nextBytes(block);
+
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (long written = 0; written < size; written += block.length) {
+                out.write(block, 0, (int) Math.min(block.length, size - written));
+            }
+        }
+        return file;
+    }
+
+    private static Result transfer(Mode mode, Path file, int rounds) throws Exception {
+        long size = Files.size(file);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        try (var server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            Thread drain = Thread.ofPlatform().start(() -> drain(server));
+
+            try (SocketChannel socket = SocketChannel.open(server.getLocalAddress())) {
+                long gcBefore = gcCount();
+                long cpuBefore = threads.getCurrentThreadCpuTime();
+                long start = System.nanoTime();
+
+                for (int i = 0; i < rounds; i++) {
+                    sendOnce(mode, file, size, socket);
+                }
+
+                long elapsed = System.nanoTime() - start;
+                long cpu = threads.getCurrentThreadCpuTime() - cpuBefore;
+                double totalMb = (double) size * rounds / MB;
+                return new Result(
+                        totalMb / (elapsed / (double) TimeUnit.SECONDS.toNanos(1)),
+                        TimeUnit.NANOSECONDS.toMillis(cpu) / (totalMb / 1024),
+                        gcCount() - gcBefore
+                );
+            } finally {
+                drain.join();
+            }
+        }
+    }
+
+    private static void sendOnce(Mode mode, Path file, long size, SocketChannel socket) throws IOException {
+        // Servlet output streams expose no channel; this wrapper hides the socket channel the same way.
+        OutputStream opaque = opaque(Channels.newOutputStream(socket));
+
+        switch (mode) {
+            case STREAM -> {
+                try (InputStream in = Files.newInputStream(file)) {
+                    in.transferTo(opaque);
+                }
+            }
+            case RANGE -> {
+                try (var in = new FileRangeInputStream(
+                        file, FileChannel.open(file, StandardOpenOption.READ), 0, size)) {
+                    in.transferTo(opaque);
+                }
+            }
+            case SENDFILE -> {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    for (long position = 0; position < size; ) {
+                        position += channel.transferTo(position, size - position, socket);
+                    }
+                }
+            }
+        }
+    }
+
+    private static OutputStream opaque(OutputStream target) {
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                target.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                target.write(b, off, len);
+            }
+        };
+    }
+
+    private static void drain(ServerSocketChannel server) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) MB);
+        try (SocketChannel client = server.accept()) {
+            while (client.read(buffer) >= 0) {
+                buffer.clear();
+            }
+        } catch (IOException e) {
+            log.warn("Drain failed", e);
+        }
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+                .sum();
+    }
+}
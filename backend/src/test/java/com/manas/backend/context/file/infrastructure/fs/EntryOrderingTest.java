@@ -0,0 +1,66 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.manas.backend.context.file.application.port.in.FileListSort;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class EntryOrderingTest {
+
+    private static final Path DIR = Path.of("/data");
+
+    @Test
+    @DisplayName("Top-K selection should match the prefix of a full sort for every sort order")
+    void selectFirstShouldMatchFullSortPrefix() {
+        List<PathEntry> entries = randomEntries(500, new Random(42));
+
+        for (FileListSort sort : FileListSort.values()) {
+            Comparator<PathEntry> comparator = EntryOrdering.comparator(sort);
+            List<PathEntry> sorted = entries.stream().sorted(comparator).toList();
+
+            assertEquals(sorted.subList(0, 50), EntryOrdering.selectFirst(entries, 50, comparator), sort.name());
+        }
+    }
+
+    @Test
+    @DisplayName("Selection after a key should return the entries following it")
+    void selectFirstAfterShouldSkipEntriesUpToKey() {
+        List<PathEntry> entries = randomEntries(200, new Random(7));
+        Comparator<PathEntry> comparator = EntryOrdering.comparator(FileListSort.SIZE_ASC);
+        List<PathEntry> sorted = entries.stream().sorted(comparator).toList();
+
+        assertEquals(sorted.subList(100, 120),
+                EntryOrdering.selectFirstAfter(entries, sorted.get(99), 20, comparator));
+    }
+
+    @Test
+    @DisplayName("Extension should be lower-cased and empty for dot files and names without one")
+    void extensionShouldBeNormalized() {
+        assertEquals("jpg", entry("photo.JPG", false, 0, 0).extension());
+        assertEquals("gz", entry("backup.tar.gz", false, 0, 0).extension());
+        assertEquals("", entry(".bashrc", false, 0, 0).extension());
+        assertEquals("", entry("README", false, 0, 0).extension());
+    }
+
+    private static List<PathEntry> randomEntries(int count, Random random) {
+        List<PathEntry> entries = new ArrayList<>(count);
+        String[] extensions = {"jpg", "png", "mp4", "txt", ""};
+        for (int i = 0; i < count; i++) {
+            String extension = extensions[random.nextInt(extensions.length)];
+            String name = "file-" + random.nextInt(10_000) + "-" + i + (extension.isEmpty() ? "" : "." + extension);
+            entries.add(entry(name, random.nextInt(10) == 0, random.nextInt(1000), random.nextInt(100)));
+        }
+        return entries;
+    }
+
+    private static PathEntry entry(String name, boolean directory, long size, long modifiedSeconds) {
+        return new PathEntry(DIR.resolve(name), name, directory, size, Instant.ofEpochSecond(modifiedSeconds));
+    }
+}
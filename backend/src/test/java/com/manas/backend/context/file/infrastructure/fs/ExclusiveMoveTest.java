@@ -0,0 +1,61 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ExclusiveMoveTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should move a file and leave no second name behind")
+    void shouldMoveFile() throws IOException {
+        Path source = Files.writeString(tempDir.resolve(".upload-1.part"), "data");
+        Path target = tempDir.resolve("report.txt");
+
+        ExclusiveMove.move(source, target);
+
+        assertEquals("data", Files.readString(target));
+        assertTrue(Files.notExists(source));
+        assertEquals(1, Files.getAttribute(target, "unix:nlink"));
+    }
+
+    @Test
+    @DisplayName("Should fail without touching either side when a file exists at the target")
+    void shouldNotReplaceFile() throws IOException {
+        Path source = Files.writeString(tempDir.resolve(".upload-1.part"), "new");
+        Path target = Files.writeString(tempDir.resolve("report.txt"), "old");
+
+        assertThrows(FileAlreadyExistsException.class, () -> ExclusiveMove.move(source, target));
+
+        assertEquals("old", Files.readString(target));
+        assertEquals("new", Files.readString(source));
+    }
+
+    @Test
+    @DisplayName("Should move directories and symbolic links, but not onto an existing entry")
+    void shouldMoveDirectoriesAndLinks() throws IOException {
+        Path directory = Files.createDirectory(tempDir.resolve(".nas-copy-1"));
+        Files.writeString(directory.resolve("a.txt"), "a");
+        Path link = Files.createSymbolicLink(tempDir.resolve(".nas-copy-2"), Path.of("missing"));
+        Path taken = Files.writeString(tempDir.resolve("taken"), "old");
+
+        assertThrows(FileAlreadyExistsException.class, () -> ExclusiveMove.move(directory, taken));
+        ExclusiveMove.move(directory, tempDir.resolve("photos"));
+        ExclusiveMove.move(link, tempDir.resolve("latest"));
+
+        assertEquals("a", Files.readString(tempDir.resolve("photos/a.txt")));
+        assertEquals(Path.of("missing"), Files.readSymbolicLink(tempDir.resolve("latest")));
+        assertEquals("old", Files.readString(taken));
+    }
+}
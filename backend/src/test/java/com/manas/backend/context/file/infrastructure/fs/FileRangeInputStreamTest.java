@@ -0,0 +1,97 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileRangeInputStreamTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path file;
+    private byte[] data;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Larger than one transfer buffer so the copy loop runs several times.
+        data = new byte[TransferBuffers.BUFFER_SIZE * 2 + 123];
+        new Random(7).nextBytes(data);
+        file = tempDir.resolve("data.bin");
+        Files.write(file, data);
+    }
+
+    @Test
+    @DisplayName("Should copy the exact range to an output stream across buffer boundaries")
+    void shouldTransferRangeToOutputStream() throws IOException {
+        int offset = 1000;
+        int length = TransferBuffers.BUFFER_SIZE + 5000;
+        var out = new ByteArrayOutputStream();
+
+        try (var in = open(offset, length)) {
+            assertEquals(length, in.transferTo(out));
+            assertEquals(0, in.remaining());
+            assertEquals(-1, in.read());
+        }
+
+        assertArrayEquals(Arrays.copyOfRange(data, offset, offset + length), out.toByteArray());
+    }
+
+    @Test
+    @DisplayName("Should copy the remaining range to an output stream after partial reads")
+    void shouldTransferRemainingRangeToOutputStream() throws IOException {
+        var out = new ByteArrayOutputStream();
+
+        try (var in = open(10, 5000)) {
+            byte[] head = in.readNBytes(100);
+            assertEquals(110, in.position());
+            assertEquals(4900, in.remaining());
+
+            assertEquals(4900, in.transferTo(out));
+            assertArrayEquals(Arrays.copyOfRange(data, 10, 110), head);
+        }
+
+        assertArrayEquals(Arrays.copyOfRange(data, 110, 5010), out.toByteArray());
+    }
+
+    @Test
+    @DisplayName("Should stop at the end of a file truncated while streaming")
+    void shouldStopAtTruncatedEnd() throws IOException {
+        var out = new ByteArrayOutputStream();
+
+        try (var in = open(0, data.length)) {
+            try (FileChannel writer = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                writer.truncate(1000);
+            }
+            assertEquals(1000, in.transferTo(out));
+        }
+
+        assertArrayEquals(Arrays.copyOf(data, 1000), out.toByteArray());
+    }
+
+    @Test
+    @DisplayName("Should expose the backing file region")
+    void shouldExposeFileRegion() throws IOException {
+        try (var in = open(42, 58)) {
+            assertEquals(file, in.file());
+            assertEquals(42, in.position());
+            assertEquals(58, in.remaining());
+        }
+    }
+
+    private FileRangeInputStream open(long offset, long length) throws IOException {
+        return new FileRangeInputStream(file, FileChannel.open(file, StandardOpenOption.READ), offset, length);
+    }
+}
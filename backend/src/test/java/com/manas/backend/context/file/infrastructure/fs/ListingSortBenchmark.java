@@ -0,0 +1,77 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import com.manas.backend.context.file.application.port.in.FileListSort;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares a full sort against top-K selection of the first page for a 100k entry directory.
+ * <p>
+ * Run with {@code RUN_BENCHMARKS=true ./gradlew test --rerun --tests '*ListingSortBenchmark'}.
+ */
+@EnabledIfEnvironmentVariable(named = "RUN_BENCHMARKS", matches = "true")
+class ListingSortBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(ListingSortBenchmark.class);
+
+    private static final int ENTRY_COUNT = 100_000;
+    private static final int[] PAGE_SIZES = {100, 500, 1000};
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 20;
+
+    @Test
+    void fullSortVersusTopK() {
+        List<PathEntry> entries = generateEntries(new Random(1));
+
+        for (FileListSort sort : FileListSort.values()) {
+            Comparator<PathEntry> comparator = EntryOrdering.comparator(sort);
+            double fullSortMs = measure(() -> entries.stream().sorted(comparator).toList());
+            log.info("{} full sort of {} entries: {} ms", sort, ENTRY_COUNT, String.format("%.2f", fullSortMs));
+
+            for (int k : PAGE_SIZES) {
+                double topKMs = measure(() -> EntryOrdering.selectFirst(entries, k, comparator));
+                log.info("{} top-{}: {} ms ({}x)", sort, k, String.format("%.2f", topKMs),
+                        String.format("%.1f", fullSortMs / topKMs));
+            }
+        }
+    }
+
+    private static double measure(Runnable task) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            task.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            task.run();
+        }
+        return (System.nanoTime() - start) / (double) TimeUnit.MILLISECONDS.toNanos(1) / MEASURED_ROUNDS;
+    }
+
+    private static List<PathEntry> generateEntries(Random random) {
+        Path dir = Path.of("/data/bench");
+        String[] extensions = {"jpg", "heic", "png", "mp4", "mov", "pdf", "txt"};
+        Instant base = Instant.parse("2020-01-01T00:00:00Z");
+        List<PathEntry> entries = new ArrayList<>(ENTRY_COUNT);
+
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            String name = "IMG_" + random.nextInt(1_000_000) + "_" + i + "." + extensions[random.nextInt(extensions.length)];
+            entries.add(new PathEntry(
+                    dir.resolve(name),
+                    name,
+                    random.nextInt(50) == 0,
+                    random.nextLong(1L << 32),
+                    base.plusSeconds(random.nextInt(200_000_000))
+            ));
+        }
+        return entries;
+    }
+}
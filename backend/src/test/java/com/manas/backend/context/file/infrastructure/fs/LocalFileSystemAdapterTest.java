@@ -1,21 +1,47 @@
 package com.manas.backend.context.file.infrastructure.fs;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.manas.backend.common.exception.ResourceNotFoundException;
+import com.manas.backend.context.file.application.port.in.FileListSort;
+import com.manas.backend.context.file.domain.ArchiveSource;
+import com.manas.backend.context.file.domain.ByteRange;
+import com.manas.backend.context.file.domain.DirectoryListing;
 import com.manas.backend.context.file.domain.FileContent;
+import com.manas.backend.context.file.domain.FileMetadata;
+import com.manas.backend.context.file.domain.FileNode;
+import com.manas.backend.context.file.domain.StoredFile;
+import com.manas.backend.context.file.domain.TrashedEntry;
+import com.manas.backend.context.file.domain.VolumePermits;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
 
 class LocalFileSystemAdapterTest {
 
@@ -23,11 +49,24 @@ class LocalFileSystemAdapterTest {
     Path tempDir;
 
     private LocalFileSystemAdapter adapter;
+    private DirectorySizeAggregator sizeAggregator;
+    private SimpleMeterRegistry meterRegistry;
     private UUID userId;
 
     @BeforeEach
     void setUp() {
-        adapter = new LocalFileSystemAdapter(tempDir.toString());
+        meterRegistry = new SimpleMeterRegistry();
+        sizeAggregator = new DirectorySizeAggregator(tempDir.toString(), 2);
+        VolumePermits volumePermits = new VolumePermits(4, 1);
+        RecursiveDeleter deleter = new RecursiveDeleter(tempDir.toString(), volumePermits);
+        WriteDurability durability = new WriteDurability(meterRegistry, "fsync-on-close", Duration.ofMillis(5), 64);
+        adapter = new LocalFileSystemAdapter(
+                tempDir.toString(), new DirectoryListingCache(meterRegistry, 1000), sizeAggregator, durability,
+                new ZipArchiveWriter(2, DataSize.ofMegabytes(4), 6), deleter,
+                new CrossVolumeMover(deleter, DataSize.ofGigabytes(1), "size"),
+                new TreeCopier(tempDir.toString(), volumePermits, deleter), new ContentLinker(false),
+                new TrashBin(tempDir.toString(), true, 2, durability, deleter),
+                new ContentTypeResolver(meterRegistry, 1000));
         userId = UUID.randomUUID();
     }
 
@@ -58,6 +97,105 @@ class LocalFileSystemAdapterTest {
         assertEquals(content, resultContent);
     }
 
+    @Test
+    @DisplayName("Should retrieve a byte range clamped to the end of the file")
+    void shouldRetrieveRange() throws IOException {
+        Files.writeString(tempDir.resolve("range.txt"), "0123456789");
+
+        FileContent middle = adapter.retrieveRange("/range.txt", userId, new ByteRange(3, 4));
+        FileContent tail = adapter.retrieveRange("/range.txt", userId, new ByteRange(8, 100));
+
+        try (var in = middle.inputStream()) {
+            assertEquals("3456", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        try (var in = tail.inputStream()) {
+            assertEquals("89", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertEquals(2, tail.size());
+        assertThrows(IllegalArgumentException.class, () ->
+                adapter.retrieveRange("/range.txt", userId, new ByteRange(10, 1))
+        );
+    }
+
+    @Test
+    @DisplayName("Should derive a stable strong entity tag that changes with the content")
+    void shouldDeriveEntityTag() throws IOException {
+        Path file = tempDir.resolve("tagged.txt");
+        Files.writeString(file, "v1");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.parse("2026-03-01T10:00:00Z")));
+
+        FileMetadata first = adapter.getMetadata("/tagged.txt", userId);
+        FileMetadata again = adapter.getMetadata("/tagged.txt", userId);
+
+        Files.writeString(file, "v2!");
+        FileMetadata changed = adapter.getMetadata("/tagged.txt", userId);
+
+        assertEquals(first.entityTag(), again.entityTag());
+        assertTrue(first.entityTag().startsWith("\"") && first.entityTag().endsWith("\""));
+        assertEquals(Instant.parse("2026-03-01T10:00:00Z"), first.lastModified());
+        assertNotEquals(first.entityTag(), changed.entityTag());
+    }
+
+    @Test
+    @DisplayName("Should stage chunks in a hidden partial file and move it into place on commit")
+    void shouldStageAndCommitPartialUpload() throws IOException {
+        Files.createDirectory(tempDir.resolve("docs"));
+        UUID sessionId = UUID.randomUUID();
+
+        adapter.createPartial("/docs/report.bin", sessionId);
+        long first = adapter.appendPartial("/docs/report.bin", sessionId, 0, stream("hello "), 11);
+        // Bytes of an interrupted chunk beyond the committed offset are discarded by the retry.
+        Files.writeString(tempDir.resolve("docs/.upload-" + sessionId + ".part"), "XX", StandardOpenOption.APPEND);
+        long second = adapter.appendPartial("/docs/report.bin", sessionId, first, stream("world"), 5);
+
+        DirectoryListing listing = adapter.listDirectory("/docs", userId, 0, 10, FileListSort.NAME_ASC, null);
+        assertEquals(0, listing.items().size());
+
+        adapter.commitPartial("/docs/report.bin", sessionId, userId);
+
+        assertEquals(6, first);
+        assertEquals(11, second);
+        assertEquals("hello world", Files.readString(tempDir.resolve("docs/report.bin")));
+        try (Stream<Path> files = Files.list(tempDir.resolve("docs"))) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a chunk larger than the remaining upload size")
+    void shouldRejectOversizedChunk() throws IOException {
+        UUID sessionId = UUID.randomUUID();
+        adapter.createPartial("/big.bin", sessionId);
+        adapter.appendPartial("/big.bin", sessionId, 0, stream("1234"), 8);
+
+        assertThrows(IllegalArgumentException.class, () ->
+                adapter.appendPartial("/big.bin", sessionId, 4, stream("56789"), 4)
+        );
+
+        try (var in = adapter.openPartial("/big.bin", sessionId)) {
+            assertEquals("1234", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    @DisplayName("Should not overwrite a file created at the target during the upload")
+    void shouldNotOverwriteOnCommit() throws IOException {
+        UUID sessionId = UUID.randomUUID();
+        adapter.createPartial("/clash.txt", sessionId);
+        adapter.appendPartial("/clash.txt", sessionId, 0, stream("new"), 3);
+        Files.writeString(tempDir.resolve("clash.txt"), "old");
+
+        assertThrows(IllegalArgumentException.class, () ->
+                adapter.commitPartial("/clash.txt", sessionId, userId)
+        );
+        assertEquals("old", Files.readString(tempDir.resolve("clash.txt")));
+
+        adapter.deletePartial("/clash.txt", sessionId);
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
     @Test
     @DisplayName("Should throw exception if file does not exist")
     void shouldThrowIfFileDoesNotExist() {
@@ -87,4 +225,360 @@ class LocalFileSystemAdapterTest {
         );
     }
 
+    @Test
+    @DisplayName("Should serve subsequent pages from the listing cache")
+    void shouldServeSubsequentPagesFromListingCache() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            Files.writeString(tempDir.resolve("file-" + i + ".txt"), "x");
+        }
+
+        DirectoryListing firstPage = adapter.listDirectory("/", userId, 0, 2, FileListSort.NAME_ASC, null);
+        DirectoryListing secondPage = adapter.listDirectory("/", userId, 2, 2, FileListSort.NAME_ASC, null);
+
+        assertEquals(5, secondPage.totalCount());
+        assertEquals(List.of("file-0.txt", "file-1.txt"), firstPage.items().stream().map(FileNode::name).toList());
+        assertEquals(List.of("file-2.txt", "file-3.txt"), secondPage.items().stream().map(FileNode::name).toList());
+        assertEquals(1.0, meterRegistry.counter("app.listing.cache.miss").count());
+        assertEquals(1.0, meterRegistry.counter("app.listing.cache.hit").count());
+    }
+
+    @Test
+    @DisplayName("Should invalidate cached listing after directory mutation")
+    void shouldInvalidateCachedListingAfterMutation() throws IOException {
+        Files.writeString(tempDir.resolve("a.txt"), "a");
+        adapter.listDirectory("/", userId, 0, 10, FileListSort.NAME_ASC, null);
+
+        adapter.createDirectory("/new-folder", userId);
+        DirectoryListing listing = adapter.listDirectory("/", userId, 0, 10, FileListSort.NAME_ASC, null);
+
+        assertEquals(List.of("new-folder", "a.txt"), listing.items().stream().map(FileNode::name).toList());
+    }
+
+    @Test
+    @DisplayName("Should resume from cursor without duplicates when entries are added between pages")
+    void shouldResumeFromCursorAfterConcurrentInsert() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            Files.writeString(tempDir.resolve("file-" + i + ".txt"), "x");
+        }
+
+        DirectoryListing firstPage = adapter.listDirectory("/", userId, 0, 2, FileListSort.NAME_ASC, null);
+        Files.writeString(tempDir.resolve("file-00.txt"), "x");
+        DirectoryListing secondPage = adapter.listDirectory(
+                "/", userId, 0, 2, FileListSort.NAME_ASC, firstPage.nextCursor());
+
+        assertNotNull(firstPage.nextCursor());
+        assertEquals(List.of("file-2.txt", "file-3.txt"), secondPage.items().stream().map(FileNode::name).toList());
+    }
+
+    @Test
+    @DisplayName("Should reject cursor issued for another sort order")
+    void shouldRejectCursorForAnotherSort() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            Files.writeString(tempDir.resolve("file-" + i + ".txt"), "x");
+        }
+        String cursor = adapter.listDirectory("/", userId, 0, 1, FileListSort.NAME_ASC, null).nextCursor();
+
+        assertThrows(IllegalArgumentException.class, () ->
+                adapter.listDirectory("/", userId, 0, 1, FileListSort.MODIFIED_DESC, cursor)
+        );
+    }
+
+    @Test
+    @DisplayName("Should sort files by size with directories first")
+    void shouldSortBySizeDescending() throws IOException {
+        Files.createDirectory(tempDir.resolve("folder"));
+        Files.writeString(tempDir.resolve("small.txt"), "x");
+        Files.writeString(tempDir.resolve("large.txt"), "x".repeat(100));
+        Files.writeString(tempDir.resolve("medium.txt"), "x".repeat(10));
+
+        DirectoryListing listing = adapter.listDirectory("/", userId, 0, 10, FileListSort.SIZE_DESC, null);
+
+        assertEquals(List.of("folder", "large.txt", "medium.txt", "small.txt"),
+                listing.items().stream().map(FileNode::name).toList());
+    }
+
+    @Test
+    @DisplayName("Should list content types, using sniffed types of files read before")
+    void shouldListContentTypes() throws IOException {
+        Files.createDirectory(tempDir.resolve("folder"));
+        Files.writeString(tempDir.resolve("notes.txt"), "x");
+        Files.write(tempDir.resolve("scan"), new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0});
+        adapter.retrieve("/scan", userId).inputStream().close();
+
+        DirectoryListing listing = adapter.listDirectory("/", userId, 0, 10, FileListSort.NAME_ASC, null);
+
+        assertEquals(Arrays.asList(null, "text/plain", "image/jpeg"),
+                listing.items().stream().map(FileNode::contentType).toList());
+    }
+
+    @Test
+    @DisplayName("Should scan for files changed since a point in time, skipping excluded entries")
+    void shouldScanChangedFiles() throws IOException {
+        Instant since = Instant.parse("2026-03-01T10:00:00Z");
+        Files.createDirectories(tempDir.resolve("photos/2026"));
+        Path fresh = Files.writeString(tempDir.resolve("photos/2026/new.jpg"), "x");
+        Path old = Files.writeString(tempDir.resolve("photos/old.jpg"), "x");
+        Files.writeString(tempDir.resolve("photos/.upload-" + UUID.randomUUID() + ".part"), "x");
+        Files.setLastModifiedTime(fresh, FileTime.from(since.plusSeconds(60)));
+        Files.setLastModifiedTime(old, FileTime.from(since.minusSeconds(60)));
+        boolean birthTimeRecorded = !Files.readAttributes(old, BasicFileAttributes.class).creationTime()
+                .equals(Files.getLastModifiedTime(old));
+
+        List<FileNode> found = new ArrayList<>();
+        boolean complete = adapter.scanChangedSince(since, found::add);
+
+        assertTrue(complete);
+        // A birth time after the threshold (the file was just created) counts as added, like a copy over SMB.
+        assertEquals(birthTimeRecorded ? List.of("/photos/2026/new.jpg", "/photos/old.jpg") : List.of(
+                "/photos/2026/new.jpg"), found.stream().map(FileNode::path).sorted().toList());
+        assertEquals("image/jpeg", found.getFirst().contentType());
+        assertFalse(adapter.scanChangedSince(since, node -> false));
+    }
+
+    @Test
+    @DisplayName("Should page by extension using cursors")
+    void shouldPageByExtensionWithCursor() throws IOException {
+        Files.writeString(tempDir.resolve("b.txt"), "x");
+        Files.writeString(tempDir.resolve("a.mp4"), "x");
+        Files.writeString(tempDir.resolve("c.JPG"), "x");
+        Files.writeString(tempDir.resolve("README"), "x");
+
+        DirectoryListing firstPage = adapter.listDirectory("/", userId, 0, 2, FileListSort.EXTENSION_ASC, null);
+        DirectoryListing secondPage = adapter.listDirectory(
+                "/", userId, 0, 2, FileListSort.EXTENSION_ASC, firstPage.nextCursor());
+
+        assertEquals(List.of("README", "c.JPG"), firstPage.items().stream().map(FileNode::name).toList());
+        assertEquals(List.of("a.mp4", "b.txt"), secondPage.items().stream().map(FileNode::name).toList());
+    }
+
+    @Test
+    @DisplayName("Should stream directory entries without system excludes")
+    void shouldStreamDirectoryEntries() throws IOException {
+        Files.writeString(tempDir.resolve("a.txt"), "a");
+        Files.createDirectory(tempDir.resolve("folder"));
+        Files.createDirectory(tempDir.resolve(".Spotlight-V100"));
+
+        List<String> names;
+        try (Stream<FileNode> entries = adapter.streamDirectory("/", userId)) {
+            names = entries.map(FileNode::name).sorted().toList();
+        }
+
+        assertEquals(List.of("a.txt", "folder"), names);
+    }
+
+    @Test
+    @DisplayName("Should reject streaming a missing directory before any entry is read")
+    void shouldRejectStreamingMissingDirectory() {
+        assertThrows(ResourceNotFoundException.class, () -> adapter.streamDirectory("/missing", userId));
+    }
+
+    @Test
+    @DisplayName("Should report recursive size and child count of folders once the size index is built")
+    void shouldReportRecursiveFolderTotals() throws IOException {
+        Files.createDirectories(tempDir.resolve("photos/2024"));
+        Files.writeString(tempDir.resolve("photos/a.jpg"), "x".repeat(10));
+        Files.writeString(tempDir.resolve("photos/2024/b.jpg"), "x".repeat(5));
+        sizeAggregator.rebuild();
+
+        adapter.save(new ByteArrayInputStream(new byte[20]), "/photos/2024/c.jpg", 20, userId, null);
+        FileNode photos = adapter.listDirectory("/", userId, 0, 10, FileListSort.NAME_ASC, null).items().getFirst();
+
+        assertEquals(35L, photos.recursiveSize());
+        assertEquals(2L, photos.childCount());
+    }
+
+    @Test
+    @DisplayName("Should hash content while saving and return the digest")
+    void shouldSaveWithInlineDigest() throws IOException {
+        String sha256 = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+        StoredFile stored = adapter.save(stream("hello"), "/docs/hello.txt", 5, userId, sha256);
+
+        assertEquals(sha256, stored.sha256());
+        assertEquals(5L, stored.size());
+        assertEquals("hello", Files.readString(tempDir.resolve("docs/hello.txt")));
+        try (Stream<Path> entries = Files.list(tempDir.resolve("docs"))) {
+            assertEquals(1L, entries.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should leave nothing behind when the checksum or size does not match")
+    void shouldDiscardSaveOnMismatch() throws IOException {
+        assertThrows(IllegalArgumentException.class,
+                () -> adapter.save(stream("hello"), "/docs/hello.txt", 5, userId, "0".repeat(64)));
+        assertThrows(IllegalArgumentException.class,
+                () -> adapter.save(stream("hello"), "/docs/hello.txt", 4, userId, null));
+
+        try (Stream<Path> entries = Files.list(tempDir.resolve("docs"))) {
+            assertEquals(0L, entries.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should archive a multi-selection with unique top-level names and without partial files")
+    void shouldArchiveSelection() throws IOException {
+        Files.createDirectories(tempDir.resolve("a/photos/empty"));
+        Files.createDirectories(tempDir.resolve("b/photos"));
+        Files.writeString(tempDir.resolve("a/photos/one.txt"), "one");
+        Files.writeString(tempDir.resolve("a/photos/.upload-session.part"), "partial");
+        Files.writeString(tempDir.resolve("b/photos/two.txt"), "two");
+        Files.writeString(tempDir.resolve("a/readme.md"), "readme");
+
+        ArchiveSource source = adapter.openArchive(List.of("/a/photos", "/b/photos", "/a/readme.md"), userId);
+        assertEquals("download.zip", source.fileName());
+
+        Path archive = tempDir.resolve("out.zip");
+        try (var out = Files.newOutputStream(archive)) {
+            source.writeTo(out);
+        }
+
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            List<String> names = zipFile.stream().map(ZipEntry::getName).toList();
+            assertEquals(List.of("photos/", "photos/empty/", "photos/one.txt", "photos (2)/",
+                    "photos (2)/two.txt", "readme.md"), names.stream().sorted().toList());
+            try (var in = zipFile.getInputStream(zipFile.getEntry("photos (2)/two.txt"))) {
+                assertEquals("two", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should name a single-folder archive after the folder and validate every path up front")
+    void shouldValidateArchivePaths() throws IOException {
+        Files.createDirectories(tempDir.resolve("photos"));
+
+        assertEquals("photos.zip", adapter.openArchive(List.of("/photos"), userId).fileName());
+        assertThrows(ResourceNotFoundException.class,
+                () -> adapter.openArchive(List.of("/photos", "/missing"), userId));
+        assertThrows(SecurityException.class,
+                () -> adapter.openArchive(List.of("/../outside"), userId));
+        assertThrows(IllegalArgumentException.class,
+                () -> adapter.openArchive(List.of("/"), userId));
+        assertThrows(IllegalArgumentException.class,
+                () -> adapter.openArchive(List.of("/photos", ""), userId));
+    }
+
+    @Test
+    @DisplayName("Should delete a non-empty directory tree and refuse the storage root")
+    void shouldDeleteDirectoryRecursively() throws IOException {
+        Files.createDirectories(tempDir.resolve("cache/a/b"));
+        Files.writeString(tempDir.resolve("cache/a/b/one.bin"), "one");
+        Files.writeString(tempDir.resolve("cache/two.bin"), "two");
+        Files.writeString(tempDir.resolve("keep.txt"), "keep");
+
+        adapter.delete("/cache", userId);
+
+        assertTrue(Files.notExists(tempDir.resolve("cache")));
+        assertTrue(Files.exists(tempDir.resolve("keep.txt")));
+        assertThrows(IllegalArgumentException.class, () -> adapter.delete("/", userId));
+        assertThrows(ResourceNotFoundException.class, () -> adapter.delete("/cache", userId));
+    }
+
+    @Test
+    @DisplayName("Should rename a directory tree within a volume and refuse existing destinations")
+    void shouldMoveDirectoryWithinVolume() throws IOException {
+        Files.createDirectories(tempDir.resolve("volume/photos/2024"));
+        Files.writeString(tempDir.resolve("volume/photos/2024/a.jpg"), "a");
+        Files.createDirectories(tempDir.resolve("volume/archive"));
+
+        adapter.move("/volume/photos", "/volume/archive/photos", userId);
+
+        assertTrue(Files.notExists(tempDir.resolve("volume/photos")));
+        assertEquals("a", Files.readString(tempDir.resolve("volume/archive/photos/2024/a.jpg")));
+        assertThrows(IllegalArgumentException.class,
+                () -> adapter.move("/volume/archive/photos/2024", "/volume/archive", userId));
+        assertThrows(ResourceNotFoundException.class,
+                () -> adapter.move("/volume/photos", "/volume/elsewhere", userId));
+    }
+
+    @Test
+    @DisplayName("Should copy a directory tree and refuse existing destinations and copies into itself")
+    void shouldCopyDirectoryTree() throws IOException {
+        Files.createDirectories(tempDir.resolve("volume/photos/2024"));
+        Files.writeString(tempDir.resolve("volume/photos/2024/a.jpg"), "a");
+
+        adapter.copy("/volume/photos", "/volume/archive/photos", userId);
+
+        assertEquals("a", Files.readString(tempDir.resolve("volume/photos/2024/a.jpg")));
+        assertEquals("a", Files.readString(tempDir.resolve("volume/archive/photos/2024/a.jpg")));
+        assertThrows(IllegalArgumentException.class,
+                () -> adapter.copy("/volume/photos", "/volume/archive/photos", userId));
+        assertThrows(IllegalArgumentException.class,
+                () -> adapter.copy("/volume/photos", "/volume/photos/2024/copy", userId));
+        assertThrows(ResourceNotFoundException.class,
+                () -> adapter.copy("/volume/missing", "/volume/elsewhere", userId));
+    }
+
+    @Test
+    @DisplayName("Should store a duplicate of existing content without a partial file left behind")
+    void shouldSaveDuplicate() throws IOException {
+        Files.createDirectories(tempDir.resolve("archive"));
+        Files.writeString(tempDir.resolve("archive/report.pdf"), "content");
+
+        StoredFile stored = adapter.saveDuplicate("/archive/report.pdf", "/inbox/report.pdf", userId, "ab");
+
+        assertEquals(new StoredFile("/inbox/report.pdf", 7, "ab"), stored);
+        assertEquals("content", Files.readString(tempDir.resolve("inbox/report.pdf")));
+        try (Stream<Path> files = Files.list(tempDir.resolve("inbox"))) {
+            assertEquals(1, files.count());
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> adapter.saveDuplicate("/archive/report.pdf", "/inbox/report.pdf", userId, "ab"));
+        assertThrows(ResourceNotFoundException.class,
+                () -> adapter.saveDuplicate("/archive/missing.pdf", "/inbox/other.pdf", userId, "ab"));
+    }
+
+    @Test
+    @DisplayName("Should move deleted entries to the trash of their volume and restore them")
+    void shouldTrashAndRestore() throws IOException {
+        Files.createDirectories(tempDir.resolve("volume/photos/2024"));
+        Files.writeString(tempDir.resolve("volume/photos/2024/a.jpg"), "a");
+
+        adapter.delete("/volume/photos", userId);
+
+        assertTrue(Files.notExists(tempDir.resolve("volume/photos")));
+        List<TrashedEntry> trash = adapter.listTrash();
+        assertEquals(1, trash.size());
+        TrashedEntry entry = trash.getFirst();
+        assertEquals("/volume", entry.volume());
+        assertEquals("/volume/photos", entry.originalPath());
+        assertTrue(entry.directory());
+        assertEquals(userId, entry.deletedBy());
+        assertTrue(Files.exists(tempDir.resolve("volume/.nas-trash/files/" + entry.id() + "/2024/a.jpg")));
+        assertEquals(0, adapter.listDirectory("/volume", userId, 0, 10, FileListSort.NAME_ASC, null)
+                .items().size());
+        assertThrows(IllegalArgumentException.class,
+                () -> adapter.listDirectory("/volume/.nas-trash", userId, 0, 10, FileListSort.NAME_ASC, null));
+
+        TrashedEntry restored = adapter.restore(entry.id(), userId);
+
+        assertEquals("/volume/photos", restored.originalPath());
+        assertEquals("a", Files.readString(tempDir.resolve("volume/photos/2024/a.jpg")));
+        assertTrue(adapter.listTrash().isEmpty());
+        assertThrows(ResourceNotFoundException.class, () -> adapter.restore(entry.id(), userId));
+    }
+
+    @Test
+    @DisplayName("Should refuse to restore over a path that exists again and purge the entry instead")
+    void shouldPurgeTrashEntry() throws IOException {
+        Files.writeString(tempDir.resolve("notes.txt"), "old");
+        adapter.delete("/notes.txt", userId);
+        Files.writeString(tempDir.resolve("notes.txt"), "new");
+        String id = adapter.listTrash().getFirst().id();
+
+        assertThrows(IllegalArgumentException.class, () -> adapter.restore(id, userId));
+
+        adapter.purge(id);
+
+        assertTrue(adapter.listTrash().isEmpty());
+        assertEquals("new", Files.readString(tempDir.resolve("notes.txt")));
+        try (Stream<Path> files = Files.list(tempDir.resolve(".nas-trash/files"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
 }
@@ -0,0 +1,84 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import com.manas.backend.context.file.domain.VolumePermits;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares a sequential {@link Files#walkFileTree} delete with {@link RecursiveDeleter} on a cache-like tree
+ * (256 directories of small files). The numbers only mean something on the target disk, so the tree is
+ * created under {@code BENCHMARK_DELETE_DIR} (default: the system temp directory, often tmpfs).
+ * Run with {@code RUN_BENCHMARKS=true ./gradlew test --rerun --tests '*RecursiveDeleteBenchmark'}.
+ * File count and per-volume parallelism can be overridden with {@code BENCHMARK_DELETE_FILES} (default 200000)
+ * and {@code BENCHMARK_DELETE_PARALLELISM} (default 8).
+ */
+@EnabledIfEnvironmentVariable(named = "RUN_BENCHMARKS", matches = "true")
+class RecursiveDeleteBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(RecursiveDeleteBenchmark.class);
+
+    private static final int DIRECTORIES = 256;
+
+    @Test
+    void compareRecursiveDeletes() throws Exception {
+        int files = Integer.parseInt(System.getenv().getOrDefault("BENCHMARK_DELETE_FILES", "200000"));
+        int parallelism = Integer.parseInt(System.getenv().getOrDefault("BENCHMARK_DELETE_PARALLELISM", "8"));
+        Path base = Files.createTempDirectory(Path.of(System.getenv().getOrDefault("BENCHMARK_DELETE_DIR",
+                System.getProperty("java.io.tmpdir"))), "delete-");
+
+        try {
+            Path sequentialTree = createTree(base.resolve("volume/sequential"), files);
+            long start = System.nanoTime();
+            deleteSequentially(sequentialTree);
+            report("sequential walkFileTree", files, System.nanoTime() - start);
+
+            Path parallelTree = createTree(base.resolve("volume/parallel"), files);
+            start = System.nanoTime();
+            new RecursiveDeleter(base.toString(), new VolumePermits(parallelism, 1)).delete(parallelTree);
+            report("RecursiveDeleter (" + parallelism + " per volume)", files, System.nanoTime() - start);
+        } finally {
+            deleteSequentially(base);
+        }
+    }
+
+    private static Path createTree(Path tree, int files) throws IOException {
+        for (int i = 0; i < files; i++) {
+            Path directory = tree.resolve(String.format("%02x", i % DIRECTORIES));
+            if (i < DIRECTORIES) {
+                Files.createDirectories(directory);
+            }
+            Files.write(directory.resolve("entry-" + i), new byte[512]);
+        }
+        return tree;
+    }
+
+    private static void deleteSequentially(Path tree) throws IOException {
+        Files.walkFileTree(tree, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void report(String mode, int files, long elapsedNanos) {
+        log.info("{}: {} files in {} ms ({} files/s)", mode, files, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                String.format("%.0f", files / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1))));
+    }
+}
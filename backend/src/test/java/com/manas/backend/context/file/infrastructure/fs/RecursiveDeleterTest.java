@@ -0,0 +1,117 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.manas.backend.context.file.domain.VolumePermits;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RecursiveDeleterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should delete nested directories and large flat directories, counting every entry")
+    void shouldDeleteTree() throws IOException {
+        Path volume = Files.createDirectory(tempDir.resolve("volume"));
+        Path tree = Files.createDirectories(volume.resolve("cache/nested/deeper"));
+        Files.writeString(tree.resolve("leaf.txt"), "leaf");
+        Path flat = Files.createDirectory(volume.resolve("cache/flat"));
+        for (int i = 0; i < 1000; i++) {
+            Files.writeString(flat.resolve("entry-" + i), "x");
+        }
+
+        long removed = deleter().delete(volume.resolve("cache"));
+
+        // 1000 flat files, leaf.txt, and the directories cache, nested, deeper and flat.
+        assertEquals(1005L, removed);
+        assertTrue(Files.notExists(volume.resolve("cache")));
+        assertTrue(Files.exists(volume));
+    }
+
+    @Test
+    @DisplayName("Should remove symbolic links without following them")
+    void shouldNotFollowSymlinks() throws IOException {
+        Path outside = Files.createDirectory(tempDir.resolve("outside"));
+        Files.writeString(outside.resolve("precious.txt"), "keep");
+        Path tree = Files.createDirectories(tempDir.resolve("volume/tree"));
+        Files.createSymbolicLink(tree.resolve("link"), outside);
+
+        deleter().delete(tree);
+
+        assertTrue(Files.notExists(tree));
+        assertTrue(Files.exists(outside.resolve("precious.txt")));
+    }
+
+    @Test
+    @DisplayName("Should delete what it can and report entries that could not be removed")
+    void shouldReportPartialFailure() throws IOException {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        Path tree = Files.createDirectories(tempDir.resolve("volume/tree"));
+        Path locked = Files.createDirectory(tree.resolve("locked"));
+        Files.writeString(locked.resolve("stuck.txt"), "stuck");
+        Files.writeString(tree.resolve("free.txt"), "free");
+        Files.setPosixFilePermissions(locked, PosixFilePermissions.fromString("r-xr-xr-x"));
+        assumeTrue(!Files.isWritable(locked), "running as a user that ignores permissions");
+
+        try {
+            IOException failure = assertThrows(IOException.class,
+                    () -> deleter().delete(tree));
+
+            assertTrue(failure.getMessage().contains("Could not delete 1 entries"), failure.getMessage());
+            assertTrue(Files.notExists(tree.resolve("free.txt")));
+            assertTrue(Files.exists(locked.resolve("stuck.txt")));
+        } finally {
+            Files.setPosixFilePermissions(locked, PosixFilePermissions.fromString("rwxr-xr-x"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should wait for the volume permits held by other work on the same volume")
+    void shouldSharePermitsOfVolume() throws Exception {
+        Path tree = Files.createDirectories(tempDir.resolve("volume/tree"));
+        Files.writeString(tree.resolve("a.txt"), "a");
+        Files.createDirectories(tempDir.resolve("other/tree"));
+        VolumePermits volumePermits = new VolumePermits(1, 1);
+        RecursiveDeleter deleter = new RecursiveDeleter(tempDir.toString(), volumePermits);
+        Semaphore permits = volumePermits.calls("volume");
+        permits.acquire();
+
+        CompletableFuture<Long> blocked = CompletableFuture.supplyAsync(() -> {
+            try {
+                return deleter.delete(tree, 1);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        try {
+            // Other volumes are not affected.
+            assertEquals(1L, deleter.delete(tempDir.resolve("other/tree")));
+            Thread.sleep(200);
+            assertFalse(blocked.isDone());
+        } finally {
+            permits.release();
+        }
+
+        assertEquals(2L, blocked.get(5, TimeUnit.SECONDS));
+        assertTrue(Files.notExists(tree));
+    }
+
+    private RecursiveDeleter deleter() {
+        return new RecursiveDeleter(tempDir.toString(), new VolumePermits(4, 1));
+    }
+}
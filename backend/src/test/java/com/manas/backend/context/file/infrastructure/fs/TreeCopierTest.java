@@ -0,0 +1,235 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.manas.backend.common.exception.ConflictException;
+import com.manas.backend.context.file.domain.TransferProgress;
+import com.manas.backend.context.file.domain.VolumePermits;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TreeCopierTest {
+
+    private static final int MB = 1024 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should copy a tree with links and timestamps and leave the source untouched")
+    void shouldCopyTree() throws IOException {
+        Path source = Files.createDirectories(tempDir.resolve("volume/photos/2024"));
+        Files.writeString(source.resolve("a.jpg"), "first");
+        Files.createFile(source.resolve("empty.txt"));
+        Files.createSymbolicLink(source.resolve("latest"), Path.of("a.jpg"));
+        FileTime modified = FileTime.from(Instant.parse("2024-05-01T10:00:00Z"));
+        Files.setLastModifiedTime(source.resolve("a.jpg"), modified);
+        Path destination = tempDir.resolve("volume/2024-copy");
+        List<Long> progress = new ArrayList<>();
+
+        long copied = copier().copy(source, destination, (done, total) -> progress.add(done));
+
+        assertEquals(5L, copied);
+        assertEquals("first", Files.readString(source.resolve("a.jpg")));
+        assertEquals("first", Files.readString(destination.resolve("a.jpg")));
+        assertEquals(modified, Files.getLastModifiedTime(destination.resolve("a.jpg")));
+        assertEquals(0L, Files.size(destination.resolve("empty.txt")));
+        assertEquals(Path.of("a.jpg"), Files.readSymbolicLink(destination.resolve("latest")));
+        assertEquals(5L, progress.getLast());
+        try (Stream<Path> entries = Files.list(tempDir.resolve("volume"))) {
+            assertEquals(2L, entries.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should copy many subdirectories and files concurrently")
+    void shouldCopyWideTree() throws IOException {
+        Path source = Files.createDirectories(tempDir.resolve("volume/data"));
+        for (int d = 0; d < 20; d++) {
+            Path directory = Files.createDirectories(source.resolve("d" + d + "/nested"));
+            for (int f = 0; f < 100; f++) {
+                Files.writeString(directory.resolve("f" + f + ".txt"), d + "/" + f);
+            }
+        }
+
+        copier().copy(source, tempDir.resolve("volume/copy"), TransferProgress.NONE);
+
+        try (Stream<Path> copied = Files.walk(tempDir.resolve("volume/copy"))) {
+            assertEquals(1 + 20 * 2 + 20 * 100, copied.count());
+        }
+        assertEquals("7/42", Files.readString(tempDir.resolve("volume/copy/d7/nested/f42.txt")));
+    }
+
+    @Test
+    @DisplayName("Should keep the holes of a sparse file")
+    void shouldKeepSparseFilesSparse() throws IOException {
+        assumeTrue(SparseFiles.isSupported(), "lseek(SEEK_HOLE) is not available");
+        Path source = Files.createDirectories(tempDir.resolve("volume")).resolve("disk.img");
+        byte[] data = new byte[MB];
+        new Random(1).nextBytes(data);
+        try (RandomAccessFile file = new RandomAccessFile(source.toFile(), "rw")) {
+            file.setLength(64L * MB);
+            file.seek(32L * MB);
+            file.write(data);
+        }
+        assumeTrue(SparseFiles.dataRegions(source, 64L * MB).size() == 1, "file system does not report holes");
+        Path destination = tempDir.resolve("volume/disk-copy.img");
+
+        long copied = copier().copy(source, destination, TransferProgress.NONE);
+
+        assertTrue(copied < 64L * MB, "copied " + copied + " bytes");
+        assertEquals(64L * MB, Files.size(destination));
+        assertEquals(-1L, Files.mismatch(source, destination));
+        List<SparseFiles.Region> regions = SparseFiles.dataRegions(destination, 64L * MB);
+        long dataBytes = regions.stream().mapToLong(region -> region.end() - region.start()).sum();
+        assertTrue(dataBytes < 8L * MB, "copy holds " + dataBytes + " bytes of data");
+    }
+
+    @Test
+    @DisplayName("Should remove the partial copy when the destination appears meanwhile")
+    void shouldDiscardPartialCopy() throws IOException {
+        Path source = Files.createDirectories(tempDir.resolve("volume/videos"));
+        byte[] bytes = new byte[2 * MB];
+        new Random(2).nextBytes(bytes);
+        Files.write(source.resolve("1.mp4"), bytes);
+        Path destination = tempDir.resolve("volume/videos-copy");
+
+        assertThrows(IOException.class, () -> copier().copy(source, destination, (done, total) -> {
+            try {
+                Files.createDirectories(destination.resolve("other"));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+
+        assertTrue(Files.isDirectory(destination.resolve("other")));
+        assertArrayEquals(bytes, Files.readAllBytes(source.resolve("1.mp4")));
+        try (Stream<Path> entries = Files.list(tempDir.resolve("volume"))) {
+            assertEquals(2L, entries.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should not copy trash, partial uploads or staging entries")
+    void shouldSkipExcludedEntries() throws IOException {
+        Path source = Files.createDirectories(tempDir.resolve("volume/projects"));
+        Files.writeString(source.resolve("notes.txt"), "keep");
+        Files.writeString(Files.createDirectories(source.resolve(".nas-trash/1")).resolve("old.txt"), "trash");
+        Files.writeString(source.resolve(".upload-42.part"), "partial");
+        Files.writeString(Files.createDirectories(source.resolve("sub/.nas-move-0a1b")).resolve("x.bin"), "moving");
+        Files.writeString(source.resolve("sub/.nas-copy-2c3d"), "copying");
+        Path destination = tempDir.resolve("volume/projects-copy");
+        List<Long> totals = new ArrayList<>();
+
+        long copied = copier().copy(source, destination, (done, total) -> totals.add(total));
+
+        assertEquals(4L, copied);
+        assertEquals(4L, totals.getLast());
+        try (Stream<Path> entries = Files.walk(destination)) {
+            assertEquals(List.of(destination, destination.resolve("notes.txt"), destination.resolve("sub")),
+                    entries.sorted().toList());
+        }
+        assertTrue(Files.exists(source.resolve(".nas-trash/1/old.txt")));
+    }
+
+    @Test
+    @DisplayName("Should refuse a second copy to a destination while the first is running")
+    void shouldRefuseConcurrentCopyToSameDestination() throws Exception {
+        Path source = Files.createDirectories(tempDir.resolve("volume/videos"));
+        Files.write(source.resolve("1.mp4"), new byte[MB]);
+        Path destination = tempDir.resolve("volume/videos-copy");
+        TreeCopier copier = copier();
+        CountDownLatch copying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Long> first = executor.submit(() -> copier.copy(source, destination, (done, total) -> {
+                copying.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(copying.await(5, TimeUnit.SECONDS));
+
+            assertThrows(ConflictException.class, () -> copier.copy(source, destination, TransferProgress.NONE));
+            release.countDown();
+
+            assertEquals((long) MB, first.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(MB, Files.size(destination.resolve("1.mp4")));
+        try (Stream<Path> entries = Files.list(tempDir.resolve("volume"))) {
+            assertEquals(2L, entries.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should not replace a file created at the destination while copying")
+    void shouldNotReplaceFileCreatedMeanwhile() throws IOException {
+        Path source = Files.createDirectories(tempDir.resolve("volume")).resolve("report.pdf");
+        Files.write(source, new byte[MB]);
+        Path destination = tempDir.resolve("volume/report-copy.pdf");
+
+        assertThrows(FileAlreadyExistsException.class, () -> copier().copy(source, destination,
+                (done, total) -> {
+                    try {
+                        if (Files.notExists(destination)) {
+                            Files.writeString(destination, "uploaded meanwhile");
+                        }
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }));
+
+        assertEquals("uploaded meanwhile", Files.readString(destination));
+        try (Stream<Path> entries = Files.list(tempDir.resolve("volume"))) {
+            assertEquals(2L, entries.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should remove staging entries of killed copies to the same destination only")
+    void shouldRemoveStaleStaging() throws IOException {
+        Path source = Files.createDirectories(tempDir.resolve("volume/docs"));
+        Files.writeString(source.resolve("a.txt"), "a");
+        Path destination = tempDir.resolve("volume/docs-copy");
+        Path stale = Files.createDirectories(
+                tempDir.resolve("volume/" + TreeCopier.stagingPrefix(destination) + "killed/sub"));
+        Path other = Files.createDirectories(
+                tempDir.resolve("volume/" + TreeCopier.stagingPrefix(tempDir.resolve("volume/other")) + "running"));
+
+        copier().copy(source, destination, TransferProgress.NONE);
+
+        assertTrue(Files.notExists(stale.getParent()));
+        assertTrue(Files.isDirectory(other));
+        assertEquals("a", Files.readString(destination.resolve("a.txt")));
+    }
+
+    private TreeCopier copier() {
+        VolumePermits volumePermits = new VolumePermits(4, 1);
+        return new TreeCopier(tempDir.toString(), volumePermits,
+                new RecursiveDeleter(tempDir.toString(), volumePermits));
+    }
+}
@@ -0,0 +1,103 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import com.manas.backend.context.file.domain.TransferProgress;
+import com.manas.backend.context.file.domain.VolumePermits;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares a sequential {@link Files#copy} walk with {@link TreeCopier} on a tree of many small files and on a
+ * sparse disk image. Run with {@code RUN_BENCHMARKS=true ./gradlew test --rerun --tests '*TreeCopyBenchmark'};
+ * the data is created under {@code BENCHMARK_COPY_DIR} (default: system temp directory). Tree shape and image
+ * size can be overridden with {@code BENCHMARK_COPY_DIRECTORIES} (default 200), {@code BENCHMARK_COPY_FILES}
+ * (files per directory, default 100) and {@code BENCHMARK_COPY_IMAGE_MB} (default 4096, 1% data).
+ */
+@EnabledIfEnvironmentVariable(named = "RUN_BENCHMARKS", matches = "true")
+class TreeCopyBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(TreeCopyBenchmark.class);
+
+    private static final int MB = 1024 * 1024;
+
+    @Test
+    void compareCopies() throws Exception {
+        int directories = Integer.parseInt(System.getenv().getOrDefault("BENCHMARK_COPY_DIRECTORIES", "200"));
+        int files = Integer.parseInt(System.getenv().getOrDefault("BENCHMARK_COPY_FILES", "100"));
+        long imageMb = Long.parseLong(System.getenv().getOrDefault("BENCHMARK_COPY_IMAGE_MB", "4096"));
+        Path base = Files.createTempDirectory(Path.of(System.getenv().getOrDefault("BENCHMARK_COPY_DIR",
+                System.getProperty("java.io.tmpdir"))), "copy-");
+        var volumePermits = new VolumePermits(4, 1);
+        var deleter = new RecursiveDeleter(base.toString(), volumePermits);
+        var copier = new TreeCopier(base.toString(), volumePermits, deleter);
+
+        try {
+            Path tree = Files.createDirectory(base.resolve("tree"));
+            for (int d = 0; d < directories; d++) {
+                Path directory = Files.createDirectory(tree.resolve("d" + d));
+                for (int f = 0; f < files; f++) {
+                    Files.write(directory.resolve("f" + f + ".bin"), new byte[4096]);
+                }
+            }
+            Path image = createSparseImage(base.resolve("disk.img"), imageMb);
+
+            for (Path source : List.of(tree, image)) {
+                Path target = base.resolve(source.getFileName() + "-files");
+                long start = System.nanoTime();
+                copyWithFiles(source, target);
+                report("Files.copy walk", target, System.nanoTime() - start);
+
+                target = base.resolve(source.getFileName() + "-copier");
+                start = System.nanoTime();
+                copier.copy(source, target, TransferProgress.NONE);
+                report("TreeCopier", target, System.nanoTime() - start);
+            }
+        } finally {
+            deleter.delete(base);
+        }
+    }
+
+    private static Path createSparseImage(Path file, long sizeMb) throws IOException {
+        byte[] block = new byte[MB];
+        try (RandomAccessFile image = new RandomAccessFile(file.toFile(), "rw")) {
+            image.setLength(sizeMb * MB);
+            for (long i = 0; i < sizeMb; i += 100) {
+                block[0] = (byte) i;
+                image.seek(i * MB);
+                image.write(block);
+            }
+        }
+        return file;
+    }
+
+    private static void copyWithFiles(Path source, Path target) throws IOException {
+        try (Stream<Path> entries = Files.walk(source)) {
+            for (Path entry : (Iterable<Path>) entries::iterator) {
+                Files.copy(entry, target.resolve(source.relativize(entry).toString()),
+                        StandardCopyOption.COPY_ATTRIBUTES, LinkOption.NOFOLLOW_LINKS);
+            }
+        }
+    }
+
+    private static void report(String mode, Path target, long elapsedNanos) throws IOException {
+        if (Files.isRegularFile(target)) {
+            long data = SparseFiles.dataRegions(target, Files.size(target)).stream()
+                    .mapToLong(region -> region.end() - region.start())
+                    .sum();
+            log.info("{} of {}: {} ms, {} MB of data", mode, target.getFileName(),
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), data / MB);
+        } else {
+            log.info("{} of {}: {} ms", mode, target.getFileName(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import com.manas.backend.context.file.domain.VolumePermits;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Compares upload write paths from an in-memory request body into {@link LocalFileSystemAdapter#save}:
+ * <ul>
+ *     <li>{@code multipart}: body spooled to a temp file first, as the servlet multipart resolver does, then
+ *     copied to the target</li>
+ *     <li>{@code stream}: body piped straight into the target, as the raw upload endpoint does</li>
+ * </ul>
+ * Bytes written are taken from {@code /proc/self/io} ({@code wchar}) when available.
+ * Run with {@code RUN_BENCHMARKS=true ./gradlew test --rerun --tests '*UploadPathBenchmark'}.
+ * Sizes in MB can be overridden with {@code BENCHMARK_UPLOAD_SIZES_MB} (default {@code 10,1024}).
+ */
+@EnabledIfEnvironmentVariable(named = "RUN_BENCHMARKS", matches = "true")
+class UploadPathBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadPathBenchmark.class);
+
+    private static final long MB = 1024L * 1024;
+    private static final Path PROC_IO = Path.of("/proc/self/io");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void compareUploadPaths() throws Exception {
+        Path storage = Files.createDirectory(tempDir.resolve("storage"));
+        Path spool = Files.createDirectory(tempDir.resolve("spool"));
+        var meterRegistry = new SimpleMeterRegistry();
+        var volumePermits = new VolumePermits(8, 1);
+        var deleter = new RecursiveDeleter(storage.toString(), volumePermits);
+        var durability = new WriteDurability(meterRegistry, "fsync-on-close", Duration.ofMillis(5), 64);
+        var adapter = new LocalFileSystemAdapter(storage.toString(),
+                new DirectoryListingCache(meterRegistry, 1000),
+                new DirectorySizeAggregator(storage.toString(), 2), durability,
+                new ZipArchiveWriter(2, DataSize.ofMegabytes(4), 6),
+                deleter, new CrossVolumeMover(deleter, DataSize.ofGigabytes(1), "size"),
+                new TreeCopier(storage.toString(), volumePermits, deleter), new ContentLinker(false),
+                new TrashBin(storage.toString(), true, 2, durability, deleter),
+                new ContentTypeResolver(meterRegistry, 1000));
+
+        for (long sizeMb : sizes()) {
+            long size = sizeMb * MB;
+            for (Mode mode : Mode.values()) {
+                // Warm-up round.
+                Files.delete(storage.resolve(upload(adapter, mode, spool, size).substring(1)));
+
+                long writtenBefore = bytesWritten();
+                long start = System.nanoTime();
+                String path = upload(adapter, mode, spool, size);
+                long elapsed = System.nanoTime() - start;
+                long written = writtenBefore < 0 ? -1 : bytesWritten() - writtenBefore;
+
+                log.info("{} MB {}: {} MB/s, written {} MB ({}x body)",
+                        sizeMb, mode,
+                        String.format("%.0f", sizeMb / (elapsed / (double) TimeUnit.SECONDS.toNanos(1))),
+                        written < 0 ? "n/a" : written / MB,
+                        written < 0 ? "n/a" : String.format("%.2f", (double) written / size));
+                Files.deleteIfExists(storage.resolve(path.substring(1)));
+            }
+        }
+    }
+
+    private enum Mode {
+        MULTIPART, STREAM
+    }
+
+    private static long[] sizes() {
+        String configured = System.getenv().getOrDefault("BENCHMARK_UPLOAD_SIZES_MB", "10,1024");
+        return Arrays.stream(configured.split(",")).map(String::strip).mapToLong(Long::parseLong).toArray();
+    }
+
+    private static String upload(LocalFileSystemAdapter adapter, Mode mode, Path spool, long size)
+            throws IOException {
+        String path = "/upload-" + UUID.randomUUID() + ".bin";
+        UUID userId = UUID.randomUUID();
+
+        switch (mode) {
+            case MULTIPART -> {
+                Path spooled = spool.resolve("part-" + UUID.randomUUID());
+                try {
+                    Files.copy(body(size), spooled);
+                    try (InputStream in = Files.newInputStream(spooled)) {
+                        adapter.save(in, path, size, userId, null);
+                    }
+                } finally {
+                    Files.deleteIfExists(spooled);
+                }
+            }
+            case STREAM -> adapter.save(body(size), path, size, userId, null);
+        }
+        return path;
+    }
+
+    /**
+     * Request body stand-in: a repeated random block, so the source costs no disk I/O of its own.
+     */
+    private static InputStream body(long size) {
+        byte[] block = new byte[(int) MB];
+        new Random(size).nextBytes(block);
+
+        return new InputStream() {
+            private long remaining = size;
+
+            @Override
+            public int read() {
+                byte[] one = new byte[1];
+                return read(one, 0, 1) == -1 ? -1 : one[0] & 0xff;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (remaining == 0) {
+                    return -1;
+                }
+                int position = (int) ((size - remaining) % block.length);
+                int n = (int) Math.min(Math.min(len, remaining), block.length - position);
+                System.arraycopy(block, position, b, off, n);
+                remaining -= n;
+                return n;
+            }
+        };
+    }
+
+    /**
+     * Bytes passed to write system calls by this process so far, or -1 when not on Linux.
+     */
+    private static long bytesWritten() throws IOException {
+        if (!Files.isReadable(PROC_IO)) {
+            return -1;
+        }
+        return Files.readAllLines(PROC_IO).stream()
+                .filter(line -> line.startsWith("wchar:"))
+                .mapToLong(line -> Long.parseLong(line.substring("wchar:".length()).strip()))
+                .findFirst()
+                .orElse(-1);
+    }
+}
@@ -0,0 +1,90 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import com.manas.backend.context.file.domain.VolumePermits;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Compares durability modes for many concurrent small uploads through {@link LocalFileSystemAdapter#save}.
+ * The numbers only mean something on the target disk, so the storage directory is taken from
+ * {@code BENCHMARK_DURABILITY_DIR} (default: the system temp directory, often tmpfs).
+ * Run with {@code RUN_BENCHMARKS=true ./gradlew test --rerun --tests '*WriteDurabilityBenchmark'}.
+ * Writer count and uploads per writer can be overridden with {@code BENCHMARK_DURABILITY_WRITERS} (default 16)
+ * and {@code BENCHMARK_DURABILITY_UPLOADS} (default 50).
+ */
+@EnabledIfEnvironmentVariable(named = "RUN_BENCHMARKS", matches = "true")
+class WriteDurabilityBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteDurabilityBenchmark.class);
+
+    private static final int FILE_SIZE = 64 * 1024;
+
+    @Test
+    void compareDurabilityModes() throws Exception {
+        int writers = Integer.parseInt(System.getenv().getOrDefault("BENCHMARK_DURABILITY_WRITERS", "16"));
+        int uploads = Integer.parseInt(System.getenv().getOrDefault("BENCHMARK_DURABILITY_UPLOADS", "50"));
+        Path base = Path.of(System.getenv().getOrDefault("BENCHMARK_DURABILITY_DIR",
+                System.getProperty("java.io.tmpdir")));
+
+        for (String mode : List.of("none", "fsync-on-close", "group-commit")) {
+            Path storage = Files.createTempDirectory(base, "durability-");
+            var meterRegistry = new SimpleMeterRegistry();
+
+            try (var durability = new WriteDurability(meterRegistry, mode, Duration.ofMillis(5), 64);
+                    ExecutorService executor = Executors.newFixedThreadPool(writers)) {
+                var volumePermits = new VolumePermits(8, 1);
+                var deleter = new RecursiveDeleter(storage.toString(), volumePermits);
+                var adapter = new LocalFileSystemAdapter(storage.toString(),
+                        new DirectoryListingCache(meterRegistry, 1000),
+                        new DirectorySizeAggregator(storage.toString(), 2), durability,
+                        new ZipArchiveWriter(2, DataSize.ofMegabytes(4), 6),
+                        deleter, new CrossVolumeMover(deleter, DataSize.ofGigabytes(1), "size"),
+                        new TreeCopier(storage.toString(), volumePermits, deleter), new ContentLinker(false),
+                        new TrashBin(storage.toString(), true, 2, durability, deleter),
+                        new ContentTypeResolver(meterRegistry, 1000));
+
+                long start = System.nanoTime();
+                List<Future<?>> results = new ArrayList<>();
+                for (int writer = 0; writer < writers; writer++) {
+                    results.add(executor.submit(() -> {
+                        for (int i = 0; i < uploads; i++) {
+                            adapter.save(new ByteArrayInputStream(new byte[FILE_SIZE]),
+                                    "/" + UUID.randomUUID() + ".bin", FILE_SIZE, null, null);
+                        }
+                    }));
+                }
+                for (Future<?> result : results) {
+                    result.get();
+                }
+                long elapsed = System.nanoTime() - start;
+
+                var batches = meterRegistry.summary("app.storage.durability.batch.size");
+                log.info("{}: {} uploads/s, mean batch {} ({} writers x {} uploads)", mode,
+                        String.format("%.0f", writers * uploads / (elapsed / (double) TimeUnit.SECONDS.toNanos(1))),
+                        String.format("%.1f", batches.mean()), writers, uploads);
+            } finally {
+                try (var files = Files.list(storage)) {
+                    for (Path file : files.toList()) {
+                        Files.delete(file);
+                    }
+                }
+                Files.delete(storage);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WriteDurabilityTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should parse durability modes as written in configuration")
+    void shouldParseModes() {
+        assertEquals(WriteDurability.Mode.NONE, WriteDurability.Mode.parse("none"));
+        assertEquals(WriteDurability.Mode.FSYNC_ON_CLOSE, WriteDurability.Mode.parse("fsync-on-close"));
+        assertEquals(WriteDurability.Mode.GROUP_COMMIT, WriteDurability.Mode.parse(" Group-Commit "));
+        assertThrows(IllegalArgumentException.class, () -> WriteDurability.Mode.parse("always"));
+    }
+
+    @Test
+    @DisplayName("Should flush concurrent writers together in one group commit batch")
+    void shouldBatchConcurrentSyncs() throws Exception {
+        var meterRegistry = new SimpleMeterRegistry();
+        int writers = 8;
+
+        try (var durability = new WriteDurability(meterRegistry, "group-commit", Duration.ofMillis(500), writers);
+                ExecutorService executor = Executors.newFixedThreadPool(writers)) {
+            List<Future<Void>> results = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                Path file = tempDir.resolve("file-" + i);
+                results.add(executor.submit(writeAndSync(durability, file)));
+            }
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        }
+
+        DistributionSummary batches = meterRegistry.get("app.storage.durability.batch.size").summary();
+        assertTrue(batches.count() < writers, "expected fewer batches than writers, got " + batches.count());
+        assertEquals(writers, (long) batches.totalAmount());
+    }
+
+    @Test
+    @DisplayName("Should complete directory syncs in group commit mode")
+    void shouldSyncDirectoryInGroupCommit() throws Exception {
+        var meterRegistry = new SimpleMeterRegistry();
+
+        try (var durability = new WriteDurability(meterRegistry, "group-commit", Duration.ofMillis(1), 64)) {
+            writeAndSync(durability, tempDir.resolve("file")).call();
+            durability.syncDirectory(tempDir);
+        }
+
+        assertEquals(2L, meterRegistry.get("app.storage.durability.batch.size").summary().count());
+    }
+
+    @Test
+    @DisplayName("Should not batch or block when durability is off")
+    void shouldSkipSyncWhenDisabled() throws Exception {
+        var meterRegistry = new SimpleMeterRegistry();
+
+        try (var durability = new WriteDurability(meterRegistry, "none", Duration.ofMillis(5), 64)) {
+            writeAndSync(durability, tempDir.resolve("file")).call();
+            durability.syncDirectory(tempDir);
+        }
+
+        assertEquals(0L, meterRegistry.get("app.storage.durability.batch.size").summary().count());
+    }
+
+    private static Callable<Void> writeAndSync(WriteDurability durability, Path file) {
+        return () -> {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3}));
+                durability.syncData(channel);
+            }
+            return null;
+        };
+    }
+}
@@ -0,0 +1,144 @@
+package com.manas.backend.context.file.infrastructure.fs;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ZipStreamTest {
+
+    private static final Instant MODIFIED = Instant.parse("2024-05-01T10:15:30Z");
+
+    @TempDir
+    Path tempDir;
+
+    private ExecutorService compressors;
+
+    @BeforeEach
+    void setUp() {
+        compressors = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        compressors.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should deflate text, store compressed formats and keep empty directories")
+    void shouldWriteReadableArchive() throws IOException {
+        Path text = write("notes.txt", "hello archive ".repeat(1000).getBytes(StandardCharsets.UTF_8));
+        Path photo = write("photo.jpg", randomBytes(10_000));
+        Path large = write("large.log", "streamed line\n".repeat(50_000).getBytes(StandardCharsets.UTF_8));
+        Path archive = tempDir.resolve("out.zip");
+
+        try (OutputStream out = Files.newOutputStream(archive);
+                ZipStream zip = new ZipStream(out, compressors, 2, 64 * 1024, 6, ZipStream.ZIP64_ENTRY_THRESHOLD)) {
+            zip.addDirectory("docs/", MODIFIED);
+            zip.addFile(text, "docs/notes.txt", Files.size(text), MODIFIED);
+            zip.addFile(photo, "docs/photo.jpg", Files.size(photo), MODIFIED);
+            zip.addFile(large, "docs/large.log", Files.size(large), MODIFIED);
+            zip.addDirectory("docs/empty/", MODIFIED);
+            zip.finish();
+        }
+
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            assertEquals(List.of("docs/", "docs/notes.txt", "docs/photo.jpg", "docs/large.log", "docs/empty/"),
+                    names(zipFile));
+            assertTrue(zipFile.getEntry("docs/empty/").isDirectory());
+
+            ZipEntry notes = zipFile.getEntry("docs/notes.txt");
+            assertEquals(ZipEntry.DEFLATED, notes.getMethod());
+            assertTrue(notes.getCompressedSize() < notes.getSize());
+            assertContent(zipFile, notes, text);
+
+            ZipEntry jpg = zipFile.getEntry("docs/photo.jpg");
+            assertEquals(ZipEntry.STORED, jpg.getMethod());
+            assertContent(zipFile, jpg, photo);
+
+            ZipEntry log = zipFile.getEntry("docs/large.log");
+            assertEquals(ZipEntry.DEFLATED, log.getMethod());
+            assertContent(zipFile, log, large);
+        }
+    }
+
+    @Test
+    @DisplayName("Should write entries over the ZIP64 threshold in a form readers accept")
+    void shouldWriteZip64Entries() throws IOException {
+        Path data = write("data.bin", randomBytes(4096));
+        Path archive = tempDir.resolve("out.zip");
+
+        try (OutputStream out = Files.newOutputStream(archive);
+                ZipStream zip = new ZipStream(out, compressors, 2, 0, 6, 1024)) {
+            zip.addFile(data, "data.bin", Files.size(data), MODIFIED);
+            zip.finish();
+        }
+
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            ZipEntry entry = zipFile.getEntry("data.bin");
+            assertNotNull(entry);
+            assertEquals(4096, entry.getSize());
+            assertContent(zipFile, entry, data);
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep non-ASCII entry names intact")
+    void shouldEncodeNamesAsUtf8() throws IOException {
+        Path file = write("file.txt", "x".getBytes(StandardCharsets.UTF_8));
+        Path archive = tempDir.resolve("out.zip");
+
+        try (OutputStream out = Files.newOutputStream(archive);
+                ZipStream zip = new ZipStream(out, compressors, 2, 64 * 1024, 6, ZipStream.ZIP64_ENTRY_THRESHOLD)) {
+            zip.addFile(file, "사진/여름.txt", 1, MODIFIED);
+            zip.finish();
+        }
+
+        try (ZipFile zipFile = new ZipFile(archive.toFile(), StandardCharsets.ISO_8859_1)) {
+            // The UTF-8 flag takes precedence over the charset passed in.
+            assertNotNull(zipFile.getEntry("사진/여름.txt"));
+        }
+    }
+
+    private Path write(String name, byte[] content) throws IOException {
+        return Files.write(tempDir.resolve(name), content);
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static List<String> names(ZipFile zipFile) {
+        List<String> names = new ArrayList<>();
+        zipFile.stream().forEach(entry -> names.add(entry.getName()));
+        return names;
+    }
+
+    private static void assertContent(ZipFile zipFile, ZipEntry entry, Path expected) throws IOException {
+        try (InputStream in = zipFile.getInputStream(entry)) {
+            assertArrayEquals(Files.readAllBytes(expected), in.readAllBytes());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.manas.backend.context.file.infrastructure.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.manas.backend.TestcontainersConfiguration;
+import com.manas.backend.context.file.domain.IndexedContent;
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+class JpaContentIndexAdapterIT {
+
+    @Autowired
+    private JpaContentIndexAdapter adapter;
+
+    @Test
+    @DisplayName("Should keep the first path registered for a hash")
+    void shouldKeepFirstRegistration() {
+        String sha256 = randomSha256();
+
+        adapter.registerIfAbsent(new IndexedContent(sha256, "/it/first.bin", 10L, "\"a\""));
+        adapter.registerIfAbsent(new IndexedContent(sha256, "/it/second.bin", 10L, "\"b\""));
+
+        assertThat(adapter.findBySha256(sha256)).get()
+                .extracting(IndexedContent::path).isEqualTo("/it/first.bin");
+
+        adapter.delete(sha256);
+
+        assertThat(adapter.findBySha256(sha256)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should move and delete entries below a directory without matching its siblings")
+    void shouldMoveAndDeleteSubtrees() {
+        String inside = randomSha256();
+        String nested = randomSha256();
+        String sibling = randomSha256();
+        String wildcard = randomSha256();
+        adapter.registerIfAbsent(new IndexedContent(inside, "/it/tree_1/a.bin", 1L, "\"a\""));
+        adapter.registerIfAbsent(new IndexedContent(nested, "/it/tree_1/sub/b.bin", 1L, "\"b\""));
+        adapter.registerIfAbsent(new IndexedContent(sibling, "/it/tree_10/c.bin", 1L, "\"c\""));
+        // '_' is a LIKE wildcard; it must only match itself.
+        adapter.registerIfAbsent(new IndexedContent(wildcard, "/it/treeX1/d.bin", 1L, "\"d\""));
+
+        int moved = adapter.moveUnder("/it/tree_1", "/it/moved");
+
+        assertThat(moved).isEqualTo(2);
+        assertThat(adapter.findBySha256(inside)).get()
+                .extracting(IndexedContent::path).isEqualTo("/it/moved/a.bin");
+        assertThat(adapter.findBySha256(nested)).get()
+                .extracting(IndexedContent::path).isEqualTo("/it/moved/sub/b.bin");
+        assertThat(adapter.findBySha256(sibling)).get()
+                .extracting(IndexedContent::path).isEqualTo("/it/tree_10/c.bin");
+
+        int removed = adapter.deleteUnder("/it/moved");
+
+        assertThat(removed).isEqualTo(2);
+        assertThat(adapter.findBySha256(inside)).isEmpty();
+        assertThat(adapter.findBySha256(wildcard)).isPresent();
+
+        adapter.delete(sibling);
+        adapter.delete(wildcard);
+    }
+
+    private static String randomSha256() {
+        byte[] bytes = new byte[32];
+        ThreadLocalRandom.current().nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+
+}
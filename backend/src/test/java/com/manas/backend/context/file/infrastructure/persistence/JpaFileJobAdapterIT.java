@@ -0,0 +1,64 @@
+package com.manas.backend.context.file.infrastructure.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.manas.backend.TestcontainersConfiguration;
+import com.manas.backend.context.file.domain.FileJob;
+import com.manas.backend.context.file.domain.FileJobItem;
+import com.manas.backend.context.file.domain.FileJobState;
+import com.manas.backend.context.file.domain.FileJobType;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+class JpaFileJobAdapterIT {
+
+    @Autowired
+    private JpaFileJobAdapter adapter;
+
+    @Test
+    @DisplayName("Should save jobs with their items, track progress and purge finished jobs")
+    void shouldPersistFileJobs() {
+        UUID userId = UUID.randomUUID();
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        FileJob running = FileJob.queued(userId, FileJobType.MOVE, "/it/target", 2, now).running(now);
+        FileJob finished = FileJob.queued(userId, FileJobType.DELETE, null, 1, now.minus(2, ChronoUnit.DAYS))
+                .finished(FileJobState.SUCCEEDED, null, now.minus(2, ChronoUnit.DAYS));
+
+        adapter.save(running);
+        adapter.saveItems(running.id(), List.of(
+                FileJobItem.pending(0, "/it/a"),
+                FileJobItem.pending(1, "/it/b")));
+        adapter.save(finished);
+        adapter.saveItems(finished.id(), List.of(FileJobItem.pending(0, "/it/old").done()));
+
+        adapter.saveItem(running.id(), FileJobItem.pending(0, "/it/a").failed("IO Error"));
+        adapter.save(running.progressed(0, 1, now));
+
+        assertThat(adapter.findById(running.id())).get()
+                .extracting(FileJob::failedItems).isEqualTo(1);
+        assertThat(adapter.findItems(running.id())).containsExactly(
+                FileJobItem.pending(0, "/it/a").failed("IO Error"),
+                FileJobItem.pending(1, "/it/b"));
+        assertThat(adapter.findUnfinished()).extracting(FileJob::id)
+                .contains(running.id())
+                .doesNotContain(finished.id());
+        assertThat(adapter.findRecentByUser(userId, 10)).extracting(FileJob::id)
+                .containsExactly(running.id(), finished.id());
+
+        assertThat(adapter.deleteFinishedBefore(now.minus(1, ChronoUnit.DAYS))).isGreaterThanOrEqualTo(1);
+
+        assertThat(adapter.findById(finished.id())).isEmpty();
+        assertThat(adapter.findItems(finished.id())).isEmpty();
+        assertThat(adapter.findById(running.id())).isPresent();
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.manas.backend.context.file.infrastructure.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.manas.backend.TestcontainersConfiguration;
+import com.manas.backend.context.file.domain.UploadSession;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+class JpaUploadSessionAdapterIT {
+
+    @Autowired
+    private JpaUploadSessionAdapter adapter;
+
+    @Test
+    @DisplayName("Should save, update, find and delete upload sessions")
+    void shouldPersistUploadSessions() {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        UploadSession active = new UploadSession(UUID.randomUUID(), UUID.randomUUID(), "/it/active.bin",
+                100L, 0L, null, now, now.plus(1, ChronoUnit.HOURS));
+        UploadSession expired = new UploadSession(UUID.randomUUID(), UUID.randomUUID(), "/it/expired.bin",
+                100L, 50L, null, now.minus(2, ChronoUnit.DAYS), now.minus(1, ChronoUnit.DAYS));
+
+        adapter.save(active);
+        adapter.save(expired);
+        adapter.save(active.withProgress(60L, active.expiresAt()));
+
+        assertThat(adapter.findById(active.id())).get()
+                .extracting(UploadSession::committedOffset).isEqualTo(60L);
+        assertThat(adapter.findByTargetPath("/it/active.bin")).get()
+                .extracting(UploadSession::id).isEqualTo(active.id());
+        assertThat(adapter.findExpired(now)).extracting(UploadSession::id)
+                .contains(expired.id())
+                .doesNotContain(active.id());
+
+        adapter.delete(active.id());
+        adapter.delete(expired.id());
+
+        assertThat(adapter.findById(active.id())).isEmpty();
+    }
+
+}
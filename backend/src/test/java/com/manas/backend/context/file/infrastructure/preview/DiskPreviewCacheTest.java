@@ -0,0 +1,183 @@
+package com.manas.backend.context.file.infrastructure.preview;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.manas.backend.context.file.domain.FileContent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class DiskPreviewCacheTest {
+
+    private static final String KEY_A = "aa".repeat(32);
+    private static final String KEY_B = "bb".repeat(32);
+    private static final String KEY_C = "cc".repeat(32);
+
+    @TempDir
+    Path cacheDir;
+
+    private DiskPreviewCache cache;
+
+    @AfterEach
+    void tearDown() {
+        if (cache != null) {
+            cache.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should store previews sharded by key prefix and serve them back")
+    void shouldPutAndGet() throws IOException {
+        cache = open(DataSize.ofKilobytes(10));
+
+        cache.put(KEY_A, new byte[]{1, 2, 3});
+
+        assertTrue(cache.contains(KEY_A));
+        assertTrue(Files.exists(cacheDir.resolve("previews/aa/aa/" + KEY_A + ".jpg")));
+        assertArrayEquals(new byte[]{1, 2, 3}, read(cache.get(KEY_A)));
+        assertNull(cache.get(KEY_B));
+        assertEquals(3, cache.totalBytes());
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used previews beyond the size budget")
+    void shouldEvictLeastRecentlyUsed() throws IOException {
+        cache = open(DataSize.ofBytes(20));
+
+        cache.put(KEY_A, new byte[8]);
+        cache.put(KEY_B, new byte[8]);
+        read(cache.get(KEY_A));
+        cache.put(KEY_C, new byte[8]);
+
+        assertTrue(cache.contains(KEY_A));
+        assertFalse(cache.contains(KEY_B));
+        assertTrue(cache.contains(KEY_C));
+        assertFalse(Files.exists(cacheDir.resolve("previews/bb/bb/" + KEY_B + ".jpg")));
+        assertEquals(16, cache.totalBytes());
+    }
+
+    @Test
+    @DisplayName("Should not store a preview larger than the whole budget")
+    void shouldSkipOversizedPreview() {
+        cache = open(DataSize.ofBytes(4));
+
+        cache.put(KEY_A, new byte[5]);
+
+        assertFalse(cache.contains(KEY_A));
+        assertEquals(0, cache.entryCount());
+    }
+
+    @Test
+    @DisplayName("Should rebuild sizes and recency from the access log after a restart")
+    void shouldReplayAccessLog() throws IOException {
+        cache = open(DataSize.ofBytes(20));
+        cache.put(KEY_A, new byte[8]);
+        cache.put(KEY_B, new byte[8]);
+        read(cache.get(KEY_A));
+        cache.close();
+
+        cache = open(DataSize.ofBytes(20));
+        assertEquals(2, cache.entryCount());
+        assertEquals(16, cache.totalBytes());
+
+        cache.put(KEY_C, new byte[8]);
+        assertTrue(cache.contains(KEY_A));
+        assertFalse(cache.contains(KEY_B));
+    }
+
+    @Test
+    @DisplayName("Should evict down to a lowered budget at startup")
+    void shouldShrinkToNewBudget() {
+        cache = open(DataSize.ofBytes(20));
+        cache.put(KEY_A, new byte[8]);
+        cache.put(KEY_B, new byte[8]);
+        cache.close();
+
+        cache = open(DataSize.ofBytes(10));
+
+        assertFalse(cache.contains(KEY_A));
+        assertTrue(cache.contains(KEY_B));
+        assertEquals(8, cache.totalBytes());
+    }
+
+    @Test
+    @DisplayName("Should drop an entry whose file disappeared")
+    void shouldDropMissingFile() throws IOException {
+        cache = open(DataSize.ofKilobytes(10));
+        cache.put(KEY_A, new byte[]{1});
+        Files.delete(cacheDir.resolve("previews/aa/aa/" + KEY_A + ".jpg"));
+
+        assertNull(cache.get(KEY_A));
+        assertFalse(cache.contains(KEY_A));
+        assertEquals(0, cache.totalBytes());
+    }
+
+    @Test
+    @DisplayName("Should compact the access log in the background, not on the lookup path")
+    void shouldCompactAccessLogInBackground() throws IOException {
+        cache = open(DataSize.ofKilobytes(10));
+        cache.put(KEY_A, new byte[]{1});
+        cache.put(KEY_B, new byte[]{2});
+
+        for (int i = 0; i < 25_000; i++) {
+            read(cache.get(KEY_A));
+        }
+        cache.close();
+
+        assertTrue(Files.readAllLines(cacheDir.resolve(DiskPreviewCache.ACCESS_LOG)).size() < 10_000);
+        cache = open(DataSize.ofKilobytes(10));
+        assertEquals(2, cache.entryCount());
+        assertArrayEquals(new byte[]{2}, read(cache.get(KEY_B)));
+    }
+
+    @Test
+    @DisplayName("Should reject keys that are not hex digests")
+    void shouldRejectInvalidKey() {
+        cache = open(DataSize.ofKilobytes(10));
+
+        assertThrows(IllegalArgumentException.class, () -> cache.put("../../etc/passwd", new byte[]{1}));
+    }
+
+    @Test
+    @DisplayName("Should remove previews of the former flat layout in the background")
+    void shouldRemoveLegacyFiles() throws Exception {
+        Path legacy = Files.write(cacheDir.resolve("ab".repeat(32) + ".jpg"), new byte[]{1});
+        Path unrelated = Files.write(cacheDir.resolve("notes.txt"), new byte[]{1});
+
+        cache = open(DataSize.ofKilobytes(10));
+
+        for (int i = 0; i < 100 && Files.exists(legacy); i++) {
+            Thread.sleep(50);
+        }
+        assertFalse(Files.exists(legacy));
+        assertTrue(Files.exists(unrelated));
+        try (Stream<Path> temp = Files.list(cacheDir.resolve(DiskPreviewCache.TEMP_DIRECTORY))) {
+            assertEquals(0, temp.count());
+        }
+    }
+
+    private DiskPreviewCache open(DataSize maxSize) {
+        return new DiskPreviewCache(cacheDir.toString(), maxSize, new SimpleMeterRegistry());
+    }
+
+    private static byte[] read(FileContent content) throws IOException {
+        assertNotNull(content);
+        try (InputStream in = content.inputStream()) {
+            return in.readAllBytes();
+        }
+    }
+}
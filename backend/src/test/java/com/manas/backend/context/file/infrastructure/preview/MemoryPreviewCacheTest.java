@@ -0,0 +1,174 @@
+package com.manas.backend.context.file.infrastructure.preview;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.Arrays;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+class MemoryPreviewCacheTest {
+
+    private static final int PREVIEW_BYTES = 1000;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MemoryPreviewCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // 100 bytes of window, room for 9 previews in the main area.
+        cache = new MemoryPreviewCache(DataSize.ofBytes(10_000), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should serve previews as independent read-only views")
+    void shouldServeReadOnlyViews() {
+        cache.put(key("a0", 1), new byte[]{1, 2, 3});
+
+        try (MemoryPreviewCache.Lease first = cache.get(key("a0", 1));
+                MemoryPreviewCache.Lease second = cache.get(key("a0", 1))) {
+            assertNotNull(first);
+            assertTrue(first.buffer().isReadOnly());
+            assertThrows(ReadOnlyBufferException.class, () -> first.buffer().put(0, (byte) 9));
+            assertArrayEquals(new byte[]{1, 2, 3}, read(first.buffer()));
+            assertArrayEquals(new byte[]{1, 2, 3}, read(second.buffer()));
+        }
+        assertNull(cache.get(key("a0", 2)));
+        assertEquals(2.0, meterRegistry.counter("app.preview.cache.memory.hit").count());
+    }
+
+    @Test
+    @DisplayName("Should copy admitted previews into the direct arena")
+    void shouldServeAdmittedPreviewsFromArena() {
+        cache.put(key("a0", 1), filled(PREVIEW_BYTES, 5));
+
+        try (MemoryPreviewCache.Lease lease = cache.get(key("a0", 1))) {
+            assertTrue(lease.buffer().isDirect());
+            assertArrayEquals(filled(PREVIEW_BYTES, 5), read(lease.buffer()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should not reuse the pages of a replaced preview until its lease is closed")
+    void shouldKeepLeasedPages() {
+        cache.put(key("a0", 1), filled(PREVIEW_BYTES, 1));
+        MemoryPreviewCache.Lease lease = cache.get(key("a0", 1));
+
+        cache.put(key("a0", 1), filled(PREVIEW_BYTES, 2));
+        for (int i = 0; i < 8; i++) {
+            cache.put(key("b0", i), filled(PREVIEW_BYTES, 3));
+        }
+
+        // Two pages of the arena are still leased, so the last preview found no room.
+        assertFalse(cache.contains(key("b0", 7)));
+        assertArrayEquals(filled(PREVIEW_BYTES, 1), read(lease.buffer()));
+
+        lease.close();
+        cache.put(key("b0", 8), filled(PREVIEW_BYTES, 4));
+        assertTrue(cache.contains(key("b0", 8)));
+        assertEquals(9, cache.entryCount());
+    }
+
+    @Test
+    @DisplayName("Should admit previews while the main area has room")
+    void shouldAdmitWhileRoom() {
+        for (int i = 0; i < 9; i++) {
+            cache.put(key("a0", i), new byte[PREVIEW_BYTES]);
+        }
+
+        assertEquals(9, cache.entryCount());
+        assertEquals(9 * PREVIEW_BYTES, cache.totalBytes());
+    }
+
+    @Test
+    @DisplayName("Should keep frequently requested previews when a folder is scanned once")
+    void shouldRejectOneOffPreviews() {
+        for (int i = 0; i < 9; i++) {
+            cache.put(key("a0", i), new byte[PREVIEW_BYTES]);
+        }
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 9; i++) {
+                assertNotNull(cache.get(key("a0", i)));
+            }
+        }
+
+        for (int i = 0; i < 20; i++) {
+            cache.put(key("b0", i), new byte[PREVIEW_BYTES]);
+        }
+
+        for (int i = 0; i < 9; i++) {
+            assertTrue(cache.contains(key("a0", i)));
+        }
+        for (int i = 0; i < 20; i++) {
+            assertFalse(cache.contains(key("b0", i)));
+        }
+        assertEquals(20.0, meterRegistry.counter("app.preview.cache.memory.rejections").count());
+        assertEquals(9 * PREVIEW_BYTES, cache.totalBytes());
+    }
+
+    @Test
+    @DisplayName("Should evict the eldest probation entry for a more frequently requested preview")
+    void shouldAdmitMoreFrequentPreview() {
+        for (int i = 0; i < 9; i++) {
+            cache.put(key("a0", i), new byte[PREVIEW_BYTES]);
+        }
+
+        assertNull(cache.get(key("c0", 1)));
+        assertNull(cache.get(key("c0", 1)));
+        cache.put(key("c0", 1), new byte[PREVIEW_BYTES]);
+
+        assertTrue(cache.contains(key("c0", 1)));
+        assertFalse(cache.contains(key("a0", 0)));
+        assertTrue(cache.contains(key("a0", 1)));
+        assertEquals(1.0, meterRegistry.counter("app.preview.cache.memory.evictions").count());
+    }
+
+    @Test
+    @DisplayName("Should not hold previews larger than the main area")
+    void shouldSkipOversizedPreview() {
+        cache.put(key("a0", 1), new byte[10_000]);
+
+        assertFalse(cache.contains(key("a0", 1)));
+        assertEquals(0, cache.totalBytes());
+    }
+
+    @Test
+    @DisplayName("Should replace a preview stored under the same key")
+    void shouldReplacePreview() {
+        cache.put(key("a0", 1), new byte[PREVIEW_BYTES]);
+        cache.put(key("a0", 1), new byte[]{7});
+
+        try (MemoryPreviewCache.Lease lease = cache.get(key("a0", 1))) {
+            assertArrayEquals(new byte[]{7}, read(lease.buffer()));
+        }
+        assertEquals(1, cache.entryCount());
+        assertEquals(1, cache.totalBytes());
+    }
+
+    private static String key(String prefix, int i) {
+        return prefix + "%062x".formatted(i);
+    }
+
+    private static byte[] filled(int length, int value) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) value);
+        return bytes;
+    }
+
+    private static byte[] read(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,84 @@
+package com.manas.backend.context.file.infrastructure.preview;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.manas.backend.context.file.domain.FileContent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class TieredPreviewCacheTest {
+
+    private static final String KEY = "ab".repeat(32);
+
+    @TempDir
+    Path cacheDir;
+
+    private MemoryPreviewCache memory;
+    private DiskPreviewCache disk;
+    private TieredPreviewCache cache;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        memory = new MemoryPreviewCache(DataSize.ofKilobytes(64), meterRegistry);
+        disk = new DiskPreviewCache(cacheDir.toString(), DataSize.ofKilobytes(64), meterRegistry);
+        cache = new TieredPreviewCache(memory, disk);
+    }
+
+    @AfterEach
+    void tearDown() {
+        disk.close();
+    }
+
+    @Test
+    @DisplayName("Should write new previews to both tiers and serve them from memory")
+    void shouldServeFromMemory() throws IOException {
+        cache.put(KEY, new byte[]{1, 2, 3});
+        assertTrue(memory.contains(KEY));
+        assertTrue(disk.contains(KEY));
+
+        Files.delete(cacheDir.resolve("previews/ab/ab/" + KEY + ".jpg"));
+
+        assertArrayEquals(new byte[]{1, 2, 3}, read(cache.get(KEY)));
+        assertTrue(disk.contains(KEY));
+    }
+
+    @Test
+    @DisplayName("Should read disk hits into the memory tier")
+    void shouldPromoteDiskHits() throws IOException {
+        disk.put(KEY, new byte[]{4, 5});
+        assertFalse(memory.contains(KEY));
+
+        assertArrayEquals(new byte[]{4, 5}, read(cache.get(KEY)));
+
+        assertTrue(memory.contains(KEY));
+        assertTrue(cache.contains(KEY));
+    }
+
+    @Test
+    @DisplayName("Should report a miss if neither tier holds the preview")
+    void shouldMiss() {
+        assertNull(cache.get(KEY));
+        assertFalse(cache.contains(KEY));
+    }
+
+    private static byte[] read(FileContent content) throws IOException {
+        assertNotNull(content);
+        try (InputStream in = content.inputStream()) {
+            return in.readAllBytes();
+        }
+    }
+}
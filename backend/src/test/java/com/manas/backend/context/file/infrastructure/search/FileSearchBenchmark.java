@@ -0,0 +1,92 @@
+package com.manas.backend.context.file.infrastructure.search;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures query and rename latency of {@link PathTrigramIndex} over one million synthetic paths.
+ * <p>
+ * Run with {@code RUN_BENCHMARKS=true ./gradlew test --rerun --tests '*FileSearchBenchmark'}.
+ */
+@EnabledIfEnvironmentVariable(named = "RUN_BENCHMARKS", matches = "true")
+class FileSearchBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(FileSearchBenchmark.class);
+
+    private static final int FILE_COUNT = 1_000_000;
+    private static final int FILES_PER_DIRECTORY = 200;
+    private static final String[] QUERIES = {"img_1234", "holiday", "2023 img", "report final", "mov", "zz"};
+    private static final int WARMUP_ROUNDS = 50;
+    private static final int MEASURED_ROUNDS = 200;
+
+    @Test
+    void queryLatency() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        long buildStart = System.nanoTime();
+        PathTrigramIndex index = buildIndex(new Random(1));
+        long buildMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - buildStart);
+        System.gc();
+        long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+        log.info("Indexed {} paths in {} ms, ~{} MiB heap", index.liveCount(), buildMs,
+                (heapAfter - heapBefore) / (1024 * 1024));
+
+        for (String query : QUERIES) {
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                index.search(query, 0, 50);
+            }
+            long[] samples = new long[MEASURED_ROUNDS];
+            int total = 0;
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                long start = System.nanoTime();
+                total = index.search(query, 0, 50).totalCount();
+                samples[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(samples);
+            log.info("'{}': {} matches, p50 {} ms, p99 {} ms", query, total,
+                    String.format("%.3f", samples[MEASURED_ROUNDS / 2] / 1e6),
+                    String.format("%.3f", samples[MEASURED_ROUNDS * 99 / 100] / 1e6));
+        }
+
+        // Renaming a year directory back and forth; each rename runs under the adapter's write lock.
+        int volume = index.find("/Photos");
+        int year = index.find("/Photos/2015");
+        long[] samples = new long[MEASURED_ROUNDS];
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            index.move(year, volume, i % 2 == 0 ? "2015-renamed" : "2015");
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        log.info("Directory rename: p50 {} ms, p99 {} ms",
+                String.format("%.3f", samples[MEASURED_ROUNDS / 2] / 1e6),
+                String.format("%.3f", samples[MEASURED_ROUNDS * 99 / 100] / 1e6));
+    }
+
+    private static PathTrigramIndex buildIndex(Random random) {
+        String[] volumes = {"Photos", "Backup", "Media", "Documents"};
+        String[] stems = {"IMG_", "DSC", "holiday-", "report-final-", "VID_", "scan_"};
+        String[] extensions = {".jpg", ".heic", ".mov", ".pdf", ".png"};
+
+        PathTrigramIndex index = new PathTrigramIndex(FILE_COUNT + FILE_COUNT / FILES_PER_DIRECTORY);
+        int directory = PathTrigramIndex.ROOT;
+        for (int i = 0; i < FILE_COUNT; i++) {
+            if (i % FILES_PER_DIRECTORY == 0) {
+                String volume = volumes[random.nextInt(volumes.length)];
+                int year = 2010 + random.nextInt(15);
+                directory = index.addPath("/" + volume + "/" + year + "/batch-" + i, true);
+            }
+            String name = stems[random.nextInt(stems.length)] + random.nextInt(100_000)
+                    + extensions[random.nextInt(extensions.length)];
+            index.add(directory, name, false);
+        }
+        index.trimPostings();
+        return index;
+    }
+}
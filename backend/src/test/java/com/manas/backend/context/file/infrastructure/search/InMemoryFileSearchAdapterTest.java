@@ -0,0 +1,99 @@
+package com.manas.backend.context.file.infrastructure.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.manas.backend.context.file.domain.FileSearchHit;
+import com.manas.backend.context.file.domain.FileSearchResult;
+import com.manas.backend.context.file.domain.event.FileDeletedEvent;
+import com.manas.backend.context.file.domain.event.FileDeletionFailedEvent;
+import com.manas.backend.context.file.domain.event.FileMovedEvent;
+import com.manas.backend.context.file.domain.event.FileUploadedEvent;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class InMemoryFileSearchAdapterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private InMemoryFileSearchAdapter adapter;
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        adapter = new InMemoryFileSearchAdapter(tempDir.toString(), 2);
+    }
+
+    @Test
+    @DisplayName("Should report indexing until the first build completes")
+    void shouldReportIndexingBeforeBuild() {
+        FileSearchResult result = adapter.search("report", 0, 10);
+
+        assertTrue(result.indexing());
+        assertTrue(result.items().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should find files from the startup walk and skip system entries")
+    void shouldIndexWalkedTree() throws IOException {
+        Files.createDirectories(tempDir.resolve("docs/2024"));
+        Files.writeString(tempDir.resolve("docs/2024/report.pdf"), "x");
+        Files.createDirectory(tempDir.resolve(".Trashes"));
+        Files.writeString(tempDir.resolve(".Trashes/report-old.pdf"), "x");
+
+        adapter.rebuild();
+        FileSearchResult result = adapter.search("report", 0, 10);
+
+        assertFalse(result.indexing());
+        assertEquals(List.of(new FileSearchHit("report.pdf", "/docs/2024/report.pdf", false)), result.items());
+    }
+
+    @Test
+    @DisplayName("Should follow upload, move and delete events")
+    void shouldApplyFileEvents() {
+        adapter.rebuild();
+
+        adapter.onFileUploaded(new FileUploadedEvent(userId, "/inbox/scan.png", 10, Instant.now(), null));
+        adapter.onFileMoved(new FileMovedEvent(userId, "/inbox/scan.png", "/archive/scan-2024.png", Instant.now()));
+        assertEquals(List.of("/archive/scan-2024.png"), paths(adapter.search("scan", 0, 10)));
+
+        adapter.onFileDeleted(new FileDeletedEvent(userId, "archive/scan-2024.png", Instant.now()));
+        assertEquals(0, adapter.search("scan", 0, 10).totalCount());
+    }
+
+    @Test
+    @DisplayName("Should keep only what is left of a directory whose deletion failed part way")
+    void shouldReindexPartlyDeletedDirectory() throws IOException {
+        Files.createDirectories(tempDir.resolve("old/a"));
+        Files.writeString(tempDir.resolve("old/a/report-1.pdf"), "x");
+        Files.writeString(tempDir.resolve("old/report-2.pdf"), "x");
+        adapter.rebuild();
+
+        Files.delete(tempDir.resolve("old/a/report-1.pdf"));
+        Files.delete(tempDir.resolve("old/a"));
+        adapter.onFileDeletionFailed(new FileDeletionFailedEvent(userId, "/old", Instant.now()));
+
+        assertEquals(List.of("/old/report-2.pdf"), paths(adapter.search("report", 0, 10)));
+        assertEquals(List.of("/old"), paths(adapter.search("old", 0, 10)));
+
+        Files.delete(tempDir.resolve("old/report-2.pdf"));
+        Files.delete(tempDir.resolve("old"));
+        adapter.onFileDeletionFailed(new FileDeletionFailedEvent(userId, "/old", Instant.now()));
+
+        assertEquals(0, adapter.search("old", 0, 10).totalCount());
+    }
+
+    private static List<String> paths(FileSearchResult result) {
+        return result.items().stream().map(FileSearchHit::path).toList();
+    }
+}
@@ -0,0 +1,174 @@
+package com.manas.backend.context.file.infrastructure.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.text.Normalizer;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class PathTrigramIndexTest {
+
+    private PathTrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PathTrigramIndex(16);
+        index.addPath("/photos/2024/holiday.jpg", false);
+        index.addPath("/photos/2024/my-holiday-trip.mov", false);
+        index.addPath("/photos/holiday", true);
+        index.addPath("/docs/Holidays plan.pdf", false);
+    }
+
+    @Test
+    @DisplayName("Should rank exact, prefix, word-boundary and substring matches in that order")
+    void shouldRankMatches() {
+        assertEquals(
+                List.of("/photos/holiday", "/docs/Holidays plan.pdf", "/photos/2024/holiday.jpg",
+                        "/photos/2024/my-holiday-trip.mov"),
+                paths(index.search("HOLIDAY", 0, 10)));
+        assertEquals(4, index.search("holiday", 0, 10).totalCount());
+    }
+
+    @Test
+    @DisplayName("Should require every additional term to appear in the path")
+    void shouldFilterByAdditionalTerms() {
+        assertEquals(List.of("/photos/2024/holiday.jpg", "/photos/2024/my-holiday-trip.mov"),
+                paths(index.search("2024 holiday", 0, 10)));
+    }
+
+    @Test
+    @DisplayName("Should paginate ranked results")
+    void shouldPaginate() {
+        PathTrigramIndex.Matches page = index.search("holiday", 1, 2);
+
+        assertEquals(List.of("/docs/Holidays plan.pdf", "/photos/2024/holiday.jpg"), paths(page));
+        assertEquals(4, page.totalCount());
+    }
+
+    @Test
+    @DisplayName("Should hide removed directories together with their subtree")
+    void shouldHideRemovedSubtree() {
+        index.remove(index.find("/photos/2024"));
+
+        assertEquals(List.of("/photos/holiday", "/docs/Holidays plan.pdf"), paths(index.search("holiday", 0, 10)));
+    }
+
+    @Test
+    @DisplayName("Should move and rename directories without re-indexing children")
+    void shouldMoveAndRename() {
+        int archive = index.addPath("/archive", true);
+        index.move(index.find("/photos/2024"), archive, "2024-old");
+
+        assertEquals(-1, index.find("/photos/2024/holiday.jpg"));
+        assertTrue(index.find("/archive/2024-old/holiday.jpg") > 0);
+        assertEquals(List.of("/archive/2024-old"), paths(index.search("old", 0, 10)));
+    }
+
+    @Test
+    @DisplayName("Should copy a directory with its live subtree and keep the original")
+    void shouldCopySubtree() {
+        index.remove(index.find("/photos/2024/my-holiday-trip.mov"));
+        int archive = index.addPath("/archive", true);
+        index.copy(index.find("/photos/2024"), archive, "2024-copy");
+
+        assertTrue(index.find("/photos/2024/holiday.jpg") > 0);
+        assertTrue(index.find("/archive/2024-copy/holiday.jpg") > 0);
+        assertEquals(-1, index.find("/archive/2024-copy/my-holiday-trip.mov"));
+        assertEquals(List.of("/photos/2024/holiday.jpg", "/archive/2024-copy/holiday.jpg"),
+                paths(index.search("holiday.jpg", 0, 10)));
+    }
+
+    @Test
+    @DisplayName("Should look up short names by parent, also after moves, renames and removals")
+    void shouldFindShortNames() {
+        int a = index.addPath("/a", true);
+        int ab = index.addPath("/a/b", true);
+        int file = index.addPath("/a/b/c", false);
+        index.addPath("/x/b", true);
+
+        assertEquals(ab, index.addPath("/a/b", true));
+        assertEquals(file, index.find("/a/b/c"));
+        assertEquals(-1, index.find("/x/b/c"));
+
+        index.move(ab, index.find("/x"), "bb");
+        assertEquals(-1, index.find("/a/b"));
+        assertEquals("/x/bb/c", index.pathOf(index.find("/x/bb/c")));
+
+        index.move(index.find("/x/bb"), a, "bb");
+        assertEquals("/a/bb/c", index.pathOf(index.find("/a/bb/c")));
+
+        index.remove(index.find("/a/bb/c"));
+        assertEquals(-1, index.find("/a/bb/c"));
+        assertTrue(index.addPath("/a/bb/c", false) > file);
+    }
+
+    @Test
+    @DisplayName("Should re-index a renamed directory in place and keep its children")
+    void shouldRenameInPlace() {
+        int year = index.find("/photos/2024");
+        int child = index.find("/photos/2024/holiday.jpg");
+        index.move(year, index.find("/photos"), "summer");
+
+        assertEquals(year, index.find("/photos/summer"));
+        assertEquals(child, index.find("/photos/summer/holiday.jpg"));
+        assertEquals(List.of("/photos/summer"), paths(index.search("summer", 0, 10)));
+        assertEquals(0, index.search("2024", 0, 10).totalCount());
+    }
+
+    @Test
+    @DisplayName("Should match decomposed (NFD) names with composed queries and return the stored path")
+    void shouldMatchNormalizedNames() {
+        String decomposed = Normalizer.normalize("한글 문서.txt", Normalizer.Form.NFD);
+        index.addPath("/docs/" + decomposed, false);
+
+        assertEquals(List.of("/docs/" + decomposed), paths(index.search("한글", 0, 10)));
+        assertEquals(List.of("/docs/" + decomposed), paths(index.search(decomposed, 0, 10)));
+        assertEquals(List.of("/docs/" + decomposed), paths(index.search("문서 txt", 0, 10)));
+        assertTrue(index.find("/docs/" + decomposed) > 0);
+    }
+
+    @Test
+    @DisplayName("Should keep finding siblings while many entries are added and removed")
+    void shouldFindAfterManyRemovals() {
+        int parent = index.addPath("/many", true);
+        for (int i = 0; i < 1000; i++) {
+            index.add(parent, "file-" + i, false);
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            index.remove(index.find("/many/file-" + i));
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i % 2 == 1, index.find("/many/file-" + i) > 0, "file-" + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Should match terms shorter than a trigram by scanning")
+    void shouldMatchShortTerms() {
+        assertEquals(List.of("/docs/Holidays plan.pdf"), paths(index.search("pd", 0, 10)));
+    }
+
+    @Test
+    @DisplayName("Compaction should keep live entries and drop removed ones")
+    void compactionShouldKeepLiveEntries() {
+        index.remove(index.find("/photos/2024"));
+
+        PathTrigramIndex compacted = index.compact();
+
+        assertEquals(4, compacted.liveCount());
+        assertEquals(List.of("/photos/holiday", "/docs/Holidays plan.pdf"),
+                paths(compacted, compacted.search("holiday", 0, 10)));
+    }
+
+    private List<String> paths(PathTrigramIndex.Matches matches) {
+        return paths(index, matches);
+    }
+
+    private static List<String> paths(PathTrigramIndex source, PathTrigramIndex.Matches matches) {
+        return matches.ids().stream().map(source::pathOf).toList();
+    }
+}
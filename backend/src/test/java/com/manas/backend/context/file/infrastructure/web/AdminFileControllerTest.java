@@ -0,0 +1,276 @@
+package com.manas.backend.context.file.infrastructure.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.manas.backend.common.exception.ConflictException;
+import com.manas.backend.common.exception.GlobalExceptionHandler;
+import com.manas.backend.context.auth.infrastructure.security.AuthenticatedUserAccessor;
+import com.manas.backend.context.auth.infrastructure.security.AuthenticatedUserPrincipal;
+import com.manas.backend.context.file.application.port.in.CopyFileUseCase;
+import com.manas.backend.context.file.application.port.in.CreateDirectoryUseCase;
+import com.manas.backend.context.file.application.port.in.DeleteFilesUseCase;
+import com.manas.backend.context.file.application.port.in.ListDirectoryUseCase;
+import com.manas.backend.context.file.application.port.in.MoveFileUseCase;
+import com.manas.backend.context.file.application.port.in.StreamDirectoryUseCase;
+import com.manas.backend.context.file.application.port.in.TrashUseCase;
+import com.manas.backend.context.file.domain.FileNode;
+import com.manas.backend.context.file.infrastructure.web.mapper.FileMapperImpl;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemException;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+@ExtendWith(MockitoExtension.class)
+class AdminFileControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private ListDirectoryUseCase listDirectoryUseCase;
+
+    @Mock
+    private StreamDirectoryUseCase streamDirectoryUseCase;
+
+    @Mock
+    private DeleteFilesUseCase deleteFilesUseCase;
+
+    @Mock
+    private MoveFileUseCase moveFileUseCase;
+
+    @Mock
+    private CopyFileUseCase copyFileUseCase;
+
+    @Mock
+    private CreateDirectoryUseCase createDirectoryUseCase;
+
+    @Mock
+    private TrashUseCase trashUseCase;
+
+    @Mock
+    private AuthenticatedUserAccessor authenticatedUserAccessor;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        // The proxy enforces @PreAuthorize, which the standalone setup ignores on its own.
+        ProxyFactory proxyFactory = new ProxyFactory(new AdminFileController(listDirectoryUseCase,
+                streamDirectoryUseCase, deleteFilesUseCase, moveFileUseCase, copyFileUseCase, createDirectoryUseCase,
+                trashUseCase, new FileMapperImpl(), authenticatedUserAccessor, objectMapper));
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvisor(AuthorizationManagerBeforeMethodInterceptor.preAuthorize());
+        mockMvc = MockMvcBuilders.standaloneSetup(proxyFactory.getProxy())
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should stream one JSON object per line without proxy buffering")
+    void shouldStreamNdjson() throws Exception {
+        authenticate("ADMIN");
+        when(authenticatedUserAccessor.requiredUserId(any())).thenReturn(userId);
+        AtomicBoolean closed = new AtomicBoolean();
+        when(streamDirectoryUseCase.streamDirectory("/big", userId)).thenReturn(
+                Stream.of(file("a.txt"), directory("photos"), file("b.txt")).onClose(() -> closed.set(true)));
+
+        MvcResult started = mockMvc.perform(get("/api/admin/files/list/stream").param("path", "/big"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().string("X-Accel-Buffering", "no"))
+                .andReturn();
+
+        List<JsonNode> rows = rows(result);
+        assertThat(rows).extracting(row -> row.get("name").asString()).containsExactly("a.txt", "photos", "b.txt");
+        assertThat(rows).extracting(row -> row.get("path").asString())
+                .containsExactly("/big/a.txt", "/big/photos", "/big/b.txt");
+        assertThat(rows).extracting(row -> row.get("type").asString()).containsExactly("FILE", "DIRECTORY", "FILE");
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should keep the rows read before a failure and end with an error line")
+    void shouldEndWithErrorLineOnFailure() throws Exception {
+        authenticate("ADMIN");
+        when(authenticatedUserAccessor.requiredUserId(any())).thenReturn(userId);
+        AtomicBoolean closed = new AtomicBoolean();
+        when(streamDirectoryUseCase.streamDirectory("/big", userId))
+                .thenReturn(failingAfter(List.of(file("a.txt"), file("b.txt"))).onClose(() -> closed.set(true)));
+
+        MvcResult started = mockMvc.perform(get("/api/admin/files/list/stream").param("path", "/big"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+
+        List<JsonNode> rows = rows(result);
+        assertThat(rows).hasSize(3);
+        assertThat(rows.get(0).get("name").asString()).isEqualTo("a.txt");
+        assertThat(rows.get(1).get("name").asString()).isEqualTo("b.txt");
+        assertThat(rows.get(2).size()).isEqualTo(1);
+        assertThat(rows.get(2).has("error")).isTrue();
+        // Host paths from the underlying exception stay in the log.
+        assertThat(rows.get(2).get("error").asString()).doesNotContain("/srv");
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid path with 400 before streaming")
+    void shouldRejectInvalidPath() throws Exception {
+        authenticate("ADMIN");
+        when(authenticatedUserAccessor.requiredUserId(any())).thenReturn(userId);
+        when(streamDirectoryUseCase.streamDirectory("/.nas-trash", userId))
+                .thenThrow(new IllegalArgumentException("Path is inside the trash: /.nas-trash"));
+
+        mockMvc.perform(get("/api/admin/files/list/stream").param("path", "/.nas-trash"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest())
+                .andExpect(header().doesNotExist("X-Accel-Buffering"));
+    }
+
+    @Test
+    @DisplayName("Should forbid streaming to non-admin users")
+    void shouldForbidNonAdmin() throws Exception {
+        authenticate("USER");
+
+        mockMvc.perform(get("/api/admin/files/list/stream").param("path", "/big"))
+                .andExpect(status().isForbidden());
+
+        verify(streamDirectoryUseCase, never()).streamDirectory(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Should purge a single trash entry")
+    void shouldPurgeTrashEntry() throws Exception {
+        authenticate("ADMIN");
+        when(authenticatedUserAccessor.requiredUserId(any())).thenReturn(userId);
+
+        mockMvc.perform(delete("/api/admin/files/trash/{id}", "entry-id"))
+                .andExpect(status().isNoContent());
+
+        verify(trashUseCase).purge("entry-id", userId);
+    }
+
+    @Test
+    @DisplayName("Should accept emptying the trash, and report one already running as a conflict")
+    void shouldEmptyTrash() throws Exception {
+        authenticate("ADMIN");
+        when(authenticatedUserAccessor.requiredUserId(any())).thenReturn(userId);
+
+        mockMvc.perform(delete("/api/admin/files/trash"))
+                .andExpect(status().isAccepted());
+        verify(trashUseCase).emptyTrash(userId);
+
+        willThrow(new ConflictException("The trash is already being emptied")).given(trashUseCase)
+                .emptyTrash(userId);
+        mockMvc.perform(delete("/api/admin/files/trash"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("Should forbid emptying the trash to non-admin users")
+    void shouldForbidEmptyTrashToNonAdmin() throws Exception {
+        authenticate("USER");
+
+        mockMvc.perform(delete("/api/admin/files/trash"))
+                .andExpect(status().isForbidden());
+
+        verify(trashUseCase, never()).emptyTrash(any());
+    }
+
+    private List<JsonNode> rows(MvcResult result) throws Exception {
+        String body = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertThat(body).endsWith("\n");
+        return body.lines().map(objectMapper::readTree).toList();
+    }
+
+    private static FileNode file(String name) {
+        return new FileNode(name, "/big/" + name, false, 5L, Instant.EPOCH, "admin", null, null, "text/plain");
+    }
+
+    private static FileNode directory(String name) {
+        return new FileNode(name, "/big/" + name, true, 0L, Instant.EPOCH, "admin", null, null, null);
+    }
+
+    /**
+     * Yields the given entries, then fails the way a directory stream does when the disk goes away.
+     */
+    private static Stream<FileNode> failingAfter(List<FileNode> entries) {
+        Iterator<FileNode> delegate = entries.iterator();
+        Iterator<FileNode> failing = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                if (delegate.hasNext()) {
+                    return true;
+                }
+                throw new UncheckedIOException(new FileSystemException("/srv/storage/big: Input/output error"));
+            }
+
+            @Override
+            public FileNode next() {
+                return delegate.next();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(failing, Spliterator.ORDERED), false);
+    }
+
+    private static void authenticate(String role) {
+        var authorities = Set.of(new SimpleGrantedAuthority("ROLE_" + role));
+        var principal = new AuthenticatedUserPrincipal(UUID.randomUUID(), "testuser", authorities);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, authorities));
+    }
+}
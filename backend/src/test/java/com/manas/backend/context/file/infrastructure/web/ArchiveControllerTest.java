@@ -0,0 +1,166 @@
+package com.manas.backend.context.file.infrastructure.web;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.manas.backend.common.exception.GlobalExceptionHandler;
+import com.manas.backend.common.security.ClientIpResolver;
+import com.manas.backend.context.auth.infrastructure.security.AuthenticatedUserAccessor;
+import com.manas.backend.context.auth.infrastructure.security.AuthenticatedUserPrincipal;
+import com.manas.backend.context.file.application.port.in.DownloadArchiveUseCase;
+import com.manas.backend.context.file.domain.ArchiveSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+@ExtendWith(MockitoExtension.class)
+class ArchiveControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private DownloadArchiveUseCase downloadArchiveUseCase;
+
+    @Mock
+    private ClientIpResolver clientIpResolver;
+
+    @Mock
+    private AuthenticatedUserAccessor authenticatedUserAccessor;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        // The proxy enforces @PreAuthorize, which the standalone setup ignores on its own.
+        ProxyFactory proxyFactory = new ProxyFactory(
+                new ArchiveController(downloadArchiveUseCase, clientIpResolver, authenticatedUserAccessor));
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvisor(AuthorizationManagerBeforeMethodInterceptor.preAuthorize());
+        mockMvc = MockMvcBuilders.standaloneSetup(proxyFactory.getProxy())
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should forbid archives to non-admin users")
+    void shouldForbidNonAdmin() throws Exception {
+        authenticate("USER");
+
+        mockMvc.perform(get("/api/files/archive").param("path", "/photos"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/files/archive")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"paths\":[\"/photos\"]}"))
+                .andExpect(status().isForbidden());
+
+        verify(downloadArchiveUseCase, never()).openArchive(anyList(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should stream the archive as an attachment without proxy buffering")
+    void shouldStreamArchive() throws Exception {
+        authenticate("ADMIN");
+        when(authenticatedUserAccessor.requiredUserId(any())).thenReturn(userId);
+        when(clientIpResolver.resolve(any())).thenReturn("10.8.0.2");
+        when(downloadArchiveUseCase.openArchive(List.of("/a", "/b"), userId, "10.8.0.2"))
+                .thenReturn(new FixedArchive("download.zip", new byte[]{'P', 'K', 3, 4}));
+
+        mockMvc.perform(get("/api/files/archive").param("path", "/a", "/b"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/zip"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        allOf(startsWith("attachment;"), containsString("filename=\"download.zip\""))))
+                .andExpect(header().string("X-Accel-Buffering", "no"))
+                .andExpect(content().bytes(new byte[]{'P', 'K', 3, 4}));
+    }
+
+    @Test
+    @DisplayName("Should accept long selections in the request body")
+    void shouldStreamArchiveFromBody() throws Exception {
+        authenticate("ADMIN");
+        when(authenticatedUserAccessor.requiredUserId(any())).thenReturn(userId);
+        when(clientIpResolver.resolve(any())).thenReturn("10.8.0.2");
+        when(downloadArchiveUseCase.openArchive(List.of("/photos"), userId, "10.8.0.2"))
+                .thenReturn(new FixedArchive("photos.zip", new byte[]{'P', 'K'}));
+
+        mockMvc.perform(post("/api/files/archive")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"paths\":[\"/photos\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        allOf(startsWith("attachment;"), containsString("filename=\"photos.zip\""))));
+    }
+
+    @Test
+    @DisplayName("Should reject an empty selection or the storage root with 400 before streaming")
+    void shouldRejectInvalidSelection() throws Exception {
+        authenticate("ADMIN");
+        when(authenticatedUserAccessor.requiredUserId(any())).thenReturn(userId);
+        when(clientIpResolver.resolve(any())).thenReturn("10.8.0.2");
+        when(downloadArchiveUseCase.openArchive(eq(List.of()), any(), any()))
+                .thenThrow(new IllegalArgumentException("At least one path is required"));
+        when(downloadArchiveUseCase.openArchive(eq(List.of("/")), any(), any()))
+                .thenThrow(new IllegalArgumentException("The storage root cannot be archived"));
+
+        mockMvc.perform(post("/api/files/archive")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"paths\":[]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_DISPOSITION));
+        mockMvc.perform(get("/api/files/archive").param("path", "/"))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_DISPOSITION));
+    }
+
+    private static void authenticate(String role) {
+        var authorities = Set.of(new SimpleGrantedAuthority("ROLE_" + role));
+        var principal = new AuthenticatedUserPrincipal(UUID.randomUUID(), "testuser", authorities);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, authorities));
+    }
+
+    private record FixedArchive(String fileName, byte[] bytes) implements ArchiveSource {
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            out.write(bytes);
+        }
+    }
+}
@@ -1,33 +1,59 @@
 package com.manas.backend.context.file.infrastructure.web;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.manas.backend.common.exception.GlobalExceptionHandler;
 import com.manas.backend.common.security.ClientIpResolver;
 import com.manas.backend.context.auth.infrastructure.security.AuthenticatedUserAccessor;
 import com.manas.backend.context.auth.infrastructure.security.AuthenticatedUserPrincipal;
 import com.manas.backend.context.file.application.port.in.DownloadFileUseCase;
+import com.manas.backend.context.file.application.port.in.FileUploadCommand;
 import com.manas.backend.context.file.application.port.in.FileUploadUseCase;
 import com.manas.backend.context.file.application.port.in.GetFilePreviewUseCase;
 import com.manas.backend.context.file.application.port.in.GetUploadStatusUseCase;
+import com.manas.backend.context.file.application.port.in.SearchFilesUseCase;
 import com.manas.backend.context.file.application.port.in.UploadStatusResult;
+import com.manas.backend.context.file.domain.ByteRange;
 import com.manas.backend.context.file.domain.FileContent;
+import com.manas.backend.context.file.domain.FileMetadata;
+import com.manas.backend.context.file.domain.FileRegion;
+import com.manas.backend.context.file.domain.FileSearchHit;
+import com.manas.backend.context.file.domain.FileSearchResult;
+import com.manas.backend.context.file.domain.StoredFile;
 import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
@@ -37,6 +63,8 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 @ExtendWith(MockitoExtension.class)
 class FileControllerTest {
 
+    private static final String ENTITY_TAG = "\"1-400-5f\"";
+
     private MockMvc mockMvc;
 
     @Mock
@@ -51,6 +79,9 @@ class FileControllerTest {
     @Mock
     private GetUploadStatusUseCase getUploadStatusUseCase;
 
+    @Mock
+    private SearchFilesUseCase searchFilesUseCase;
+
     @Mock
     private ClientIpResolver clientIpResolver;
 
@@ -60,12 +91,36 @@ class FileControllerTest {
     @BeforeEach
     void setUp() {
         FileController controller = new FileController(fileUploadUseCase, downloadFileUseCase,
-                getFilePreviewUseCase, getUploadStatusUseCase, clientIpResolver, authenticatedUserAccessor);
+                getFilePreviewUseCase, getUploadStatusUseCase, searchFilesUseCase, clientIpResolver,
+                authenticatedUserAccessor);
         mockMvc = MockMvcBuilders.standaloneSetup(controller)
                 .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
                 .build();
     }
 
+    /**
+     * MockMvc over a controller proxy that enforces {@code @PreAuthorize}, which the standalone setup ignores.
+     */
+    private MockMvc securedMockMvc() {
+        FileController controller = new FileController(fileUploadUseCase, downloadFileUseCase,
+                getFilePreviewUseCase, getUploadStatusUseCase, searchFilesUseCase, clientIpResolver,
+                authenticatedUserAccessor);
+        ProxyFactory proxyFactory = new ProxyFactory(controller);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvisor(AuthorizationManagerBeforeMethodInterceptor.preAuthorize());
+        return MockMvcBuilders.standaloneSetup(proxyFactory.getProxy())
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    private static void authenticate(String role) {
+        var authorities = Set.of(new SimpleGrantedAuthority("ROLE_" + role));
+        var principal = new AuthenticatedUserPrincipal(UUID.randomUUID(), "testuser", authorities);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, authorities));
+    }
+
     @Test
     @DisplayName("Should download file with correct headers")
     void shouldDownloadFile() throws Exception {
@@ -86,6 +141,7 @@ class FileControllerTest {
 
         when(authenticatedUserAccessor.requiredUserId(any())).thenReturn(userId);
         when(clientIpResolver.resolve(any())).thenReturn("192.168.1.10");
+        when(downloadFileUseCase.getMetadata(path, userId)).thenReturn(metadata(1024));
         when(downloadFileUseCase.download(anyString(), any(UUID.class), anyString()))
                 .thenReturn(mockContent);
 
@@ -96,12 +152,57 @@ class FileControllerTest {
                     .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
                             "attachment; filename=\"doc.pdf\""))
                     .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/pdf"))
-                    .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, "1024"));
+                    .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, "1024"))
+                    .andExpect(header().string(HttpHeaders.ETAG, ENTITY_TAG))
+                    .andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
         } finally {
             SecurityContextHolder.clearContext();
         }
     }
 
+    @Test
+    @DisplayName("Should report the digest computed while storing an upload")
+    void shouldReturnReprDigestOnUpload() throws Exception {
+        UUID userId = UUID.randomUUID();
+        String sha256 = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+        when(authenticatedUserAccessor.requiredUserId(any())).thenReturn(userId);
+        when(fileUploadUseCase.upload(any())).thenReturn(new StoredFile("/docs/hello.txt", 5, sha256));
+
+        mockMvc.perform(multipart("/api/files/upload")
+                        .file(new MockMultipartFile("file", "hello.txt", "text/plain", "hello".getBytes()))
+                        .param("directory", "/docs"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Repr-Digest",
+                        "sha-256=:LPJNul+wow4m6DsqxbninhsWHlwfp0JecwQzYpOLmCQ=:"));
+    }
+
+    @Test
+    @DisplayName("Should stream a raw request body upload sized by Content-Length")
+    void shouldStreamRawUpload() throws Exception {
+        UUID userId = UUID.randomUUID();
+        byte[] body = "hello".getBytes();
+
+        when(authenticatedUserAccessor.requiredUserId(any())).thenReturn(userId);
+        when(fileUploadUseCase.upload(any())).thenReturn(new StoredFile("/docs/hello.txt", 5,
+                "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824"));
+
+        mockMvc.perform(post("/api/files/upload")
+                        .param("fileName", "hello.txt")
+                        .param("directory", "/docs")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().exists("Repr-Digest"));
+
+        ArgumentCaptor<FileUploadCommand> command = ArgumentCaptor.forClass(FileUploadCommand.class);
+        verify(fileUploadUseCase).upload(command.capture());
+        assertEquals("hello.txt", command.getValue().fileName());
+        assertEquals("/docs", command.getValue().targetDirectory());
+        assertEquals(5L, command.getValue().size());
+        assertEquals("hello", new String(command.getValue().content().readAllBytes()));
+    }
+
     @Test
     @DisplayName("Should return preview with cache control")
     void shouldReturnPreview() throws Exception {
@@ -121,7 +222,8 @@ class FileControllerTest {
         );
 
         when(authenticatedUserAccessor.requiredUserId(any())).thenReturn(userId);
-        when(getFilePreviewUseCase.getPreview(anyString(), any(UUID.class)))
+        when(getFilePreviewUseCase.getSourceMetadata(path, userId)).thenReturn(metadata(4096));
+        when(getFilePreviewUseCase.getPreview(anyString(), any(UUID.class), any(FileMetadata.class)))
                 .thenReturn(mockContent);
 
         try {
@@ -129,7 +231,8 @@ class FileControllerTest {
                             .param("path", path))
                     .andExpect(status().isOk())
                     .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/jpeg"))
-                    .andExpect(header().exists(HttpHeaders.CACHE_CONTROL));
+                    .andExpect(header().exists(HttpHeaders.CACHE_CONTROL))
+                    .andExpect(header().string(HttpHeaders.ETAG, "W/\"1-400-5f-preview\""));
         } finally {
             SecurityContextHolder.clearContext();
         }
@@ -147,4 +250,241 @@ class FileControllerTest {
                 .andExpect(jsonPath("$.exists").value(true))
                 .andExpect(jsonPath("$.size").value(1024));
     }
+
+    @Test
+    @DisplayName("Should return ranked search hits with item types")
+    void shouldSearchFiles() throws Exception {
+        UUID userId = UUID.randomUUID();
+        when(authenticatedUserAccessor.requiredUserId(any())).thenReturn(userId);
+        when(searchFilesUseCase.search(any())).thenReturn(new FileSearchResult(
+                "holiday",
+                List.of(new FileSearchHit("holiday", "/photos/holiday", true),
+                        new FileSearchHit("holiday.jpg", "/photos/holiday.jpg", false)),
+                2, 0, 50, false));
+
+        mockMvc.perform(get("/api/files/search").param("q", "holiday"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalCount").value(2))
+                .andExpect(jsonPath("$.items[0].type").value("DIRECTORY"))
+                .andExpect(jsonPath("$.items[1].path").value("/photos/holiday.jpg"));
+    }
+
+    @Test
+    @DisplayName("Should forbid search to non-admin users")
+    void shouldForbidSearchForNonAdmin() throws Exception {
+        authenticate("USER");
+        try {
+            securedMockMvc().perform(get("/api/files/search").param("q", "holiday"))
+                    .andExpect(status().isForbidden());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        verify(searchFilesUseCase, never()).search(any());
+    }
+
+    @Test
+    @DisplayName("Should allow search to admins")
+    void shouldAllowSearchForAdmin() throws Exception {
+        when(authenticatedUserAccessor.requiredUserId(any())).thenReturn(UUID.randomUUID());
+        when(searchFilesUseCase.search(any())).thenReturn(new FileSearchResult("holiday", List.of(), 0, 0, 50,
+                false));
+
+        authenticate("ADMIN");
+        try {
+            securedMockMvc().perform(get("/api/files/search").param("q", "holiday"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalCount").value(0));
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    @DisplayName("Should serve a single byte range with 206 and Content-Range")
+    void shouldServeSingleRange() throws Exception {
+        UUID userId = UUID.randomUUID();
+        when(authenticatedUserAccessor.requiredUserId(any())).thenReturn(userId);
+        when(clientIpResolver.resolve(any())).thenReturn("10.8.0.2");
+        when(downloadFileUseCase.getMetadata("/movie.mp4", userId)).thenReturn(metadata(100));
+        when(downloadFileUseCase.downloadRange("/movie.mp4", userId, "10.8.0.2", new ByteRange(90, 10), ENTITY_TAG))
+                .thenReturn(new FileContent("movie.mp4", "video/mp4", 10, new ByteArrayInputStream(new byte[10])));
+
+        mockMvc.perform(get("/api/files/download").param("path", "/movie.mp4").header(HttpHeaders.RANGE, "bytes=-10"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 90-99/100"))
+                .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, "10"))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"));
+    }
+
+    @Test
+    @DisplayName("Should serve multiple byte ranges as multipart/byteranges")
+    void shouldServeMultipleRanges() throws Exception {
+        UUID userId = UUID.randomUUID();
+        when(authenticatedUserAccessor.requiredUserId(any())).thenReturn(userId);
+        when(clientIpResolver.resolve(any())).thenReturn("10.8.0.2");
+        when(downloadFileUseCase.getMetadata("/doc.txt", userId)).thenReturn(metadata(100));
+        when(downloadFileUseCase.downloadRange(eq("/doc.txt"), eq(userId), eq("10.8.0.2"), any(), eq(ENTITY_TAG)))
+                .thenAnswer(invocation -> {
+                    ByteRange range = invocation.getArgument(3);
+                    return new FileContent("doc.txt", "text/plain", range.length(),
+                            new ByteArrayInputStream("x".repeat((int) range.length()).getBytes()));
+                });
+
+        var result = mockMvc.perform(get("/api/files/download").param("path", "/doc.txt")
+                        .header(HttpHeaders.RANGE, "bytes=0-4,50-54"))
+                .andExpect(status().isPartialContent())
+                .andReturn();
+
+        String body = result.getResponse().getContentAsString();
+        assertTrue(
+                result.getResponse().getContentType().startsWith("multipart/byteranges; boundary="));
+        assertTrue(body.contains("Content-Range: bytes 0-4/100"));
+        assertTrue(body.contains("Content-Range: bytes 50-54/100"));
+        assertEquals(
+                result.getResponse().getHeader(HttpHeaders.CONTENT_LENGTH), String.valueOf(body.length()));
+    }
+
+    @Test
+    @DisplayName("Should ignore Range when If-Range does not match the file")
+    void shouldServeFullFileWhenIfRangeDoesNotMatch() throws Exception {
+        UUID userId = UUID.randomUUID();
+        when(authenticatedUserAccessor.requiredUserId(any())).thenReturn(userId);
+        when(clientIpResolver.resolve(any())).thenReturn("10.8.0.2");
+        when(downloadFileUseCase.getMetadata("/big.iso", userId)).thenReturn(metadata(100));
+        when(downloadFileUseCase.download("/big.iso", userId, "10.8.0.2"))
+                .thenReturn(new FileContent("big.iso", "application/octet-stream", 100,
+                        new ByteArrayInputStream(new byte[100])));
+
+        mockMvc.perform(get("/api/files/download").param("path", "/big.iso")
+                        .header(HttpHeaders.RANGE, "bytes=50-")
+                        .header(HttpHeaders.IF_RANGE, "Wed, 21 Oct 2015 07:28:00 GMT"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, "100"));
+    }
+
+    @Test
+    @DisplayName("Should answer 416 when no range overlaps the file")
+    void shouldRejectUnsatisfiableRange() throws Exception {
+        UUID userId = UUID.randomUUID();
+        when(authenticatedUserAccessor.requiredUserId(any())).thenReturn(userId);
+        when(downloadFileUseCase.getMetadata("/small.txt", userId)).thenReturn(metadata(100));
+
+        mockMvc.perform(get("/api/files/download").param("path", "/small.txt").header(HttpHeaders.RANGE, "bytes=500-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */100"));
+    }
+
+    @Test
+    @DisplayName("Should hand file backed content to the container when sendfile is supported")
+    void shouldHandOffToSendfile() throws Exception {
+        UUID userId = UUID.randomUUID();
+        when(authenticatedUserAccessor.requiredUserId(any())).thenReturn(userId);
+        when(clientIpResolver.resolve(any())).thenReturn("10.8.0.2");
+        when(downloadFileUseCase.getMetadata("/movie.mp4", userId)).thenReturn(metadata(1_000_000));
+        when(downloadFileUseCase.download("/movie.mp4", userId, "10.8.0.2"))
+                .thenReturn(new FileContent("movie.mp4", "video/mp4", 1_000_000,
+                        new RegionStream(Path.of("/data/movie.mp4"), 1_000_000)));
+
+        mockMvc.perform(get("/api/files/download").param("path", "/movie.mp4")
+                        .requestAttr(SendfileTransfer.SUPPORT_ATTR, Boolean.TRUE))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, "1000000"))
+                .andExpect(request().attribute(SendfileTransfer.FILENAME_ATTR, "/data/movie.mp4"))
+                .andExpect(request().attribute(SendfileTransfer.START_ATTR, 0L))
+                .andExpect(request().attribute(SendfileTransfer.END_ATTR, 1_000_000L))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    @DisplayName("Should answer 304 for a matching If-None-Match without opening or auditing the file")
+    void shouldReturnNotModifiedForMatchingEntityTag() throws Exception {
+        UUID userId = UUID.randomUUID();
+        when(authenticatedUserAccessor.requiredUserId(any())).thenReturn(userId);
+        when(downloadFileUseCase.getMetadata("/doc.pdf", userId)).thenReturn(metadata(100));
+
+        mockMvc.perform(get("/api/files/download").param("path", "/doc.pdf")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"other\", W/" + ENTITY_TAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ENTITY_TAG));
+
+        verify(downloadFileUseCase, never()).download(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should answer 304 when the file is not newer than If-Modified-Since")
+    void shouldReturnNotModifiedSinceDate() throws Exception {
+        UUID userId = UUID.randomUUID();
+        when(authenticatedUserAccessor.requiredUserId(any())).thenReturn(userId);
+        when(downloadFileUseCase.getMetadata("/doc.pdf", userId)).thenReturn(metadata(100));
+
+        mockMvc.perform(get("/api/files/download").param("path", "/doc.pdf")
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, "Thu, 01 Jan 2026 00:00:00 GMT"))
+                .andExpect(status().isNotModified());
+
+        verify(downloadFileUseCase, never()).download(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should keep the range when If-Range carries the current entity tag")
+    void shouldServeRangeWhenIfRangeEntityTagMatches() throws Exception {
+        UUID userId = UUID.randomUUID();
+        when(authenticatedUserAccessor.requiredUserId(any())).thenReturn(userId);
+        when(clientIpResolver.resolve(any())).thenReturn("10.8.0.2");
+        when(downloadFileUseCase.getMetadata("/big.iso", userId)).thenReturn(metadata(100));
+        when(downloadFileUseCase.downloadRange("/big.iso", userId, "10.8.0.2", new ByteRange(50, 50), ENTITY_TAG))
+                .thenReturn(new FileContent("big.iso", "application/octet-stream", 50,
+                        new ByteArrayInputStream(new byte[50])));
+
+        mockMvc.perform(get("/api/files/download").param("path", "/big.iso")
+                        .header(HttpHeaders.RANGE, "bytes=50-")
+                        .header(HttpHeaders.IF_RANGE, ENTITY_TAG))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 50-99/100"));
+    }
+
+    @Test
+    @DisplayName("Should answer 304 for a preview whose source is unchanged")
+    void shouldReturnNotModifiedPreview() throws Exception {
+        UUID userId = UUID.randomUUID();
+        when(authenticatedUserAccessor.requiredUserId(any())).thenReturn(userId);
+        when(getFilePreviewUseCase.getSourceMetadata("/images/pic.jpg", userId)).thenReturn(metadata(4096));
+
+        mockMvc.perform(get("/api/files/preview").param("path", "/images/pic.jpg")
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"1-400-5f-preview\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().exists(HttpHeaders.CACHE_CONTROL));
+
+        verify(getFilePreviewUseCase, never()).getPreview(any(), any(), any());
+    }
+
+    private static FileMetadata metadata(long size) {
+        return new FileMetadata("file", "application/octet-stream", size, Instant.parse("2026-01-01T00:00:00Z"),
+                ENTITY_TAG);
+    }
+
+    private static final class RegionStream extends ByteArrayInputStream implements FileRegion {
+
+        private final Path file;
+
+        RegionStream(Path file, int size) {
+            super(new byte[size]);
+            this.file = file;
+        }
+
+        @Override
+        public Path file() {
+            return file;
+        }
+
+        @Override
+        public long position() {
+            return pos;
+        }
+
+        @Override
+        public long remaining() {
+            return count - pos;
+        }
+    }
 }
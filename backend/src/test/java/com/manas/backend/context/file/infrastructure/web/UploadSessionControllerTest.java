@@ -0,0 +1,105 @@
+package com.manas.backend.context.file.infrastructure.web;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.manas.backend.context.auth.infrastructure.security.AuthenticatedUserAccessor;
+import com.manas.backend.context.file.application.port.in.UploadSessionUseCase;
+import com.manas.backend.context.file.domain.UploadSession;
+import java.time.Instant;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+@ExtendWith(MockitoExtension.class)
+class UploadSessionControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private UploadSessionUseCase uploadSessionUseCase;
+
+    @Mock
+    private AuthenticatedUserAccessor authenticatedUserAccessor;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        UploadSessionController controller = new UploadSessionController(uploadSessionUseCase,
+                authenticatedUserAccessor);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .build();
+        userId = UUID.randomUUID();
+        when(authenticatedUserAccessor.requiredUserId(any())).thenReturn(userId);
+    }
+
+    @Test
+    @DisplayName("Should create an upload session and point to it")
+    void shouldCreateSession() throws Exception {
+        UploadSession session = session(0L);
+        when(uploadSessionUseCase.create(argThat(command -> command.fileName().equals("movie.mkv")
+                && command.targetDirectory().equals("/videos") && command.size() == 4096L
+                && command.userId().equals(userId))))
+                .thenReturn(session);
+
+        mockMvc.perform(post("/api/files/uploads")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fileName\":\"movie.mkv\",\"directory\":\"/videos\",\"size\":4096}"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", "/api/files/uploads/" + session.id()))
+                .andExpect(header().string(UploadSessionController.UPLOAD_OFFSET_HEADER, "0"))
+                .andExpect(jsonPath("$.path").value("/videos/movie.mkv"))
+                .andExpect(jsonPath("$.offset").value(0));
+    }
+
+    @Test
+    @DisplayName("Should stream a raw chunk at the given offset")
+    void shouldUploadChunk() throws Exception {
+        UploadSession session = session(1024L);
+        when(uploadSessionUseCase.appendChunk(argThat(command -> command.offset() == 0L
+                && command.sessionId().equals(session.id()))))
+                .thenReturn(session);
+
+        mockMvc.perform(put("/api/files/uploads/{id}", session.id())
+                        .param("offset", "0")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(new byte[1024]))
+                .andExpect(status().isOk())
+                .andExpect(header().string(UploadSessionController.UPLOAD_OFFSET_HEADER, "1024"))
+                .andExpect(jsonPath("$.offset").value(1024));
+    }
+
+    @Test
+    @DisplayName("Should complete an upload session")
+    void shouldCompleteSession() throws Exception {
+        UUID sessionId = UUID.randomUUID();
+        when(uploadSessionUseCase.complete(sessionId, userId)).thenReturn("/videos/movie.mkv");
+
+        mockMvc.perform(post("/api/files/uploads/{id}/complete", sessionId))
+                .andExpect(status().isCreated());
+
+        verify(uploadSessionUseCase).complete(sessionId, userId);
+    }
+
+    private UploadSession session(long committedOffset) {
+        return new UploadSession(UUID.randomUUID(), userId, "/videos/movie.mkv", 4096L, committedOffset, null,
+                Instant.parse("2026-01-01T00:00:00Z"), Instant.parse("2026-01-02T00:00:00Z"));
+    }
+}
@@ -94,6 +94,18 @@ class AuditLogServiceTest {
         assertEquals(expectedTraceId, saved.traceId());
     }
 
+    @Test
+    @DisplayName("Should keep the per-path details of a batch action")
+    void shouldRecordAuditLogWithDetails() {
+        auditLogService.record(UUID.randomUUID(), "DELETE_FILES", "/a (+1 more)", "N/A", "PARTIAL",
+                "DELETED /a\nFAILED /b: Permission denied");
+
+        ArgumentCaptor<AuditLog> captor = ArgumentCaptor.forClass(AuditLog.class);
+        verify(saveAuditLogPort).save(captor.capture());
+
+        assertEquals("DELETED /a\nFAILED /b: Permission denied", captor.getValue().details());
+    }
+
     @Test
 
     @DisplayName("Should get paged audit logs")
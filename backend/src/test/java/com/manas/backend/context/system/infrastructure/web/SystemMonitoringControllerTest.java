@@ -61,6 +61,9 @@ class SystemMonitoringControllerTest {
                 10,
                 2,
                 0.8333,
+                40,
+                10,
+                0.8,
                 12.5
         );
 
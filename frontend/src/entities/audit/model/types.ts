@@ -7,4 +7,6 @@ export interface AuditLog {
   ipAddress: string;
   timestamp: string;
   status: string;
+  // Batch actions: outcome of every path, one per line.
+  details: string | null;
 }
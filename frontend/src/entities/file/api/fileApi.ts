@@ -18,11 +18,11 @@ export const fileApi = {
   },
 
   uploadFile: async (file: File, directory: string): Promise<void> => {
-    const formData = new FormData();
-    formData.append('file', file);
-    formData.append('directory', directory);
-    // Do not set Content-Type manually; axios/browser must set the multipart boundary.
-    await apiClient.post('/files/upload', formData);
+    // Raw body instead of multipart: the backend streams it straight to the target file.
+    await apiClient.post('/files/upload', file, {
+      params: {fileName: file.name, directory},
+      headers: {'Content-Type': 'application/octet-stream'},
+    });
   },
 
   createDirectory: async (parentPath: string, name: string): Promise<void> => {
@@ -5,6 +5,9 @@ export interface FileNode {
   size: number;
   lastModified: string;
   owner: string;
+  recursiveSize?: number | null;
+  childCount?: number | null;
+  contentType?: string | null;
 }
 
 export interface PathNode {
@@ -7,5 +7,8 @@ export interface SystemHealth {
   previewCacheHit: number;
   previewCacheMiss: number;
   previewCacheHitRatio: number;
+  listingCacheHit: number;
+  listingCacheMiss: number;
+  listingCacheHitRatio: number;
   auditLogsQueryP95Ms: number;
 }
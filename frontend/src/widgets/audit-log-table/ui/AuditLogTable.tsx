@@ -23,6 +23,8 @@ const getStatusColor = (status: string) => {
       return 'success';
     case 'FAILURE':
       return 'error';
+    case 'PARTIAL':
+      return 'warning';
     default:
       return 'default';
   }
@@ -53,7 +55,7 @@ export const AuditLogTable: React.FC<AuditLogTableProps> = ({logs}) => {
                       {new Date(log.timestamp).toLocaleString()}
                     </TableCell>
                     <TableCell sx={{fontWeight: 500}}>{log.action}</TableCell>
-                    <TableCell sx={{
+                    <TableCell title={log.details ?? undefined} sx={{
                       fontFamily: 'monospace',
                       fontSize: '0.85rem'
                     }}>{log.targetResource}</TableCell>